@@ -0,0 +1,30 @@
+package de.dhbw.mh.redeggs.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected on the command line with the GC profiler
+ * attached, so that every result reports its allocation rate next to its
+ * score.
+ * <p>
+ * Accepts the usual JMH options, e.g.
+ * {@code java -jar target/benchmarks.jar MatchBenchmark -p engine=DFA,PIKE_VM}.
+ * </p>
+ */
+public final class Benchmarks {
+
+	private Benchmarks() {
+		super();
+	}
+
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+		new Runner(new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build())
+				.run();
+	}
+
+}
@@ -0,0 +1,84 @@
+package de.dhbw.mh.redeggs.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dhbw.mh.redeggs.DerivativeMatcher;
+import de.dhbw.mh.redeggs.Dfa;
+import de.dhbw.mh.redeggs.IntervalSymbolFactory;
+import de.dhbw.mh.redeggs.Nfa;
+import de.dhbw.mh.redeggs.RecursiveDescentRedeggsParser;
+import de.dhbw.mh.redeggs.RedeggsParseException;
+import de.dhbw.mh.redeggs.RegularEggspression;
+import de.dhbw.mh.redeggs.TieredMatcher;
+import de.dhbw.mh.redeggs.Utf8Dfa;
+
+/**
+ * Measures the compilation of parsed expressions into the automata of the
+ * matching engines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompileBenchmark {
+
+	@Param({ "WORDS", "NESTED" })
+	public Patterns.Shape shape;
+
+	@Param({ "64", "1024" })
+	public int patternSize;
+
+	@Param({ "4", "26", "1000" })
+	public int alphabetSize;
+
+	private RegularEggspression expression;
+
+	private Dfa dfa;
+
+	@Setup
+	public void setUp() throws RedeggsParseException {
+		expression = new RecursiveDescentRedeggsParser(new IntervalSymbolFactory())
+				.parse(Patterns.pattern(shape, patternSize, alphabetSize));
+		dfa = Dfa.compile(expression);
+	}
+
+	@Benchmark
+	public Nfa thompson() {
+		return Nfa.compile(expression);
+	}
+
+	@Benchmark
+	public Dfa minimalDfa() {
+		return Dfa.compile(expression);
+	}
+
+	@Benchmark
+	public Utf8Dfa utf8Dfa() {
+		return Utf8Dfa.compile(expression);
+	}
+
+	@Benchmark
+	public DerivativeMatcher derivatives() {
+		return new DerivativeMatcher(expression);
+	}
+
+	@Benchmark
+	public TieredMatcher bytecode() {
+		return new TieredMatcher(dfa, 0);
+	}
+
+}
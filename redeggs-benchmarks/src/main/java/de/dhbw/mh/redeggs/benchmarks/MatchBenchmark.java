@@ -0,0 +1,124 @@
+package de.dhbw.mh.redeggs.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dhbw.mh.redeggs.CloseableMatcher;
+import de.dhbw.mh.redeggs.DerivativeMatcher;
+import de.dhbw.mh.redeggs.Dfa;
+import de.dhbw.mh.redeggs.DfaImage;
+import de.dhbw.mh.redeggs.IntervalSymbolFactory;
+import de.dhbw.mh.redeggs.LazyDfa;
+import de.dhbw.mh.redeggs.OffHeapDfa;
+import de.dhbw.mh.redeggs.PikeVm;
+import de.dhbw.mh.redeggs.RecursiveDescentRedeggsParser;
+import de.dhbw.mh.redeggs.RedeggsMatcher;
+import de.dhbw.mh.redeggs.RedeggsParseException;
+import de.dhbw.mh.redeggs.RegularEggspression;
+import de.dhbw.mh.redeggs.TieredMatcher;
+
+/**
+ * Compares the matching engines on the same pattern and input. Each
+ * invocation scans the whole input for consecutive leftmost-longest matches.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatchBenchmark {
+
+	/**
+	 * The engines under comparison.
+	 */
+	public enum Engine {
+		PIKE_VM, LAZY_DFA, DFA, TIERED, IMAGE, OFF_HEAP, DERIVATIVES;
+	}
+
+	@Param
+	public Engine engine;
+
+	@Param({ "64", "1024" })
+	public int patternSize;
+
+	@Param({ "4", "26", "1000" })
+	public int alphabetSize;
+
+	@Param({ "1000", "100000" })
+	public int inputLength;
+
+	private String input;
+
+	private RedeggsMatcher matcher;
+
+	private CloseableMatcher closeable;
+
+	@Setup
+	public void setUp() throws RedeggsParseException {
+		RegularEggspression expression = new RecursiveDescentRedeggsParser(new IntervalSymbolFactory())
+				.parse(Patterns.pattern(Patterns.Shape.WORDS, patternSize, alphabetSize));
+		input = Patterns.input(inputLength, alphabetSize);
+		switch (engine) {
+		case PIKE_VM:
+			matcher = PikeVm.of(expression);
+			break;
+		case LAZY_DFA:
+			matcher = LazyDfa.of(expression);
+			break;
+		case DFA:
+			matcher = Dfa.compile(expression);
+			break;
+		case TIERED:
+			matcher = new TieredMatcher(Dfa.compile(expression), 0);
+			break;
+		case IMAGE:
+			matcher = DfaImage.of(DfaImage.encode(Dfa.compile(expression)));
+			break;
+		case OFF_HEAP:
+			closeable = OffHeapDfa.of(Dfa.compile(expression));
+			matcher = closeable;
+			break;
+		case DERIVATIVES:
+			matcher = new DerivativeMatcher(expression);
+			break;
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (closeable != null) {
+			closeable.close();
+		}
+	}
+
+	@Benchmark
+	public int scan() {
+		int count = 0;
+		int position = 0;
+		int length = input.length();
+		while (position < length) {
+			int end = matcher.longestMatch(input, position, length);
+			if (end > position) {
+				count++;
+				position = end;
+			} else {
+				position++;
+			}
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,63 @@
+package de.dhbw.mh.redeggs.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dhbw.mh.redeggs.IntervalSymbolFactory;
+import de.dhbw.mh.redeggs.RecursiveDescentRedeggsParser;
+import de.dhbw.mh.redeggs.RedeggsParseException;
+import de.dhbw.mh.redeggs.RegularEggspression;
+
+/**
+ * Measures {@link RecursiveDescentRedeggsParser#parse} on keyword lists and on
+ * deeply nested patterns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+	@Param({ "WORDS", "NESTED" })
+	public Patterns.Shape shape;
+
+	@Param({ "64", "1024", "16384" })
+	public int patternSize;
+
+	@Param({ "4", "26", "1000" })
+	public int alphabetSize;
+
+	private String pattern;
+
+	private RecursiveDescentRedeggsParser parser;
+
+	@Setup
+	public void setUp() {
+		pattern = Patterns.pattern(shape, patternSize, alphabetSize);
+		parser = new RecursiveDescentRedeggsParser(new IntervalSymbolFactory());
+	}
+
+	@Benchmark
+	public RegularEggspression parse() throws RedeggsParseException {
+		return parser.parse(pattern);
+	}
+
+	@Benchmark
+	public RegularEggspression parseWithFreshFactory() throws RedeggsParseException {
+		return new RecursiveDescentRedeggsParser(new IntervalSymbolFactory()).parse(pattern);
+	}
+
+}
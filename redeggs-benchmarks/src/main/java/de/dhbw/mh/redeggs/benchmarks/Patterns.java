@@ -0,0 +1,112 @@
+package de.dhbw.mh.redeggs.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates the patterns and inputs of the benchmarks.
+ * <p>
+ * All generators are deterministic, so every fork of a benchmark sees the same
+ * data. The alphabet consists of the lowercase ASCII letters followed by CJK
+ * ideographs and the code points above them, skipping the surrogates. Small
+ * alphabets thus stay on the ASCII fast paths while large ones go through the
+ * interval lookups.
+ * </p>
+ */
+public final class Patterns {
+
+	/** The seed of all random choices. */
+	private static final long SEED = 18;
+
+	private Patterns() {
+		super();
+	}
+
+	/**
+	 * The shapes of generated patterns.
+	 */
+	public enum Shape {
+
+		/** An alternation of words with occasional classes and stars, like a keyword list. */
+		WORDS,
+
+		/** Deeply nested groups and stars that stress recursion and state counts. */
+		NESTED;
+
+	}
+
+	/**
+	 * Returns the code points of an alphabet of the given size.
+	 */
+	static int[] alphabet(int size) {
+		int[] codePoints = new int[size];
+		for (int i = 0; i < size; i++) {
+			codePoints[i] = (i < 26) ? 'a' + i : 0x4E00 + i - 26;
+			if (codePoints[i] >= Character.MIN_SURROGATE) {
+				codePoints[i] += Character.MAX_SURROGATE - Character.MIN_SURROGATE + 1;
+			}
+		}
+		return codePoints;
+	}
+
+	/**
+	 * Generates a pattern of roughly the given number of chars.
+	 */
+	static String pattern(Shape shape, int size, int alphabetSize) {
+		int[] alphabet = alphabet(alphabetSize);
+		Random random = new Random(SEED);
+		StringBuilder pattern = new StringBuilder();
+		switch (shape) {
+		case WORDS:
+			while (pattern.length() < size) {
+				if (pattern.length() > 0) {
+					pattern.append('|');
+				}
+				for (int i = 3 + random.nextInt(6); i > 0; i--) {
+					int kind = random.nextInt(8);
+					if (kind == 0) {
+						int first = random.nextInt(alphabet.length);
+						int last = Math.min(alphabet.length - 1, first + random.nextInt(4));
+						pattern.append('[').appendCodePoint(alphabet[first]).append('-').appendCodePoint(alphabet[last])
+								.append(']');
+					} else {
+						pattern.appendCodePoint(alphabet[random.nextInt(alphabet.length)]);
+					}
+					if (kind == 1) {
+						pattern.append('*');
+					}
+				}
+			}
+			break;
+		case NESTED:
+			int depth = Math.max(1, size / 6);
+			for (int i = 0; i < depth; i++) {
+				pattern.append('(');
+			}
+			for (int i = 0; i < depth; i++) {
+				pattern.appendCodePoint(alphabet[random.nextInt(alphabet.length)]).append('|')
+						.appendCodePoint(alphabet[random.nextInt(alphabet.length)]).append(")*");
+			}
+			break;
+		}
+		return pattern.toString();
+	}
+
+	/**
+	 * Generates an input of the given number of chars, drawn from the alphabet
+	 * and spaces.
+	 */
+	static String input(int length, int alphabetSize) {
+		int[] alphabet = alphabet(alphabetSize);
+		Random random = new Random(SEED + 1);
+		StringBuilder input = new StringBuilder(length);
+		while (input.length() < length) {
+			if (random.nextInt(8) == 0) {
+				input.append(' ');
+			} else {
+				input.appendCodePoint(alphabet[random.nextInt(alphabet.length)]);
+			}
+		}
+		return input.toString();
+	}
+
+}
@@ -0,0 +1,86 @@
+package de.dhbw.mh.redeggs.benchmarks;
+
+import static de.dhbw.mh.redeggs.CodePointRange.range;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dhbw.mh.redeggs.CodePointRange;
+import de.dhbw.mh.redeggs.IntervalSymbolFactory;
+import de.dhbw.mh.redeggs.SymbolFactory;
+import de.dhbw.mh.redeggs.VirtualSymbol;
+
+/**
+ * Measures the construction of {@link VirtualSymbol}s by a
+ * {@link SymbolFactory} and their membership tests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SymbolBenchmark {
+
+	/** The number of ranges of a symbol. */
+	@Param({ "1", "16", "256" })
+	public int patternSize;
+
+	/** The number of code points the ranges are drawn from. */
+	@Param({ "26", "1000", "65536" })
+	public int alphabetSize;
+
+	/** The number of membership tests per invocation. */
+	@Param({ "1024" })
+	public int inputLength;
+
+	private CodePointRange[] ranges;
+
+	private int[] codePoints;
+
+	private VirtualSymbol symbol;
+
+	@Setup
+	public void setUp() {
+		int[] alphabet = Patterns.alphabet(alphabetSize);
+		ranges = new CodePointRange[patternSize];
+		for (int i = 0; i < patternSize; i++) {
+			int first = alphabet[(int) ((long) i * alphabetSize / patternSize)];
+			ranges[i] = range(first, first + Math.max(0, alphabetSize / patternSize / 2 - 1));
+		}
+		codePoints = Patterns.input(inputLength, alphabetSize).codePoints().toArray();
+		symbol = build(new IntervalSymbolFactory());
+	}
+
+	private VirtualSymbol build(SymbolFactory factory) {
+		return factory.newSymbol().include(ranges).exclude(range('b', 'c')).andNothingElse();
+	}
+
+	@Benchmark
+	public VirtualSymbol buildInterned() {
+		return build(new IntervalSymbolFactory());
+	}
+
+	@Benchmark
+	public int contains() {
+		int count = 0;
+		for (int codePoint : codePoints) {
+			if (symbol.contains(codePoint)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
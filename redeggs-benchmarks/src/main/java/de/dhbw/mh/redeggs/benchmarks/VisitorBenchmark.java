@@ -0,0 +1,71 @@
+package de.dhbw.mh.redeggs.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dhbw.mh.redeggs.AlphabetPartition;
+import de.dhbw.mh.redeggs.IntervalSymbolFactory;
+import de.dhbw.mh.redeggs.NodeFactory;
+import de.dhbw.mh.redeggs.NodeInspector;
+import de.dhbw.mh.redeggs.RecursiveDescentRedeggsParser;
+import de.dhbw.mh.redeggs.RedeggsParseException;
+import de.dhbw.mh.redeggs.RegularEggspression;
+import de.dhbw.mh.redeggs.Traversal;
+
+/**
+ * Measures visitors over parsed expressions: the {@link NodeInspector}, the
+ * hash-consing of {@link NodeFactory#share} and the symbol collection behind
+ * {@link AlphabetPartition#of}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VisitorBenchmark {
+
+	@Param({ "WORDS", "NESTED" })
+	public Patterns.Shape shape;
+
+	@Param({ "64", "1024", "16384" })
+	public int patternSize;
+
+	@Param({ "4", "26", "1000" })
+	public int alphabetSize;
+
+	private RegularEggspression expression;
+
+	@Setup
+	public void setUp() throws RedeggsParseException {
+		expression = new RecursiveDescentRedeggsParser(new IntervalSymbolFactory())
+				.parse(Patterns.pattern(shape, patternSize, alphabetSize));
+	}
+
+	@Benchmark
+	public String inspect() {
+		return Traversal.postOrder(expression, new NodeInspector());
+	}
+
+	@Benchmark
+	public RegularEggspression share() {
+		return new NodeFactory().share(expression);
+	}
+
+	@Benchmark
+	public AlphabetPartition partition() {
+		return AlphabetPartition.of(expression);
+	}
+
+}
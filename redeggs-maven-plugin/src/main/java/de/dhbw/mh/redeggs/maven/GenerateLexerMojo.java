@@ -0,0 +1,122 @@
+package de.dhbw.mh.redeggs.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.lang.model.SourceVersion;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import de.dhbw.mh.redeggs.LexerSourceGenerator;
+import de.dhbw.mh.redeggs.RedeggsParseException;
+
+/**
+ * Generates a scanner class for every rule file of a project.
+ * <p>
+ * Each file {@code Name.rules} below the source directory is translated into
+ * a class {@code Name} by the {@link LexerSourceGenerator}. Subdirectories of
+ * the source directory are appended to the package name. A class is only
+ * regenerated if its rule file is newer.
+ * </p>
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
+public class GenerateLexerMojo extends AbstractMojo {
+
+	/** The file name extension of rule files. */
+	private static final String EXTENSION = ".rules";
+
+	/** The directory holding the rule files. */
+	@Parameter(defaultValue = "${project.basedir}/src/main/redeggs", required = true)
+	private File sourceDirectory;
+
+	/** The directory receiving the generated sources. */
+	@Parameter(defaultValue = "${project.build.directory}/generated-sources/redeggs", required = true)
+	private File outputDirectory;
+
+	/** The package of the scanners generated from the top-level rule files. */
+	@Parameter(defaultValue = "")
+	private String packageName;
+
+	/** The project to add the generated sources to. */
+	@Parameter(defaultValue = "${project}", readonly = true, required = true)
+	private MavenProject project;
+
+	@Override
+	public void execute() throws MojoExecutionException, MojoFailureException {
+		Path sources = sourceDirectory.toPath();
+		if (!Files.isDirectory(sources)) {
+			getLog().info("No rule files in " + sources);
+			return;
+		}
+		List<Path> ruleFiles = new ArrayList<>();
+		try (Stream<Path> files = Files.walk(sources)) {
+			files.filter(file -> file.getFileName().toString().endsWith(EXTENSION)).sorted()
+					.forEach(ruleFiles::add);
+		} catch (IOException e) {
+			throw new MojoExecutionException("Cannot list the rule files in " + sources, e);
+		}
+		LexerSourceGenerator generator = new LexerSourceGenerator();
+		for (Path ruleFile : ruleFiles) {
+			generate(generator, sources, ruleFile);
+		}
+		project.addCompileSourceRoot(outputDirectory.getPath());
+	}
+
+	private void generate(LexerSourceGenerator generator, Path sources, Path ruleFile)
+			throws MojoExecutionException, MojoFailureException {
+		String fileName = ruleFile.getFileName().toString();
+		String className = fileName.substring(0, fileName.length() - EXTENSION.length());
+		String packageName = packageOf(sources.relativize(ruleFile).getParent());
+		if (!SourceVersion.isName(className) || !(packageName.isEmpty() || SourceVersion.isName(packageName))) {
+			throw new MojoFailureException(String.format("%s: '%s' is not a valid class name.", ruleFile,
+					packageName.isEmpty() ? className : packageName + "." + className));
+		}
+		Path target = outputDirectory.toPath().resolve(packageName.replace('.', File.separatorChar))
+				.resolve(className + ".java");
+		try {
+			if (Files.exists(target)
+					&& Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(ruleFile)) >= 0) {
+				getLog().debug("Scanner " + target + " is up to date");
+				return;
+			}
+			String source;
+			try (Reader reader = Files.newBufferedReader(ruleFile, StandardCharsets.UTF_8)) {
+				source = generator.generate(reader, packageName, className);
+			}
+			Files.createDirectories(target.getParent());
+			Files.writeString(target, source, StandardCharsets.UTF_8);
+			getLog().info("Generated " + target);
+		} catch (RedeggsParseException e) {
+			throw new MojoFailureException(String.format("%s: %s", ruleFile, e.getMessage()), e);
+		} catch (IOException e) {
+			throw new MojoExecutionException("Cannot generate the scanner for " + ruleFile, e);
+		}
+	}
+
+	private String packageOf(Path directory) {
+		StringBuilder name = new StringBuilder((packageName == null) ? "" : packageName);
+		if (directory != null) {
+			for (Path segment : directory) {
+				if (name.length() > 0) {
+					name.append('.');
+				}
+				name.append(segment);
+			}
+		}
+		return name.toString();
+	}
+
+}
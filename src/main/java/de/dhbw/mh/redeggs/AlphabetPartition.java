@@ -0,0 +1,420 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The coarsest partition of the Unicode code space into symbol classes with
+ * respect to a set of {@link VirtualSymbol}s.
+ * <p>
+ * Two code points end up in the same class if and only if every symbol either
+ * contains both or neither of them. An automaton built over the class ids
+ * therefore needs one transition per class instead of one per code point,
+ * while behaving exactly like an automaton over code points.
+ * </p>
+ *
+ * <p>
+ * {@link #classOf(int)} maps a code point to its class id without allocation:
+ * ASCII is answered by a flat table, the rest of the BMP by a two-level table
+ * with shared blocks and supplementary code points by binary search over the
+ * remaining intervals. Instances are immutable and thread-safe.
+ * </p>
+ */
+public final class AlphabetPartition {
+
+	/** The number of code points per block of the two-level BMP table. */
+	private static final int BLOCK_SIZE = 256;
+
+	/** The first code point outside the BMP. */
+	private static final int SUPPLEMENTARY = 0x10000;
+
+	/** The symbols this partition was computed for. */
+	private final List<VirtualSymbol> symbols;
+
+	/** Maps each symbol to the sorted ids of the classes it consists of. */
+	private final Map<VirtualSymbol, int[]> classesBySymbol;
+
+	/** The number of classes. */
+	private final int classCount;
+
+	/** The first code point of each maximal interval of a single class. */
+	private final int[] intervalStarts;
+
+	/** The class id of each interval in {@link #intervalStarts}. */
+	private final int[] intervalClasses;
+
+	/** Direct class lookup for ASCII. */
+	private final int[] ascii;
+
+	/** Offset of each 256 code point block of the BMP into {@link #bmpBlocks}. */
+	private final int[] bmpIndex;
+
+	/** The deduplicated blocks of class ids of the BMP. */
+	private final int[] bmpBlocks;
+
+	/** Index of the first interval that lies (partly) outside the BMP. */
+	private final int firstSupplementary;
+
+	/**
+	 * Constructs a new partition from its normalized interval table.
+	 */
+	private AlphabetPartition(List<? extends VirtualSymbol> symbols, int classCount, int[] intervalStarts,
+			int[] intervalClasses) {
+		super();
+		this.symbols = List.copyOf(symbols);
+		this.classCount = classCount;
+		this.intervalStarts = intervalStarts;
+		this.intervalClasses = intervalClasses;
+
+		int bmpIntervals = 1;
+		while (bmpIntervals < intervalStarts.length && intervalStarts[bmpIntervals] < SUPPLEMENTARY) {
+			bmpIntervals++;
+		}
+		this.firstSupplementary = bmpIntervals - 1;
+
+		// a block either lies within one interval or contains the start of one, so
+		// there are fewer than twice as many distinct blocks as BMP intervals; one
+		// more block is needed as room for the candidate
+		int capacity = Math.min(SUPPLEMENTARY / BLOCK_SIZE, 2 * bmpIntervals);
+		int[] blocks = new int[capacity * BLOCK_SIZE];
+		Map<BlockKey, Integer> offsets = new HashMap<>();
+		int used = 0;
+		int interval = 0;
+		this.bmpIndex = new int[SUPPLEMENTARY / BLOCK_SIZE];
+		for (int block = 0; block < bmpIndex.length; block++) {
+			int first = block * BLOCK_SIZE;
+			int end = first + BLOCK_SIZE;
+			for (int codePoint = first; codePoint < end;) {
+				while (interval + 1 < bmpIntervals && intervalStarts[interval + 1] <= codePoint) {
+					interval++;
+				}
+				int next = (interval + 1 < bmpIntervals) ? Math.min(end, intervalStarts[interval + 1]) : end;
+				Arrays.fill(blocks, used + codePoint - first, used + next - first, intervalClasses[interval]);
+				codePoint = next;
+			}
+			Integer offset = offsets.putIfAbsent(new BlockKey(blocks, used), used);
+			if (offset == null) {
+				bmpIndex[block] = used;
+				used += BLOCK_SIZE;
+			} else {
+				bmpIndex[block] = offset;
+			}
+		}
+		this.bmpBlocks = Arrays.copyOf(blocks, used);
+		this.ascii = Arrays.copyOfRange(bmpBlocks, bmpIndex[0], bmpIndex[0] + 0x80);
+
+		this.classesBySymbol = new HashMap<>();
+		for (VirtualSymbol symbol : this.symbols) {
+			classesBySymbol.put(symbol, computeClasses(bounds(symbol)));
+		}
+	}
+
+	/**
+	 * Computes the partition induced by the literals of the given expressions.
+	 *
+	 * @param expressions the expressions whose symbols to respect
+	 * @return the coarsest partition distinguishing all their symbols
+	 */
+	public static AlphabetPartition of(RegularEggspression... expressions) {
+		return of(Arrays.asList(expressions));
+	}
+
+	/**
+	 * Computes the partition induced by the literals of the given expressions.
+	 *
+	 * @param expressions the expressions whose symbols to respect
+	 * @return the coarsest partition distinguishing all their symbols
+	 */
+	public static AlphabetPartition of(Iterable<? extends RegularEggspression> expressions) {
+		return ofSymbols(SymbolCollector.collect(expressions));
+	}
+
+	/**
+	 * Computes the partition induced by the given symbols.
+	 *
+	 * @param symbols the symbols to respect
+	 * @return the coarsest partition distinguishing all symbols
+	 */
+	public static AlphabetPartition ofSymbols(List<? extends VirtualSymbol> symbols) {
+		int[][] bounds = new int[symbols.size()][];
+		int boundaryCount = 1;
+		for (int s = 0; s < bounds.length; s++) {
+			bounds[s] = bounds(symbols.get(s));
+			boundaryCount += bounds[s].length;
+		}
+
+		// the elementary intervals start at 0 and after every range boundary
+		int[] starts = new int[boundaryCount];
+		int size = 1;
+		for (int[] symbol : bounds) {
+			for (int i = 0; i < symbol.length; i += 2) {
+				starts[size++] = symbol[i];
+				if (symbol[i + 1] < Character.MAX_CODE_POINT) {
+					starts[size++] = symbol[i + 1] + 1;
+				}
+			}
+		}
+		Arrays.sort(starts, 0, size);
+		int unique = 0;
+		for (int i = 0; i < size; i++) {
+			if (i == 0 || starts[i] != starts[i - 1]) {
+				starts[unique++] = starts[i];
+			}
+		}
+		starts = Arrays.copyOf(starts, unique);
+
+		// refine the classes symbol by symbol: every class touched by a symbol
+		// is split into a fresh class for the covered intervals
+		int[] classes = new int[unique];
+		int idCount = 1;
+		int[] remap = new int[16];
+		int[] stamp = new int[16];
+		Arrays.fill(stamp, -1);
+		for (int s = 0; s < bounds.length; s++) {
+			int[] symbol = bounds[s];
+			for (int i = 0; i < symbol.length; i += 2) {
+				int from = Arrays.binarySearch(starts, symbol[i]);
+				for (int interval = from; interval < unique && starts[interval] <= symbol[i + 1]; interval++) {
+					int old = classes[interval];
+					if (stamp[old] != s) {
+						if (idCount == remap.length) {
+							remap = Arrays.copyOf(remap, idCount << 1);
+							stamp = Arrays.copyOf(stamp, idCount << 1);
+							Arrays.fill(stamp, idCount, stamp.length, -1);
+						}
+						stamp[old] = s;
+						remap[old] = idCount++;
+					}
+					classes[interval] = remap[old];
+				}
+			}
+		}
+
+		// renumber the classes by first occurrence and merge adjacent intervals
+		int[] renumber = new int[idCount];
+		Arrays.fill(renumber, -1);
+		int classCount = 0;
+		int[] intervalStarts = new int[unique];
+		int[] intervalClasses = new int[unique];
+		int intervals = 0;
+		for (int i = 0; i < unique; i++) {
+			if (renumber[classes[i]] < 0) {
+				renumber[classes[i]] = classCount++;
+			}
+			int id = renumber[classes[i]];
+			if (intervals == 0 || intervalClasses[intervals - 1] != id) {
+				intervalStarts[intervals] = starts[i];
+				intervalClasses[intervals++] = id;
+			}
+		}
+		return new AlphabetPartition(symbols, classCount, Arrays.copyOf(intervalStarts, intervals),
+				Arrays.copyOf(intervalClasses, intervals));
+	}
+
+	/**
+	 * Returns the class id of the given code point.
+	 *
+	 * @param codePoint the code point to classify
+	 * @return the id of the class containing the code point
+	 */
+	public int classOf(int codePoint) {
+		if (codePoint < 0x80) {
+			return ascii[codePoint];
+		}
+		if (codePoint < SUPPLEMENTARY) {
+			return bmpBlocks[bmpIndex[codePoint >>> 8] + (codePoint & 0xFF)];
+		}
+		int low = firstSupplementary;
+		int high = intervalStarts.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (intervalStarts[mid] <= codePoint) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return intervalClasses[low];
+	}
+
+	/**
+	 * Returns the number of classes of this partition.
+	 *
+	 * @return the number of classes
+	 */
+	public int classCount() {
+		return classCount;
+	}
+
+	/**
+	 * Returns the symbols this partition was computed for.
+	 *
+	 * @return the symbols in order of their first occurrence
+	 */
+	public List<VirtualSymbol> symbols() {
+		return symbols;
+	}
+
+	/**
+	 * Returns the ids of the classes the given symbol consists of.
+	 *
+	 * @param symbol one of the symbols of this partition
+	 * @return the sorted class ids covered by the symbol
+	 * @throws IllegalArgumentException if the symbol is not part of this partition
+	 */
+	public int[] classesOf(VirtualSymbol symbol) {
+		int[] classes = classesBySymbol.get(symbol);
+		if (classes == null) {
+			throw new IllegalArgumentException(String.format("Symbol %s is not part of this partition.", symbol));
+		}
+		return classes.clone();
+	}
+
+	/**
+	 * Returns the smallest code point of the given class.
+	 *
+	 * @param classId the id of the class
+	 * @return a representative code point of the class
+	 */
+	public int representative(int classId) {
+		for (int i = 0; i < intervalClasses.length; i++) {
+			if (intervalClasses[i] == classId) {
+				return intervalStarts[i];
+			}
+		}
+		throw new IllegalArgumentException(String.format("Unknown class %d.", classId));
+	}
+
+	/**
+	 * Returns the number of maximal code point intervals of a single class.
+	 *
+	 * @return the number of intervals
+	 */
+	public int intervalCount() {
+		return intervalStarts.length;
+	}
+
+	/**
+	 * Returns the first code point of the interval at the given index.
+	 *
+	 * @param index the index of the interval
+	 * @return the first code point (inclusive)
+	 */
+	public int intervalFirst(int index) {
+		return intervalStarts[index];
+	}
+
+	/**
+	 * Returns the last code point of the interval at the given index.
+	 *
+	 * @param index the index of the interval
+	 * @return the last code point (inclusive)
+	 */
+	public int intervalLast(int index) {
+		return (index + 1 < intervalStarts.length) ? intervalStarts[index + 1] - 1 : Character.MAX_CODE_POINT;
+	}
+
+	/**
+	 * Returns the class id of the interval at the given index.
+	 *
+	 * @param index the index of the interval
+	 * @return the class id of the interval
+	 */
+	public int intervalClass(int index) {
+		return intervalClasses[index];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < intervalStarts.length; i++) {
+			builder.append(new CodePointRange(intervalFirst(i), intervalLast(i))).append("->")
+					.append(intervalClasses[i]).append(' ');
+		}
+		return builder.toString().trim();
+	}
+
+	/**
+	 * Computes the sorted class ids covered by the given ranges.
+	 */
+	private int[] computeClasses(int[] ranges) {
+		boolean[] covered = new boolean[classCount];
+		int count = 0;
+		for (int i = 0; i < ranges.length; i += 2) {
+			int interval = Arrays.binarySearch(intervalStarts, ranges[i]);
+			if (interval < 0) {
+				interval = -interval - 2;
+			}
+			for (; interval < intervalStarts.length && intervalStarts[interval] <= ranges[i + 1]; interval++) {
+				if (!covered[intervalClasses[interval]]) {
+					covered[intervalClasses[interval]] = true;
+					count++;
+				}
+			}
+		}
+		int[] classes = new int[count];
+		for (int id = 0, i = 0; id < classCount; id++) {
+			if (covered[id]) {
+				classes[i++] = id;
+			}
+		}
+		return classes;
+	}
+
+	/**
+	 * Returns the ranges of the given symbol as {@code (first, last)} pairs.
+	 */
+	static int[] bounds(VirtualSymbol symbol) {
+		if (symbol instanceof IntervalSymbol) {
+			return ((IntervalSymbol) symbol).bounds;
+		}
+		List<CodePointRange> ranges = symbol.sortedCodePointRanges();
+		if (ranges == null) {
+			throw new IllegalArgumentException(String.format("Symbol %s does not expose its code point ranges.", symbol));
+		}
+		int[] bounds = new int[ranges.size() << 1];
+		int i = 0;
+		for (CodePointRange range : ranges) {
+			bounds[i++] = range.firstCodePoint;
+			bounds[i++] = range.lastCodePoint;
+		}
+		return bounds;
+	}
+
+	/**
+	 * Identifies a block of the BMP table by its contents.
+	 */
+	private static final class BlockKey {
+
+		private final int[] table;
+		private final int offset;
+		private final int hash;
+
+		BlockKey(int[] table, int offset) {
+			this.table = table;
+			this.offset = offset;
+			int h = 1;
+			for (int i = offset; i < offset + BLOCK_SIZE; i++) {
+				h = 31 * h + table[i];
+			}
+			this.hash = h;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof BlockKey))
+				return false;
+			BlockKey other = (BlockKey) o;
+			return hash == other.hash
+					&& Arrays.equals(table, offset, offset + BLOCK_SIZE, other.table, other.offset, other.offset + BLOCK_SIZE);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+}
@@ -0,0 +1,113 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Arrays;
+
+/**
+ * A matcher simulating a {@link GlushkovAutomaton} with bitmasks.
+ * <p>
+ * The active positions are a bitmask, so each code point costs a class lookup,
+ * the union of the follow sets of the active positions and an AND with the
+ * positions of the class, without any epsilon closures. Patterns with up to
+ * 64 positions keep the mask in a single {@code long} and take the union with
+ * one table lookup per byte; larger ones use two arrays allocated once per
+ * matcher and one follow set per active position, so matching itself does not
+ * allocate. A matcher is not
+ * thread-safe; create one per thread from the shared automaton.
+ * </p>
+ */
+public class BitParallelMatcher implements RedeggsMatcher {
+
+	/** The automaton to simulate. */
+	private final GlushkovAutomaton automaton;
+
+	/** The active positions, if they do not fit into a single long. */
+	private final long[] active;
+
+	/** The positions that may be entered next, likewise. */
+	private final long[] reach;
+
+	/**
+	 * Constructs a new matcher for the given automaton.
+	 *
+	 * @param automaton the automaton to simulate
+	 */
+	public BitParallelMatcher(GlushkovAutomaton automaton) {
+		super();
+		this.automaton = automaton;
+		this.active = new long[automaton.words];
+		this.reach = new long[automaton.words];
+	}
+
+	/**
+	 * Constructs a new matcher for the given expression.
+	 *
+	 * @param expression the expression to match
+	 */
+	public BitParallelMatcher(RegularEggspression expression) {
+		this(GlushkovAutomaton.of(expression));
+	}
+
+	@Override
+	public int longestMatch(CharSequence input, int from, int to) {
+		return (automaton.words == 1) ? longestMatchSingle(input, from, to) : longestMatchMulti(input, from, to);
+	}
+
+	private int longestMatchSingle(CharSequence input, int from, int to) {
+		AlphabetPartition partition = automaton.partition;
+		long[] classMasks = automaton.classMasks;
+		long[] follows = automaton.follows;
+		long accepting = automaton.last[0];
+		int last = automaton.nullable ? from : -1;
+		long reach = automaton.first[0];
+		int position = from;
+		while (reach != 0 && position < to) {
+			int codePoint = CodePoints.codePointAt(input, position, to);
+			long active = reach & classMasks[partition.classOf(codePoint)];
+			if (active == 0) {
+				break;
+			}
+			position += Character.charCount(codePoint);
+			if ((active & accepting) != 0) {
+				last = position;
+			}
+			reach = 0;
+			for (int table = 0; active != 0; active >>>= GlushkovAutomaton.BITS_PER_TABLE, table++) {
+				reach |= follows[(table << 8) | (int) (active & 0xFF)];
+			}
+		}
+		return last;
+	}
+
+	private int longestMatchMulti(CharSequence input, int from, int to) {
+		AlphabetPartition partition = automaton.partition;
+		long[] classMasks = automaton.classMasks;
+		long[] accepting = automaton.last;
+		int words = automaton.words;
+		int last = automaton.nullable ? from : -1;
+		System.arraycopy(automaton.first, 0, reach, 0, words);
+		int position = from;
+		while (position < to) {
+			int codePoint = CodePoints.codePointAt(input, position, to);
+			int offset = partition.classOf(codePoint) * words;
+			long any = 0;
+			long accepts = 0;
+			for (int word = 0; word < words; word++) {
+				long bits = reach[word] & classMasks[offset + word];
+				active[word] = bits;
+				any |= bits;
+				accepts |= bits & accepting[word];
+			}
+			if (any == 0) {
+				break;
+			}
+			position += Character.charCount(codePoint);
+			if (accepts != 0) {
+				last = position;
+			}
+			Arrays.fill(reach, 0);
+			automaton.follow(active, reach);
+		}
+		return last;
+	}
+
+}
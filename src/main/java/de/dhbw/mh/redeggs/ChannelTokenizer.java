@@ -0,0 +1,350 @@
+package de.dhbw.mh.redeggs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Tokenizes a stream of UTF-8 bytes with a {@link Lexer}, chunk by chunk.
+ * <p>
+ * The bytes are decoded incrementally straight into symbol classes and fed
+ * into the DFA of the lexer, so neither a {@code String} nor a char buffer of
+ * the input is ever created. The automaton state, the last accepting position
+ * and the classes read since then are carried across chunk boundaries, so a
+ * token may straddle any number of chunks. When the automaton dies, the
+ * classes after the end of the token are replayed from memory instead of being
+ * decoded again. Malformed UTF-8 sequences are decoded to U+FFFD.
+ * </p>
+ *
+ * <p>
+ * Tokens are reported with their byte offsets within the stream. A tokenizer
+ * keeps the state of one stream and is not thread-safe.
+ * </p>
+ */
+public final class ChannelTokenizer {
+
+	/** The size of the buffer used to read channels, in bytes. */
+	static final int READ_BUFFER_SIZE = 1 << 16;
+
+	/** The maximum size of a mapped region of a file, in bytes. */
+	static final long MAPPING_WINDOW = 1L << 28;
+
+	/**
+	 * Receives the tokens found by a {@link ChannelTokenizer}.
+	 */
+	@FunctionalInterface
+	public static interface TokenSink {
+
+		/**
+		 * Receives a token.
+		 *
+		 * @param tokenId the token id of the token, or {@link Lexer#ERROR}
+		 * @param start   the byte offset of the first byte of the token
+		 * @param end     the byte offset after the last byte of the token
+		 */
+		public void token(int tokenId, long start, long end);
+	}
+
+	/** The lexer whose automaton is run. */
+	private final Lexer lexer;
+
+	/** The receiver of the tokens. */
+	private final TokenSink sink;
+
+	/** The class of U+FFFD, which replaces malformed sequences. */
+	private final int replacementClass;
+
+	/** The code point decoded so far from the current multi-byte sequence. */
+	private int codePoint;
+
+	/** The number of bytes still missing in the current multi-byte sequence. */
+	private int missing;
+
+	/** The number of bytes of the current multi-byte sequence seen so far. */
+	private int seen;
+
+	/** The smallest code point allowed for the current sequence length. */
+	private int minimum;
+
+	/** The current DFA state. */
+	private int state;
+
+	/** The offset of the first byte of the current token. */
+	private long tokenStart;
+
+	/** The offset after the last byte fed into the automaton. */
+	private long scanEnd;
+
+	/** The lowest rule accepted at {@link #lastEnd}, {@link Nfa#NONE} if none. */
+	private int lastRule = Nfa.NONE;
+
+	/** The end of the longest match of the current token so far. */
+	private long lastEnd;
+
+	/** The classes fed into the automaton since the last accepting state. */
+	private int[] pendingClasses = new int[64];
+
+	/** The byte lengths of {@link #pendingClasses}. */
+	private int[] pendingLengths = new int[64];
+
+	/** The number of pending classes. */
+	private int pendingCount;
+
+	/** The classes waiting to be fed into the automaton. */
+	private int[] replayClasses = new int[64];
+
+	/** The byte lengths of {@link #replayClasses}. */
+	private int[] replayLengths = new int[64];
+
+	/** The index of the next class to feed. */
+	private int replayHead;
+
+	/** The number of classes waiting to be fed plus {@link #replayHead}. */
+	private int replayCount;
+
+	/**
+	 * Constructs a new tokenizer for a stream starting at offset 0.
+	 *
+	 * @param lexer the lexer to run
+	 * @param sink  the receiver of the tokens
+	 */
+	public ChannelTokenizer(Lexer lexer, TokenSink sink) {
+		this(lexer, 0, sink);
+	}
+
+	/**
+	 * Constructs a new tokenizer for a stream starting at the given offset.
+	 *
+	 * @param lexer  the lexer to run
+	 * @param offset the offset reported for the first byte of the stream
+	 * @param sink   the receiver of the tokens
+	 */
+	public ChannelTokenizer(Lexer lexer, long offset, TokenSink sink) {
+		super();
+		this.lexer = lexer;
+		this.sink = sink;
+		this.replacementClass = lexer.dfa.partition.classOf(0xFFFD);
+		this.state = lexer.dfa.start;
+		this.tokenStart = offset;
+		this.scanEnd = offset;
+	}
+
+	/**
+	 * Tokenizes everything readable from the given channel.
+	 *
+	 * @param lexer   the lexer to run
+	 * @param channel the channel to read until its end
+	 * @param sink    the receiver of the tokens
+	 * @throws IOException if reading fails
+	 */
+	public static void tokenize(Lexer lexer, ReadableByteChannel channel, TokenSink sink) throws IOException {
+		ChannelTokenizer tokenizer = new ChannelTokenizer(lexer, sink);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+		while (channel.read(buffer) >= 0) {
+			buffer.flip();
+			tokenizer.feed(buffer);
+			buffer.clear();
+		}
+		tokenizer.finish();
+	}
+
+	/**
+	 * Tokenizes a region of a file by mapping it into memory piece by piece.
+	 * Tokens are reported with their offsets within the file.
+	 *
+	 * @param lexer    the lexer to run
+	 * @param file     the file to read
+	 * @param position the offset of the first byte of the region
+	 * @param size     the number of bytes of the region
+	 * @param sink     the receiver of the tokens
+	 * @throws IOException if mapping the file fails
+	 */
+	public static void tokenize(Lexer lexer, FileChannel file, long position, long size, TokenSink sink)
+			throws IOException {
+		ChannelTokenizer tokenizer = new ChannelTokenizer(lexer, position, sink);
+		for (long offset = 0; offset < size; offset += MAPPING_WINDOW) {
+			long length = Math.min(MAPPING_WINDOW, size - offset);
+			MappedByteBuffer region = file.map(FileChannel.MapMode.READ_ONLY, position + offset, length);
+			tokenizer.feed(region);
+		}
+		tokenizer.finish();
+	}
+
+	/**
+	 * Consumes all remaining bytes of the given buffer. Tokens are reported as
+	 * soon as they cannot grow any further.
+	 *
+	 * @param bytes the next chunk of the stream
+	 */
+	public void feed(ByteBuffer bytes) {
+		AlphabetPartition partition = lexer.dfa.partition;
+		int limit = bytes.limit();
+		for (int i = bytes.position(); i < limit; i++) {
+			int b = bytes.get(i) & 0xFF;
+			if (missing == 0 && b < 0x80) {
+				symbol(partition.classOf(b), 1);
+			} else {
+				decode(b);
+			}
+		}
+		bytes.position(limit);
+		drain();
+	}
+
+	/**
+	 * Ends the stream and reports the remaining tokens.
+	 */
+	public void finish() {
+		if (missing > 0) {
+			symbol(replacementClass, seen);
+			missing = 0;
+		}
+		drain();
+		while (tokenStart < scanEnd) {
+			cut();
+			drain();
+		}
+	}
+
+	/**
+	 * Advances the UTF-8 decoder by a byte that is not plain ASCII.
+	 */
+	private void decode(int b) {
+		if (missing > 0) {
+			if ((b & 0xC0) == 0x80) {
+				codePoint = (codePoint << 6) | (b & 0x3F);
+				seen++;
+				if (--missing == 0) {
+					boolean valid = codePoint >= minimum && codePoint <= Character.MAX_CODE_POINT
+							&& (codePoint < Character.MIN_SURROGATE || codePoint > Character.MAX_SURROGATE);
+					symbol(valid ? lexer.dfa.partition.classOf(codePoint) : replacementClass, seen);
+				}
+				return;
+			}
+			// the sequence ended early, the byte starts a new one
+			symbol(replacementClass, seen);
+			missing = 0;
+		}
+		if (b < 0x80) {
+			symbol(lexer.dfa.partition.classOf(b), 1);
+		} else if (b >= 0xC2 && b <= 0xDF) {
+			start(b & 0x1F, 1, 0x80);
+		} else if (b >= 0xE0 && b <= 0xEF) {
+			start(b & 0x0F, 2, 0x800);
+		} else if (b >= 0xF0 && b <= 0xF4) {
+			start(b & 0x07, 3, 0x10000);
+		} else {
+			symbol(replacementClass, 1);
+		}
+	}
+
+	private void start(int bits, int continuations, int smallest) {
+		codePoint = bits;
+		missing = continuations;
+		seen = 1;
+		minimum = smallest;
+	}
+
+	/**
+	 * Queues a decoded symbol class for the automaton.
+	 */
+	private void symbol(int classId, int length) {
+		if (replayCount == replayClasses.length) {
+			replayClasses = Arrays.copyOf(replayClasses, replayCount << 1);
+			replayLengths = Arrays.copyOf(replayLengths, replayCount << 1);
+		}
+		replayClasses[replayCount] = classId;
+		replayLengths[replayCount++] = length;
+		if (replayCount >= 64) {
+			drain();
+		}
+	}
+
+	/**
+	 * Feeds the queued classes into the automaton.
+	 */
+	private void drain() {
+		Dfa dfa = lexer.dfa;
+		int[] table = dfa.transitions;
+		int[] rules = dfa.rules;
+		int width = dfa.classCount;
+		while (replayHead < replayCount) {
+			int classId = replayClasses[replayHead];
+			int next = table[state * width + classId];
+			if (next == dfa.dead) {
+				cut();
+				continue;
+			}
+			int length = replayLengths[replayHead++];
+			state = next;
+			scanEnd += length;
+			if (rules[next] != Nfa.NONE) {
+				lastRule = rules[next];
+				lastEnd = scanEnd;
+				pendingCount = 0;
+			} else {
+				if (pendingCount == pendingClasses.length) {
+					pendingClasses = Arrays.copyOf(pendingClasses, pendingCount << 1);
+					pendingLengths = Arrays.copyOf(pendingLengths, pendingCount << 1);
+				}
+				pendingClasses[pendingCount] = classId;
+				pendingLengths[pendingCount++] = length;
+			}
+		}
+		replayHead = 0;
+		replayCount = 0;
+	}
+
+	/**
+	 * Reports the current token and schedules the classes read beyond its end
+	 * for another scan, by moving them in front of the queued classes in place.
+	 */
+	private void cut() {
+		int skip = 0;
+		if (lastRule != Nfa.NONE) {
+			sink.token(lexer.tokenIds[lastRule], tokenStart, lastEnd);
+			tokenStart = lastEnd;
+		} else {
+			// no rule matches, so the first code point becomes an error token
+			int length;
+			if (pendingCount > 0) {
+				length = pendingLengths[0];
+				skip = 1;
+			} else {
+				length = replayLengths[replayHead++];
+			}
+			sink.token(Lexer.ERROR, tokenStart, tokenStart + length);
+			tokenStart += length;
+		}
+
+		int replay = pendingCount - skip;
+		if (replay > 0) {
+			if (replayHead >= replay) {
+				// the classes already fed make room in front of the head
+				replayHead -= replay;
+			} else {
+				int remaining = replayCount - replayHead;
+				int count = replay + remaining;
+				if (count > replayClasses.length) {
+					int capacity = Math.max(replayClasses.length << 1, count);
+					replayClasses = Arrays.copyOf(replayClasses, capacity);
+					replayLengths = Arrays.copyOf(replayLengths, capacity);
+				}
+				System.arraycopy(replayClasses, replayHead, replayClasses, replay, remaining);
+				System.arraycopy(replayLengths, replayHead, replayLengths, replay, remaining);
+				replayHead = 0;
+				replayCount = count;
+			}
+			System.arraycopy(pendingClasses, skip, replayClasses, replayHead, replay);
+			System.arraycopy(pendingLengths, skip, replayLengths, replayHead, replay);
+		}
+		state = lexer.dfa.start;
+		lastRule = Nfa.NONE;
+		scanEnd = tokenStart;
+		pendingCount = 0;
+	}
+
+}
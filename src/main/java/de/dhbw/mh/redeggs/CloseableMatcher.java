@@ -0,0 +1,23 @@
+package de.dhbw.mh.redeggs;
+
+/**
+ * A {@link RedeggsMatcher} that may hold resources outside the Java heap and
+ * must be closed when it is no longer needed, e.g. by a try-with-resources
+ * statement.
+ * <p>
+ * Closing does not throw checked exceptions. Matchers without such resources
+ * inherit a {@link #close()} that does nothing.
+ * </p>
+ */
+public interface CloseableMatcher extends RedeggsMatcher, AutoCloseable {
+
+	/**
+	 * Releases the resources of this matcher. Closing a closed matcher has no
+	 * effect.
+	 */
+	@Override
+	public default void close() {
+		// nothing to release
+	}
+
+}
@@ -0,0 +1,52 @@
+package de.dhbw.mh.redeggs;
+
+/**
+ * Helpers for iterating over the code points of a {@link CharSequence} region.
+ */
+final class CodePoints {
+
+	private CodePoints() {
+		super();
+	}
+
+	/**
+	 * Returns the code point at the given index, never combining a surrogate pair
+	 * that crosses {@code limit}.
+	 *
+	 * @param input the characters to read
+	 * @param index the index of the first char of the code point
+	 * @param limit the exclusive end of the region
+	 * @return the code point at the given index
+	 */
+	static int codePointAt(CharSequence input, int index, int limit) {
+		char high = input.charAt(index);
+		if (Character.isHighSurrogate(high) && index + 1 < limit) {
+			char low = input.charAt(index + 1);
+			if (Character.isLowSurrogate(low)) {
+				return Character.toCodePoint(high, low);
+			}
+		}
+		return high;
+	}
+
+	/**
+	 * Returns the code point ending right before the given index, never
+	 * combining a surrogate pair that crosses {@code start}.
+	 *
+	 * @param input the characters to read
+	 * @param index the exclusive end of the code point
+	 * @param start the index of the first char of the region
+	 * @return the code point before the given index
+	 */
+	static int codePointBefore(CharSequence input, int index, int start) {
+		char low = input.charAt(index - 1);
+		if (Character.isLowSurrogate(low) && index - 2 >= start) {
+			char high = input.charAt(index - 2);
+			if (Character.isHighSurrogate(high)) {
+				return Character.toCodePoint(high, low);
+			}
+		}
+		return low;
+	}
+
+}
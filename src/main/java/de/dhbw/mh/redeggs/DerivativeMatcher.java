@@ -0,0 +1,420 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptySet;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptyWord;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * A matcher based on Brzozowski derivatives.
+ * <p>
+ * The derivative {@code d_c(r)} of an expression {@code r} with respect to a
+ * symbol class {@code c} matches exactly the suffixes of the words of
+ * {@code r} that start with a code point of {@code c}. Matching a word takes
+ * one derivative per code point, and the word is accepted if the final
+ * expression matches the empty word. No automaton is built up front.
+ * </p>
+ *
+ * <p>
+ * All expressions are kept in a canonical form by smart constructors
+ * (&empty; absorption, &epsilon; identity, right-nested concatenations,
+ * sorted and duplicate-free alternations, {@code (r*)* = r*}) and are
+ * shared through a {@link NodeFactory}, so structurally equal expressions are
+ * the same object. Every canonical expression reached during matching becomes
+ * a state whose derivatives are memoized per symbol class, so the matcher
+ * turns into a DFA built on demand. A matcher is not thread-safe.
+ * </p>
+ */
+public class DerivativeMatcher implements RedeggsMatcher {
+
+	/** Marks a derivative that has not been computed yet. */
+	private static final int UNKNOWN = -1;
+
+	/** The partition classifying the input code points. */
+	private final AlphabetPartition partition;
+
+	/** The number of symbol classes. */
+	private final int classCount;
+
+	/** The smallest code point of each symbol class. */
+	private final int[] representatives;
+
+	/** The factory sharing structurally equal expressions. */
+	private final NodeFactory nodes = new NodeFactory();
+
+	/** The id of each canonical expression, in order of creation. */
+	private final Map<RegularEggspression, Integer> ids = new IdentityHashMap<>();
+
+	/** Whether each canonical expression, by id, matches the empty word. */
+	private boolean[] nullable = new boolean[64];
+
+	/** The canonical empty set. */
+	private final RegularEggspression emptySet;
+
+	/** The canonical empty word. */
+	private final RegularEggspression emptyWord;
+
+	/** The state of each expression reached during matching. */
+	private final Map<RegularEggspression, Integer> states = new IdentityHashMap<>();
+
+	/** The expression of each state. */
+	private final List<RegularEggspression> stateExpressions = new ArrayList<>();
+
+	/** The memoized derivatives, {@link #classCount} entries per state. */
+	private int[] derivatives = new int[0];
+
+	/** The initial state. */
+	private final int start;
+
+	/** The state of the empty set. */
+	private final int dead;
+
+	/**
+	 * Constructs a new matcher for the given expression.
+	 *
+	 * @param expression the expression to match
+	 */
+	public DerivativeMatcher(RegularEggspression expression) {
+		super();
+		this.partition = AlphabetPartition.of(expression);
+		this.classCount = partition.classCount();
+		this.representatives = new int[classCount];
+		for (int i = partition.intervalCount() - 1; i >= 0; i--) {
+			representatives[partition.intervalClass(i)] = partition.intervalFirst(i);
+		}
+		this.emptySet = register(nodes.emptySet(), false);
+		this.emptyWord = register(nodes.emptyWord(), true);
+		this.dead = state(emptySet);
+		this.start = state(seal(Traversal.postOrderShared(expression, new Canonicalizer())));
+	}
+
+	@Override
+	public int longestMatch(CharSequence input, int from, int to) {
+		int state = start;
+		int last = nullable(state) ? from : -1;
+		int position = from;
+		while (position < to) {
+			int codePoint = CodePoints.codePointAt(input, position, to);
+			int classId = partition.classOf(codePoint);
+			int next = derivatives[state * classCount + classId];
+			if (next == UNKNOWN) {
+				next = state(derive(stateExpressions.get(state), classId));
+				derivatives[state * classCount + classId] = next;
+			}
+			if (next == dead) {
+				break;
+			}
+			state = next;
+			position += Character.charCount(codePoint);
+			if (nullable(state)) {
+				last = position;
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Returns the number of distinct derivatives reached so far, which is the
+	 * number of states of the DFA built on demand.
+	 *
+	 * @return the number of states
+	 */
+	public int stateCount() {
+		return stateExpressions.size();
+	}
+
+	/**
+	 * Returns the canonical expression the matcher starts with.
+	 *
+	 * @return the canonical form of the matched expression
+	 */
+	public RegularEggspression expression() {
+		return stateExpressions.get(start);
+	}
+
+	/**
+	 * Computes the canonical derivative of a canonical expression.
+	 * <p>
+	 * Alternations and concatenations with nullable prefixes are walked along
+	 * their right spine, so only nested stars and alternations inside
+	 * concatenations consume Java stack.
+	 * </p>
+	 */
+	private RegularEggspression derive(RegularEggspression expression, int classId) {
+		if (expression instanceof Literal) {
+			Literal literal = (Literal) expression;
+			return literal.symbol().contains(representatives[classId]) ? emptyWord : emptySet;
+		}
+		if (expression instanceof Concatenation) {
+			List<RegularEggspression> alternatives = new ArrayList<>();
+			RegularEggspression rest = expression;
+			while (rest instanceof Concatenation) {
+				Concatenation concat = (Concatenation) rest;
+				alternatives.add(concatenation(derive(concat.left(), classId), concat.right()));
+				if (!isNullable(concat.left())) {
+					return alternation(alternatives);
+				}
+				rest = concat.right();
+			}
+			alternatives.add(derive(rest, classId));
+			return alternation(alternatives);
+		}
+		if (expression instanceof Alternation) {
+			List<RegularEggspression> alternatives = new ArrayList<>();
+			flatten(expression, alternatives);
+			for (int i = 0; i < alternatives.size(); i++) {
+				alternatives.set(i, derive(alternatives.get(i), classId));
+			}
+			return alternation(alternatives);
+		}
+		if (expression instanceof Star) {
+			return concatenation(derive(((Star) expression).base(), classId), expression);
+		}
+		return emptySet;
+	}
+
+	/**
+	 * Returns the canonical concatenation of two canonical expressions.
+	 */
+	private RegularEggspression concatenation(RegularEggspression left, RegularEggspression right) {
+		if (left == emptySet || right == emptySet) {
+			return emptySet;
+		}
+		if (left == emptyWord) {
+			return right;
+		}
+		if (right == emptyWord) {
+			return left;
+		}
+		List<RegularEggspression> factors = new ArrayList<>();
+		while (left instanceof Concatenation) {
+			factors.add(((Concatenation) left).left());
+			left = ((Concatenation) left).right();
+		}
+		factors.add(left);
+		RegularEggspression result = right;
+		for (int i = factors.size() - 1; i >= 0; i--) {
+			RegularEggspression factor = factors.get(i);
+			result = register(nodes.concatenation(factor, result), isNullable(factor) && isNullable(result));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the canonical alternation of two canonical expressions.
+	 */
+	private RegularEggspression alternation(RegularEggspression left, RegularEggspression right) {
+		if (left == right || right == emptySet) {
+			return left;
+		}
+		if (left == emptySet) {
+			return right;
+		}
+		List<RegularEggspression> alternatives = new ArrayList<>();
+		flatten(left, alternatives);
+		flatten(right, alternatives);
+		return alternation(alternatives);
+	}
+
+	/**
+	 * Returns the canonical alternation of the given canonical expressions,
+	 * which may be alternations themselves.
+	 */
+	private RegularEggspression alternation(List<RegularEggspression> alternatives) {
+		List<RegularEggspression> flat = new ArrayList<>(alternatives.size());
+		for (RegularEggspression alternative : alternatives) {
+			if (alternative != emptySet) {
+				flatten(alternative, flat);
+			}
+		}
+		if (flat.isEmpty()) {
+			return emptySet;
+		}
+		flat.sort((a, b) -> Integer.compare(ids.get(a), ids.get(b)));
+		RegularEggspression result = flat.get(flat.size() - 1);
+		for (int i = flat.size() - 2; i >= 0; i--) {
+			RegularEggspression alternative = flat.get(i);
+			if (alternative != flat.get(i + 1)) {
+				result = register(nodes.alternation(alternative, result),
+						isNullable(alternative) || isNullable(result));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the alternatives of a canonical, right-nested alternation.
+	 */
+	private static void flatten(RegularEggspression expression, List<RegularEggspression> alternatives) {
+		while (expression instanceof Alternation) {
+			alternatives.add(((Alternation) expression).left());
+			expression = ((Alternation) expression).right();
+		}
+		alternatives.add(expression);
+	}
+
+	/**
+	 * Returns the canonical star of a canonical expression.
+	 */
+	private RegularEggspression star(RegularEggspression base) {
+		if (base == emptySet || base == emptyWord) {
+			return emptyWord;
+		}
+		if (base instanceof Star) {
+			return base;
+		}
+		return register(nodes.star(base), true);
+	}
+
+	/**
+	 * Returns the canonical literal for the given symbol.
+	 */
+	private RegularEggspression literal(VirtualSymbol symbol) {
+		if (symbol instanceof IntervalSymbol && ((IntervalSymbol) symbol).isEmpty()) {
+			return emptySet;
+		}
+		return register(nodes.literal(symbol), false);
+	}
+
+	/**
+	 * Assigns an id to a shared node the first time it is seen.
+	 */
+	private RegularEggspression register(RegularEggspression node, boolean matchesEmptyWord) {
+		if (!ids.containsKey(node)) {
+			int id = ids.size();
+			if (id == nullable.length) {
+				nullable = Arrays.copyOf(nullable, id << 1);
+			}
+			nullable[id] = matchesEmptyWord;
+			ids.put(node, id);
+		}
+		return node;
+	}
+
+	/**
+	 * Checks whether a canonical expression matches the empty word.
+	 */
+	private boolean isNullable(RegularEggspression expression) {
+		return nullable[ids.get(expression)];
+	}
+
+	/**
+	 * Checks whether the expression of a state matches the empty word.
+	 */
+	private boolean nullable(int state) {
+		return isNullable(stateExpressions.get(state));
+	}
+
+	/**
+	 * Returns the state of a canonical expression, creating it if necessary.
+	 */
+	private int state(RegularEggspression expression) {
+		Integer state = states.get(expression);
+		if (state != null) {
+			return state;
+		}
+		int id = stateExpressions.size();
+		stateExpressions.add(expression);
+		states.put(expression, id);
+		if ((id + 1) * classCount > derivatives.length) {
+			derivatives = Arrays.copyOf(derivatives, Math.max(16, id << 1) * classCount);
+		}
+		Arrays.fill(derivatives, id * classCount, (id + 1) * classCount, UNKNOWN);
+		return id;
+	}
+
+	/**
+	 * Turns a result of the {@link Canonicalizer} into a canonical expression.
+	 * <p>
+	 * Nodes without an id are pending: the canonicalizer chains operands of
+	 * nested concatenations and nested alternations without normalizing them,
+	 * and the whole chain is normalized at once when a node of another kind
+	 * consumes it. This keeps canonicalization linear and free of recursion
+	 * even for very long chains.
+	 * </p>
+	 */
+	private RegularEggspression seal(RegularEggspression expression) {
+		if (ids.containsKey(expression)) {
+			return expression;
+		}
+		boolean concat = expression instanceof Concatenation;
+		List<RegularEggspression> operands = new ArrayList<>();
+		List<RegularEggspression> stack = new ArrayList<>();
+		stack.add(expression);
+		while (!stack.isEmpty()) {
+			RegularEggspression node = stack.remove(stack.size() - 1);
+			if (ids.containsKey(node)) {
+				operands.add(node);
+			} else if (concat) {
+				stack.add(((Concatenation) node).right());
+				stack.add(((Concatenation) node).left());
+			} else {
+				stack.add(((Alternation) node).right());
+				stack.add(((Alternation) node).left());
+			}
+		}
+		if (!concat) {
+			return alternation(operands);
+		}
+		RegularEggspression result = emptyWord;
+		for (int i = operands.size() - 1; i >= 0; i--) {
+			result = concatenation(operands.get(i), result);
+		}
+		return result;
+	}
+
+	/**
+	 * Rebuilds an expression in canonical form, leaving chains of
+	 * concatenations and alternations pending, see {@link #seal}.
+	 */
+	private final class Canonicalizer implements RegularEggspression.Visitor<RegularEggspression> {
+
+		@Override
+		public RegularEggspression visit(EmptyWord emptyWord) {
+			return DerivativeMatcher.this.emptyWord;
+		}
+
+		@Override
+		public RegularEggspression visit(EmptySet emptySet) {
+			return DerivativeMatcher.this.emptySet;
+		}
+
+		@Override
+		public RegularEggspression visitPost(Concatenation concat, RegularEggspression prefix,
+				RegularEggspression suffix) {
+			return new Concatenation(sealUnless(Concatenation.class, prefix), sealUnless(Concatenation.class, suffix));
+		}
+
+		@Override
+		public RegularEggspression visitPost(Alternation union, RegularEggspression first,
+				RegularEggspression second) {
+			return new Alternation(sealUnless(Alternation.class, first), sealUnless(Alternation.class, second));
+		}
+
+		@Override
+		public RegularEggspression visitPost(Star star, RegularEggspression base) {
+			return star(seal(base));
+		}
+
+		@Override
+		public RegularEggspression visitPost(Literal literal, VirtualSymbol symbol) {
+			return literal(symbol);
+		}
+
+		/**
+		 * Seals a pending operand unless it continues a chain of the given kind.
+		 */
+		private RegularEggspression sealUnless(Class<?> kind, RegularEggspression operand) {
+			return (kind.isInstance(operand) && !ids.containsKey(operand)) ? operand : seal(operand);
+		}
+	}
+
+}
@@ -0,0 +1,364 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A deterministic automaton over the symbol classes of an
+ * {@link AlphabetPartition}, stored as a dense transition table.
+ * <p>
+ * The successor of state {@code s} on class {@code c} is
+ * {@code transitions[s * classCount + c]}, so matching costs one
+ * classification and one array load per code point. The automaton is
+ * complete; a non-accepting sink, if any, is reported as the dead state and
+ * ends matching early. A DFA built from an NFA with several rules labels every
+ * accepting state with the lowest rule it accepts, and minimization never
+ * merges states with different labels. Instances are immutable and
+ * thread-safe.
+ * </p>
+ */
+public final class Dfa implements RedeggsMatcher {
+
+	/** The default limit on the number of states built by subset construction. */
+	public static final int DEFAULT_STATE_LIMIT = 100_000;
+
+	/** The partition classifying the input code points. */
+	final AlphabetPartition partition;
+
+	/** The number of symbol classes, i.e. the width of a row of transitions. */
+	final int classCount;
+
+	/** The number of states. */
+	final int stateCount;
+
+	/** The initial state. */
+	final int start;
+
+	/** The non-accepting sink state, or {@code -1} if there is none. */
+	final int dead;
+
+	/** The dense transition table. */
+	final int[] transitions;
+
+	/** The accepting states as a bitset. */
+	final long[] accepting;
+
+	/** The lowest rule accepted by each state, {@link Nfa#NONE} if none. */
+	final int[] rules;
+
+	/**
+	 * Constructs a new DFA from its tables, which are taken over without copying.
+	 */
+	Dfa(AlphabetPartition partition, int start, int[] transitions, int[] rules) {
+		super();
+		this.partition = partition;
+		this.classCount = partition.classCount();
+		this.stateCount = transitions.length / classCount;
+		this.start = start;
+		this.transitions = transitions;
+		this.rules = rules;
+		this.accepting = new long[(stateCount + 63) >>> 6];
+		for (int state = 0; state < stateCount; state++) {
+			if (rules[state] != Nfa.NONE) {
+				accepting[state >>> 6] |= 1L << state;
+			}
+		}
+		this.dead = findDeadState();
+	}
+
+	/**
+	 * Compiles the given expression into a minimal DFA.
+	 *
+	 * @param expression the expression to compile
+	 * @return the minimal DFA accepting the language of the expression
+	 */
+	public static Dfa compile(RegularEggspression expression) {
+		RedeggsEvents.Compile event = new RedeggsEvents.Compile();
+		event.begin();
+		long started = System.nanoTime();
+		Dfa dfa = null;
+		try {
+			dfa = determinize(Nfa.compile(expression), DEFAULT_STATE_LIMIT).minimize();
+			RedeggsMetrics.COMPILATIONS.increment();
+			return dfa;
+		} finally {
+			RedeggsMetrics.COMPILE_NANOS.add(System.nanoTime() - started);
+			event.end();
+			if (event.shouldCommit()) {
+				event.patternHash = expression.hashCode();
+				event.nodeCount = RedeggsEvents.nodeCount(expression);
+				event.failed = (dfa == null);
+				if (dfa != null) {
+					event.symbolCount = dfa.classCount;
+					event.stateCount = dfa.stateCount;
+				}
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Turns the given NFA into an equivalent DFA by subset construction.
+	 *
+	 * @param nfa        the automaton to determinize
+	 * @param stateLimit the maximum number of DFA states to build
+	 * @return the (not necessarily minimal) DFA
+	 * @throws IllegalStateException if the DFA would exceed the state limit
+	 */
+	public static Dfa determinize(Nfa nfa, int stateLimit) {
+		RedeggsEvents.Determinize event = new RedeggsEvents.Determinize();
+		event.begin();
+		long started = System.nanoTime();
+		Dfa dfa = null;
+		try {
+			dfa = subsetConstruction(nfa, stateLimit);
+			RedeggsMetrics.DETERMINIZATIONS.increment();
+			RedeggsMetrics.DETERMINIZED_STATES.add(dfa.stateCount);
+			return dfa;
+		} finally {
+			RedeggsMetrics.DETERMINIZE_NANOS.add(System.nanoTime() - started);
+			event.end();
+			if (event.shouldCommit()) {
+				event.nfaStateCount = nfa.stateCount();
+				event.failed = (dfa == null);
+				if (dfa != null) {
+					event.symbolCount = dfa.classCount;
+					event.stateCount = dfa.stateCount;
+				}
+				event.commit();
+			}
+		}
+	}
+
+	private static Dfa subsetConstruction(Nfa nfa, int stateLimit) {
+		int classCount = nfa.partition.classCount();
+		SparseSet scratch = new SparseSet(nfa.stateCount());
+		int[] stack = new int[nfa.stateCount()];
+
+		Map<StateKey, Integer> ids = new HashMap<>();
+		int[][] sets = new int[16][];
+		int[] transitions = new int[16 * classCount];
+		int count = 0;
+
+		nfa.closure(scratch, nfa.start, stack);
+		sets[count] = nfa.relevantStates(scratch);
+		ids.put(new StateKey(sets[count]), count);
+		count++;
+
+		for (int state = 0; state < count; state++) {
+			for (int classId = 0; classId < classCount; classId++) {
+				scratch.clear();
+				for (int nfaState : sets[state]) {
+					int target = nfa.step(nfaState, classId);
+					if (target != Nfa.NONE) {
+						nfa.closure(scratch, target, stack);
+					}
+				}
+				StateKey key = new StateKey(nfa.relevantStates(scratch));
+				Integer next = ids.get(key);
+				if (next == null) {
+					if (count == stateLimit) {
+						throw new IllegalStateException(String.format("DFA exceeds the limit of %d states.", stateLimit));
+					}
+					if (count == sets.length) {
+						sets = Arrays.copyOf(sets, count << 1);
+						transitions = Arrays.copyOf(transitions, (count << 1) * classCount);
+					}
+					next = count;
+					sets[count++] = key.states;
+					ids.put(key, next);
+				}
+				transitions[state * classCount + classId] = next;
+			}
+		}
+
+		int[] rules = new int[count];
+		for (int state = 0; state < count; state++) {
+			rules[state] = nfa.lowestRule(sets[state]);
+		}
+		return new Dfa(nfa.partition, 0, Arrays.copyOf(transitions, count * classCount), rules);
+	}
+
+	/**
+	 * Returns the equivalent DFA with the minimal number of states, computed by
+	 * Hopcroft's algorithm. States are numbered in breadth-first order from the
+	 * initial state, which gets number 0.
+	 *
+	 * @return the minimal DFA
+	 */
+	public Dfa minimize() {
+		int[] labels = new int[stateCount];
+		for (int state = 0; state < stateCount; state++) {
+			labels[state] = rules[state] + 1;
+		}
+		int[] blocks = DfaMinimizer.refine(stateCount, classCount, transitions, labels);
+		int blockCount = 0;
+		for (int block : blocks) {
+			blockCount = Math.max(blockCount, block + 1);
+		}
+		int[] representative = new int[blockCount];
+		for (int state = stateCount - 1; state >= 0; state--) {
+			representative[blocks[state]] = state;
+		}
+
+		// renumber the blocks in breadth-first order
+		int[] number = new int[blockCount];
+		Arrays.fill(number, -1);
+		int[] queue = new int[blockCount];
+		int size = 0;
+		number[blocks[start]] = size;
+		queue[size++] = blocks[start];
+		int[] minimal = new int[blockCount * classCount];
+		int[] minimalRules = new int[blockCount];
+		for (int head = 0; head < size; head++) {
+			int block = queue[head];
+			int state = representative[block];
+			for (int classId = 0; classId < classCount; classId++) {
+				int target = blocks[transitions[state * classCount + classId]];
+				if (number[target] < 0) {
+					number[target] = size;
+					queue[size++] = target;
+				}
+				minimal[head * classCount + classId] = number[target];
+			}
+			minimalRules[head] = rules[state];
+		}
+		return new Dfa(partition, 0, Arrays.copyOf(minimal, size * classCount), Arrays.copyOf(minimalRules, size));
+	}
+
+	@Override
+	public int longestMatch(CharSequence input, int from, int to) {
+		int[] table = transitions;
+		int width = classCount;
+		int state = start;
+		int last = isAccepting(state) ? from : -1;
+		int position = from;
+		while (position < to) {
+			int codePoint = CodePoints.codePointAt(input, position, to);
+			state = table[state * width + partition.classOf(codePoint)];
+			if (state == dead) {
+				break;
+			}
+			position += Character.charCount(codePoint);
+			if ((accepting[state >>> 6] & (1L << state)) != 0) {
+				last = position;
+			}
+		}
+		return last;
+	}
+
+	@Override
+	public boolean matches(CharSequence input) {
+		int[] table = transitions;
+		int width = classCount;
+		int state = start;
+		int length = input.length();
+		int position = 0;
+		while (position < length) {
+			int codePoint = CodePoints.codePointAt(input, position, length);
+			state = table[state * width + partition.classOf(codePoint)];
+			if (state == dead) {
+				return false;
+			}
+			position += Character.charCount(codePoint);
+		}
+		return isAccepting(state);
+	}
+
+	/**
+	 * Returns the partition classifying the input of this DFA.
+	 *
+	 * @return the alphabet partition
+	 */
+	public AlphabetPartition partition() {
+		return partition;
+	}
+
+	/**
+	 * Returns the number of states.
+	 *
+	 * @return the number of states
+	 */
+	public int stateCount() {
+		return stateCount;
+	}
+
+	/**
+	 * Returns the number of symbol classes.
+	 *
+	 * @return the number of symbol classes
+	 */
+	public int classCount() {
+		return classCount;
+	}
+
+	/**
+	 * Returns the initial state.
+	 *
+	 * @return the initial state
+	 */
+	public int start() {
+		return start;
+	}
+
+	/**
+	 * Returns the non-accepting sink state.
+	 *
+	 * @return the dead state, or {@code -1} if there is none
+	 */
+	public int dead() {
+		return dead;
+	}
+
+	/**
+	 * Returns the successor of a state on a symbol class.
+	 *
+	 * @param state   the state to leave
+	 * @param classId the class of the input symbol
+	 * @return the successor state
+	 */
+	public int next(int state, int classId) {
+		return transitions[state * classCount + classId];
+	}
+
+	/**
+	 * Checks whether the given state is accepting.
+	 *
+	 * @param state the state to check
+	 * @return {@code true} if the state is accepting
+	 */
+	public boolean isAccepting(int state) {
+		return (accepting[state >>> 6] & (1L << state)) != 0;
+	}
+
+	/**
+	 * Returns the lowest rule accepted by the given state.
+	 *
+	 * @param state the state to check
+	 * @return the index of the rule, or {@code -1} if the state is not accepting
+	 */
+	public int rule(int state) {
+		return rules[state];
+	}
+
+	/**
+	 * Finds a non-accepting state whose transitions all lead back to itself.
+	 */
+	private int findDeadState() {
+		for (int state = 0; state < stateCount; state++) {
+			if (isAccepting(state)) {
+				continue;
+			}
+			boolean sink = true;
+			for (int classId = 0; classId < classCount && sink; classId++) {
+				sink = transitions[state * classCount + classId] == state;
+			}
+			if (sink) {
+				return state;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,401 @@
+package de.dhbw.mh.redeggs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Generates a hidden class that implements {@link RedeggsMatcher#longestMatch}
+ * for one {@link Dfa} as straight-line code.
+ * <p>
+ * Every state becomes a block of bytecode that reads the next code point,
+ * classifies it and dispatches with a {@code tableswitch} on its symbol class
+ * directly to the block of the successor state. Transitions into an accepting
+ * state enter through a prologue recording the match end, and transitions
+ * into the dead state leave the method. There is no transition table left for
+ * the JIT to chase, so it can keep the whole automaton in registers.
+ * </p>
+ *
+ * <p>
+ * The class file targets version 49, which is verified by type inference and
+ * needs no stack map frames. Since branch offsets are 16 bits wide, automata
+ * whose code exceeds {@link #MAX_CODE_LENGTH} bytes are rejected.
+ * </p>
+ */
+final class DfaClassGenerator {
+
+	/** The largest method body reachable by 16-bit branch offsets. */
+	static final int MAX_CODE_LENGTH = Short.MAX_VALUE;
+
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_PRIVATE = 0x0002;
+	private static final int ACC_FINAL = 0x0010;
+	private static final int ACC_SUPER = 0x0020;
+
+	private static final int ICONST_M1 = 0x02;
+	private static final int ILOAD = 0x15;
+	private static final int ALOAD = 0x19;
+	private static final int ISTORE = 0x36;
+	private static final int ASTORE = 0x3a;
+	private static final int IADD = 0x60;
+	private static final int IF_ICMPGE = 0xa2;
+	private static final int GOTO = 0xa7;
+	private static final int TABLESWITCH = 0xaa;
+	private static final int IRETURN = 0xac;
+	private static final int RETURN = 0xb1;
+	private static final int GETFIELD = 0xb4;
+	private static final int PUTFIELD = 0xb5;
+	private static final int INVOKEVIRTUAL = 0xb6;
+	private static final int INVOKESPECIAL = 0xb7;
+	private static final int INVOKESTATIC = 0xb8;
+
+	/** The local variables of the generated {@code longestMatch}. */
+	private static final int INPUT = 1, TO = 3, POSITION = 4, LAST = 5, CODE_POINT = 6, PARTITION = 7;
+
+	/** The constant pool in class file format. */
+	private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+
+	/** The index of each constant, keyed by its encoding. */
+	private final Map<String, Integer> constants = new HashMap<>();
+
+	/** The number of constant pool entries plus one. */
+	private int poolSize = 1;
+
+	private DfaClassGenerator() {
+		super();
+	}
+
+	/**
+	 * Generates, defines and instantiates the matcher class for a DFA.
+	 *
+	 * @param dfa the automaton to translate
+	 * @return the generated matcher
+	 * @throws IllegalStateException if the DFA is too large for a single method
+	 * @throws ReflectiveOperationException if the class cannot be instantiated
+	 */
+	static RedeggsMatcher generate(Dfa dfa) throws ReflectiveOperationException {
+		byte[] bytes = new DfaClassGenerator().classFile(dfa);
+		MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+		MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(),
+				MethodType.methodType(void.class, AlphabetPartition.class));
+		try {
+			return (RedeggsMatcher) constructor.invoke(dfa.partition);
+		} catch (Error | RuntimeException | ReflectiveOperationException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Assembles the class file for a DFA.
+	 */
+	byte[] classFile(Dfa dfa) {
+		int thisClass = classRef("de/dhbw/mh/redeggs/GeneratedDfa");
+		int superClass = classRef("java/lang/Object");
+		int matcherInterface = classRef("de/dhbw/mh/redeggs/RedeggsMatcher");
+		int partitionField = memberRef(9, "de/dhbw/mh/redeggs/GeneratedDfa", "partition",
+				"Lde/dhbw/mh/redeggs/AlphabetPartition;");
+		int objectInit = memberRef(10, "java/lang/Object", "<init>", "()V");
+		int codePointAt = memberRef(10, "de/dhbw/mh/redeggs/CodePoints", "codePointAt",
+				"(Ljava/lang/CharSequence;II)I");
+		int classOf = memberRef(10, "de/dhbw/mh/redeggs/AlphabetPartition", "classOf", "(I)I");
+		int charCount = memberRef(10, "java/lang/Character", "charCount", "(I)I");
+
+		byte[] constructorCode = constructorCode(objectInit, partitionField);
+		byte[] matchCode = matchCode(dfa, partitionField, codePointAt, classOf, charCount);
+
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(49);
+			// resolve all names before the pool is written
+			int fieldName = utf8("partition");
+			int fieldType = utf8("Lde/dhbw/mh/redeggs/AlphabetPartition;");
+			int initName = utf8("<init>");
+			int initType = utf8("(Lde/dhbw/mh/redeggs/AlphabetPartition;)V");
+			int matchName = utf8("longestMatch");
+			int matchType = utf8("(Ljava/lang/CharSequence;II)I");
+			int code = utf8("Code");
+			out.writeShort(poolSize);
+			pool.writeTo(out);
+
+			out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			out.writeShort(1);
+			out.writeShort(matcherInterface);
+
+			out.writeShort(1);
+			out.writeShort(ACC_PRIVATE | ACC_FINAL);
+			out.writeShort(fieldName);
+			out.writeShort(fieldType);
+			out.writeShort(0);
+
+			out.writeShort(2);
+			writeMethod(out, ACC_PUBLIC, initName, initType, code, 2, 2, constructorCode);
+			writeMethod(out, ACC_PUBLIC, matchName, matchType, code, 3, PARTITION + 1, matchCode);
+			out.writeShort(0);
+			return bytes.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static byte[] constructorCode(int objectInit, int partitionField) {
+		Code code = new Code(16);
+		code.op(ALOAD).u1(0);
+		code.op(INVOKESPECIAL).u2(objectInit);
+		code.op(ALOAD).u1(0);
+		code.op(ALOAD).u1(1);
+		code.op(PUTFIELD).u2(partitionField);
+		code.op(RETURN);
+		return code.toArray();
+	}
+
+	/**
+	 * Translates the automaton into the body of {@code longestMatch}.
+	 */
+	private static byte[] matchCode(Dfa dfa, int partitionField, int codePointAt, int classOf, int charCount) {
+		int states = dfa.stateCount;
+		int classes = dfa.classCount;
+		Code code = new Code(64 + states * (48 + 4 * classes));
+		// the offsets of each state's block and of the exit
+		int[] entry = new int[states];
+		int exit;
+		// the branches to patch as triples: the position of the offset, with the
+		// sign bit set for 4-byte offsets, the position of the branch, and the
+		// target state or -1 for the exit
+		int[] patches = new int[16];
+		int patchCount = 0;
+
+		code.op(ALOAD).u1(0);
+		code.op(GETFIELD).u2(partitionField);
+		code.op(ASTORE).u1(PARTITION);
+		code.op(ILOAD).u1(2);
+		code.op(ISTORE).u1(POSITION);
+		code.op(ICONST_M1);
+		code.op(ISTORE).u1(LAST);
+		int base = code.length();
+		code.op(GOTO).u2(0);
+		patches = grow(patches, patchCount + 3);
+		patches[patchCount++] = base + 1;
+		patches[patchCount++] = base;
+		patches[patchCount++] = dfa.start;
+
+		for (int state = 0; state < states; state++) {
+			entry[state] = code.length();
+			if (dfa.isAccepting(state)) {
+				code.op(ILOAD).u1(POSITION);
+				code.op(ISTORE).u1(LAST);
+			}
+			if (state == dfa.dead) {
+				// only reachable as the initial state
+				base = code.length();
+				code.op(GOTO).u2(0);
+				patches = grow(patches, patchCount + 3);
+				patches[patchCount++] = base + 1;
+				patches[patchCount++] = base;
+				patches[patchCount++] = -1;
+				continue;
+			}
+			// if (position >= to) return last;
+			code.op(ILOAD).u1(POSITION);
+			code.op(ILOAD).u1(TO);
+			base = code.length();
+			code.op(IF_ICMPGE).u2(0);
+			patches = grow(patches, patchCount + 3);
+			patches[patchCount++] = base + 1;
+			patches[patchCount++] = base;
+			patches[patchCount++] = -1;
+			// codePoint = CodePoints.codePointAt(input, position, to);
+			code.op(ALOAD).u1(INPUT);
+			code.op(ILOAD).u1(POSITION);
+			code.op(ILOAD).u1(TO);
+			code.op(INVOKESTATIC).u2(codePointAt);
+			code.op(ISTORE).u1(CODE_POINT);
+			// position += Character.charCount(codePoint);
+			code.op(ILOAD).u1(POSITION);
+			code.op(ILOAD).u1(CODE_POINT);
+			code.op(INVOKESTATIC).u2(charCount);
+			code.op(IADD);
+			code.op(ISTORE).u1(POSITION);
+			// switch (partition.classOf(codePoint))
+			code.op(ALOAD).u1(PARTITION);
+			code.op(ILOAD).u1(CODE_POINT);
+			code.op(INVOKEVIRTUAL).u2(classOf);
+			base = code.length();
+			code.op(TABLESWITCH);
+			while (code.length() % 4 != 0) {
+				code.u1(0);
+			}
+			patches = grow(patches, patchCount + 3 * (classes + 1));
+			patches[patchCount++] = code.length() | Integer.MIN_VALUE;
+			patches[patchCount++] = base;
+			patches[patchCount++] = -1;
+			code.u4(0).u4(0).u4(classes - 1);
+			for (int classId = 0; classId < classes; classId++) {
+				int target = dfa.next(state, classId);
+				patches[patchCount++] = code.length() | Integer.MIN_VALUE;
+				patches[patchCount++] = base;
+				patches[patchCount++] = (target == dfa.dead) ? -1 : target;
+				code.u4(0);
+			}
+		}
+		exit = code.length();
+		code.op(ILOAD).u1(LAST);
+		code.op(IRETURN);
+
+		if (code.length() > MAX_CODE_LENGTH) {
+			throw new IllegalStateException(String.format("DFA with %d states and %d classes needs %d bytes of code.",
+					states, classes, code.length()));
+		}
+		for (int i = 0; i < patchCount; i += 3) {
+			int at = patches[i];
+			int target = patches[i + 2];
+			int offset = ((target < 0) ? exit : entry[target]) - patches[i + 1];
+			if (at < 0) {
+				code.patch4(at & Integer.MAX_VALUE, offset);
+			} else {
+				code.patch2(at, offset);
+			}
+		}
+		return code.toArray();
+	}
+
+	private static int[] grow(int[] array, int capacity) {
+		return (capacity <= array.length) ? array : Arrays.copyOf(array, Math.max(capacity, array.length << 1));
+	}
+
+	private static void writeMethod(DataOutputStream out, int access, int name, int type, int codeName, int maxStack,
+			int maxLocals, byte[] code) throws IOException {
+		out.writeShort(access);
+		out.writeShort(name);
+		out.writeShort(type);
+		out.writeShort(1);
+		out.writeShort(codeName);
+		out.writeInt(12 + code.length);
+		out.writeShort(maxStack);
+		out.writeShort(maxLocals);
+		out.writeInt(code.length);
+		out.write(code);
+		out.writeShort(0);
+		out.writeShort(0);
+	}
+
+	private int utf8(String value) {
+		return constant("U" + value, out -> {
+			out.writeByte(1);
+			out.writeUTF(value);
+		});
+	}
+
+	private int classRef(String name) {
+		int nameIndex = utf8(name);
+		return constant("C" + name, out -> {
+			out.writeByte(7);
+			out.writeShort(nameIndex);
+		});
+	}
+
+	/**
+	 * Adds a field (tag 9) or method (tag 10) reference.
+	 */
+	private int memberRef(int tag, String owner, String name, String type) {
+		int ownerIndex = classRef(owner);
+		int nameIndex = utf8(name);
+		int typeIndex = utf8(type);
+		int nameAndType = constant("N" + name + ":" + type, out -> {
+			out.writeByte(12);
+			out.writeShort(nameIndex);
+			out.writeShort(typeIndex);
+		});
+		return constant("M" + owner + "." + name + ":" + type, out -> {
+			out.writeByte(tag);
+			out.writeShort(ownerIndex);
+			out.writeShort(nameAndType);
+		});
+	}
+
+	private interface Entry {
+		void write(DataOutputStream out) throws IOException;
+	}
+
+	private int constant(String key, Entry entry) {
+		Integer index = constants.get(key);
+		if (index == null) {
+			try {
+				entry.write(new DataOutputStream(pool));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			index = poolSize++;
+			constants.put(key, index);
+		}
+		return index;
+	}
+
+	/**
+	 * A growable buffer of bytecode.
+	 */
+	private static final class Code {
+
+		private byte[] bytes;
+
+		private int length;
+
+		Code(int capacity) {
+			this.bytes = new byte[capacity];
+		}
+
+		int length() {
+			return length;
+		}
+
+		Code op(int opcode) {
+			return u1(opcode);
+		}
+
+		Code u1(int value) {
+			if (length == bytes.length) {
+				bytes = Arrays.copyOf(bytes, length << 1);
+			}
+			bytes[length++] = (byte) value;
+			return this;
+		}
+
+		Code u2(int value) {
+			return u1(value >>> 8).u1(value);
+		}
+
+		Code u4(int value) {
+			return u2(value >>> 16).u2(value);
+		}
+
+		void patch2(int at, int value) {
+			bytes[at] = (byte) (value >>> 8);
+			bytes[at + 1] = (byte) value;
+		}
+
+		void patch4(int at, int value) {
+			bytes[at] = (byte) (value >>> 24);
+			bytes[at + 1] = (byte) (value >>> 16);
+			bytes[at + 2] = (byte) (value >>> 8);
+			bytes[at + 3] = (byte) value;
+		}
+
+		byte[] toArray() {
+			return Arrays.copyOf(bytes, length);
+		}
+	}
+
+}
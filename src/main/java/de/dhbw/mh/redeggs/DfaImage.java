@@ -0,0 +1,387 @@
+package de.dhbw.mh.redeggs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32;
+
+/**
+ * A compiled automaton in a versioned binary format that is matched against in
+ * place.
+ * <p>
+ * An image holds the symbol classes, the transition table and the token of
+ * each state of a {@link Dfa} or {@link Lexer}. It is read directly from its
+ * {@link ByteBuffer}, so an image mapped with {@link #map(Path)} needs no
+ * deserialization and its pages can be shared by all processes that map the
+ * same file. Images are thread-safe.
+ * </p>
+ *
+ * <p>
+ * All values are big-endian 32-bit integers. The header consists of the magic
+ * number, the format version, the class count, the state count, the start
+ * state, the dead state (or {@code -1}), the number of code point intervals
+ * and the CRC32 of the remainder. It is followed by the classes of the ASCII
+ * code points, the first code point and class of each interval, the dense
+ * transition table, and the token of each state ({@link Lexer#ERROR} if it
+ * does not accept).
+ * </p>
+ */
+public final class DfaImage implements RedeggsMatcher {
+
+	/** The magic number at the start of every image, "REGG" in ASCII. */
+	public static final int MAGIC = 0x52454747;
+
+	/** The version of the format written by this class. */
+	public static final int VERSION = 1;
+
+	/** The byte size of the header. */
+	static final int HEADER_SIZE = 32;
+
+	/** The number of code points classified by a direct lookup. */
+	private static final int ASCII = 128;
+
+	/** The content of the image. */
+	private final ByteBuffer image;
+
+	/** The number of symbol classes, i.e. the width of a row of transitions. */
+	private final int classCount;
+
+	/** The number of states. */
+	private final int stateCount;
+
+	/** The initial state. */
+	private final int start;
+
+	/** The non-accepting sink state, or {@code -1} if there is none. */
+	private final int dead;
+
+	/** The number of code point intervals. */
+	private final int intervalCount;
+
+	/** The byte offsets of the sections. */
+	private final int asciiOffset;
+	private final int intervalStartsOffset;
+	private final int intervalClassesOffset;
+	private final int transitionsOffset;
+	private final int tokensOffset;
+
+	private DfaImage(ByteBuffer image) {
+		super();
+		if (image.remaining() < HEADER_SIZE) {
+			throw invalid("the image is truncated");
+		}
+		this.image = image.slice().order(ByteOrder.BIG_ENDIAN);
+		if (this.image.getInt(0) != MAGIC) {
+			throw invalid("the magic number is missing");
+		}
+		int version = this.image.getInt(4);
+		if (version != VERSION) {
+			throw invalid(String.format("version %d is not supported", version));
+		}
+		this.classCount = this.image.getInt(8);
+		this.stateCount = this.image.getInt(12);
+		this.start = this.image.getInt(16);
+		this.dead = this.image.getInt(20);
+		this.intervalCount = this.image.getInt(24);
+		if (classCount < 1 || stateCount < 1 || intervalCount < 1) {
+			throw invalid("the header is corrupt");
+		}
+		long size = size(classCount, stateCount, intervalCount);
+		if (size != this.image.remaining()) {
+			throw invalid(String.format("expected %d bytes but found %d", size, this.image.remaining()));
+		}
+		this.asciiOffset = HEADER_SIZE;
+		this.intervalStartsOffset = asciiOffset + ASCII * Integer.BYTES;
+		this.intervalClassesOffset = intervalStartsOffset + intervalCount * Integer.BYTES;
+		this.transitionsOffset = intervalClassesOffset + intervalCount * Integer.BYTES;
+		this.tokensOffset = transitionsOffset + stateCount * classCount * Integer.BYTES;
+
+		CRC32 crc = new CRC32();
+		crc.update(this.image.duplicate().position(HEADER_SIZE));
+		if ((int) crc.getValue() != this.image.getInt(28)) {
+			throw invalid("the checksum does not match");
+		}
+		validate();
+	}
+
+	/**
+	 * Checks that all classes and states are in range, so that matching never
+	 * reads outside the image.
+	 */
+	private void validate() {
+		if (start < 0 || start >= stateCount || dead < -1 || dead >= stateCount) {
+			throw invalid("the header is corrupt");
+		}
+		for (int offset = asciiOffset; offset < intervalStartsOffset; offset += Integer.BYTES) {
+			checkRange(image.getInt(offset), classCount);
+		}
+		for (int offset = intervalClassesOffset; offset < transitionsOffset; offset += Integer.BYTES) {
+			checkRange(image.getInt(offset), classCount);
+		}
+		if (image.getInt(intervalStartsOffset) != 0) {
+			throw invalid("the intervals do not start at code point 0");
+		}
+		for (int offset = transitionsOffset; offset < tokensOffset; offset += Integer.BYTES) {
+			checkRange(image.getInt(offset), stateCount);
+		}
+	}
+
+	private static void checkRange(int value, int bound) {
+		if (value < 0 || value >= bound) {
+			throw invalid("the tables are corrupt");
+		}
+	}
+
+	private static IllegalArgumentException invalid(String reason) {
+		return new IllegalArgumentException(String.format("Invalid automaton image: %s.", reason));
+	}
+
+	private static long size(int classCount, int stateCount, int intervalCount) {
+		return HEADER_SIZE + Integer.BYTES
+				* (ASCII + 2L * intervalCount + (long) stateCount * classCount + stateCount);
+	}
+
+	/**
+	 * Wraps an image without copying it.
+	 *
+	 * @param image the bytes of the image, from the position to the limit
+	 * @return the image
+	 * @throws IllegalArgumentException if the bytes are not a valid image of a
+	 *                                  supported version
+	 */
+	public static DfaImage of(ByteBuffer image) {
+		return new DfaImage(image);
+	}
+
+	/**
+	 * Maps an image file into memory.
+	 *
+	 * @param file the image file
+	 * @return the image, backed by the mapped file
+	 * @throws IOException              if the file cannot be mapped
+	 * @throws IllegalArgumentException if the file is not a valid image of a
+	 *                                  supported version
+	 */
+	public static DfaImage map(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new DfaImage(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Encodes a DFA, labeling each accepting state with its lowest rule.
+	 *
+	 * @param dfa the automaton to encode
+	 * @return a heap buffer holding the image
+	 */
+	public static ByteBuffer encode(Dfa dfa) {
+		return encode(dfa, null, ByteBuffer::allocate);
+	}
+
+	/**
+	 * Encodes a lexer, labeling each accepting state with its token id.
+	 *
+	 * @param lexer the lexer to encode
+	 * @return a heap buffer holding the image
+	 */
+	public static ByteBuffer encode(Lexer lexer) {
+		return encode(lexer.dfa, lexer.tokenIds, ByteBuffer::allocate);
+	}
+
+	/**
+	 * Encodes a DFA into a buffer obtained from the given allocator.
+	 *
+	 * @param dfa       the automaton to encode
+	 * @param tokenIds  the token id of each rule, or {@code null} to label the
+	 *                  states with rules
+	 * @param allocator allocates a buffer of the given capacity
+	 * @return the buffer holding the image
+	 */
+	static ByteBuffer encode(Dfa dfa, int[] tokenIds, IntFunction<ByteBuffer> allocator) {
+		AlphabetPartition partition = dfa.partition;
+		int intervalCount = partition.intervalCount();
+		long size = size(dfa.classCount, dfa.stateCount, intervalCount);
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(String.format("The automaton needs %d bytes.", size));
+		}
+		ByteBuffer image = allocator.apply((int) size).order(ByteOrder.BIG_ENDIAN);
+		image.putInt(MAGIC).putInt(VERSION).putInt(dfa.classCount).putInt(dfa.stateCount).putInt(dfa.start)
+				.putInt(dfa.dead).putInt(intervalCount).putInt(0);
+		for (int c = 0; c < ASCII; c++) {
+			image.putInt(partition.classOf(c));
+		}
+		for (int i = 0; i < intervalCount; i++) {
+			image.putInt(partition.intervalFirst(i));
+		}
+		for (int i = 0; i < intervalCount; i++) {
+			image.putInt(partition.intervalClass(i));
+		}
+		image.asIntBuffer().put(dfa.transitions);
+		image.position(image.position() + dfa.transitions.length * Integer.BYTES);
+		for (int state = 0; state < dfa.stateCount; state++) {
+			int rule = dfa.rules[state];
+			image.putInt((rule == Nfa.NONE) ? Lexer.ERROR : (tokenIds == null) ? rule : tokenIds[rule]);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(image.flip().position(HEADER_SIZE));
+		image.putInt(28, (int) crc.getValue());
+		return image.rewind();
+	}
+
+	/**
+	 * Writes the image of a DFA to a file.
+	 *
+	 * @param dfa  the automaton to write
+	 * @param file the file to create or replace
+	 * @throws IOException if writing fails
+	 */
+	public static void write(Dfa dfa, Path file) throws IOException {
+		write(encode(dfa), file);
+	}
+
+	/**
+	 * Writes the image of a lexer to a file.
+	 *
+	 * @param lexer the lexer to write
+	 * @param file  the file to create or replace
+	 * @throws IOException if writing fails
+	 */
+	public static void write(Lexer lexer, Path file) throws IOException {
+		write(encode(lexer), file);
+	}
+
+	private static void write(ByteBuffer image, Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (image.hasRemaining()) {
+				channel.write(image);
+			}
+		}
+	}
+
+	/**
+	 * Returns the class id of the given code point.
+	 */
+	private int classOf(int codePoint) {
+		if (codePoint < ASCII) {
+			return image.getInt(asciiOffset + (codePoint << 2));
+		}
+		int low = 0;
+		int high = intervalCount - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (image.getInt(intervalStartsOffset + (middle << 2)) <= codePoint) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return image.getInt(intervalClassesOffset + (low << 2));
+	}
+
+	private int next(int state, int codePoint) {
+		return image.getInt(transitionsOffset + ((state * classCount + classOf(codePoint)) << 2));
+	}
+
+	@Override
+	public int longestMatch(CharSequence input, int from, int to) {
+		int state = start;
+		int last = (token(state) != Lexer.ERROR) ? from : -1;
+		int position = from;
+		while (position < to) {
+			int codePoint = CodePoints.codePointAt(input, position, to);
+			state = next(state, codePoint);
+			if (state == dead) {
+				break;
+			}
+			position += Character.charCount(codePoint);
+			if (token(state) != Lexer.ERROR) {
+				last = position;
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Splits a region of the input into tokens like {@link Lexer#tokenize}.
+	 *
+	 * @param input    the characters to tokenize
+	 * @param from     the index of the first char of the region
+	 * @param to       the exclusive end of the region
+	 * @param tokenIds receives the token id of each token
+	 * @param ends     receives the exclusive end of each token
+	 * @return the number of tokens written, limited by the array lengths
+	 */
+	public int tokenize(CharSequence input, int from, int to, int[] tokenIds, int[] ends) {
+		int capacity = Math.min(tokenIds.length, ends.length);
+		int count = 0;
+		int position = from;
+		while (position < to && count < capacity) {
+			int state = start;
+			int token = Lexer.ERROR;
+			int end = position;
+			int current = position;
+			while (current < to) {
+				int codePoint = CodePoints.codePointAt(input, current, to);
+				state = next(state, codePoint);
+				if (state == dead) {
+					break;
+				}
+				current += Character.charCount(codePoint);
+				if (token(state) != Lexer.ERROR) {
+					token = token(state);
+					end = current;
+				}
+			}
+			if (end == position) {
+				end = position + Character.charCount(CodePoints.codePointAt(input, position, to));
+			}
+			tokenIds[count] = token;
+			ends[count++] = end;
+			position = end;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the token of a state.
+	 *
+	 * @param state the state
+	 * @return the token id or rule the state accepts, or {@link Lexer#ERROR}
+	 */
+	public int token(int state) {
+		return image.getInt(tokensOffset + (state << 2));
+	}
+
+	/**
+	 * Returns the number of states.
+	 *
+	 * @return the number of states
+	 */
+	public int stateCount() {
+		return stateCount;
+	}
+
+	/**
+	 * Returns the number of symbol classes.
+	 *
+	 * @return the number of symbol classes
+	 */
+	public int classCount() {
+		return classCount;
+	}
+
+	/**
+	 * Returns a read-only view of the bytes of this image.
+	 *
+	 * @return the image bytes
+	 */
+	public ByteBuffer buffer() {
+		return image.asReadOnlyBuffer();
+	}
+
+}
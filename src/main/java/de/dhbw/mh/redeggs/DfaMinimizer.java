@@ -0,0 +1,194 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Arrays;
+
+/**
+ * Hopcroft's partition refinement for complete DFAs given as dense transition
+ * tables.
+ * <p>
+ * States start out partitioned by a label (e.g. accepting or not) and blocks
+ * are split until no block can be distinguished by any symbol class. The
+ * algorithm runs in O(k&middot;n&middot;log n) for n states and k classes.
+ * </p>
+ */
+final class DfaMinimizer {
+
+	/** The number of states. */
+	private final int n;
+
+	/** The number of symbol classes. */
+	private final int k;
+
+	/** The states of each block, stored contiguously per block. */
+	private final int[] elements;
+
+	/** The index of each state in {@link #elements}. */
+	private final int[] location;
+
+	/** The block of each state. */
+	private final int[] blockOf;
+
+	/** The first index of each block in {@link #elements}. */
+	private final int[] first;
+
+	/** The exclusive end index of each block in {@link #elements}. */
+	private final int[] end;
+
+	/** The number of marked states at the front of each block. */
+	private final int[] marked;
+
+	/** The number of blocks. */
+	private int blockCount;
+
+	private DfaMinimizer(int stateCount, int classCount) {
+		this.n = stateCount;
+		this.k = classCount;
+		this.elements = new int[n];
+		this.location = new int[n];
+		this.blockOf = new int[n];
+		this.first = new int[n];
+		this.end = new int[n];
+		this.marked = new int[n];
+	}
+
+	/**
+	 * Computes the coarsest partition of the states that respects the labels and
+	 * the transitions.
+	 *
+	 * @param stateCount  the number of states
+	 * @param classCount  the number of symbol classes
+	 * @param transitions the dense transition table of the complete DFA
+	 * @param labels      the initial label of each state
+	 * @return the block of each state, numbered from 0
+	 */
+	static int[] refine(int stateCount, int classCount, int[] transitions, int[] labels) {
+		DfaMinimizer minimizer = new DfaMinimizer(stateCount, classCount);
+		minimizer.run(transitions, labels);
+		return minimizer.blockOf;
+	}
+
+	private void run(int[] transitions, int[] labels) {
+		// inverse transitions per class, in compressed row format
+		int[] inverseStart = new int[k * n + 1];
+		for (int p = 0; p < n; p++) {
+			for (int c = 0; c < k; c++) {
+				inverseStart[c * n + transitions[p * k + c] + 1]++;
+			}
+		}
+		for (int i = 1; i < inverseStart.length; i++) {
+			inverseStart[i] += inverseStart[i - 1];
+		}
+		int[] inverse = new int[k * n];
+		int[] fill = Arrays.copyOf(inverseStart, k * n);
+		for (int p = 0; p < n; p++) {
+			for (int c = 0; c < k; c++) {
+				inverse[fill[c * n + transitions[p * k + c]]++] = p;
+			}
+		}
+
+		// initial partition by label
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Integer.compare(labels[a], labels[b]));
+		for (int i = 0; i < n; i++) {
+			int state = order[i];
+			if (i == 0 || labels[state] != labels[order[i - 1]]) {
+				first[blockCount] = i;
+				blockCount++;
+			}
+			end[blockCount - 1] = i + 1;
+			elements[i] = state;
+			location[state] = i;
+			blockOf[state] = blockCount - 1;
+		}
+
+		// all initial blocks but the largest one are splitters
+		int[] worklist = new int[Math.max(1, n * k)];
+		boolean[] pending = new boolean[n * k];
+		int top = 0;
+		int largest = 0;
+		for (int b = 1; b < blockCount; b++) {
+			if (size(b) > size(largest)) {
+				largest = b;
+			}
+		}
+		for (int b = 0; b < blockCount; b++) {
+			if (b != largest) {
+				for (int c = 0; c < k; c++) {
+					worklist[top++] = b * k + c;
+					pending[b * k + c] = true;
+				}
+			}
+		}
+
+		int[] splitter = new int[n];
+		int[] touched = new int[n];
+		while (top > 0) {
+			int entry = worklist[--top];
+			pending[entry] = false;
+			int block = entry / k;
+			int c = entry % k;
+
+			// snapshot the splitter, marking moves states around within blocks
+			int splitterSize = size(block);
+			System.arraycopy(elements, first[block], splitter, 0, splitterSize);
+			int touchedCount = 0;
+			for (int i = 0; i < splitterSize; i++) {
+				int q = splitter[i];
+				for (int j = inverseStart[c * n + q]; j < inverseStart[c * n + q + 1]; j++) {
+					int p = inverse[j];
+					int x = blockOf[p];
+					int boundary = first[x] + marked[x];
+					if (location[p] >= boundary) {
+						swap(location[p], boundary);
+						if (marked[x]++ == 0) {
+							touched[touchedCount++] = x;
+						}
+					}
+				}
+			}
+
+			for (int t = 0; t < touchedCount; t++) {
+				int x = touched[t];
+				int m = marked[x];
+				marked[x] = 0;
+				if (m == size(x)) {
+					continue;
+				}
+				int y = blockCount++;
+				first[y] = first[x];
+				end[y] = first[x] + m;
+				first[x] = end[y];
+				for (int i = first[y]; i < end[y]; i++) {
+					blockOf[elements[i]] = y;
+				}
+				for (int a = 0; a < k; a++) {
+					if (pending[x * k + a]) {
+						worklist[top++] = y * k + a;
+						pending[y * k + a] = true;
+					} else {
+						int smaller = (size(y) <= size(x)) ? y : x;
+						worklist[top++] = smaller * k + a;
+						pending[smaller * k + a] = true;
+					}
+				}
+			}
+		}
+	}
+
+	private int size(int block) {
+		return end[block] - first[block];
+	}
+
+	private void swap(int i, int j) {
+		int a = elements[i];
+		int b = elements[j];
+		elements[i] = b;
+		elements[j] = a;
+		location[b] = i;
+		location[a] = j;
+	}
+
+}
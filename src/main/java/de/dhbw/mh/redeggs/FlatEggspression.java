@@ -0,0 +1,430 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptySet;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptyWord;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * A compact representation of a {@link RegularEggspression} as parallel
+ * arrays.
+ * <p>
+ * The nodes are numbered in post-order, so the operands of a node always have
+ * smaller numbers than the node itself and the root is the last node. For each
+ * node, {@code kinds} holds one of the {@code KIND_*} constants, {@code left}
+ * holds the first operand, the base of a star or the symbol id of a literal,
+ * and {@code right} holds the second operand or {@code -1}. The distinct
+ * symbols are kept in a separate table. A pass over the expression thus is a
+ * linear sweep over three {@code int[]} arrays instead of a walk over objects
+ * scattered across the heap, and the expression can be copied or stored as
+ * these arrays.
+ * </p>
+ *
+ * <p>
+ * Every distinct node of the source expression is stored once, so subtrees
+ * shared in a DAG (e.g. one built through a {@link NodeFactory}) stay shared.
+ * Instances are immutable and thread-safe.
+ * </p>
+ */
+public final class FlatEggspression {
+
+	/** The kind of the empty word. */
+	public static final int KIND_EMPTY_WORD = 0;
+
+	/** The kind of the empty set. */
+	public static final int KIND_EMPTY_SET = 1;
+
+	/** The kind of a literal. */
+	public static final int KIND_LITERAL = 2;
+
+	/** The kind of a concatenation. */
+	public static final int KIND_CONCATENATION = 3;
+
+	/** The kind of an alternation. */
+	public static final int KIND_ALTERNATION = 4;
+
+	/** The kind of a star. */
+	public static final int KIND_STAR = 5;
+
+	/** The kind of each node. */
+	private final int[] kinds;
+
+	/** The first operand, base or symbol id of each node, or {@code -1}. */
+	private final int[] left;
+
+	/** The second operand of each node, or {@code -1}. */
+	private final int[] right;
+
+	/** The distinct symbols, indexed by symbol id. */
+	private final VirtualSymbol[] symbols;
+
+	/**
+	 * Constructs a new expression from its tables, which are taken over without
+	 * copying.
+	 */
+	private FlatEggspression(int[] kinds, int[] left, int[] right, VirtualSymbol[] symbols) {
+		super();
+		this.kinds = kinds;
+		this.left = left;
+		this.right = right;
+		this.symbols = symbols;
+	}
+
+	/**
+	 * A visitor for the nodes of a flat expression, mirroring the
+	 * {@code visitPost} callbacks of {@link RegularEggspression.Visitor}. Nodes
+	 * are identified by their numbers.
+	 *
+	 * @param <T> the return type of the visit methods
+	 */
+	public static interface Visitor<T> {
+
+		/**
+		 * Visits an empty word node.
+		 *
+		 * @param node the number of the node
+		 * @return the result of visiting the node
+		 */
+		public T visitEmptyWord(int node);
+
+		/**
+		 * Visits an empty set node.
+		 *
+		 * @param node the number of the node
+		 * @return the result of visiting the node
+		 */
+		public T visitEmptySet(int node);
+
+		/**
+		 * Visits a concatenation node after its operands.
+		 *
+		 * @param node   the number of the node
+		 * @param prefix the result of visiting the left operand
+		 * @param suffix the result of visiting the right operand
+		 * @return the result of visiting the node
+		 */
+		public T visitPostConcatenation(int node, T prefix, T suffix);
+
+		/**
+		 * Visits an alternation node after its operands.
+		 *
+		 * @param node   the number of the node
+		 * @param first  the result of visiting the left operand
+		 * @param second the result of visiting the right operand
+		 * @return the result of visiting the node
+		 */
+		public T visitPostAlternation(int node, T first, T second);
+
+		/**
+		 * Visits a star node after its base.
+		 *
+		 * @param node the number of the node
+		 * @param base the result of visiting the base
+		 * @return the result of visiting the node
+		 */
+		public T visitPostStar(int node, T base);
+
+		/**
+		 * Visits a literal node.
+		 *
+		 * @param node     the number of the node
+		 * @param symbolId the id of the symbol of the literal
+		 * @return the result of visiting the node
+		 */
+		public T visitPostLiteral(int node, int symbolId);
+
+	}
+
+	/**
+	 * Converts the given expression.
+	 *
+	 * @param expression the expression to convert
+	 * @return the flat representation of the expression
+	 */
+	public static FlatEggspression of(RegularEggspression expression) {
+		Flattener flattener = new Flattener();
+		Traversal.postOrderShared(expression, flattener);
+		return new FlatEggspression(Arrays.copyOf(flattener.kinds, flattener.size),
+				Arrays.copyOf(flattener.left, flattener.size), Arrays.copyOf(flattener.right, flattener.size),
+				flattener.symbols.toArray(new VirtualSymbol[0]));
+	}
+
+	/**
+	 * Restores an expression from its tables, e.g. after reading them from
+	 * storage. The arrays are copied.
+	 *
+	 * @param kinds   the kind of each node, in post-order
+	 * @param left    the first operand, base or symbol id of each node
+	 * @param right   the second operand of each node
+	 * @param symbols the distinct symbols, indexed by symbol id
+	 * @return the flat expression
+	 * @throws IllegalArgumentException if the tables do not describe an
+	 *                                  expression in post-order
+	 */
+	public static FlatEggspression of(int[] kinds, int[] left, int[] right, List<? extends VirtualSymbol> symbols) {
+		if (kinds.length == 0 || left.length != kinds.length || right.length != kinds.length) {
+			throw new IllegalArgumentException("The tables must have the same, non-zero length.");
+		}
+		for (int node = 0; node < kinds.length; node++) {
+			boolean valid;
+			switch (kinds[node]) {
+			case KIND_EMPTY_WORD:
+			case KIND_EMPTY_SET:
+				valid = left[node] == -1 && right[node] == -1;
+				break;
+			case KIND_LITERAL:
+				valid = left[node] >= 0 && left[node] < symbols.size() && right[node] == -1;
+				break;
+			case KIND_STAR:
+				valid = left[node] >= 0 && left[node] < node && right[node] == -1;
+				break;
+			case KIND_CONCATENATION:
+			case KIND_ALTERNATION:
+				valid = left[node] >= 0 && left[node] < node && right[node] >= 0 && right[node] < node;
+				break;
+			default:
+				valid = false;
+			}
+			if (!valid) {
+				throw new IllegalArgumentException(String.format("Invalid node %d.", node));
+			}
+		}
+		return new FlatEggspression(kinds.clone(), left.clone(), right.clone(),
+				symbols.toArray(new VirtualSymbol[0]));
+	}
+
+	/**
+	 * Converts this expression back into linked nodes. Nodes that are shared in
+	 * this representation are shared in the result as well.
+	 *
+	 * @return the equivalent expression
+	 */
+	public RegularEggspression toExpression() {
+		return postOrder(new Visitor<RegularEggspression>() {
+
+			@Override
+			public RegularEggspression visitEmptyWord(int node) {
+				return new EmptyWord();
+			}
+
+			@Override
+			public RegularEggspression visitEmptySet(int node) {
+				return new EmptySet();
+			}
+
+			@Override
+			public RegularEggspression visitPostConcatenation(int node, RegularEggspression prefix,
+					RegularEggspression suffix) {
+				return new Concatenation(prefix, suffix);
+			}
+
+			@Override
+			public RegularEggspression visitPostAlternation(int node, RegularEggspression first,
+					RegularEggspression second) {
+				return new Alternation(first, second);
+			}
+
+			@Override
+			public RegularEggspression visitPostStar(int node, RegularEggspression base) {
+				return new Star(base);
+			}
+
+			@Override
+			public RegularEggspression visitPostLiteral(int node, int symbolId) {
+				return new Literal(symbols[symbolId]);
+			}
+		});
+	}
+
+	/**
+	 * Visits every node once in post-order, i.e. by increasing number.
+	 *
+	 * @param <T>     the result type of the visitor
+	 * @param visitor the visitor to invoke
+	 * @return the result of the visitor for the root node
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T postOrder(Visitor<T> visitor) {
+		Object[] results = new Object[kinds.length];
+		for (int node = 0; node < kinds.length; node++) {
+			switch (kinds[node]) {
+			case KIND_EMPTY_WORD:
+				results[node] = visitor.visitEmptyWord(node);
+				break;
+			case KIND_EMPTY_SET:
+				results[node] = visitor.visitEmptySet(node);
+				break;
+			case KIND_LITERAL:
+				results[node] = visitor.visitPostLiteral(node, left[node]);
+				break;
+			case KIND_CONCATENATION:
+				results[node] = visitor.visitPostConcatenation(node, (T) results[left[node]], (T) results[right[node]]);
+				break;
+			case KIND_ALTERNATION:
+				results[node] = visitor.visitPostAlternation(node, (T) results[left[node]], (T) results[right[node]]);
+				break;
+			default:
+				results[node] = visitor.visitPostStar(node, (T) results[left[node]]);
+			}
+		}
+		return (T) results[kinds.length - 1];
+	}
+
+	/**
+	 * Returns the number of nodes.
+	 *
+	 * @return the number of distinct nodes
+	 */
+	public int nodeCount() {
+		return kinds.length;
+	}
+
+	/**
+	 * Returns the number of the root node.
+	 *
+	 * @return the number of the last node
+	 */
+	public int root() {
+		return kinds.length - 1;
+	}
+
+	/**
+	 * Returns the kind of a node.
+	 *
+	 * @param node the number of the node
+	 * @return one of the {@code KIND_*} constants
+	 */
+	public int kind(int node) {
+		return kinds[node];
+	}
+
+	/**
+	 * Returns the first operand of a node, i.e. the left operand of a
+	 * concatenation or alternation, the base of a star or the symbol id of a
+	 * literal.
+	 *
+	 * @param node the number of the node
+	 * @return the first operand, or {@code -1} for the empty word and set
+	 */
+	public int left(int node) {
+		return left[node];
+	}
+
+	/**
+	 * Returns the right operand of a concatenation or alternation.
+	 *
+	 * @param node the number of the node
+	 * @return the right operand, or {@code -1} for other nodes
+	 */
+	public int right(int node) {
+		return right[node];
+	}
+
+	/**
+	 * Returns the distinct symbols of the expression.
+	 *
+	 * @return the symbols, indexed by symbol id
+	 */
+	public List<VirtualSymbol> symbols() {
+		return Collections.unmodifiableList(Arrays.asList(symbols));
+	}
+
+	/**
+	 * Returns a copy of the kinds of all nodes.
+	 *
+	 * @return the kind of each node, in post-order
+	 */
+	public int[] kinds() {
+		return kinds.clone();
+	}
+
+	/**
+	 * Returns a copy of the first operands of all nodes.
+	 *
+	 * @return the first operand, base or symbol id of each node
+	 */
+	public int[] lefts() {
+		return left.clone();
+	}
+
+	/**
+	 * Returns a copy of the second operands of all nodes.
+	 *
+	 * @return the second operand of each node
+	 */
+	public int[] rights() {
+		return right.clone();
+	}
+
+	/**
+	 * Appends the nodes to growing tables as the traversal reaches them.
+	 */
+	private static final class Flattener implements RegularEggspression.Visitor<Integer> {
+
+		int[] kinds = new int[16];
+		int[] left = new int[16];
+		int[] right = new int[16];
+		int size;
+		final List<VirtualSymbol> symbols = new ArrayList<>();
+		private final Map<VirtualSymbol, Integer> symbolIds = new HashMap<>();
+
+		private Integer add(int kind, int first, int second) {
+			if (size == kinds.length) {
+				kinds = Arrays.copyOf(kinds, size << 1);
+				left = Arrays.copyOf(left, size << 1);
+				right = Arrays.copyOf(right, size << 1);
+			}
+			kinds[size] = kind;
+			left[size] = first;
+			right[size] = second;
+			return size++;
+		}
+
+		@Override
+		public Integer visit(EmptyWord emptyWord) {
+			return add(KIND_EMPTY_WORD, -1, -1);
+		}
+
+		@Override
+		public Integer visit(EmptySet emptySet) {
+			return add(KIND_EMPTY_SET, -1, -1);
+		}
+
+		@Override
+		public Integer visitPost(Concatenation concat, Integer prefix, Integer suffix) {
+			return add(KIND_CONCATENATION, prefix, suffix);
+		}
+
+		@Override
+		public Integer visitPost(Alternation union, Integer first, Integer second) {
+			return add(KIND_ALTERNATION, first, second);
+		}
+
+		@Override
+		public Integer visitPost(Star star, Integer base) {
+			return add(KIND_STAR, base, -1);
+		}
+
+		@Override
+		public Integer visitPost(Literal literal, VirtualSymbol symbol) {
+			Integer id = symbolIds.get(symbol);
+			if (id == null) {
+				id = symbols.size();
+				symbols.add(symbol);
+				symbolIds.put(symbol, id);
+			}
+			return add(KIND_LITERAL, id, -1);
+		}
+
+	}
+
+}
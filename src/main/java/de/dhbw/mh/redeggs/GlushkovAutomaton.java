@@ -0,0 +1,160 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The position automaton of an expression, as built by the
+ * {@link GlushkovCompiler}.
+ * <p>
+ * Each literal occurrence of the expression is a state, entered whenever its
+ * symbol is read; an extra initial state is only accounted for by the first
+ * positions and the nullability. The automaton has no epsilon transitions, so
+ * a set of active positions is advanced by taking the union of their follow
+ * sets and keeping the positions whose symbol matches the next code point. The
+ * sets are stored as bitmasks of {@link #words()} longs each. Up to 64
+ * positions, the follow sets are precomputed for every byte of the bitmask,
+ * so the union costs one lookup per byte. Beyond that, such tables would grow
+ * quadratically with the number of positions, so only the follow set of each
+ * position is stored and the union costs one bitmask per active position.
+ * Expressions with more than {@value #MAX_POSITIONS} positions are rejected;
+ * a {@link PikeVm} handles them in space linear in the expression. Instances
+ * are immutable and thread-safe.
+ * </p>
+ */
+public final class GlushkovAutomaton {
+
+	/** The maximum number of positions, whose follow sets take 32 MiB. */
+	public static final int MAX_POSITIONS = 16_384;
+
+	/** The number of positions covered by a follow table. */
+	static final int BITS_PER_TABLE = 8;
+
+	/** The partition of the alphabet into equivalence classes. */
+	final AlphabetPartition partition;
+
+	/** The number of positions. */
+	final int positionCount;
+
+	/** The number of longs per bitmask. */
+	final int words;
+
+	/** Whether the empty word is accepted. */
+	final boolean nullable;
+
+	/** The positions that can be entered from the initial state. */
+	final long[] first;
+
+	/** The positions that accept. */
+	final long[] last;
+
+	/** The positions of each class, {@link #words} longs per class. */
+	final long[] classMasks;
+
+	/**
+	 * For a single word, the union of the follow sets of each byte of the
+	 * bitmask, 256 entries per byte. For several words, the follow set of each
+	 * position, {@link #words} longs per position.
+	 */
+	final long[] follows;
+
+	GlushkovAutomaton(AlphabetPartition partition, List<VirtualSymbol> symbols, List<BitSet> follow,
+			GlushkovCompiler.Positions positions) {
+		super();
+		this.partition = partition;
+		this.positionCount = symbols.size();
+		this.words = Math.max(1, (positionCount + 63) >>> 6);
+		this.nullable = positions.nullable();
+		this.first = mask(positions.first(), words);
+		this.last = mask(positions.last(), words);
+
+		this.classMasks = new long[partition.classCount() * words];
+		for (int position = 0; position < positionCount; position++) {
+			for (int classId : partition.classesOf(symbols.get(position))) {
+				classMasks[classId * words + (position >>> 6)] |= 1L << position;
+			}
+		}
+
+		if (words == 1) {
+			int tables = (positionCount + BITS_PER_TABLE - 1) / BITS_PER_TABLE;
+			this.follows = new long[tables * 256];
+			for (int table = 0; table < tables; table++) {
+				for (int bits = 1; bits < 256; bits++) {
+					int position = table * BITS_PER_TABLE + Integer.numberOfTrailingZeros(bits);
+					long successors = (position < positionCount) ? mask(follow.get(position), 1)[0] : 0;
+					follows[(table << 8) | bits] = follows[(table << 8) | (bits & (bits - 1))] | successors;
+				}
+			}
+		} else {
+			this.follows = new long[positionCount * words];
+			for (int position = 0; position < positionCount; position++) {
+				long[] successors = follow.get(position).toLongArray();
+				System.arraycopy(successors, 0, follows, position * words, successors.length);
+			}
+		}
+	}
+
+	private static long[] mask(BitSet positions, int words) {
+		long[] mask = new long[words];
+		long[] bits = positions.toLongArray();
+		System.arraycopy(bits, 0, mask, 0, bits.length);
+		return mask;
+	}
+
+	/**
+	 * Compiles the given expression.
+	 *
+	 * @param expression the expression to compile
+	 * @return the position automaton of the expression
+	 */
+	public static GlushkovAutomaton of(RegularEggspression expression) {
+		return GlushkovCompiler.compile(expression);
+	}
+
+	/**
+	 * Returns the number of positions, i.e. the number of states without the
+	 * initial one.
+	 *
+	 * @return the number of literal occurrences of the expression
+	 */
+	public int positionCount() {
+		return positionCount;
+	}
+
+	/**
+	 * Returns the number of longs per bitmask.
+	 *
+	 * @return 1 for up to 64 positions, more beyond that
+	 */
+	public int words() {
+		return words;
+	}
+
+	/**
+	 * Returns whether the empty word is accepted.
+	 *
+	 * @return {@code true} if the expression is nullable
+	 */
+	public boolean isNullable() {
+		return nullable;
+	}
+
+	/**
+	 * Adds the union of the follow sets of the given positions to a bitmask of
+	 * several words.
+	 *
+	 * @param positions the active positions
+	 * @param reach     receives the positions that may be entered next
+	 */
+	void follow(long[] positions, long[] reach) {
+		for (int word = 0; word < words; word++) {
+			for (long bits = positions[word]; bits != 0; bits &= bits - 1) {
+				int entry = ((word << 6) + Long.numberOfTrailingZeros(bits)) * words;
+				for (int i = 0; i < words; i++) {
+					reach[i] |= follows[entry + i];
+				}
+			}
+		}
+	}
+
+}
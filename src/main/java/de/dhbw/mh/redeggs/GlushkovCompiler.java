@@ -0,0 +1,121 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * A visitor that compiles a regular expression AST into the epsilon-free
+ * {@link GlushkovAutomaton}.
+ * <p>
+ * Every literal occurrence becomes a position. For each node the visitor
+ * computes whether it matches the empty word and the positions its words can
+ * start and end with, and records for each position the positions that may
+ * follow it.
+ * </p>
+ */
+public class GlushkovCompiler implements RegularEggspression.Visitor<GlushkovCompiler.Positions> {
+
+	/**
+	 * The positions of a subexpression.
+	 *
+	 * @param nullable whether the subexpression matches the empty word
+	 * @param first    the positions its words can start with
+	 * @param last     the positions its words can end with
+	 */
+	public static record Positions(boolean nullable, BitSet first, BitSet last) {
+	}
+
+	/** The symbol of each position. */
+	final List<VirtualSymbol> symbols = new ArrayList<>();
+
+	/** The positions that may follow each position. */
+	final List<BitSet> follow = new ArrayList<>();
+
+	/**
+	 * Compiles the given expression into a Glushkov automaton.
+	 *
+	 * @param expression the expression to compile
+	 * @return the automaton accepting the language of the expression
+	 * @throws IllegalStateException if the expression has more than
+	 *                               {@link GlushkovAutomaton#MAX_POSITIONS}
+	 *                               literal occurrences
+	 */
+	public static GlushkovAutomaton compile(RegularEggspression expression) {
+		GlushkovCompiler compiler = new GlushkovCompiler();
+		Positions positions = Traversal.postOrder(expression, compiler);
+		return new GlushkovAutomaton(AlphabetPartition.of(expression), compiler.symbols, compiler.follow,
+				positions);
+	}
+
+	@Override
+	public Positions visit(RegularEggspression.EmptyWord emptyWord) {
+		return new Positions(true, new BitSet(), new BitSet());
+	}
+
+	@Override
+	public Positions visit(RegularEggspression.EmptySet emptySet) {
+		return new Positions(false, new BitSet(), new BitSet());
+	}
+
+	@Override
+	public Positions visitPost(Concatenation concat, Positions prefix, Positions suffix) {
+		followedBy(prefix.last(), suffix.first());
+		BitSet first = prefix.first();
+		if (prefix.nullable()) {
+			first = (BitSet) first.clone();
+			first.or(suffix.first());
+		}
+		BitSet last = suffix.last();
+		if (suffix.nullable()) {
+			last = (BitSet) last.clone();
+			last.or(prefix.last());
+		}
+		return new Positions(prefix.nullable() && suffix.nullable(), first, last);
+	}
+
+	@Override
+	public Positions visitPost(Alternation union, Positions first, Positions second) {
+		BitSet starts = (BitSet) first.first().clone();
+		starts.or(second.first());
+		BitSet ends = (BitSet) first.last().clone();
+		ends.or(second.last());
+		return new Positions(first.nullable() || second.nullable(), starts, ends);
+	}
+
+	@Override
+	public Positions visitPost(Star star, Positions base) {
+		followedBy(base.last(), base.first());
+		return new Positions(true, base.first(), base.last());
+	}
+
+	@Override
+	public Positions visitPost(Literal literal, VirtualSymbol symbol) {
+		int position = symbols.size();
+		if (position == GlushkovAutomaton.MAX_POSITIONS) {
+			throw new IllegalStateException(String.format("Glushkov automaton exceeds the limit of %d positions.",
+					GlushkovAutomaton.MAX_POSITIONS));
+		}
+		symbols.add(symbol);
+		follow.add(new BitSet());
+		BitSet only = new BitSet();
+		only.set(position);
+		return new Positions(false, only, only);
+	}
+
+	/**
+	 * Records that every position of the first set may be followed by every
+	 * position of the second.
+	 */
+	private void followedBy(BitSet positions, BitSet successors) {
+		for (int position = positions.nextSetBit(0); position >= 0; position = positions.nextSetBit(position + 1)) {
+			follow.get(position).or(successors);
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A {@link VirtualSymbol} backed by a packed array of sorted, disjoint and
+ * non-adjacent code point ranges.
+ * <p>
+ * The ranges are stored as consecutive {@code (first, last)} pairs in a single
+ * {@code int[]}, so membership tests run in O(log n) without touching any
+ * {@link CodePointRange} objects. Instances are created and interned by
+ * {@link IntervalSymbolFactory}; they are immutable and therefore safe to share
+ * between threads.
+ * </p>
+ */
+public final class IntervalSymbol implements VirtualSymbol {
+
+	/**
+	 * The packed ranges, {@code bounds[2*i]} being the first and
+	 * {@code bounds[2*i+1]} being the last code point (inclusive) of range i.
+	 */
+	final int[] bounds;
+
+	/**
+	 * The precomputed hash code of {@link #bounds}.
+	 */
+	private final int hash;
+
+	/**
+	 * Constructs a new symbol from already normalized bounds. The array is taken
+	 * over without copying.
+	 *
+	 * @param bounds the sorted, merged {@code (first, last)} pairs
+	 */
+	IntervalSymbol(int[] bounds) {
+		super();
+		this.bounds = bounds;
+		this.hash = Arrays.hashCode(bounds);
+	}
+
+	/**
+	 * Returns the number of disjoint ranges in this symbol.
+	 *
+	 * @return the number of ranges
+	 */
+	public int rangeCount() {
+		return bounds.length >>> 1;
+	}
+
+	/**
+	 * Returns the first code point (inclusive) of the range at the given index.
+	 *
+	 * @param index the index of the range
+	 * @return the first code point of the range
+	 */
+	public int firstCodePoint(int index) {
+		return bounds[index << 1];
+	}
+
+	/**
+	 * Returns the last code point (inclusive) of the range at the given index.
+	 *
+	 * @param index the index of the range
+	 * @return the last code point of the range
+	 */
+	public int lastCodePoint(int index) {
+		return bounds[(index << 1) + 1];
+	}
+
+	/**
+	 * Checks whether this symbol contains no code point at all.
+	 *
+	 * @return {@code true} if the symbol is empty
+	 */
+	public boolean isEmpty() {
+		return bounds.length == 0;
+	}
+
+	@Override
+	public boolean contains(int codePoint) {
+		int low = 0;
+		int high = (bounds.length >>> 1) - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (codePoint < bounds[mid << 1]) {
+				high = mid - 1;
+			} else if (codePoint > bounds[(mid << 1) + 1]) {
+				low = mid + 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public List<CodePointRange> sortedCodePointRanges() {
+		return new RangeView();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < bounds.length; i += 2) {
+			builder.append(new CodePointRange(bounds[i], bounds[i + 1]));
+		}
+		return builder.append(']').toString();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (o == null || getClass() != o.getClass())
+			return false;
+		IntervalSymbol other = (IntervalSymbol) o;
+		return hash == other.hash && Arrays.equals(bounds, other.bounds);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * A read-only list view that materializes {@link CodePointRange} objects on
+	 * demand.
+	 */
+	private final class RangeView extends AbstractList<CodePointRange> implements RandomAccess {
+
+		@Override
+		public CodePointRange get(int index) {
+			Objects.checkIndex(index, rangeCount());
+			return new CodePointRange(firstCodePoint(index), lastCodePoint(index));
+		}
+
+		@Override
+		public int size() {
+			return rangeCount();
+		}
+	}
+
+}
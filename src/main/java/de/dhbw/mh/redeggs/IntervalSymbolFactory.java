@@ -0,0 +1,228 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link SymbolFactory} producing interned {@link IntervalSymbol} instances.
+ * <p>
+ * The builders normalize all included and excluded ranges into sorted,
+ * disjoint and merged ranges, where exclusions take precedence over
+ * inclusions regardless of the order of the calls. Symbols describing the same
+ * set of code points are interned, i.e. every factory hands out exactly one
+ * instance per distinct set. The factory is thread-safe, builders are not.
+ * </p>
+ *
+ * <p>
+ * The intern table holds its symbols strongly and never shrinks, so a factory
+ * retains every symbol it has ever built, even after the expressions using
+ * them are gone. Scope a factory to the patterns it serves, e.g. one per lexer
+ * or {@link PatternCache}, and drop it together with them rather than keeping
+ * one factory for the lifetime of the application.
+ * </p>
+ */
+public class IntervalSymbolFactory implements SymbolFactory {
+
+	/**
+	 * The interned symbols of this factory, held until the factory itself is
+	 * unreachable.
+	 */
+	private final ConcurrentMap<IntervalSymbol, IntervalSymbol> symbols = new ConcurrentHashMap<>();
+
+	@Override
+	public Builder newSymbol() {
+		return new Builder();
+	}
+
+	/**
+	 * Returns the number of distinct symbols interned by this factory.
+	 *
+	 * @return the number of interned symbols
+	 */
+	public int size() {
+		return symbols.size();
+	}
+
+	/**
+	 * Returns the interned instance for the given normalized bounds.
+	 *
+	 * @param bounds the sorted, merged {@code (first, last)} pairs
+	 * @return the shared symbol for these bounds
+	 */
+	IntervalSymbol intern(int[] bounds) {
+		IntervalSymbol candidate = new IntervalSymbol(bounds);
+		IntervalSymbol existing = symbols.putIfAbsent(candidate, candidate);
+		return (existing == null) ? candidate : existing;
+	}
+
+	/**
+	 * Builder collecting the included and excluded ranges of a symbol in packed
+	 * form.
+	 */
+	public class Builder implements SymbolFactory.Builder {
+
+		/**
+		 * The included ranges, packed as {@code first << 32 | last}.
+		 */
+		private long[] included = new long[4];
+
+		/**
+		 * The number of used entries in {@link #included}.
+		 */
+		private int includedCount;
+
+		/**
+		 * The excluded ranges, packed as {@code first << 32 | last}.
+		 */
+		private long[] excluded = new long[0];
+
+		/**
+		 * The number of used entries in {@link #excluded}.
+		 */
+		private int excludedCount;
+
+		/**
+		 * Constructs an empty builder.
+		 */
+		protected Builder() {
+			super();
+		}
+
+		@Override
+		public Builder include(CodePointRange... ranges) {
+			included = append(included, includedCount, ranges);
+			includedCount += ranges.length;
+			return this;
+		}
+
+		@Override
+		public Builder exclude(CodePointRange... ranges) {
+			excluded = append(excluded, excludedCount, ranges);
+			excludedCount += ranges.length;
+			return this;
+		}
+
+		/**
+		 * Includes a single range given by its bounds, avoiding the allocation of a
+		 * {@link CodePointRange}.
+		 *
+		 * @param firstCodePoint the first code point (inclusive)
+		 * @param lastCodePoint  the last code point (inclusive)
+		 * @return this builder instance for chaining
+		 */
+		public Builder include(int firstCodePoint, int lastCodePoint) {
+			if (includedCount == included.length) {
+				included = Arrays.copyOf(included, includedCount << 1);
+			}
+			included[includedCount++] = pack(firstCodePoint, lastCodePoint);
+			return this;
+		}
+
+		/**
+		 * Excludes a single range given by its bounds, avoiding the allocation of a
+		 * {@link CodePointRange}.
+		 *
+		 * @param firstCodePoint the first code point (inclusive)
+		 * @param lastCodePoint  the last code point (inclusive)
+		 * @return this builder instance for chaining
+		 */
+		public Builder exclude(int firstCodePoint, int lastCodePoint) {
+			if (excludedCount == excluded.length) {
+				excluded = Arrays.copyOf(excluded, Math.max(4, excludedCount << 1));
+			}
+			excluded[excludedCount++] = pack(firstCodePoint, lastCodePoint);
+			return this;
+		}
+
+		@Override
+		public IntervalSymbol andNothingElse() {
+			int[] positive = normalize(included, includedCount);
+			if (excludedCount > 0) {
+				positive = subtract(positive, normalize(excluded, excludedCount));
+			}
+			return intern(positive);
+		}
+	}
+
+	/**
+	 * Appends the given ranges in packed form, growing the array if necessary.
+	 */
+	private static long[] append(long[] packed, int count, CodePointRange[] ranges) {
+		if (count + ranges.length > packed.length) {
+			packed = Arrays.copyOf(packed, Math.max(count + ranges.length, packed.length << 1));
+		}
+		for (CodePointRange range : ranges) {
+			packed[count++] = pack(range.firstCodePoint, range.lastCodePoint);
+		}
+		return packed;
+	}
+
+	/**
+	 * Packs a validated range into a single sortable {@code long}.
+	 */
+	private static long pack(int firstCodePoint, int lastCodePoint) {
+		if (firstCodePoint < Character.MIN_CODE_POINT || lastCodePoint > Character.MAX_CODE_POINT
+				|| firstCodePoint > lastCodePoint) {
+			throw new IllegalArgumentException(
+					String.format("Invalid code point range %s.", new CodePointRange(firstCodePoint, lastCodePoint)));
+		}
+		return ((long) firstCodePoint << 32) | lastCodePoint;
+	}
+
+	/**
+	 * Sorts the packed ranges and merges overlapping or adjacent ones.
+	 *
+	 * @return the merged ranges as {@code (first, last)} pairs
+	 */
+	private static int[] normalize(long[] packed, int count) {
+		Arrays.sort(packed, 0, count);
+		int[] bounds = new int[count << 1];
+		int size = 0;
+		for (int i = 0; i < count; i++) {
+			int first = (int) (packed[i] >>> 32);
+			int last = (int) packed[i];
+			if (size > 0 && first <= bounds[size - 1] + 1) {
+				bounds[size - 1] = Math.max(bounds[size - 1], last);
+			} else {
+				bounds[size++] = first;
+				bounds[size++] = last;
+			}
+		}
+		return (size == bounds.length) ? bounds : Arrays.copyOf(bounds, size);
+	}
+
+	/**
+	 * Removes all code points of {@code minus} from {@code bounds}. Both arguments
+	 * must be normalized.
+	 *
+	 * @return the normalized difference
+	 */
+	private static int[] subtract(int[] bounds, int[] minus) {
+		int[] result = new int[bounds.length + minus.length];
+		int size = 0;
+		int j = 0;
+		for (int i = 0; i < bounds.length; i += 2) {
+			int first = bounds[i];
+			int last = bounds[i + 1];
+			while (j < minus.length && minus[j + 1] < first) {
+				j += 2;
+			}
+			int k = j;
+			while (first <= last && k < minus.length && minus[k] <= last) {
+				if (minus[k] > first) {
+					result[size++] = first;
+					result[size++] = minus[k] - 1;
+				}
+				first = Math.max(first, minus[k + 1] + 1);
+				k += 2;
+			}
+			if (first <= last) {
+				result[size++] = first;
+				result[size++] = last;
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+}
@@ -0,0 +1,139 @@
+package de.dhbw.mh.redeggs;
+
+/**
+ * A matcher determinizing an {@link Nfa} on demand.
+ * <p>
+ * A DFA state is built the first time it is reached, and its transitions are
+ * cached per symbol class, so repeated input runs at DFA speed over the states
+ * that are actually visited. The cache is bounded by a memory budget: when
+ * adding a state would exceed it, the whole cache is cleared and rebuilt from
+ * the current state. If the cache is cleared repeatedly while making little
+ * progress, the matcher gives up on determinization and falls back to a
+ * {@link PikeVm} for this and all later searches. The cache is a
+ * {@link StateCache} shared with {@link RegexSet}.
+ * </p>
+ *
+ * <p>
+ * A matcher is not thread-safe; create one per thread from the shared
+ * {@link Nfa}.
+ * </p>
+ */
+public class LazyDfa implements RedeggsMatcher {
+
+	/** The memory budget used if none is given, in bytes. */
+	public static final long DEFAULT_MEMORY_BUDGET = 1L << 20;
+
+	/** The automaton to determinize. */
+	private final Nfa nfa;
+
+	/** The cached states, each carrying whether it accepts. */
+	private final StateCache<Boolean> cache;
+
+	/** The NFA simulation used after thrashing, created on demand. */
+	private PikeVm fallback;
+
+	/**
+	 * Constructs a new matcher with the {@link #DEFAULT_MEMORY_BUDGET}.
+	 *
+	 * @param nfa the automaton to determinize
+	 */
+	public LazyDfa(Nfa nfa) {
+		this(nfa, DEFAULT_MEMORY_BUDGET);
+	}
+
+	/**
+	 * Constructs a new matcher whose state cache stays within the given budget.
+	 *
+	 * @param nfa          the automaton to determinize
+	 * @param memoryBudget the maximum size of the state cache, in bytes
+	 */
+	public LazyDfa(Nfa nfa, long memoryBudget) {
+		super();
+		this.nfa = nfa;
+		this.cache = new StateCache<>(nfa, false, memoryBudget, set -> nfa.lowestRule(set) != Nfa.NONE, 0);
+	}
+
+	/**
+	 * Compiles the given expression and creates a matcher for it.
+	 *
+	 * @param expression the expression to match
+	 * @return a new matcher
+	 */
+	public static LazyDfa of(RegularEggspression expression) {
+		return new LazyDfa(Nfa.compile(expression));
+	}
+
+	@Override
+	public int longestMatch(CharSequence input, int from, int to) {
+		if (cache.isThrashing()) {
+			return fallback().longestMatch(input, from, to);
+		}
+		AlphabetPartition partition = nfa.partition;
+		int classCount = cache.classCount;
+
+		int state = cache.startSearch(from);
+		int[] table = cache.transitions;
+		int last = cache.payload(state) ? from : -1;
+		int position = from;
+		while (position < to) {
+			int codePoint = CodePoints.codePointAt(input, position, to);
+			int classId = partition.classOf(codePoint);
+			int next = table[state * classCount + classId];
+			if (next == StateCache.UNKNOWN) {
+				next = cache.computeTransition(state, classId, position);
+				if (next == StateCache.THRASHING) {
+					return fallback().longestMatch(input, from, to);
+				}
+				table = cache.transitions;
+			}
+			if (next == StateCache.DEAD) {
+				break;
+			}
+			state = next;
+			position += Character.charCount(codePoint);
+			if (cache.payload(state)) {
+				last = position;
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Returns the number of currently cached states, including the dead state.
+	 *
+	 * @return the number of cached states
+	 */
+	public int cachedStates() {
+		return cache.cachedStates();
+	}
+
+	/**
+	 * Returns how often the state cache has been cleared so far.
+	 *
+	 * @return the number of cache clears
+	 */
+	public long cacheClears() {
+		return cache.clears();
+	}
+
+	/**
+	 * Checks whether this matcher has given up on determinization and runs on the
+	 * NFA simulation instead.
+	 *
+	 * @return {@code true} if the fallback is in use
+	 */
+	public boolean isFallingBack() {
+		return cache.isThrashing();
+	}
+
+	/**
+	 * Returns the fallback NFA simulation, creating it on first use.
+	 */
+	private PikeVm fallback() {
+		if (fallback == null) {
+			fallback = new PikeVm(nfa);
+		}
+		return fallback;
+	}
+
+}
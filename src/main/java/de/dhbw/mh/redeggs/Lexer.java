@@ -0,0 +1,160 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A lexer splitting input into tokens by an ordered list of rules.
+ * <p>
+ * All rules are compiled into one minimal {@link Dfa} whose accepting states
+ * are labeled with the lowest rule they accept. Each token is found by a
+ * single pass of that DFA: the longest match wins, and among rules matching
+ * the same longest prefix the one listed first wins. Code points not starting
+ * any non-empty match become one-code-point tokens of type {@link #ERROR}.
+ * </p>
+ *
+ * <p>
+ * Tokens are written into caller-provided arrays, so tokenizing creates no
+ * objects. Instances are immutable and thread-safe.
+ * </p>
+ */
+public final class Lexer {
+
+	/** The token id of a code point that no rule matches. */
+	public static final int ERROR = -1;
+
+	/**
+	 * A lexer rule.
+	 *
+	 * @param expression the expression matching the tokens of the rule
+	 * @param tokenId    the non-negative id of the tokens of the rule
+	 */
+	public static record Rule(RegularEggspression expression, int tokenId) {
+	}
+
+	/** The combined automaton of all rules. */
+	final Dfa dfa;
+
+	/** The token id of each rule. */
+	final int[] tokenIds;
+
+	/**
+	 * Constructs a new lexer from its automaton and the token ids of its rules.
+	 */
+	Lexer(Dfa dfa, int[] tokenIds) {
+		super();
+		this.dfa = dfa;
+		this.tokenIds = tokenIds;
+	}
+
+	/**
+	 * Compiles the given rules into a lexer.
+	 *
+	 * @param rules the rules in order of decreasing priority
+	 * @return the new lexer
+	 * @throws IllegalArgumentException if there are no rules or a token id is
+	 *                                  negative
+	 * @throws IllegalStateException    if the combined DFA exceeds
+	 *                                  {@link Dfa#DEFAULT_STATE_LIMIT} states
+	 */
+	public static Lexer compile(List<Rule> rules) {
+		List<RegularEggspression> expressions = new ArrayList<>(rules.size());
+		int[] tokenIds = new int[rules.size()];
+		for (int i = 0; i < tokenIds.length; i++) {
+			Rule rule = rules.get(i);
+			if (rule.tokenId() < 0) {
+				throw new IllegalArgumentException(
+						String.format("Invalid token id %d of rule %d.", rule.tokenId(), i));
+			}
+			expressions.add(rule.expression());
+			tokenIds[i] = rule.tokenId();
+		}
+		Nfa nfa = ThompsonCompiler.compile(expressions);
+		return new Lexer(Dfa.determinize(nfa, Dfa.DEFAULT_STATE_LIMIT).minimize(), tokenIds);
+	}
+
+	/**
+	 * Splits a region of the input into tokens.
+	 * <p>
+	 * Tokens are contiguous: the {@code i}-th token ends at {@code ends[i]} and
+	 * starts where the previous token ends, the first one at {@code from}.
+	 * Tokenizing stops when the region is consumed or the arrays are full; in
+	 * the latter case, it is resumed by calling this method again from the end
+	 * of the last token.
+	 * </p>
+	 *
+	 * @param input    the characters to tokenize
+	 * @param from     the index of the first char of the region
+	 * @param to       the exclusive end of the region
+	 * @param tokenIds receives the token id of each token, or {@link #ERROR}
+	 * @param ends     receives the exclusive end index of each token
+	 * @return the number of tokens written
+	 */
+	public int tokenize(CharSequence input, int from, int to, int[] tokenIds, int[] ends) {
+		int[] table = dfa.transitions;
+		int[] rules = dfa.rules;
+		int width = dfa.classCount;
+		int dead = dfa.dead;
+		AlphabetPartition partition = dfa.partition;
+		int capacity = Math.min(tokenIds.length, ends.length);
+		int count = 0;
+		int position = from;
+		while (position < to && count < capacity) {
+			int state = dfa.start;
+			int rule = Nfa.NONE;
+			int end = position;
+			int current = position;
+			while (current < to) {
+				int codePoint = CodePoints.codePointAt(input, current, to);
+				state = table[state * width + partition.classOf(codePoint)];
+				if (state == dead) {
+					break;
+				}
+				current += Character.charCount(codePoint);
+				if (rules[state] != Nfa.NONE) {
+					rule = rules[state];
+					end = current;
+				}
+			}
+			if (rule == Nfa.NONE) {
+				tokenIds[count] = ERROR;
+				end = position + Character.charCount(CodePoints.codePointAt(input, position, to));
+			} else {
+				tokenIds[count] = this.tokenIds[rule];
+			}
+			ends[count++] = end;
+			position = end;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the combined automaton of all rules, whose states are labeled
+	 * with rule indices.
+	 *
+	 * @return the combined DFA
+	 */
+	public Dfa dfa() {
+		return dfa;
+	}
+
+	/**
+	 * Returns the number of rules.
+	 *
+	 * @return the number of rules
+	 */
+	public int ruleCount() {
+		return tokenIds.length;
+	}
+
+	/**
+	 * Returns the token id of a rule.
+	 *
+	 * @param rule the index of the rule
+	 * @return the token id of the rule
+	 */
+	public int tokenId(int rule) {
+		return tokenIds[rule];
+	}
+
+}
@@ -0,0 +1,388 @@
+package de.dhbw.mh.redeggs;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.SourceVersion;
+
+/**
+ * Generates the Java source of a standalone scanner from a rule file.
+ * <p>
+ * A rule file holds one rule per line in the form {@code NAME = regex}, where
+ * the expression extends from the first non-blank character after the equals
+ * sign to the last non-blank character of the line. Blank lines and lines
+ * starting with {@code #} are ignored. Rules listed first take priority, and
+ * several rules may share a token name. Token ids are assigned in order of
+ * the first occurrence of each name. A name must be a Java identifier other
+ * than the {@linkplain #RESERVED_NAMES names} the scanner uses itself.
+ * </p>
+ *
+ * <p>
+ * The rules are compiled into a minimal {@link Lexer} at build time, and its
+ * tables are emitted as {@code static final} arrays that are unpacked from
+ * string constants on class initialization, in the style of JFlex. The
+ * generated class depends on nothing but the JDK and offers the same
+ * {@code tokenize} method as {@link Lexer}.
+ * </p>
+ */
+public final class LexerSourceGenerator {
+
+	/** The maximum number of chars per string constant of a packed table. */
+	static final int CHUNK_LENGTH = 16_000;
+
+	/** The name of the error token constant. */
+	private static final String ERROR = "ERROR";
+
+	/**
+	 * The names a token must not have because the generated class declares
+	 * them itself, or because a field of that name would obscure a class its
+	 * methods refer to.
+	 */
+	static final Set<String> RESERVED_NAMES = Set.of(ERROR, "CLASS_COUNT", "START", "DEAD", "ASCII_CLASSES",
+			"INTERVAL_FIRSTS", "INTERVAL_CLASSES", "TRANSITIONS", "TOKENS", "Character", "Math");
+
+	/** The parser of the expressions. */
+	private final RecursiveDescentRedeggsParser parser;
+
+	/**
+	 * Constructs a new generator parsing expressions with the given parser.
+	 *
+	 * @param parser the parser of the expressions, whose symbol factory must
+	 *               produce symbols with code point ranges
+	 */
+	public LexerSourceGenerator(RecursiveDescentRedeggsParser parser) {
+		super();
+		this.parser = parser;
+	}
+
+	/**
+	 * Constructs a new generator using an {@link IntervalSymbolFactory}.
+	 */
+	public LexerSourceGenerator() {
+		this(new RecursiveDescentRedeggsParser(new IntervalSymbolFactory()));
+	}
+
+	/**
+	 * The rules read from a rule file.
+	 *
+	 * @param tokenNames the distinct token names, indexed by token id
+	 * @param rules      the rules in order of priority
+	 */
+	public static record RuleFile(List<String> tokenNames, List<Lexer.Rule> rules) {
+	}
+
+	/**
+	 * Reads and parses a rule file.
+	 *
+	 * @param text the content of the rule file
+	 * @return the rules of the file
+	 * @throws RedeggsParseException if a line is malformed; the error offset
+	 *                               refers to the whole text
+	 */
+	public RuleFile read(CharSequence text) throws RedeggsParseException {
+		Map<String, Integer> tokenIds = new LinkedHashMap<>();
+		List<Lexer.Rule> rules = new ArrayList<>();
+		int lineNumber = 0;
+		for (int lineStart = 0; lineStart < text.length();) {
+			lineNumber++;
+			int lineEnd = lineStart;
+			while (lineEnd < text.length() && text.charAt(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			int next = lineEnd + 1;
+			if (lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r') {
+				lineEnd--;
+			}
+			int start = skipBlanks(text, lineStart, lineEnd);
+			if (start < lineEnd && text.charAt(start) != '#') {
+				int equals = start;
+				while (equals < lineEnd && text.charAt(equals) != '=') {
+					equals++;
+				}
+				if (equals == lineEnd) {
+					throw new RedeggsParseException(
+							String.format("Line %d: expected 'NAME = regex'.", lineNumber), start);
+				}
+				int nameEnd = equals;
+				while (nameEnd > start && Character.isWhitespace(text.charAt(nameEnd - 1))) {
+					nameEnd--;
+				}
+				String name = text.subSequence(start, nameEnd).toString();
+				if (!SourceVersion.isIdentifier(name) || SourceVersion.isKeyword(name)
+						|| RESERVED_NAMES.contains(name)) {
+					throw new RedeggsParseException(
+							String.format("Line %d: invalid token name '%s'.", lineNumber, name), start);
+				}
+				int regexStart = skipBlanks(text, equals + 1, lineEnd);
+				int regexEnd = lineEnd;
+				while (regexEnd > regexStart && Character.isWhitespace(text.charAt(regexEnd - 1))) {
+					regexEnd--;
+				}
+				RegularEggspression expression;
+				try {
+					expression = parser.parse(CharBuffer.wrap(text, regexStart, regexEnd));
+				} catch (RedeggsParseException e) {
+					throw new RedeggsParseException(String.format("Line %d: %s", lineNumber, e.getMessage()),
+							regexStart + e.getErrorOffset());
+				}
+				Integer tokenId = tokenIds.putIfAbsent(name, tokenIds.size());
+				rules.add(new Lexer.Rule(expression, (tokenId == null) ? tokenIds.size() - 1 : tokenId));
+			}
+			lineStart = next;
+		}
+		return new RuleFile(new ArrayList<>(tokenIds.keySet()), rules);
+	}
+
+	/**
+	 * Reads a rule file and generates the source of its scanner.
+	 *
+	 * @param ruleFile    the rule file to read
+	 * @param packageName the package of the scanner, empty for the unnamed
+	 *                    package
+	 * @param className   the simple name of the scanner class
+	 * @return the Java source of the scanner
+	 * @throws IOException           if reading the rule file fails
+	 * @throws RedeggsParseException if the rule file is malformed
+	 */
+	public String generate(Reader ruleFile, String packageName, String className)
+			throws IOException, RedeggsParseException {
+		StringBuilder text = new StringBuilder();
+		char[] buffer = new char[8192];
+		for (int count; (count = ruleFile.read(buffer)) >= 0;) {
+			text.append(buffer, 0, count);
+		}
+		RuleFile rules = read(text);
+		if (rules.rules().isEmpty()) {
+			throw new RedeggsParseException("The rule file contains no rules.", 0);
+		}
+		return generate(rules.tokenNames(), Lexer.compile(rules.rules()), packageName, className);
+	}
+
+	/**
+	 * Generates the source of a scanner for a compiled lexer.
+	 *
+	 * @param tokenNames  the name of each token id of the lexer
+	 * @param lexer       the lexer to translate
+	 * @param packageName the package of the scanner, empty for the unnamed
+	 *                    package
+	 * @param className   the simple name of the scanner class
+	 * @return the Java source of the scanner
+	 * @throws IllegalArgumentException if a token name is reserved
+	 */
+	public static String generate(List<String> tokenNames, Lexer lexer, String packageName, String className) {
+		for (String name : tokenNames) {
+			if (RESERVED_NAMES.contains(name)) {
+				throw new IllegalArgumentException(String.format("Reserved token name '%s'.", name));
+			}
+		}
+		Dfa dfa = lexer.dfa;
+		AlphabetPartition partition = dfa.partition;
+		int[] ascii = new int[128];
+		for (int c = 0; c < ascii.length; c++) {
+			ascii[c] = partition.classOf(c);
+		}
+		int[] intervalFirsts = new int[partition.intervalCount()];
+		int[] intervalClasses = new int[partition.intervalCount()];
+		for (int i = 0; i < intervalFirsts.length; i++) {
+			intervalFirsts[i] = partition.intervalFirst(i);
+			intervalClasses[i] = partition.intervalClass(i);
+		}
+		int[] tokens = new int[dfa.stateCount];
+		for (int state = 0; state < tokens.length; state++) {
+			int rule = dfa.rule(state);
+			tokens[state] = (rule == Nfa.NONE) ? -1 : lexer.tokenId(rule);
+		}
+
+		StringBuilder out = new StringBuilder();
+		if (!packageName.isEmpty()) {
+			out.append("package ").append(packageName).append(";\n\n");
+		}
+		out.append("/**\n");
+		out.append(" * A scanner generated by redeggs. Do not edit.\n");
+		out.append(" */\n");
+		out.append("public final class ").append(className).append(" {\n\n");
+		out.append("\t/** The token id of a code point that no rule matches. */\n");
+		out.append("\tpublic static final int ").append(ERROR).append(" = -1;\n\n");
+		for (int tokenId = 0; tokenId < tokenNames.size(); tokenId++) {
+			out.append("\tpublic static final int ").append(tokenNames.get(tokenId)).append(" = ").append(tokenId)
+					.append(";\n");
+		}
+		out.append("\n");
+		out.append("\tprivate static final int CLASS_COUNT = ").append(dfa.classCount).append(";\n");
+		out.append("\tprivate static final int START = ").append(dfa.start).append(";\n");
+		out.append("\tprivate static final int DEAD = ").append(dfa.dead).append(";\n\n");
+		table(out, "ASCII_CLASSES", ascii);
+		table(out, "INTERVAL_FIRSTS", intervalFirsts);
+		table(out, "INTERVAL_CLASSES", intervalClasses);
+		table(out, "TRANSITIONS", dfa.transitions);
+		table(out, "TOKENS", tokens);
+		out.append(SCANNER_METHODS.replace("$CLASS", className));
+		out.append("}\n");
+		return out.toString();
+	}
+
+	/**
+	 * Emits a table as a run-length encoded, packed string constant.
+	 */
+	private static void table(StringBuilder out, String name, int[] values) {
+		StringBuilder packed = new StringBuilder();
+		for (int i = 0; i < values.length;) {
+			int run = 1;
+			while (i + run < values.length && values[i + run] == values[i]) {
+				run++;
+			}
+			packValue(packed, run);
+			packValue(packed, values[i] + 1);
+			i += run;
+		}
+		out.append("\tprivate static final int[] ").append(name).append(" = unpack(").append(values.length)
+				.append(", new String[] {");
+		for (int start = 0; start < packed.length(); start += CHUNK_LENGTH) {
+			out.append((start == 0) ? "\n\t\t\t\"" : ",\n\t\t\t\"");
+			for (int i = start; i < Math.min(packed.length(), start + CHUNK_LENGTH); i++) {
+				char c = packed.charAt(i);
+				if (c == '"' || c == '\\') {
+					out.append('\\').append(c);
+				} else if (c >= 0x20 && c < 0x7F) {
+					out.append(c);
+				} else if (c < 0x100) {
+					// octal rather than unicode escapes, which would break the literal for line breaks
+					out.append(String.format("\\%03o", (int) c));
+				} else {
+					out.append(String.format("\\u%04x", (int) c));
+				}
+			}
+			out.append('"');
+		}
+		out.append(" });\n\n");
+	}
+
+	/**
+	 * Appends a non-negative value in groups of 15 bits, the most significant
+	 * first, marking all but the last group with the high bit.
+	 */
+	private static void packValue(StringBuilder packed, int value) {
+		for (int shift = 30; shift > 0; shift -= 15) {
+			if (value >>> shift != 0) {
+				packed.append((char) (((value >>> shift) & 0x7FFF) | 0x8000));
+			}
+		}
+		packed.append((char) (value & 0x7FFF));
+	}
+
+	private static int skipBlanks(CharSequence text, int from, int to) {
+		while (from < to && Character.isWhitespace(text.charAt(from))) {
+			from++;
+		}
+		return from;
+	}
+
+	/** The methods of every generated scanner. */
+	private static final String SCANNER_METHODS = """
+				private $CLASS() {
+				}
+
+				/**
+				 * Returns the symbol class of a code point.
+				 */
+				private static int classOf(int codePoint) {
+					if (codePoint < 128) {
+						return ASCII_CLASSES[codePoint];
+					}
+					int low = 0;
+					int high = INTERVAL_FIRSTS.length - 1;
+					while (low < high) {
+						int middle = (low + high + 1) >>> 1;
+						if (INTERVAL_FIRSTS[middle] <= codePoint) {
+							low = middle;
+						} else {
+							high = middle - 1;
+						}
+					}
+					return INTERVAL_CLASSES[low];
+				}
+
+				/**
+				 * Splits a region of the input into tokens by longest match, preferring
+				 * earlier rules. The i-th token ends at ends[i] and starts where the
+				 * previous one ends. Code points that start no match become ERROR tokens.
+				 *
+				 * @return the number of tokens written, limited by the array lengths
+				 */
+				public static int tokenize(CharSequence input, int from, int to, int[] tokenIds, int[] ends) {
+					int capacity = Math.min(tokenIds.length, ends.length);
+					int count = 0;
+					int position = from;
+					while (position < to && count < capacity) {
+						int state = START;
+						int token = ERROR;
+						int end = position;
+						int current = position;
+						while (current < to) {
+							int codePoint = codePointAt(input, current, to);
+							state = TRANSITIONS[state * CLASS_COUNT + classOf(codePoint)];
+							if (state == DEAD) {
+								break;
+							}
+							current += Character.charCount(codePoint);
+							if (TOKENS[state] != ERROR) {
+								token = TOKENS[state];
+								end = current;
+							}
+						}
+						if (end == position) {
+							end = position + Character.charCount(codePointAt(input, position, to));
+						}
+						tokenIds[count] = token;
+						ends[count++] = end;
+						position = end;
+					}
+					return count;
+				}
+
+				private static int codePointAt(CharSequence input, int index, int limit) {
+					char high = input.charAt(index);
+					if (Character.isHighSurrogate(high) && index + 1 < limit) {
+						char low = input.charAt(index + 1);
+						if (Character.isLowSurrogate(low)) {
+							return Character.toCodePoint(high, low);
+						}
+					}
+					return high;
+				}
+
+				private static int[] unpack(int length, String[] chunks) {
+					int[] values = new int[length];
+					int index = 0;
+					int pending = -1;
+					int value = 0;
+					for (String chunk : chunks) {
+						for (int i = 0; i < chunk.length(); i++) {
+							char c = chunk.charAt(i);
+							value = (value << 15) | (c & 0x7FFF);
+							if (c >= 0x8000) {
+								continue;
+							}
+							if (pending < 0) {
+								pending = value;
+							} else {
+								for (int end = index + pending; index < end; index++) {
+									values[index] = value - 1;
+								}
+								pending = -1;
+							}
+							value = 0;
+						}
+					}
+					return values;
+				}
+
+			""";
+
+}
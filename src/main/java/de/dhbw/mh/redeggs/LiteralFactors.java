@@ -0,0 +1,259 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptySet;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptyWord;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * The literal strings that the words of an expression must start with, end
+ * with or contain.
+ * <p>
+ * For example, every word of {@code (foo|bar)[0-9]*baz} starts with
+ * {@code foo} or {@code bar} and ends with {@code baz}. The analysis is
+ * conservative: it tracks finite sets of up to {@value #MAX_SET_SIZE} strings
+ * of up to {@value #MAX_LENGTH} chars and gives up on anything larger, and
+ * classes only contribute if they hold at most {@value #MAX_CLASS_SIZE} code
+ * points. The factors drive the prefilter of a {@link Searcher}.
+ * </p>
+ */
+public final class LiteralFactors {
+
+	/** The maximum number of strings in a set of factors. */
+	public static final int MAX_SET_SIZE = 16;
+
+	/** The maximum length of a factor; longer prefixes and suffixes are cut. */
+	public static final int MAX_LENGTH = 32;
+
+	/** The maximum number of code points of a class that is expanded. */
+	public static final int MAX_CLASS_SIZE = 4;
+
+	/** The words of the expression, or {@code null} if there are too many. */
+	private final Set<String> exact;
+
+	/** The strings every word starts with one of, or {@code null} if unknown. */
+	private final Set<String> prefixes;
+
+	/** The strings every word ends with one of, or {@code null} if unknown. */
+	private final Set<String> suffixes;
+
+	/** The longest known string every word contains, possibly empty. */
+	private final String required;
+
+	private LiteralFactors(Set<String> exact, Set<String> prefixes, Set<String> suffixes, String... required) {
+		super();
+		this.exact = exact;
+		this.prefixes = (prefixes == null || prefixes.contains("")) ? null : prefixes;
+		this.suffixes = (suffixes == null || suffixes.contains("")) ? null : suffixes;
+		String longest = "";
+		for (String candidate : required) {
+			longest = (candidate.length() > longest.length()) ? candidate : longest;
+		}
+		if (this.prefixes != null) {
+			longest = longer(longest, common(this.prefixes));
+		}
+		if (this.suffixes != null) {
+			longest = longer(longest, common(this.suffixes));
+		}
+		this.required = longest;
+	}
+
+	/**
+	 * Returns the longest string contained in all strings of a non-empty set.
+	 */
+	private static String common(Set<String> strings) {
+		if (strings.isEmpty()) {
+			return "";
+		}
+		String shortest = strings.iterator().next();
+		for (String string : strings) {
+			shortest = (string.length() < shortest.length()) ? string : shortest;
+		}
+		for (int length = shortest.length(); length > 0; length--) {
+			for (int start = 0; start + length <= shortest.length(); start++) {
+				String factor = shortest.substring(start, start + length);
+				if (strings.stream().allMatch(string -> string.contains(factor))) {
+					return factor;
+				}
+			}
+		}
+		return "";
+	}
+
+	private static String single(Set<String> strings) {
+		return (strings != null && strings.size() == 1) ? strings.iterator().next() : "";
+	}
+
+	private static String longer(String first, String second) {
+		return (second.length() > first.length()) ? second : first;
+	}
+
+	/**
+	 * Analyzes the given expression.
+	 *
+	 * @param expression the expression to analyze
+	 * @return the literal factors of the expression
+	 */
+	public static LiteralFactors of(RegularEggspression expression) {
+		return Traversal.postOrderShared(expression, new Analysis());
+	}
+
+	/**
+	 * Returns the strings that every word of the expression starts with one of.
+	 *
+	 * @return the sorted prefixes, empty if the expression matches nothing, or
+	 *         {@code null} if a word may start with anything, e.g. because the
+	 *         empty word matches
+	 */
+	public Set<String> prefixes() {
+		return (prefixes == null) ? null : Collections.unmodifiableSet(prefixes);
+	}
+
+	/**
+	 * Returns the strings that every word of the expression ends with one of.
+	 *
+	 * @return the sorted suffixes, empty if the expression matches nothing, or
+	 *         {@code null} if a word may end with anything
+	 */
+	public Set<String> suffixes() {
+		return (suffixes == null) ? null : Collections.unmodifiableSet(suffixes);
+	}
+
+	/**
+	 * Returns the longest known string that every word of the expression
+	 * contains.
+	 *
+	 * @return the required factor, empty if none is known
+	 */
+	public String required() {
+		return required;
+	}
+
+	/**
+	 * Computes the factors bottom-up.
+	 */
+	private static final class Analysis implements RegularEggspression.Visitor<LiteralFactors> {
+
+		@Override
+		public LiteralFactors visit(EmptyWord emptyWord) {
+			Set<String> words = new TreeSet<>(Set.of(""));
+			return new LiteralFactors(words, words, words);
+		}
+
+		@Override
+		public LiteralFactors visit(EmptySet emptySet) {
+			Set<String> words = new TreeSet<>();
+			return new LiteralFactors(words, words, words);
+		}
+
+		@Override
+		public LiteralFactors visitPost(Literal literal, VirtualSymbol symbol) {
+			int[] bounds = AlphabetPartition.bounds(symbol);
+			long size = 0;
+			for (int i = 0; i < bounds.length; i += 2) {
+				size += bounds[i + 1] - bounds[i] + 1;
+			}
+			if (size > MAX_CLASS_SIZE) {
+				return new LiteralFactors(null, null, null);
+			}
+			Set<String> words = new TreeSet<>();
+			for (int i = 0; i < bounds.length; i += 2) {
+				for (int codePoint = bounds[i]; codePoint <= bounds[i + 1]; codePoint++) {
+					words.add(new String(Character.toChars(codePoint)));
+				}
+			}
+			return new LiteralFactors(words, words, words);
+		}
+
+		@Override
+		public LiteralFactors visitPost(Concatenation concat, LiteralFactors prefix, LiteralFactors suffix) {
+			Set<String> exact = product(prefix.exact, suffix.exact);
+			if (exact != null && exact.stream().allMatch(word -> word.length() <= MAX_LENGTH)) {
+				return new LiteralFactors(exact, exact, exact);
+			}
+			// the words of a finite prefix can be extended by the prefixes of the suffix
+			Set<String> prefixes = prefix.prefixes;
+			if (prefix.exact != null) {
+				Set<String> extended = product(prefix.exact, suffix.prefixes);
+				prefixes = cut((extended == null) ? prefix.exact : extended, true);
+			}
+			Set<String> suffixes = suffix.suffixes;
+			if (suffix.exact != null) {
+				Set<String> extended = product(prefix.suffixes, suffix.exact);
+				suffixes = cut((extended == null) ? suffix.exact : extended, false);
+			}
+			// the common end of the prefix and the common start of the suffix adjoin
+			String bridge = single(prefix.suffixes) + single(suffix.prefixes);
+			return new LiteralFactors(null, prefixes, suffixes, prefix.required, suffix.required, bridge);
+		}
+
+		@Override
+		public LiteralFactors visitPost(Alternation union, LiteralFactors first, LiteralFactors second) {
+			Set<String> exact = union(first.exact, second.exact);
+			if (exact != null) {
+				return new LiteralFactors(exact, exact, exact);
+			}
+			String required = common(new TreeSet<>(List.of(first.required, second.required)));
+			return new LiteralFactors(null, union(first.prefixes, second.prefixes),
+					union(first.suffixes, second.suffixes), required);
+		}
+
+		@Override
+		public LiteralFactors visitPost(Star star, LiteralFactors base) {
+			return new LiteralFactors(null, null, null);
+		}
+
+		/**
+		 * Concatenates every string of the first set with every string of the
+		 * second, or returns {@code null} if the result would be too large.
+		 */
+		private static Set<String> product(Set<String> first, Set<String> second) {
+			if (first == null || second == null || (long) first.size() * second.size() > MAX_SET_SIZE) {
+				return null;
+			}
+			Set<String> product = new TreeSet<>();
+			for (String left : first) {
+				for (String right : second) {
+					product.add(left + right);
+				}
+			}
+			return product;
+		}
+
+		/**
+		 * Cuts the strings of a set to the maximum length, keeping their start or
+		 * their end.
+		 */
+		private static Set<String> cut(Set<String> strings, boolean keepStart) {
+			Set<String> cut = new TreeSet<>();
+			for (String string : strings) {
+				if (string.length() <= MAX_LENGTH) {
+					cut.add(string);
+				} else if (keepStart) {
+					cut.add(string.substring(0, MAX_LENGTH));
+				} else {
+					cut.add(string.substring(string.length() - MAX_LENGTH));
+				}
+			}
+			return cut;
+		}
+
+		private static Set<String> union(Set<String> first, Set<String> second) {
+			if (first == null || second == null || first.size() + second.size() > MAX_SET_SIZE) {
+				return null;
+			}
+			Set<String> union = new TreeSet<>(first);
+			union.addAll(second);
+			return union;
+		}
+
+	}
+
+}
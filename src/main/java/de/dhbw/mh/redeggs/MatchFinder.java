@@ -0,0 +1,222 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.CodePointRange.range;
+
+/**
+ * Finds all non-overlapping leftmost-longest matches of an expression in an
+ * input.
+ * <p>
+ * Instead of running an anchored matcher at every position, the finder makes
+ * a forward pass with a DFA of {@code .*R}, which marks every position where
+ * a match of the expression {@code R} ends. A backward pass then runs the DFA
+ * of the {@linkplain NodeFactory#reverse(RegularEggspression) reversal}
+ * {@code R'} from each marked end at once, as a set of threads that carry
+ * the end they were started at. Two threads that reach the same state at the
+ * same position accept the same starts from there on, so only the one with
+ * the larger end is kept. Whenever a thread accepts, a match starts at the
+ * current position, and the largest end among the accepting threads is the
+ * end of the longest match from there. The matches are finally picked from
+ * the left, each starting at or after the end of the previous one. As with
+ * {@link java.util.regex.Matcher#find()}, an empty match is followed by a
+ * search one code point further on, and a non-empty match may be followed by
+ * an empty one at its end.
+ * </p>
+ *
+ * <p>
+ * Every char is read once by the forward pass and, in the backward pass, by
+ * at most one thread per state of the reversed DFA, so the search runs in
+ * time linear in the length of the input. The backward pass skips the parts
+ * of the input that no thread reaches. The finder is thread-safe; the results
+ * and the scratch space are held by a caller-supplied {@link MatchOffsets}
+ * buffer.
+ * </p>
+ */
+public final class MatchFinder {
+
+	/** The minimal DFA of {@code .*R}, finding the ends of matches. */
+	private final Dfa ends;
+
+	/** The minimal DFA of {@code R'}, finding the starts of matches. */
+	private final Dfa reverse;
+
+	/**
+	 * Constructs a new finder for the given expression.
+	 *
+	 * @param expression the expression to search for
+	 * @throws IllegalStateException if a DFA would exceed
+	 *                               {@link Dfa#DEFAULT_STATE_LIMIT} states
+	 */
+	public MatchFinder(RegularEggspression expression) {
+		super();
+		NodeFactory nodes = new NodeFactory();
+		RegularEggspression anything = nodes.star(nodes.literal(
+				new IntervalSymbolFactory().newSymbol().include(range(0, Character.MAX_CODE_POINT)).andNothingElse()));
+		this.ends = Dfa.compile(nodes.concatenation(anything, expression));
+		this.reverse = Dfa.compile(nodes.reverse(expression));
+	}
+
+	/**
+	 * Finds all matches in the given input.
+	 *
+	 * @param input   the characters to search
+	 * @param offsets receives the matches; it is cleared first
+	 * @return the number of matches
+	 */
+	public int findAll(CharSequence input, MatchOffsets offsets) {
+		return findAll(input, 0, input.length(), offsets);
+	}
+
+	/**
+	 * Finds all matches within a region.
+	 *
+	 * @param input   the characters to search
+	 * @param from    the index of the first char of the region
+	 * @param to      the exclusive end of the region
+	 * @param offsets receives the matches; it is cleared first
+	 * @return the number of matches
+	 */
+	public int findAll(CharSequence input, int from, int to, MatchOffsets offsets) {
+		offsets.clear();
+		long[] marks = markEnds(input, from, to, offsets.marks(to - from));
+		collectLongest(input, from, to, marks, offsets);
+		// the longest match from every start, now in order of increasing starts
+		offsets.reverse();
+		int candidates = offsets.count();
+		int count = 0;
+		int position = from;
+		for (int i = 0; i < candidates; i++) {
+			int start = offsets.start(i);
+			if (start < position) {
+				continue;
+			}
+			int end = offsets.end(i);
+			offsets.set(count++, start, end);
+			if (end > start) {
+				position = end;
+			} else if (end < to) {
+				position = end + Character.charCount(CodePoints.codePointAt(input, end, to));
+			} else {
+				break;
+			}
+		}
+		offsets.truncate(count);
+		return count;
+	}
+
+	/**
+	 * Runs the forward DFA over the region, marking the positions relative to
+	 * {@code from} at which a match ends.
+	 */
+	private long[] markEnds(CharSequence input, int from, int to, long[] marks) {
+		int[] table = ends.transitions;
+		int width = ends.classCount;
+		long[] accepting = ends.accepting;
+		AlphabetPartition partition = ends.partition;
+		int state = ends.start;
+		int position = from;
+		while (state != ends.dead) {
+			if ((accepting[state >>> 6] & (1L << state)) != 0) {
+				int offset = position - from;
+				marks[offset >>> 6] |= 1L << offset;
+			}
+			if (position == to) {
+				break;
+			}
+			int codePoint = CodePoints.codePointAt(input, position, to);
+			state = table[state * width + partition.classOf(codePoint)];
+			position += Character.charCount(codePoint);
+		}
+		return marks;
+	}
+
+	/**
+	 * Runs the reversed DFA backward from every marked end, adding the start
+	 * and the end of the longest match from each position where a match
+	 * starts, in order of decreasing starts.
+	 */
+	private void collectLongest(CharSequence input, int from, int to, long[] marks, MatchOffsets offsets) {
+		int[] table = reverse.transitions;
+		int width = reverse.classCount;
+		long[] accepting = reverse.accepting;
+		AlphabetPartition partition = reverse.partition;
+		int states = reverse.stateCount;
+		// the end carried by the thread in each state, or -1, and the occupied
+		// states; both for the current and the next position
+		int[] threads = offsets.threads(states);
+		int endOf = 0;
+		int nextEndOf = states;
+		int live = 2 * states;
+		int nextLive = 3 * states;
+		int size = 0;
+		int position = to;
+		while (true) {
+			if (size == 0) {
+				int offset = previousMark(marks, position - from);
+				if (offset < 0) {
+					return;
+				}
+				position = from + offset;
+			}
+			int offset = position - from;
+			// a thread started further right dominates one started here
+			if ((marks[offset >>> 6] & (1L << offset)) != 0 && threads[endOf + reverse.start] < 0) {
+				threads[endOf + reverse.start] = position;
+				threads[live + size++] = reverse.start;
+			}
+			int longest = -1;
+			for (int i = 0; i < size; i++) {
+				int state = threads[live + i];
+				if ((accepting[state >>> 6] & (1L << state)) != 0) {
+					longest = Math.max(longest, threads[endOf + state]);
+				}
+			}
+			if (longest >= 0) {
+				offsets.add(position, longest);
+			}
+			if (position == from) {
+				return;
+			}
+			int codePoint = CodePoints.codePointBefore(input, position, from);
+			int classId = partition.classOf(codePoint);
+			int nextSize = 0;
+			for (int i = 0; i < size; i++) {
+				int state = threads[live + i];
+				int end = threads[endOf + state];
+				threads[endOf + state] = -1;
+				int target = table[state * width + classId];
+				if (target == reverse.dead) {
+					continue;
+				}
+				int known = threads[nextEndOf + target];
+				if (known < 0) {
+					threads[nextLive + nextSize++] = target;
+				}
+				threads[nextEndOf + target] = Math.max(known, end);
+			}
+			int swap = endOf;
+			endOf = nextEndOf;
+			nextEndOf = swap;
+			swap = live;
+			live = nextLive;
+			nextLive = swap;
+			size = nextSize;
+			position -= Character.charCount(codePoint);
+		}
+	}
+
+	/**
+	 * Returns the last marked offset in {@code [0, to]}, or {@code -1}.
+	 */
+	private static int previousMark(long[] marks, int to) {
+		int word = to >>> 6;
+		long bits = marks[word] & (-1L >>> (63 - (to & 63)));
+		while (bits == 0) {
+			if (--word < 0) {
+				return -1;
+			}
+			bits = marks[word];
+		}
+		return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+	}
+
+}
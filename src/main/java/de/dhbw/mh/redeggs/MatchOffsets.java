@@ -0,0 +1,147 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A reusable buffer receiving the start and end offsets of the matches found
+ * by a {@link MatchFinder}.
+ * <p>
+ * The offsets are stored pairwise in a single {@code int[]} that only grows,
+ * so a buffer reused for many searches stops allocating once it has reached
+ * the size of the largest result. It also holds the scratch space of the
+ * search. A buffer is not thread-safe; use one per thread.
+ * </p>
+ */
+public final class MatchOffsets {
+
+	/** The start and end of each match, pairwise. */
+	private int[] offsets;
+
+	/** The number of matches. */
+	private int count;
+
+	/** The positions where a match ends, as a bitset relative to a region. */
+	private long[] marks = new long[0];
+
+	/** The threads of the backward pass of the search. */
+	private int[] threads = new int[0];
+
+	/**
+	 * Constructs a new, empty buffer.
+	 */
+	public MatchOffsets() {
+		this(16);
+	}
+
+	/**
+	 * Constructs a new, empty buffer with room for the given number of matches.
+	 *
+	 * @param capacity the initial number of matches the buffer can hold
+	 */
+	public MatchOffsets(int capacity) {
+		super();
+		this.offsets = new int[Math.max(1, capacity) << 1];
+	}
+
+	/**
+	 * Removes all matches, keeping the allocated space.
+	 */
+	public void clear() {
+		count = 0;
+	}
+
+	void add(int start, int end) {
+		if (count << 1 == offsets.length) {
+			offsets = Arrays.copyOf(offsets, offsets.length << 1);
+		}
+		offsets[count << 1] = start;
+		offsets[(count << 1) + 1] = end;
+		count++;
+	}
+
+	void set(int index, int start, int end) {
+		offsets[index << 1] = start;
+		offsets[(index << 1) + 1] = end;
+	}
+
+	/**
+	 * Keeps only the given number of first matches.
+	 */
+	void truncate(int count) {
+		this.count = count;
+	}
+
+	/**
+	 * Reverses the order of the matches.
+	 */
+	void reverse() {
+		for (int low = 0, high = count - 1; low < high; low++, high--) {
+			int start = offsets[low << 1];
+			int end = offsets[(low << 1) + 1];
+			set(low, offsets[high << 1], offsets[(high << 1) + 1]);
+			set(high, start, end);
+		}
+	}
+
+	/**
+	 * Returns a cleared bitset for a region of the given number of chars.
+	 */
+	long[] marks(int length) {
+		int words = (length >>> 6) + 1;
+		if (marks.length < words) {
+			marks = new long[Math.max(words, marks.length << 1)];
+		} else {
+			Arrays.fill(marks, 0, words, 0);
+		}
+		return marks;
+	}
+
+	/**
+	 * Returns the thread table for a DFA with the given number of states: two
+	 * rows of {@code -1} followed by two rows of scratch space.
+	 */
+	int[] threads(int states) {
+		if (threads.length < 4 * states) {
+			threads = new int[4 * states];
+		}
+		Arrays.fill(threads, 0, 2 * states, -1);
+		return threads;
+	}
+
+	/**
+	 * Returns the number of matches.
+	 *
+	 * @return the number of matches in this buffer
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * Returns the start of a match.
+	 *
+	 * @param index the index of the match
+	 * @return the index of the first char of the match
+	 * @throws IndexOutOfBoundsException if there is no such match
+	 */
+	public int start(int index) {
+		return offsets[pair(index)];
+	}
+
+	/**
+	 * Returns the end of a match.
+	 *
+	 * @param index the index of the match
+	 * @return the exclusive end of the match
+	 * @throws IndexOutOfBoundsException if there is no such match
+	 */
+	public int end(int index) {
+		return offsets[pair(index) + 1];
+	}
+
+	private int pair(int index) {
+		return Objects.checkIndex(index, count) << 1;
+	}
+
+}
@@ -0,0 +1,238 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Arrays;
+
+/**
+ * A Thompson NFA over the symbol classes of an {@link AlphabetPartition},
+ * encoded in flat arrays.
+ * <p>
+ * Every state is either a symbol state with exactly one transition on the
+ * classes of its symbol, or an epsilon state with up to two epsilon
+ * transitions. An NFA compiled from several rules has one accepting state per
+ * rule; matchers accept the union of the rules, and lexers additionally tell
+ * the rules apart. Instances are immutable and may be shared by any number of
+ * matchers.
+ * </p>
+ */
+public final class Nfa {
+
+	/** Marks an absent transition as well as the symbol of epsilon states. */
+	static final int NONE = -1;
+
+	/** The partition classifying the input code points. */
+	final AlphabetPartition partition;
+
+	/** The initial state. */
+	final int start;
+
+	/** The accepting state of the first rule. */
+	final int accept;
+
+	/** The accepting state of each rule. */
+	final int[] accepts;
+
+	/** The rule accepted by each state, {@link #NONE} for non-accepting states. */
+	final int[] rules;
+
+	/** The symbol index of each symbol state, {@link #NONE} for epsilon states. */
+	final int[] symbols;
+
+	/** The symbol transition of symbol states, the first epsilon edge otherwise. */
+	final int[] out1;
+
+	/** The second epsilon edge of epsilon states. */
+	final int[] out2;
+
+	/** The class bitsets of all symbols, {@link #words} longs per symbol. */
+	final long[] masks;
+
+	/** The number of longs per symbol in {@link #masks}. */
+	final int words;
+
+	/**
+	 * Constructs a new NFA from its tables, which are taken over without copying.
+	 */
+	Nfa(AlphabetPartition partition, int start, int[] accepts, int[] symbols, int[] out1, int[] out2, long[] masks,
+			int words) {
+		super();
+		this.partition = partition;
+		this.start = start;
+		this.accept = accepts[0];
+		this.accepts = accepts;
+		this.rules = new int[symbols.length];
+		Arrays.fill(rules, NONE);
+		for (int rule = accepts.length - 1; rule >= 0; rule--) {
+			rules[accepts[rule]] = rule;
+		}
+		this.symbols = symbols;
+		this.out1 = out1;
+		this.out2 = out2;
+		this.masks = masks;
+		this.words = words;
+	}
+
+	/**
+	 * Compiles the given expression into a Thompson NFA.
+	 *
+	 * @param expression the expression to compile
+	 * @return the NFA accepting the language of the expression
+	 */
+	public static Nfa compile(RegularEggspression expression) {
+		return ThompsonCompiler.compile(expression);
+	}
+
+	/**
+	 * Returns the partition classifying the input of this NFA.
+	 *
+	 * @return the alphabet partition
+	 */
+	public AlphabetPartition partition() {
+		return partition;
+	}
+
+	/**
+	 * Returns the number of states.
+	 *
+	 * @return the number of states
+	 */
+	public int stateCount() {
+		return symbols.length;
+	}
+
+	/**
+	 * Returns the initial state.
+	 *
+	 * @return the initial state
+	 */
+	public int start() {
+		return start;
+	}
+
+	/**
+	 * Returns the accepting state of the first rule.
+	 *
+	 * @return the accepting state
+	 */
+	public int accept() {
+		return accept;
+	}
+
+	/**
+	 * Returns the number of rules the NFA was compiled from.
+	 *
+	 * @return the number of rules
+	 */
+	public int ruleCount() {
+		return accepts.length;
+	}
+
+	/**
+	 * Returns the rule accepted by the given state.
+	 *
+	 * @param state the state to check
+	 * @return the index of the rule, or {@code -1} if the state is not accepting
+	 */
+	public int rule(int state) {
+		return rules[state];
+	}
+
+	/**
+	 * Checks whether the given set contains an accepting state.
+	 *
+	 * @param set the set to check
+	 * @return {@code true} if any rule accepts
+	 */
+	boolean accepts(SparseSet set) {
+		for (int state : accepts) {
+			if (set.contains(state)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the lowest rule accepted by any of the given states.
+	 *
+	 * @param states the states to check
+	 * @return the index of the rule, or {@link #NONE} if no rule accepts
+	 */
+	int lowestRule(int[] states) {
+		int lowest = NONE;
+		for (int state : states) {
+			int rule = rules[state];
+			if (rule != NONE && (lowest == NONE || rule < lowest)) {
+				lowest = rule;
+			}
+		}
+		return lowest;
+	}
+
+	/**
+	 * Returns the target of the symbol transition of {@code state} on the given
+	 * class.
+	 *
+	 * @param state   the state to leave
+	 * @param classId the class of the input symbol
+	 * @return the target state, or {@link #NONE} if there is no such transition
+	 */
+	int step(int state, int classId) {
+		int symbol = symbols[state];
+		if (symbol == NONE || (masks[symbol * words + (classId >>> 6)] & (1L << classId)) == 0) {
+			return NONE;
+		}
+		return out1[state];
+	}
+
+	/**
+	 * Adds {@code state} and all states reachable from it by epsilon edges to the
+	 * given set.
+	 *
+	 * @param set   the set to extend
+	 * @param state the state to start from
+	 * @param stack scratch space of at least {@link #stateCount()} entries
+	 */
+	void closure(SparseSet set, int state, int[] stack) {
+		if (!set.add(state)) {
+			return;
+		}
+		int top = 0;
+		stack[top++] = state;
+		while (top > 0) {
+			int current = stack[--top];
+			if (symbols[current] != NONE) {
+				continue;
+			}
+			int next = out2[current];
+			if (next != NONE && set.add(next)) {
+				stack[top++] = next;
+			}
+			next = out1[current];
+			if (next != NONE && set.add(next)) {
+				stack[top++] = next;
+			}
+		}
+	}
+
+	/**
+	 * Extracts the states of the given set that matter for determinization,
+	 * namely symbol states and accepting states, in sorted order.
+	 *
+	 * @param set an epsilon-closed set of states
+	 * @return the sorted relevant states
+	 */
+	int[] relevantStates(SparseSet set) {
+		int[] states = new int[set.size];
+		int size = 0;
+		for (int i = 0; i < set.size; i++) {
+			int state = set.dense[i];
+			if (symbols[state] != NONE || rules[state] != NONE) {
+				states[size++] = state;
+			}
+		}
+		states = Arrays.copyOf(states, size);
+		Arrays.sort(states);
+		return states;
+	}
+
+}
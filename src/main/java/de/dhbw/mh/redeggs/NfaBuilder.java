@@ -0,0 +1,126 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incrementally assembles the flat tables of an {@link Nfa}.
+ */
+final class NfaBuilder {
+
+	/** The symbol index of each state. */
+	private int[] symbols = new int[16];
+
+	/** The first outgoing edge of each state. */
+	private int[] out1 = new int[16];
+
+	/** The second outgoing edge of each state. */
+	private int[] out2 = new int[16];
+
+	/** The number of states. */
+	private int size;
+
+	/** The distinct symbols in order of registration. */
+	private final List<VirtualSymbol> symbolTable = new ArrayList<>();
+
+	/** Maps each registered symbol to its index. */
+	private final Map<VirtualSymbol, Integer> symbolIndex = new HashMap<>();
+
+	/**
+	 * Adds a new state without any outgoing edges.
+	 *
+	 * @return the new state
+	 */
+	int addState() {
+		if (size == symbols.length) {
+			int capacity = size << 1;
+			symbols = Arrays.copyOf(symbols, capacity);
+			out1 = Arrays.copyOf(out1, capacity);
+			out2 = Arrays.copyOf(out2, capacity);
+		}
+		symbols[size] = Nfa.NONE;
+		out1[size] = Nfa.NONE;
+		out2[size] = Nfa.NONE;
+		return size++;
+	}
+
+	/**
+	 * Adds an epsilon edge. Epsilon states support at most two edges.
+	 *
+	 * @param from the epsilon state to leave
+	 * @param to   the target state
+	 */
+	void epsilon(int from, int to) {
+		if (out1[from] == Nfa.NONE) {
+			out1[from] = to;
+		} else if (out2[from] == Nfa.NONE) {
+			out2[from] = to;
+		} else {
+			throw new IllegalStateException(String.format("State %d already has two epsilon edges.", from));
+		}
+	}
+
+	/**
+	 * Turns a state without edges into a symbol state.
+	 *
+	 * @param from   the state to leave
+	 * @param symbol the symbol to consume
+	 * @param to     the target state
+	 */
+	void symbol(int from, VirtualSymbol symbol, int to) {
+		Integer index = symbolIndex.get(symbol);
+		if (index == null) {
+			index = symbolTable.size();
+			symbolTable.add(symbol);
+			symbolIndex.put(symbol, index);
+		}
+		symbols[from] = index;
+		out1[from] = to;
+	}
+
+	/**
+	 * Returns the distinct symbols of the symbol states added so far.
+	 *
+	 * @return the symbols in order of registration
+	 */
+	List<VirtualSymbol> symbols() {
+		return symbolTable;
+	}
+
+	/**
+	 * Creates the NFA from the states added so far.
+	 *
+	 * @param partition the partition the symbols are classified by
+	 * @param start     the initial state
+	 * @param accept    the accepting state
+	 * @return the new NFA
+	 */
+	Nfa build(AlphabetPartition partition, int start, int accept) {
+		return build(partition, start, new int[] { accept });
+	}
+
+	/**
+	 * Creates an NFA with one accepting state per rule from the states added so
+	 * far.
+	 *
+	 * @param partition the partition the symbols are classified by
+	 * @param start     the initial state
+	 * @param accepts   the distinct accepting state of each rule
+	 * @return the new NFA
+	 */
+	Nfa build(AlphabetPartition partition, int start, int[] accepts) {
+		int words = Math.max(1, (partition.classCount() + 63) >>> 6);
+		long[] masks = new long[symbolTable.size() * words];
+		for (int s = 0; s < symbolTable.size(); s++) {
+			for (int classId : partition.classesOf(symbolTable.get(s))) {
+				masks[s * words + (classId >>> 6)] |= 1L << classId;
+			}
+		}
+		return new Nfa(partition, start, accepts, Arrays.copyOf(symbols, size), Arrays.copyOf(out1, size),
+				Arrays.copyOf(out2, size), masks, words);
+	}
+
+}
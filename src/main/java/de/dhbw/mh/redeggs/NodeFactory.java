@@ -0,0 +1,209 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptySet;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptyWord;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * A factory that hash-conses {@link RegularEggspression} nodes.
+ * <p>
+ * Every factory hands out at most one instance per structurally distinct
+ * expression, so trees built through the same factory share identical
+ * subtrees and form a DAG. The factory is thread-safe.
+ * </p>
+ *
+ * <p>
+ * Interning a node runs in O(1) only if its operands were created by this
+ * factory: structurally equal operands are then the same instance, and the
+ * comparison stops at their references. Operands from anywhere else are
+ * compared structurally, which walks them as trees and takes time linear in
+ * their unfolded size, i.e. possibly exponential in the size of a DAG that
+ * shares subtrees by other means. Import such expressions with
+ * {@link #share(RegularEggspression)} first, which visits every shared node
+ * only once.
+ * </p>
+ */
+public class NodeFactory {
+
+	/** The interned nodes. */
+	private final ConcurrentMap<RegularEggspression, RegularEggspression> nodes = new ConcurrentHashMap<>();
+
+	/** The shared empty word. */
+	private final EmptyWord emptyWord = intern(new EmptyWord());
+
+	/** The shared empty set. */
+	private final EmptySet emptySet = intern(new EmptySet());
+
+	/**
+	 * Returns the shared concatenation of the given operands.
+	 *
+	 * @param left  the left operand, created by this factory
+	 * @param right the right operand, created by this factory
+	 * @return the shared concatenation node
+	 */
+	public Concatenation concatenation(RegularEggspression left, RegularEggspression right) {
+		return intern(new Concatenation(left, right));
+	}
+
+	/**
+	 * Returns the shared alternation of the given operands.
+	 *
+	 * @param left  the left operand, created by this factory
+	 * @param right the right operand, created by this factory
+	 * @return the shared alternation node
+	 */
+	public Alternation alternation(RegularEggspression left, RegularEggspression right) {
+		return intern(new Alternation(left, right));
+	}
+
+	/**
+	 * Returns the shared star of the given base.
+	 *
+	 * @param base the repeated expression, created by this factory
+	 * @return the shared star node
+	 */
+	public Star star(RegularEggspression base) {
+		return intern(new Star(base));
+	}
+
+	/**
+	 * Returns the shared literal of the given symbol.
+	 *
+	 * @param symbol the symbol of the literal
+	 * @return the shared literal node
+	 */
+	public Literal literal(VirtualSymbol symbol) {
+		return intern(new Literal(symbol));
+	}
+
+	/**
+	 * Returns the shared empty word.
+	 *
+	 * @return the empty word node
+	 */
+	public EmptyWord emptyWord() {
+		return emptyWord;
+	}
+
+	/**
+	 * Returns the shared empty set.
+	 *
+	 * @return the empty set node
+	 */
+	public EmptySet emptySet() {
+		return emptySet;
+	}
+
+	/**
+	 * Rebuilds an arbitrary expression from shared nodes of this factory.
+	 *
+	 * @param expression the expression to import
+	 * @return the structurally equal expression made of shared nodes
+	 */
+	public RegularEggspression share(RegularEggspression expression) {
+		return Traversal.postOrderShared(expression, new RegularEggspression.Visitor<RegularEggspression>() {
+
+			@Override
+			public RegularEggspression visit(EmptyWord emptyWord) {
+				return emptyWord();
+			}
+
+			@Override
+			public RegularEggspression visit(EmptySet emptySet) {
+				return emptySet();
+			}
+
+			@Override
+			public RegularEggspression visitPost(Concatenation concat, RegularEggspression prefix,
+					RegularEggspression suffix) {
+				return concatenation(prefix, suffix);
+			}
+
+			@Override
+			public RegularEggspression visitPost(Alternation union, RegularEggspression first,
+					RegularEggspression second) {
+				return alternation(first, second);
+			}
+
+			@Override
+			public RegularEggspression visitPost(Star star, RegularEggspression base) {
+				return star(base);
+			}
+
+			@Override
+			public RegularEggspression visitPost(Literal literal, VirtualSymbol symbol) {
+				return literal(symbol);
+			}
+		});
+	}
+
+	/**
+	 * Builds the reversal of an arbitrary expression from shared nodes of this
+	 * factory. The reversal matches exactly the words of the expression spelled
+	 * backwards, i.e. with their code points in reverse order.
+	 *
+	 * @param expression the expression to reverse
+	 * @return the reversed expression made of shared nodes
+	 */
+	public RegularEggspression reverse(RegularEggspression expression) {
+		return Traversal.postOrderShared(expression, new RegularEggspression.Visitor<RegularEggspression>() {
+
+			@Override
+			public RegularEggspression visit(EmptyWord emptyWord) {
+				return emptyWord();
+			}
+
+			@Override
+			public RegularEggspression visit(EmptySet emptySet) {
+				return emptySet();
+			}
+
+			@Override
+			public RegularEggspression visitPost(Concatenation concat, RegularEggspression prefix,
+					RegularEggspression suffix) {
+				return concatenation(suffix, prefix);
+			}
+
+			@Override
+			public RegularEggspression visitPost(Alternation union, RegularEggspression first,
+					RegularEggspression second) {
+				return alternation(first, second);
+			}
+
+			@Override
+			public RegularEggspression visitPost(Star star, RegularEggspression base) {
+				return star(base);
+			}
+
+			@Override
+			public RegularEggspression visitPost(Literal literal, VirtualSymbol symbol) {
+				return literal(symbol);
+			}
+		});
+	}
+
+	/**
+	 * Returns the number of distinct nodes interned by this factory.
+	 *
+	 * @return the number of interned nodes
+	 */
+	public int size() {
+		return nodes.size();
+	}
+
+	/**
+	 * Returns the shared instance equal to the given candidate.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends RegularEggspression> T intern(T candidate) {
+		RegularEggspression existing = nodes.putIfAbsent(candidate, candidate);
+		return (existing == null) ? candidate : (T) existing;
+	}
+
+}
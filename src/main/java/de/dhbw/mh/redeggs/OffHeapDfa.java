@@ -0,0 +1,292 @@
+package de.dhbw.mh.redeggs;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A matcher that keeps the tables of a {@link Dfa} or {@link Lexer} outside
+ * the Java heap.
+ * <p>
+ * The tables are copied into a direct buffer in the layout of a
+ * {@link DfaImage} and matched in place, so the garbage collector neither
+ * marks nor copies them. This pays off for automata with hundreds of
+ * thousands of states; small automata are better served by the {@link Dfa}
+ * itself, whose on-heap tables are slightly faster to read.
+ * </p>
+ *
+ * <p>
+ * A matcher must be {@linkplain #close() closed} when it is no longer needed.
+ * Searches started afterwards throw an {@link IllegalStateException}, while
+ * searches that are already running when the matcher is closed complete
+ * normally. The off-heap memory is released as soon as the last of them
+ * returns, without waiting for the garbage collector. The matcher is
+ * thread-safe.
+ * </p>
+ */
+public final class OffHeapDfa implements CloseableMatcher {
+
+	/** The number of states from which {@link #choose(Dfa)} moves a DFA off the heap. */
+	public static final int DEFAULT_MINIMUM_STATES = 100_000;
+
+	/** The bit of {@link #readers} that marks a closed matcher. */
+	private static final int CLOSED = Integer.MIN_VALUE;
+
+	/** Releases a direct buffer at once, or {@code null} if not supported. */
+	private static final Method INVOKE_CLEANER;
+
+	/** The receiver of {@link #INVOKE_CLEANER}. */
+	private static final Object UNSAFE;
+
+	static {
+		Method invokeCleaner = null;
+		Object unsafe = null;
+		try {
+			Class<?> type = Class.forName("sun.misc.Unsafe");
+			Field field = type.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			unsafe = field.get(null);
+			invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// the buffer's cleaner releases the memory once it is unreachable
+			unsafe = null;
+			invokeCleaner = null;
+		}
+		INVOKE_CLEANER = invokeCleaner;
+		UNSAFE = unsafe;
+	}
+
+	/** The direct buffer holding the image. */
+	private final ByteBuffer buffer;
+
+	/** The image in off-heap memory. */
+	private final DfaImage image;
+
+	/** The number of bytes of off-heap memory. */
+	private final long size;
+
+	/**
+	 * The number of running searches, with the {@link #CLOSED} bit set once the
+	 * matcher has been closed.
+	 */
+	private final AtomicInteger readers = new AtomicInteger();
+
+	/** Whether the memory has been released; for tests. */
+	private volatile boolean released;
+
+	private OffHeapDfa(ByteBuffer buffer) {
+		super();
+		this.buffer = buffer;
+		this.size = buffer.capacity();
+		this.image = DfaImage.of(buffer);
+	}
+
+	/**
+	 * Returns a matcher using the DFA itself if it has fewer than
+	 * {@link #DEFAULT_MINIMUM_STATES} states and a copy of its tables in off-heap
+	 * memory otherwise.
+	 *
+	 * @param dfa the automaton to match with
+	 * @return a matcher for the DFA, which the caller must close
+	 */
+	public static CloseableMatcher choose(Dfa dfa) {
+		return choose(dfa, DEFAULT_MINIMUM_STATES);
+	}
+
+	/**
+	 * Returns a matcher using the DFA itself if it has fewer than the given
+	 * number of states and a copy of its tables in off-heap memory otherwise.
+	 * Closing the on-heap matcher has no effect, so both can be used in the same
+	 * try-with-resources statement.
+	 *
+	 * @param dfa           the automaton to match with
+	 * @param minimumStates the number of states from which to move the tables off
+	 *                      the heap
+	 * @return a matcher for the DFA, which the caller must close
+	 */
+	public static CloseableMatcher choose(Dfa dfa, int minimumStates) {
+		return (dfa.stateCount() < minimumStates) ? new OnHeap(dfa) : of(dfa);
+	}
+
+	/**
+	 * Copies the tables of a DFA into off-heap memory.
+	 *
+	 * @param dfa the automaton to copy
+	 * @return the new matcher
+	 */
+	public static OffHeapDfa of(Dfa dfa) {
+		return new OffHeapDfa(DfaImage.encode(dfa, null, ByteBuffer::allocateDirect));
+	}
+
+	/**
+	 * Copies the tables of a lexer into off-heap memory.
+	 *
+	 * @param lexer the lexer to copy
+	 * @return the new matcher, whose {@link #tokenize} reports token ids
+	 */
+	public static OffHeapDfa of(Lexer lexer) {
+		return new OffHeapDfa(DfaImage.encode(lexer.dfa, lexer.tokenIds, ByteBuffer::allocateDirect));
+	}
+
+	/**
+	 * Copies an image into off-heap memory.
+	 *
+	 * @param image the image to copy, e.g. one read from a file
+	 * @return the new matcher
+	 */
+	public static OffHeapDfa copyOf(DfaImage image) {
+		ByteBuffer bytes = image.buffer();
+		return new OffHeapDfa(ByteBuffer.allocateDirect(bytes.remaining()).put(bytes).flip());
+	}
+
+	/**
+	 * Registers a search, failing if this matcher has been closed.
+	 */
+	private void acquire() {
+		int current;
+		do {
+			current = readers.get();
+			if (current < 0) {
+				throw new IllegalStateException("The matcher has been closed.");
+			}
+		} while (!readers.compareAndSet(current, current + 1));
+	}
+
+	/**
+	 * Unregisters a search, releasing the memory if it was the last one of a
+	 * closed matcher.
+	 */
+	private void release() {
+		if (readers.decrementAndGet() == CLOSED) {
+			free();
+		}
+	}
+
+	@Override
+	public int longestMatch(CharSequence input, int from, int to) {
+		acquire();
+		try {
+			return image.longestMatch(input, from, to);
+		} finally {
+			release();
+		}
+	}
+
+	/**
+	 * Splits a region of the input into tokens like {@link Lexer#tokenize}.
+	 *
+	 * @param input    the characters to tokenize
+	 * @param from     the index of the first char of the region
+	 * @param to       the exclusive end of the region
+	 * @param tokenIds receives the token id of each token
+	 * @param ends     receives the exclusive end of each token
+	 * @return the number of tokens written, limited by the array lengths
+	 */
+	public int tokenize(CharSequence input, int from, int to, int[] tokenIds, int[] ends) {
+		acquire();
+		try {
+			return image.tokenize(input, from, to, tokenIds, ends);
+		} finally {
+			release();
+		}
+	}
+
+	/**
+	 * Returns the number of states.
+	 *
+	 * @return the number of states
+	 */
+	public int stateCount() {
+		acquire();
+		try {
+			return image.stateCount();
+		} finally {
+			release();
+		}
+	}
+
+	/**
+	 * Returns the amount of off-heap memory held by this matcher.
+	 *
+	 * @return the number of bytes, {@code 0} once closed
+	 */
+	public long size() {
+		return isClosed() ? 0 : size;
+	}
+
+	/**
+	 * Checks whether this matcher has been closed.
+	 *
+	 * @return {@code true} if {@link #close()} has been called
+	 */
+	public boolean isClosed() {
+		return readers.get() < 0;
+	}
+
+	/**
+	 * Checks whether the off-heap memory has been released.
+	 */
+	boolean isReleased() {
+		return released;
+	}
+
+	/**
+	 * Closes the matcher and releases the off-heap tables once the running
+	 * searches have completed. Closing a closed matcher has no effect.
+	 */
+	@Override
+	public void close() {
+		int current;
+		do {
+			current = readers.get();
+			if (current < 0) {
+				return;
+			}
+		} while (!readers.compareAndSet(current, current | CLOSED));
+		if (current == 0) {
+			free();
+		}
+	}
+
+	/**
+	 * Releases the memory of the buffer, called exactly once.
+	 */
+	private void free() {
+		released = true;
+		if (INVOKE_CLEANER != null) {
+			try {
+				INVOKE_CLEANER.invoke(UNSAFE, buffer);
+			} catch (ReflectiveOperationException e) {
+				// the buffer's cleaner releases the memory once it is unreachable
+			}
+		}
+	}
+
+	/**
+	 * The matcher returned by {@link OffHeapDfa#choose} for small automata,
+	 * which keeps the DFA on the heap and has nothing to close.
+	 */
+	private static final class OnHeap implements CloseableMatcher {
+
+		/** The automaton to match with. */
+		private final Dfa dfa;
+
+		OnHeap(Dfa dfa) {
+			super();
+			this.dfa = dfa;
+		}
+
+		@Override
+		public int longestMatch(CharSequence input, int from, int to) {
+			return dfa.longestMatch(input, from, to);
+		}
+
+		@Override
+		public boolean matches(CharSequence input) {
+			return dfa.matches(input);
+		}
+
+	}
+
+}
@@ -0,0 +1,340 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A matcher that spreads a single large input over the threads of a
+ * {@link ForkJoinPool}.
+ * <p>
+ * The input is cut into chunks that are simulated independently. Since the
+ * state at the start of a chunk is unknown, each chunk is run from every state
+ * of the DFA at once, yielding a mapping from start state to end state. The
+ * runs are merged as soon as they reach the same state, which for minimal
+ * automata with few states typically happens within a few code points, so a
+ * chunk costs hardly more than a single run. A sequential pass then composes
+ * the mappings of all chunks to find the true state at every boundary.
+ * </p>
+ *
+ * <p>
+ * Inputs shorter than two chunks are matched sequentially by the DFA. Unlike
+ * the DFA, this matcher reads the whole region even after the automaton has
+ * died, so it pays off for validation and counting rather than for searches
+ * that usually fail early. The matcher is thread-safe.
+ * </p>
+ */
+public final class ParallelDfa implements RedeggsMatcher {
+
+	/** The default number of chars per chunk. */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+	/** The automaton to match with. */
+	private final Dfa dfa;
+
+	/** The pool running the chunks. */
+	private final ForkJoinPool pool;
+
+	/** The number of chars per chunk. */
+	private final int chunkSize;
+
+	/**
+	 * Constructs a new matcher running chunks of {@link #DEFAULT_CHUNK_SIZE}
+	 * chars on the common pool.
+	 *
+	 * @param dfa the automaton to match with
+	 */
+	public ParallelDfa(Dfa dfa) {
+		this(dfa, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Constructs a new matcher.
+	 *
+	 * @param dfa       the automaton to match with
+	 * @param pool      the pool running the chunks
+	 * @param chunkSize the number of chars per chunk
+	 * @throws IllegalArgumentException if the chunk size is less than 2
+	 */
+	public ParallelDfa(Dfa dfa, ForkJoinPool pool, int chunkSize) {
+		super();
+		if (chunkSize < 2) {
+			throw new IllegalArgumentException(String.format("Invalid chunk size %d.", chunkSize));
+		}
+		this.dfa = dfa;
+		this.pool = pool;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * The effect of a chunk on each state it may be entered in.
+	 */
+	private static final class Mapping {
+
+		/** The state at the end of the chunk. */
+		final int[] ends;
+
+		/** The number of non-empty prefixes of the chunk ending in an accepting state. */
+		final long[] counts;
+
+		/** The end of the last such prefix, or {@code -1}. */
+		final int[] lasts;
+
+		Mapping(int stateCount) {
+			this.ends = new int[stateCount];
+			this.counts = new long[stateCount];
+			this.lasts = new int[stateCount];
+		}
+
+	}
+
+	/**
+	 * Simulates a chunk from the given start states at once, merging runs that
+	 * reach the same state.
+	 *
+	 * @param starts the states to start from; the mapping is only defined for
+	 *               these
+	 */
+	private Mapping simulate(CharSequence input, int from, int to, int[] starts) {
+		int width = dfa.classCount;
+		int[] table = dfa.transitions;
+		long[] accepting = dfa.accepting;
+		AlphabetPartition partition = dfa.partition;
+		int runCount = starts.length;
+
+		// the runs, each identified by its index into starts
+		int[] states = starts.clone();
+		long[] counts = new long[runCount];
+		int[] lasts = new int[runCount];
+		Arrays.fill(lasts, -1);
+		// how a merged run continues: the run it joined, the difference of their
+		// counts and the position of the merge
+		int[] parents = new int[runCount];
+		long[] offsets = new long[runCount];
+		int[] merged = new int[runCount];
+		Arrays.fill(parents, -1);
+
+		int[] alive = new int[runCount];
+		for (int run = 0; run < runCount; run++) {
+			alive[run] = run;
+		}
+		int aliveCount = runCount;
+		int[] owners = new int[dfa.stateCount];
+		int[] stamps = new int[dfa.stateCount];
+		int stamp = 0;
+
+		int position = from;
+		while (position < to && aliveCount > 1) {
+			int codePoint = CodePoints.codePointAt(input, position, to);
+			int classId = partition.classOf(codePoint);
+			position += Character.charCount(codePoint);
+			stamp++;
+			int survivors = 0;
+			for (int i = 0; i < aliveCount; i++) {
+				int run = alive[i];
+				int state = table[states[run] * width + classId];
+				states[run] = state;
+				if ((accepting[state >>> 6] & (1L << state)) != 0) {
+					counts[run]++;
+					lasts[run] = position;
+				}
+				if (stamps[state] == stamp) {
+					int survivor = owners[state];
+					parents[run] = survivor;
+					offsets[run] = counts[run] - counts[survivor];
+					merged[run] = position;
+				} else {
+					stamps[state] = stamp;
+					owners[state] = run;
+					alive[survivors++] = run;
+				}
+			}
+			aliveCount = survivors;
+		}
+
+		// a single run is left, which is matched like by the DFA
+		int run = alive[0];
+		int state = states[run];
+		long count = counts[run];
+		int last = lasts[run];
+		while (position < to) {
+			int codePoint = CodePoints.codePointAt(input, position, to);
+			state = table[state * width + partition.classOf(codePoint)];
+			position += Character.charCount(codePoint);
+			if ((accepting[state >>> 6] & (1L << state)) != 0) {
+				count++;
+				last = position;
+			}
+		}
+		states[run] = state;
+		counts[run] = count;
+		lasts[run] = last;
+
+		Mapping mapping = new Mapping(dfa.stateCount);
+		for (int i = 0; i < runCount; i++) {
+			resolve(i, states, counts, lasts, parents, offsets, merged);
+			mapping.ends[starts[i]] = states[i];
+			mapping.counts[starts[i]] = counts[i];
+			mapping.lasts[starts[i]] = lasts[i];
+		}
+		return mapping;
+	}
+
+	/**
+	 * Completes a merged run with the outcome of the run it joined, which is
+	 * resolved first. Resolved runs are marked by a negative parent.
+	 */
+	private static void resolve(int run, int[] states, long[] counts, int[] lasts, int[] parents, long[] offsets,
+			int[] merged) {
+		// collect the chain of unresolved runs, then resolve it from its end
+		int length = 0;
+		for (int current = run; parents[current] >= 0; current = parents[current]) {
+			length++;
+		}
+		int[] chain = new int[length];
+		int current = run;
+		for (int i = 0; i < length; i++) {
+			chain[i] = current;
+			current = parents[current];
+		}
+		for (int i = length - 1; i >= 0; i--) {
+			int child = chain[i];
+			int parent = parents[child];
+			states[child] = states[parent];
+			counts[child] = counts[parent] + offsets[child];
+			if (lasts[parent] > merged[child]) {
+				lasts[child] = lasts[parent];
+			}
+			parents[child] = -1;
+		}
+	}
+
+	/**
+	 * Simulates a range of chunks, splitting it among the workers of the pool.
+	 */
+	private final class Chunks extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final CharSequence input;
+		private final int[] bounds;
+		private final Mapping[] mappings;
+		private final int[] allStates;
+		private final int first;
+		private final int last;
+
+		Chunks(CharSequence input, int[] bounds, Mapping[] mappings, int[] allStates, int first, int last) {
+			super();
+			this.input = input;
+			this.bounds = bounds;
+			this.mappings = mappings;
+			this.allStates = allStates;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected void compute() {
+			if (last - first > 1) {
+				int middle = (first + last) >>> 1;
+				invokeAll(new Chunks(input, bounds, mappings, allStates, first, middle),
+						new Chunks(input, bounds, mappings, allStates, middle, last));
+			} else {
+				// the first chunk is only ever entered in the initial state
+				int[] starts = (first == 0) ? new int[] { dfa.start } : allStates;
+				mappings[first] = simulate(input, bounds[first], bounds[first + 1], starts);
+			}
+		}
+
+	}
+
+	/**
+	 * The summary of a run over a region.
+	 *
+	 * @param state the final state
+	 * @param count the number of matching non-empty prefixes
+	 * @param last  the end of the longest matching non-empty prefix, or
+	 *              {@code -1}
+	 */
+	private static record Outcome(int state, long count, int last) {
+	}
+
+	/**
+	 * Runs the DFA over a region in parallel.
+	 */
+	private Outcome run(CharSequence input, int from, int to) {
+		int chunkCount = (int) (((long) to - from + chunkSize - 1) / chunkSize);
+		int[] bounds = new int[chunkCount + 1];
+		for (int chunk = 0; chunk < chunkCount; chunk++) {
+			int bound = from + chunk * chunkSize;
+			// never separate the chars of a surrogate pair
+			if (chunk > 0 && bound < to && Character.isLowSurrogate(input.charAt(bound))
+					&& Character.isHighSurrogate(input.charAt(bound - 1))) {
+				bound++;
+			}
+			bounds[chunk] = bound;
+		}
+		bounds[chunkCount] = to;
+		int[] allStates = new int[dfa.stateCount];
+		for (int state = 0; state < allStates.length; state++) {
+			allStates[state] = state;
+		}
+		Mapping[] mappings = new Mapping[chunkCount];
+		if (chunkCount > 0) {
+			pool.invoke(new Chunks(input, bounds, mappings, allStates, 0, chunkCount));
+		}
+
+		int state = dfa.start;
+		long count = 0;
+		int last = -1;
+		for (Mapping mapping : mappings) {
+			count += mapping.counts[state];
+			if (mapping.lasts[state] >= 0) {
+				last = mapping.lasts[state];
+			}
+			state = mapping.ends[state];
+		}
+		return new Outcome(state, count, last);
+	}
+
+	@Override
+	public int longestMatch(CharSequence input, int from, int to) {
+		if (to - from < 2L * chunkSize) {
+			return dfa.longestMatch(input, from, to);
+		}
+		int last = run(input, from, to).last();
+		return (last >= 0) ? last : dfa.isAccepting(dfa.start) ? from : -1;
+	}
+
+	@Override
+	public boolean matches(CharSequence input) {
+		if (input.length() < 2L * chunkSize) {
+			return dfa.matches(input);
+		}
+		return dfa.isAccepting(run(input, 0, input.length()).state());
+	}
+
+	/**
+	 * Counts the non-empty prefixes of a region that match, e.g. the number of
+	 * lines of the region for an automaton of {@code ([^\n]*\n)*}.
+	 *
+	 * @param input the characters to read
+	 * @param from  the index of the first char of the region
+	 * @param to    the exclusive end of the region
+	 * @return the number of ends {@code e > from} such that the chars between
+	 *         {@code from} and {@code e} match
+	 */
+	public long countMatchingPrefixes(CharSequence input, int from, int to) {
+		return run(input, from, to).count();
+	}
+
+	/**
+	 * Returns the automaton this matcher runs.
+	 *
+	 * @return the DFA
+	 */
+	public Dfa dfa() {
+		return dfa;
+	}
+
+}
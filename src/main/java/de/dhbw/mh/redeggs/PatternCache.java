@@ -0,0 +1,415 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A thread-safe cache of parsed and compiled patterns, keyed by pattern text.
+ * <p>
+ * A missing pattern is parsed by a {@link RecursiveDescentRedeggsParser} and
+ * compiled by a caller-supplied function, e.g. {@code Dfa::compile}. When
+ * several threads request the same missing pattern at once, only one of them
+ * builds it while the others wait for its result. Patterns that fail to parse
+ * or compile are not cached.
+ * </p>
+ *
+ * <p>
+ * The compiler may request other patterns from the cache, but not the pattern
+ * it is compiling: like {@link ConcurrentHashMap#computeIfAbsent}, the cache
+ * detects such a recursive request by the building thread and throws an
+ * {@link IllegalStateException} instead of waiting for itself forever. Cycles
+ * that span several threads are not detected and deadlock.
+ * </p>
+ *
+ * <p>
+ * Every entry has a weight, 1 by default. When the total weight exceeds the
+ * maximum weight, the least recently used entries are evicted.
+ * </p>
+ *
+ * <p>
+ * Lookups read a concurrent map and never block. Instead of reordering the
+ * entries on every hit, a lookup records the entry in a small, lossy buffer,
+ * which is replayed into the recency order under a lock now and then and
+ * before every eviction, in the style of Caffeine. The eviction order is thus
+ * only approximately least recently used.
+ * </p>
+ *
+ * @param <A> the type of the compiled automaton
+ */
+public class PatternCache<A> {
+
+	/**
+	 * A cached pattern.
+	 *
+	 * @param <A>        the type of the compiled automaton
+	 * @param pattern    the pattern text
+	 * @param expression the parsed expression
+	 * @param automaton  the compiled automaton
+	 */
+	public static record Compiled<A>(String pattern, RegularEggspression expression, A automaton) {
+	}
+
+	/** The parser for missing patterns. */
+	private final RecursiveDescentRedeggsParser parser;
+
+	/** The compiler for parsed patterns. */
+	private final Function<? super RegularEggspression, ? extends A> compiler;
+
+	/** The weigher of new entries. */
+	private final ToLongFunction<? super Compiled<A>> weigher;
+
+	/** The maximum total weight of all entries. */
+	private final long maximumWeight;
+
+	/** The number of slots of the buffer of recent hits. */
+	static final int READ_BUFFER_SIZE = 64;
+
+	/** The mask of the slots whose hits try to drain the buffer. */
+	private static final int DRAIN_MASK = 15;
+
+	/** The entries by pattern, only changed under {@link #lock}. */
+	private final ConcurrentMap<String, Node<A>> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * The sentinel of the list of entries from the least to the most recently
+	 * used, guarded by {@link #lock}.
+	 */
+	private final Node<A> order = new Node<>(null, 0);
+
+	/** The recent hits not yet applied to the order, in random slots. */
+	private final AtomicReferenceArray<Node<A>> reads = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+
+	/** The lock guarding the order and the total weight. */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/** The total weight of all entries, guarded by {@link #lock}. */
+	private long totalWeight;
+
+	/** The builds currently in progress. */
+	private final ConcurrentMap<String, Build<A>> inFlight = new ConcurrentHashMap<>();
+
+	/** The number of requests answered from the cache. */
+	private final LongAdder hits = new LongAdder();
+
+	/** The number of builds started. */
+	private final LongAdder misses = new LongAdder();
+
+	/** The number of evicted entries. */
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Constructs a new cache holding at most the given number of patterns.
+	 *
+	 * @param parser      the parser for missing patterns
+	 * @param compiler    the compiler for parsed patterns
+	 * @param maximumSize the maximum number of entries
+	 */
+	public PatternCache(RecursiveDescentRedeggsParser parser,
+			Function<? super RegularEggspression, ? extends A> compiler, long maximumSize) {
+		this(parser, compiler, maximumSize, entry -> 1);
+	}
+
+	/**
+	 * Constructs a new cache bounded by the total weight of its entries.
+	 *
+	 * @param parser        the parser for missing patterns
+	 * @param compiler      the compiler for parsed patterns
+	 * @param maximumWeight the maximum total weight of all entries
+	 * @param weigher       the function computing the non-negative weight of a
+	 *                      new entry
+	 * @throws IllegalArgumentException if the maximum weight is negative
+	 */
+	public PatternCache(RecursiveDescentRedeggsParser parser,
+			Function<? super RegularEggspression, ? extends A> compiler, long maximumWeight,
+			ToLongFunction<? super Compiled<A>> weigher) {
+		super();
+		if (maximumWeight < 0) {
+			throw new IllegalArgumentException(String.format("Invalid maximum weight %d.", maximumWeight));
+		}
+		this.parser = parser;
+		this.compiler = compiler;
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+	}
+
+	/**
+	 * Returns the cached pattern, parsing and compiling it if necessary.
+	 *
+	 * @param pattern the pattern text
+	 * @return the parsed and compiled pattern
+	 * @throws RedeggsParseException if the pattern is invalid
+	 * @throws IllegalStateException if the compiler of this pattern requests it
+	 *                               again
+	 */
+	public Compiled<A> get(String pattern) throws RedeggsParseException {
+		Compiled<A> entry = lookup(pattern);
+		if (entry != null) {
+			hits.increment();
+			return entry;
+		}
+		Build<A> build = new Build<>();
+		Build<A> running = inFlight.putIfAbsent(pattern, build);
+		if (running != null) {
+			if (running.owner == Thread.currentThread()) {
+				throw new IllegalStateException(String.format("Recursive request for pattern '%s'.", pattern));
+			}
+			return await(running);
+		}
+		try {
+			// another thread may have finished the build since the lookup
+			entry = lookup(pattern);
+			if (entry != null) {
+				hits.increment();
+			} else {
+				misses.increment();
+				RegularEggspression expression = parser.parse(pattern);
+				entry = new Compiled<>(pattern, expression, compiler.apply(expression));
+				store(entry);
+			}
+			build.complete(entry);
+			return entry;
+		} catch (RedeggsParseException | RuntimeException | Error e) {
+			build.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(pattern, build);
+		}
+	}
+
+	/**
+	 * Returns the cached automaton of a pattern, parsing and compiling it if
+	 * necessary.
+	 *
+	 * @param pattern the pattern text
+	 * @return the compiled automaton
+	 * @throws RedeggsParseException if the pattern is invalid
+	 * @throws IllegalStateException if the compiler of this pattern requests it
+	 *                               again
+	 */
+	public A automaton(String pattern) throws RedeggsParseException {
+		return get(pattern).automaton();
+	}
+
+	/**
+	 * Removes all entries. Builds in progress are not affected.
+	 */
+	public void invalidateAll() {
+		lock.lock();
+		try {
+			for (Node<A> node = order.next; node != order; node = node.next) {
+				node.linked = false;
+			}
+			order.previous = order;
+			order.next = order;
+			entries.clear();
+			totalWeight = 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of cached patterns.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the total weight of the cached patterns.
+	 *
+	 * @return the total weight of all entries
+	 */
+	public long weight() {
+		lock.lock();
+		try {
+			return totalWeight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of requests answered from the cache. Requests that
+	 * waited for the build of another thread count as neither hits nor misses.
+	 *
+	 * @return the number of hits
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of builds started, including failed ones.
+	 *
+	 * @return the number of misses
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the number of entries evicted to respect the maximum weight.
+	 *
+	 * @return the number of evictions
+	 */
+	public long evictions() {
+		return evictions.sum();
+	}
+
+	private Compiled<A> lookup(String pattern) {
+		Node<A> node = entries.get(pattern);
+		if (node == null) {
+			return null;
+		}
+		int slot = ThreadLocalRandom.current().nextInt(READ_BUFFER_SIZE);
+		reads.lazySet(slot, node);
+		if ((slot & DRAIN_MASK) == 0 && lock.tryLock()) {
+			try {
+				drainReads();
+			} finally {
+				lock.unlock();
+			}
+		}
+		return node.entry;
+	}
+
+	private void store(Compiled<A> entry) {
+		long weight = weigher.applyAsLong(entry);
+		if (weight < 0) {
+			throw new IllegalStateException(String.format("Negative weight %d of pattern '%s'.", weight,
+					entry.pattern()));
+		}
+		Node<A> node = new Node<>(entry, weight);
+		lock.lock();
+		try {
+			drainReads();
+			Node<A> previous = entries.put(entry.pattern(), node);
+			if (previous != null) {
+				previous.unlink();
+				totalWeight -= previous.weight;
+			}
+			node.linkBefore(order);
+			totalWeight += weight;
+			while (totalWeight > maximumWeight && order.next != order) {
+				Node<A> evicted = order.next;
+				evicted.unlink();
+				entries.remove(evicted.entry.pattern(), evicted);
+				totalWeight -= evicted.weight;
+				RedeggsEvents.CacheEviction event = new RedeggsEvents.CacheEviction();
+				if (event.shouldCommit()) {
+					event.patternHash = evicted.entry.expression().hashCode();
+					event.weight = evicted.weight;
+					event.commit();
+				}
+				evictions.increment();
+				RedeggsMetrics.CACHE_EVICTIONS.increment();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Moves the entries of the recent hits to the most recently used end of the
+	 * order. Must be called holding the lock.
+	 */
+	private void drainReads() {
+		for (int slot = 0; slot < READ_BUFFER_SIZE; slot++) {
+			Node<A> node = reads.get(slot);
+			if (node != null) {
+				reads.lazySet(slot, null);
+				if (node.linked) {
+					node.unlink();
+					node.linkBefore(order);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Waits for the build of another thread and rethrows its failure.
+	 */
+	private static <A> Compiled<A> await(CompletableFuture<Compiled<A>> build) throws RedeggsParseException {
+		try {
+			return build.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RedeggsParseException) {
+				throw (RedeggsParseException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * A build in progress, which remembers its thread to detect recursive
+	 * requests.
+	 */
+	private static final class Build<A> extends CompletableFuture<Compiled<A>> {
+
+		/** The thread parsing and compiling the pattern. */
+		final Thread owner = Thread.currentThread();
+
+	}
+
+	/**
+	 * An entry in the doubly linked recency order.
+	 */
+	private static final class Node<A> {
+
+		/** The cached pattern, {@code null} for the sentinel. */
+		final Compiled<A> entry;
+
+		/** The weight of the entry. */
+		final long weight;
+
+		/** The neighbors in the order, guarded by the lock of the cache. */
+		Node<A> previous = this;
+
+		Node<A> next = this;
+
+		/** Whether the node is in the order, guarded by the lock of the cache. */
+		boolean linked;
+
+		Node(Compiled<A> entry, long weight) {
+			super();
+			this.entry = entry;
+			this.weight = weight;
+		}
+
+		void linkBefore(Node<A> successor) {
+			previous = successor.previous;
+			next = successor;
+			previous.next = this;
+			successor.previous = this;
+			linked = true;
+		}
+
+		void unlink() {
+			previous.next = next;
+			next.previous = previous;
+			previous = this;
+			next = this;
+			linked = false;
+		}
+
+	}
+
+}
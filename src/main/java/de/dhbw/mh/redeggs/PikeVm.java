@@ -0,0 +1,85 @@
+package de.dhbw.mh.redeggs;
+
+/**
+ * A matcher simulating an {@link Nfa} in lock step, in the style of Pike's VM.
+ * <p>
+ * All threads advance together over the input, so a match takes
+ * O(n&middot;m) time for an input of length n and an NFA with m states,
+ * regardless of the pattern. The thread lists are sparse sets allocated once
+ * per matcher, so matching itself does not allocate. A matcher is not
+ * thread-safe; create one per thread from the shared {@link Nfa}.
+ * </p>
+ */
+public class PikeVm implements RedeggsMatcher {
+
+	/** The automaton to simulate. */
+	private final Nfa nfa;
+
+	/** The threads before consuming the current code point. */
+	private SparseSet current;
+
+	/** The threads after consuming the current code point. */
+	private SparseSet next;
+
+	/** Scratch space for epsilon closures. */
+	private final int[] stack;
+
+	/**
+	 * Constructs a new matcher for the given NFA.
+	 *
+	 * @param nfa the automaton to simulate
+	 */
+	public PikeVm(Nfa nfa) {
+		super();
+		this.nfa = nfa;
+		this.current = new SparseSet(nfa.stateCount());
+		this.next = new SparseSet(nfa.stateCount());
+		this.stack = new int[nfa.stateCount()];
+	}
+
+	/**
+	 * Compiles the given expression and creates a matcher for it.
+	 *
+	 * @param expression the expression to match
+	 * @return a new matcher
+	 */
+	public static PikeVm of(RegularEggspression expression) {
+		return new PikeVm(Nfa.compile(expression));
+	}
+
+	@Override
+	public int longestMatch(CharSequence input, int from, int to) {
+		AlphabetPartition partition = nfa.partition;
+		SparseSet threads = current;
+		SparseSet successors = next;
+		threads.clear();
+		nfa.closure(threads, nfa.start, stack);
+		int last = nfa.accepts(threads) ? from : -1;
+
+		int position = from;
+		while (position < to && !threads.isEmpty()) {
+			int codePoint = CodePoints.codePointAt(input, position, to);
+			position += Character.charCount(codePoint);
+			int classId = partition.classOf(codePoint);
+
+			successors.clear();
+			int[] dense = threads.dense;
+			for (int i = 0; i < threads.size; i++) {
+				int target = nfa.step(dense[i], classId);
+				if (target != Nfa.NONE) {
+					nfa.closure(successors, target, stack);
+				}
+			}
+			if (nfa.accepts(successors)) {
+				last = position;
+			}
+			SparseSet swap = threads;
+			threads = successors;
+			successors = swap;
+		}
+		current = threads;
+		next = successors;
+		return last;
+	}
+
+}
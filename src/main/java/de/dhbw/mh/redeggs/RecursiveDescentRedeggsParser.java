@@ -1,12 +1,42 @@
 package de.dhbw.mh.redeggs;
 
-import static de.dhbw.mh.redeggs.Range.range;
-import static de.dhbw.mh.redeggs.Range.single;
+import static de.dhbw.mh.redeggs.CodePointRange.range;
+import static de.dhbw.mh.redeggs.CodePointRange.single;
+
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A parser for regular expressions using recursive descent parsing.
  * This class is responsible for converting a regular expression string into a
  * tree representation of a {@link RegularEggspression}.
+ * <p>
+ * The parser accepts the following grammar, where operators bind from weakest
+ * to strongest and concatenations and alternations associate to the left:
+ * </p>
+ *
+ * <pre>
+ * alternation   = concatenation { "|" concatenation }
+ * concatenation = repetition { repetition }
+ * repetition    = atom { "*" }
+ * atom          = literal | class | "(" alternation ")" | "ε" | "∅"
+ * class         = "[" [ "^" ] { item [ "-" item ] } "]"
+ * </pre>
+ *
+ * <p>
+ * A backslash escapes the following code point; {@code \n}, {@code \r},
+ * {@code \t} and {@code \}{@code uXXXX} denote the usual characters. The input
+ * is read code point by code point in place, without creating substrings, and
+ * every literal and character class results in exactly one symbol built by the
+ * {@link SymbolFactory}. The descent into a group keeps the enclosing groups
+ * on an explicit stack instead of recursing, like a {@link Traversal}, so the
+ * nesting depth is limited by the heap only. Symbols of ASCII literals are
+ * created once per parser and reused. A parser keeps no state between calls and
+ * is thread-safe if its factories are.
+ * </p>
  */
 public class RecursiveDescentRedeggsParser {
 
@@ -15,6 +45,15 @@ public class RecursiveDescentRedeggsParser {
 	 */
 	protected final SymbolFactory symbolFactory;
 
+	/**
+	 * The factory sharing the created nodes, or {@code null} to create plain
+	 * nodes.
+	 */
+	protected final NodeFactory nodeFactory;
+
+	/** The symbols of the ASCII literals created so far. */
+	private final AtomicReferenceArray<VirtualSymbol> asciiSymbols = new AtomicReferenceArray<>(128);
+
 	/**
 	 * Constructs a new {@code RecursiveDescentRedeggsParser} with the specified
 	 * symbol factory.
@@ -22,31 +61,355 @@ public class RecursiveDescentRedeggsParser {
 	 * @param symbolFactory the factory used to create symbols for parsing
 	 */
 	public RecursiveDescentRedeggsParser(SymbolFactory symbolFactory) {
+		this(symbolFactory, null);
+	}
+
+	/**
+	 * Constructs a new {@code RecursiveDescentRedeggsParser} that builds its trees
+	 * from the shared nodes of the given node factory.
+	 *
+	 * @param symbolFactory the factory used to create symbols for parsing
+	 * @param nodeFactory   the factory used to create nodes, or {@code null} to
+	 *                      create plain nodes
+	 */
+	public RecursiveDescentRedeggsParser(SymbolFactory symbolFactory, NodeFactory nodeFactory) {
 		this.symbolFactory = symbolFactory;
+		this.nodeFactory = nodeFactory;
 	}
 
 	/**
 	 * Parses a regular expression string into an abstract syntax tree (AST).
-	 * 
-	 * This class uses recursive descent parsing to convert a given regular
-	 * expression into a tree structure that can be processed or compiled further.
-	 * The AST nodes represent different components of the regex such as literals,
-	 * operators, and groups.
 	 *
 	 * @param regex the regular expression to parse
 	 * @return the {@link RegularEggspression} representation of the parsed regex
 	 * @throws RedeggsParseException if the parsing fails or the regex is invalid
 	 */
 	public RegularEggspression parse(String regex) throws RedeggsParseException {
-		// TODO: Implement the recursive descent parsing to convert `regex` into an AST.
-		// This is a placeholder implementation to demonstrate how to create a symbol.
+		return parse((CharSequence) regex);
+	}
 
-		// Create a new symbol using the symbol factory
-		VirtualSymbol symbol = symbolFactory.newSymbol()
-				.include(single('_'), range('a', 'z'), range('A', 'Z'))
-				.andNothingElse();
+	/**
+	 * Parses a regular expression given as an arbitrary character sequence. The
+	 * sequence is read in place and must not change while it is parsed.
+	 *
+	 * @param regex the regular expression to parse
+	 * @return the {@link RegularEggspression} representation of the parsed regex
+	 * @throws RedeggsParseException if the parsing fails or the regex is invalid
+	 */
+	public RegularEggspression parse(CharSequence regex) throws RedeggsParseException {
+		RedeggsEvents.Parse event = new RedeggsEvents.Parse();
+		event.begin();
+		long started = System.nanoTime();
+		Cursor cursor = new Cursor(regex);
+		RegularEggspression expression = null;
+		boolean failed = true;
+		try {
+			expression = expression(cursor);
+			if (cursor.hasNext()) {
+				throw cursor.unexpected();
+			}
+			RedeggsMetrics.PARSES.increment();
+			failed = false;
+			return expression;
+		} catch (RedeggsParseException e) {
+			RedeggsMetrics.PARSE_FAILURES.increment();
+			throw e;
+		} finally {
+			RedeggsMetrics.PARSE_NANOS.add(System.nanoTime() - started);
+			event.end();
+			if (event.shouldCommit()) {
+				event.patternLength = regex.length();
+				event.failed = failed;
+				if (!failed) {
+					event.patternHash = expression.hashCode();
+					event.nodeCount = RedeggsEvents.nodeCount(expression);
+					event.symbolCount = RedeggsEvents.symbolCount(expression);
+				}
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Parses a regular expression stored in a slice of a character array without
+	 * copying it. Error offsets are relative to the start of the slice.
+	 *
+	 * @param regex  the array holding the regular expression
+	 * @param offset the index of the first character of the regular expression
+	 * @param length the number of characters of the regular expression
+	 * @return the {@link RegularEggspression} representation of the parsed regex
+	 * @throws RedeggsParseException     if the parsing fails or the regex is
+	 *                                   invalid
+	 * @throws IndexOutOfBoundsException if the slice exceeds the array
+	 */
+	public RegularEggspression parse(char[] regex, int offset, int length) throws RedeggsParseException {
+		return parse(CharBuffer.wrap(regex, offset, length).slice());
+	}
+
+	/**
+	 * Parses an alternation up to the end of the input or an unmatched closing
+	 * parenthesis. Each opening parenthesis pushes the enclosing group and each
+	 * closing one pops it, which unrolls the recursion of the grammar.
+	 */
+	private RegularEggspression expression(Cursor cursor) throws RedeggsParseException {
+		Deque<Group> enclosing = new ArrayDeque<>();
+		Group group = new Group();
+		while (true) {
+			RegularEggspression operand = atom(cursor);
+			if (operand == null) {
+				// an opening parenthesis, the group starts with a new alternation
+				enclosing.push(group);
+				group = new Group();
+				continue;
+			}
+			while (true) {
+				while (cursor.peek() == '*') {
+					cursor.advance();
+					operand = (nodeFactory == null) ? new RegularEggspression.Star(operand) : nodeFactory.star(operand);
+				}
+				group.append(operand);
+				if (cursor.hasNext() && cursor.peek() != '|' && cursor.peek() != ')') {
+					break;
+				}
+				group.endAlternative();
+				if (cursor.peek() == '|') {
+					cursor.advance();
+					break;
+				}
+				if (enclosing.isEmpty()) {
+					return group.alternation;
+				}
+				// the group is complete and becomes an operand of the enclosing one
+				cursor.expect(')');
+				operand = group.alternation;
+				group = enclosing.pop();
+			}
+		}
+	}
+
+	/**
+	 * Parses an atom other than a group, or consumes the opening parenthesis of
+	 * a group and returns {@code null}.
+	 */
+	private RegularEggspression atom(Cursor cursor) throws RedeggsParseException {
+		if (!cursor.hasNext()) {
+			throw cursor.endedUnexpectedly("an expression");
+		}
+		int codePoint = cursor.peek();
+		switch (codePoint) {
+		case '(':
+			cursor.advance();
+			return null;
+		case '[':
+			cursor.advance();
+			return literal(characterClass(cursor));
+		case 'ε':
+			cursor.advance();
+			return (nodeFactory == null) ? new RegularEggspression.EmptyWord() : nodeFactory.emptyWord();
+		case '∅':
+			cursor.advance();
+			return (nodeFactory == null) ? new RegularEggspression.EmptySet() : nodeFactory.emptySet();
+		case '\\':
+			return literal(symbolOf(escape(cursor)));
+		case ')':
+		case '|':
+		case '*':
+		case ']':
+			throw cursor.unexpected();
+		default:
+			cursor.advance();
+			return literal(symbolOf(codePoint));
+		}
+	}
+
+	/**
+	 * Parses the rest of a character class after the opening bracket.
+	 */
+	private VirtualSymbol characterClass(Cursor cursor) throws RedeggsParseException {
+		boolean negated = cursor.peek() == '^';
+		if (negated) {
+			cursor.advance();
+		}
+		CodePointRange[] ranges = new CodePointRange[4];
+		int count = 0;
+		while (cursor.peek() != ']') {
+			if (!cursor.hasNext()) {
+				throw cursor.endedUnexpectedly("symbol ']'");
+			}
+			int start = cursor.position;
+			int first = classMember(cursor);
+			int last = first;
+			if (cursor.peek() == '-' && cursor.peekAfterNext() != ']' && cursor.peekAfterNext() != Cursor.END) {
+				cursor.advance();
+				last = classMember(cursor);
+				if (last < first) {
+					throw new RedeggsParseException(String.format("Invalid range '%s' at position %d.",
+							cursor.input.subSequence(start, cursor.position), start + 1), start);
+				}
+			}
+			if (count == ranges.length) {
+				ranges = Arrays.copyOf(ranges, count << 1);
+			}
+			ranges[count++] = (first == last) ? single(first) : range(first, last);
+		}
+		cursor.advance();
+		ranges = (count == ranges.length) ? ranges : Arrays.copyOf(ranges, count);
+		if (negated) {
+			return symbolFactory.newSymbol().include(range(0, Character.MAX_CODE_POINT)).exclude(ranges)
+					.andNothingElse();
+		}
+		return symbolFactory.newSymbol().include(ranges).andNothingElse();
+	}
 
-		// Return a dummy Literal RegularExpression for now
-		return new RegularEggspression.Literal(symbol);
+	private int classMember(Cursor cursor) throws RedeggsParseException {
+		int codePoint = cursor.peek();
+		if (codePoint == '\\') {
+			return escape(cursor);
+		}
+		cursor.advance();
+		return codePoint;
 	}
+
+	/**
+	 * Parses an escape sequence starting at the backslash under the cursor.
+	 */
+	private static int escape(Cursor cursor) throws RedeggsParseException {
+		cursor.advance();
+		if (!cursor.hasNext()) {
+			throw cursor.endedUnexpectedly("an escaped symbol");
+		}
+		int codePoint = cursor.peek();
+		cursor.advance();
+		switch (codePoint) {
+		case 'n':
+			return '\n';
+		case 'r':
+			return '\r';
+		case 't':
+			return '\t';
+		case 'u':
+			int value = 0;
+			for (int i = 0; i < 4; i++) {
+				int digit = Character.digit(cursor.peek(), 16);
+				if (digit < 0) {
+					throw cursor.hasNext() ? cursor.unexpected() : cursor.endedUnexpectedly("a hexadecimal digit");
+				}
+				value = (value << 4) | digit;
+				cursor.advance();
+			}
+			return value;
+		default:
+			return codePoint;
+		}
+	}
+
+	private RegularEggspression literal(VirtualSymbol symbol) {
+		return (nodeFactory == null) ? new RegularEggspression.Literal(symbol) : nodeFactory.literal(symbol);
+	}
+
+	/**
+	 * Returns the symbol of a single code point, reusing those of ASCII literals.
+	 */
+	private VirtualSymbol symbolOf(int codePoint) {
+		if (codePoint >= 128) {
+			return symbolFactory.newSymbol().include(single(codePoint)).andNothingElse();
+		}
+		VirtualSymbol symbol = asciiSymbols.get(codePoint);
+		if (symbol == null) {
+			symbol = symbolFactory.newSymbol().include(single(codePoint)).andNothingElse();
+			if (!asciiSymbols.compareAndSet(codePoint, null, symbol)) {
+				symbol = asciiSymbols.get(codePoint);
+			}
+		}
+		return symbol;
+	}
+
+	/**
+	 * The operands parsed so far within one group.
+	 */
+	private final class Group {
+
+		/** The alternation of the completed alternatives, {@code null} if none. */
+		RegularEggspression alternation;
+
+		/** The concatenation of the current alternative, {@code null} if empty. */
+		RegularEggspression concatenation;
+
+		void append(RegularEggspression operand) {
+			concatenation = (concatenation == null) ? operand
+					: (nodeFactory == null) ? new RegularEggspression.Concatenation(concatenation, operand)
+							: nodeFactory.concatenation(concatenation, operand);
+		}
+
+		void endAlternative() {
+			alternation = (alternation == null) ? concatenation
+					: (nodeFactory == null) ? new RegularEggspression.Alternation(alternation, concatenation)
+							: nodeFactory.alternation(alternation, concatenation);
+			concatenation = null;
+		}
+	}
+
+	/**
+	 * The read position within the input of a single call to {@code parse}.
+	 */
+	private static final class Cursor {
+
+		/** The code point returned at the end of the input. */
+		static final int END = -1;
+
+		final CharSequence input;
+
+		final int length;
+
+		/** The offset of the current code point. */
+		int position;
+
+		/** The current code point, or {@link #END}. */
+		int current;
+
+		Cursor(CharSequence input) {
+			this.input = input;
+			this.length = input.length();
+			this.current = (length > 0) ? CodePoints.codePointAt(input, 0, length) : END;
+		}
+
+		boolean hasNext() {
+			return current != END;
+		}
+
+		int peek() {
+			return current;
+		}
+
+		int peekAfterNext() {
+			int next = position + Character.charCount(current);
+			return (next < length) ? CodePoints.codePointAt(input, next, length) : END;
+		}
+
+		void advance() {
+			position += Character.charCount(current);
+			current = (position < length) ? CodePoints.codePointAt(input, position, length) : END;
+		}
+
+		void expect(int codePoint) throws RedeggsParseException {
+			if (current == END) {
+				throw endedUnexpectedly("symbol '" + Character.toString(codePoint) + "'");
+			}
+			if (current != codePoint) {
+				throw unexpected();
+			}
+			advance();
+		}
+
+		RedeggsParseException unexpected() {
+			return new RedeggsParseException(String.format("Unexpected symbol '%s' at position %d.",
+					Character.toString(current), position + 1), position);
+		}
+
+		RedeggsParseException endedUnexpectedly(String expected) {
+			return new RedeggsParseException(String.format("Input ended unexpectedly, expected %s at position %d.",
+					expected, position + 1), position);
+		}
+	}
+
 }
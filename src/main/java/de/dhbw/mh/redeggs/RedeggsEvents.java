@@ -0,0 +1,195 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.List;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JDK Flight Recorder events of redeggs.
+ * <p>
+ * All events are enabled by default with a threshold of 0 ms and belong to the
+ * category "redeggs". The pattern hash is the structural
+ * {@link RegularEggspression#hashCode() hash code} of the expression, so the
+ * events of parsing and compiling the same pattern can be correlated. Sizes
+ * are only computed if an event is actually recorded. Failed work is recorded
+ * too, flagged as failed and with the sizes that were known at the time.
+ * </p>
+ */
+final class RedeggsEvents {
+
+	private RedeggsEvents() {
+		super();
+	}
+
+	/**
+	 * Parsing a pattern into an expression.
+	 */
+	@Name("de.dhbw.mh.redeggs.Parse")
+	@Label("Pattern Parse")
+	@Category("redeggs")
+	@Description("A pattern was parsed into a regular expression")
+	@StackTrace(false)
+	static final class Parse extends Event {
+
+		@Label("Failed")
+		@Description("Whether the work ended with an exception")
+		boolean failed;
+
+		@Label("Pattern Hash")
+		int patternHash;
+
+		@Label("Pattern Length")
+		int patternLength;
+
+		@Label("Node Count")
+		@Description("The number of distinct nodes of the expression")
+		int nodeCount;
+
+		@Label("Symbol Count")
+		@Description("The number of distinct literal symbols of the expression")
+		int symbolCount;
+
+	}
+
+	/**
+	 * Compiling an expression into a minimal DFA.
+	 */
+	@Name("de.dhbw.mh.redeggs.Compile")
+	@Label("Pattern Compile")
+	@Category("redeggs")
+	@Description("A regular expression was compiled into a minimal DFA")
+	@StackTrace(false)
+	static final class Compile extends Event {
+
+		@Label("Failed")
+		@Description("Whether the work ended with an exception")
+		boolean failed;
+
+		@Label("Pattern Hash")
+		int patternHash;
+
+		@Label("Node Count")
+		@Description("The number of distinct nodes of the expression")
+		int nodeCount;
+
+		@Label("Symbol Count")
+		@Description("The number of symbol classes of the automaton")
+		int symbolCount;
+
+		@Label("State Count")
+		@Description("The number of states of the minimal DFA")
+		int stateCount;
+
+	}
+
+	/**
+	 * Subset construction of a DFA from an NFA.
+	 */
+	@Name("de.dhbw.mh.redeggs.Determinize")
+	@Label("NFA Determinization")
+	@Category("redeggs")
+	@Description("An NFA was turned into a DFA by subset construction")
+	@StackTrace(false)
+	static final class Determinize extends Event {
+
+		@Label("Failed")
+		@Description("Whether the work ended with an exception")
+		boolean failed;
+
+		@Label("NFA State Count")
+		int nfaStateCount;
+
+		@Label("Symbol Count")
+		@Description("The number of symbol classes of the automaton")
+		int symbolCount;
+
+		@Label("State Count")
+		@Description("The number of states of the DFA before minimization")
+		int stateCount;
+
+	}
+
+	/**
+	 * Eviction of a compiled pattern from a {@link PatternCache}.
+	 */
+	@Name("de.dhbw.mh.redeggs.CacheEviction")
+	@Label("Pattern Cache Eviction")
+	@Category("redeggs")
+	@Description("A compiled pattern was evicted from a pattern cache")
+	@StackTrace(false)
+	static final class CacheEviction extends Event {
+
+		@Label("Pattern Hash")
+		int patternHash;
+
+		@Label("Weight")
+		long weight;
+
+	}
+
+	/**
+	 * Counts the distinct nodes of an expression.
+	 *
+	 * @param expression the expression to inspect
+	 * @return the number of distinct nodes
+	 */
+	static int nodeCount(RegularEggspression expression) {
+		int[] count = new int[1];
+		Traversal.postOrderShared(expression, new RegularEggspression.Visitor<Void>() {
+
+			@Override
+			public Void visit(RegularEggspression.EmptyWord emptyWord) {
+				count[0]++;
+				return null;
+			}
+
+			@Override
+			public Void visit(RegularEggspression.EmptySet emptySet) {
+				count[0]++;
+				return null;
+			}
+
+			@Override
+			public Void visitPost(RegularEggspression.Concatenation concat, Void prefix, Void suffix) {
+				count[0]++;
+				return null;
+			}
+
+			@Override
+			public Void visitPost(RegularEggspression.Alternation union, Void first, Void second) {
+				count[0]++;
+				return null;
+			}
+
+			@Override
+			public Void visitPost(RegularEggspression.Star star, Void base) {
+				count[0]++;
+				return null;
+			}
+
+			@Override
+			public Void visitPost(RegularEggspression.Literal literal, VirtualSymbol symbol) {
+				count[0]++;
+				return null;
+			}
+
+		});
+		return count[0];
+	}
+
+	/**
+	 * Counts the distinct literal symbols of an expression.
+	 *
+	 * @param expression the expression to inspect
+	 * @return the number of distinct symbols
+	 */
+	static int symbolCount(RegularEggspression expression) {
+		return SymbolCollector.collect(List.of(expression)).size();
+	}
+
+}
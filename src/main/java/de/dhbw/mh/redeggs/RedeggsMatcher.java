@@ -0,0 +1,35 @@
+package de.dhbw.mh.redeggs;
+
+/**
+ * An executable form of a {@link RegularEggspression} that matches character
+ * sequences anchored at a given start offset.
+ * <p>
+ * Unless documented otherwise, implementations keep mutable scratch space and
+ * are therefore not safe for use by multiple threads at once.
+ * </p>
+ */
+public interface RedeggsMatcher {
+
+	/**
+	 * Finds the longest prefix of {@code input[from, to)} that is matched by the
+	 * expression.
+	 *
+	 * @param input the characters to match
+	 * @param from  the offset at which the match has to start
+	 * @param to    the exclusive end of the region to consider
+	 * @return the exclusive end offset of the longest match, or {@code -1} if no
+	 *         prefix of the region matches
+	 */
+	public int longestMatch(CharSequence input, int from, int to);
+
+	/**
+	 * Checks whether the whole input is matched by the expression.
+	 *
+	 * @param input the characters to match
+	 * @return {@code true} if the expression matches the entire input
+	 */
+	public default boolean matches(CharSequence input) {
+		return longestMatch(input, 0, input.length()) == input.length();
+	}
+
+}
@@ -0,0 +1,86 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters of parsing and compilation, read on demand.
+ * <p>
+ * The counters are cumulative and only ever grow. They are maintained whether
+ * or not anybody reads them, at the cost of one {@link LongAdder} update per
+ * event, and exported by passing a {@link Collector} to {@link #collect},
+ * e.g. from a scrape handler of whatever metrics library is in use. For the
+ * duration and size of single operations, record the JDK Flight Recorder
+ * events in the category "redeggs" instead.
+ * </p>
+ */
+public final class RedeggsMetrics {
+
+	/** The number of successfully parsed patterns. */
+	static final LongAdder PARSES = new LongAdder();
+
+	/** The number of patterns that failed to parse. */
+	static final LongAdder PARSE_FAILURES = new LongAdder();
+
+	/** The time spent parsing. */
+	static final LongAdder PARSE_NANOS = new LongAdder();
+
+	/** The number of expressions compiled into minimal DFAs. */
+	static final LongAdder COMPILATIONS = new LongAdder();
+
+	/** The time spent compiling expressions into minimal DFAs. */
+	static final LongAdder COMPILE_NANOS = new LongAdder();
+
+	/** The number of subset constructions. */
+	static final LongAdder DETERMINIZATIONS = new LongAdder();
+
+	/** The number of DFA states built by subset construction. */
+	static final LongAdder DETERMINIZED_STATES = new LongAdder();
+
+	/** The time spent in subset construction. */
+	static final LongAdder DETERMINIZE_NANOS = new LongAdder();
+
+	/** The number of entries evicted from all pattern caches. */
+	static final LongAdder CACHE_EVICTIONS = new LongAdder();
+
+	private RedeggsMetrics() {
+		super();
+	}
+
+	/**
+	 * Receives the current value of each counter.
+	 */
+	@FunctionalInterface
+	public static interface Collector {
+
+		/**
+		 * Receives the value of a counter.
+		 *
+		 * @param name        the dotted name of the counter, e.g.
+		 *                    {@code "redeggs.parse.count"}
+		 * @param description a human-readable description of the counter
+		 * @param value       the current value of the counter
+		 */
+		void counter(String name, String description, long value);
+
+	}
+
+	/**
+	 * Passes the current value of every counter to the given collector.
+	 *
+	 * @param collector the collector to receive the values
+	 */
+	public static void collect(Collector collector) {
+		collector.counter("redeggs.parse.count", "Patterns parsed successfully", PARSES.sum());
+		collector.counter("redeggs.parse.failures", "Patterns that failed to parse", PARSE_FAILURES.sum());
+		collector.counter("redeggs.parse.nanos", "Time spent parsing in nanoseconds", PARSE_NANOS.sum());
+		collector.counter("redeggs.compile.count", "Expressions compiled into minimal DFAs", COMPILATIONS.sum());
+		collector.counter("redeggs.compile.nanos", "Time spent compiling in nanoseconds", COMPILE_NANOS.sum());
+		collector.counter("redeggs.determinize.count", "Subset constructions", DETERMINIZATIONS.sum());
+		collector.counter("redeggs.determinize.states", "DFA states built by subset construction",
+				DETERMINIZED_STATES.sum());
+		collector.counter("redeggs.determinize.nanos", "Time spent in subset construction in nanoseconds",
+				DETERMINIZE_NANOS.sum());
+		collector.counter("redeggs.cache.evictions", "Entries evicted from pattern caches", CACHE_EVICTIONS.sum());
+	}
+
+}
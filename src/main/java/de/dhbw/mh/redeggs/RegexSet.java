@@ -0,0 +1,316 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A matcher telling which of many expressions match an input, in a single
+ * pass.
+ * <p>
+ * All rules are compiled into one {@link Nfa} with an accepting state per
+ * rule, which is determinized on demand in the same {@link StateCache} as by a
+ * {@link LazyDfa}. Each DFA state carries the bitset of the rules it accepts,
+ * so the cost per code point is a cached table lookup no matter how many rules
+ * there are. The state cache is bounded by a memory budget; if it is cleared
+ * repeatedly while making little progress, the set gives up on
+ * determinization and simulates the NFA directly for this and all later
+ * searches.
+ * </p>
+ *
+ * <p>
+ * An anchored set reports the rules matching the whole input. An unanchored
+ * set reports the rules matching anywhere in the input, as if every rule
+ * {@code R} were {@code .*R.*}: it restarts all rules at every position and
+ * collects the rules accepted along the way, stopping early once every rule
+ * has matched. A set is not thread-safe; create one per thread.
+ * </p>
+ */
+public class RegexSet {
+
+	/** The automaton of all rules. */
+	private final Nfa nfa;
+
+	/** Whether the rules may match anywhere in the input. */
+	private final boolean unanchored;
+
+	/** The number of longs per rule bitset. */
+	private final int words;
+
+	/**
+	 * The cached states, each carrying the rules it accepts, {@code null} if
+	 * there are none.
+	 */
+	private final StateCache<long[]> cache;
+
+	/** The sets of the NFA simulation used after thrashing, created on demand. */
+	private SparseSet[] simulation;
+
+	/** Scratch bitset for the methods reading a whole input. */
+	private final long[] matched;
+
+	/**
+	 * Constructs a new anchored set with the
+	 * {@link LazyDfa#DEFAULT_MEMORY_BUDGET}.
+	 *
+	 * @param rules the expressions of the rules, in the order of their ids
+	 * @throws IllegalArgumentException if there are no rules
+	 */
+	public RegexSet(List<? extends RegularEggspression> rules) {
+		this(rules, false, LazyDfa.DEFAULT_MEMORY_BUDGET);
+	}
+
+	/**
+	 * Constructs a new set whose state cache stays within the given budget.
+	 *
+	 * @param rules        the expressions of the rules, in the order of their ids
+	 * @param unanchored   whether a rule matches if it matches anywhere in the
+	 *                     input rather than the whole input
+	 * @param memoryBudget the maximum size of the state cache, in bytes
+	 * @throws IllegalArgumentException if there are no rules or the budget is
+	 *                                  not positive
+	 */
+	public RegexSet(List<? extends RegularEggspression> rules, boolean unanchored, long memoryBudget) {
+		super();
+		this.nfa = ThompsonCompiler.compile(rules);
+		this.unanchored = unanchored;
+		this.words = (nfa.ruleCount() + 63) >>> 6;
+		this.cache = new StateCache<>(nfa, unanchored, memoryBudget, this::acceptedRules, 8L * words);
+		this.matched = new long[words];
+	}
+
+	/**
+	 * Creates an unanchored set with the {@link LazyDfa#DEFAULT_MEMORY_BUDGET}.
+	 *
+	 * @param rules the expressions of the rules, in the order of their ids
+	 * @return a new set reporting the rules that match anywhere in the input
+	 * @throws IllegalArgumentException if there are no rules
+	 */
+	public static RegexSet unanchored(List<? extends RegularEggspression> rules) {
+		return new RegexSet(rules, true, LazyDfa.DEFAULT_MEMORY_BUDGET);
+	}
+
+	/**
+	 * Finds the rules matching a region.
+	 *
+	 * @param input   the characters to read
+	 * @param from    the index of the first char of the region
+	 * @param to      the exclusive end of the region
+	 * @param matched receives the ids of the matching rules as a bitset of at
+	 *                least {@link #words()} longs; it is cleared first
+	 * @return {@code true} if any rule matches
+	 */
+	public boolean match(CharSequence input, int from, int to, long[] matched) {
+		if (cache.isThrashing()) {
+			return simulate(input, from, to, matched);
+		}
+		Arrays.fill(matched, 0, words, 0);
+		AlphabetPartition partition = nfa.partition;
+		int classCount = cache.classCount;
+		int state = cache.startSearch(from);
+		int[] table = cache.transitions;
+		boolean any = unanchored && collect(cache.payload(state), matched);
+		int position = from;
+		while (position < to) {
+			int codePoint = CodePoints.codePointAt(input, position, to);
+			int classId = partition.classOf(codePoint);
+			int next = table[state * classCount + classId];
+			if (next == StateCache.UNKNOWN) {
+				next = cache.computeTransition(state, classId, position);
+				if (next == StateCache.THRASHING) {
+					return simulate(input, from, to, matched);
+				}
+				table = cache.transitions;
+			}
+			if (next == StateCache.DEAD) {
+				return any;
+			}
+			state = next;
+			position += Character.charCount(codePoint);
+			if (unanchored) {
+				long[] rules = cache.payload(state);
+				if (rules != null) {
+					any |= collect(rules, matched);
+					if (all(matched)) {
+						return true;
+					}
+				}
+			}
+		}
+		if (!unanchored) {
+			any = collect(cache.payload(state), matched);
+		}
+		return any;
+	}
+
+	/**
+	 * Finds the rules matching the given input.
+	 *
+	 * @param input the characters to read
+	 * @return the ids of the matching rules
+	 */
+	public BitSet matchingRules(CharSequence input) {
+		match(input, 0, input.length(), matched);
+		return BitSet.valueOf(matched);
+	}
+
+	/**
+	 * Checks whether any rule matches the given input.
+	 *
+	 * @param input the characters to read
+	 * @return {@code true} if any rule matches
+	 */
+	public boolean matchesAny(CharSequence input) {
+		return match(input, 0, input.length(), matched);
+	}
+
+	/**
+	 * Returns the number of rules.
+	 *
+	 * @return the number of rules the set was compiled from
+	 */
+	public int ruleCount() {
+		return nfa.ruleCount();
+	}
+
+	/**
+	 * Returns the number of longs needed for a bitset of the rule ids.
+	 *
+	 * @return the minimum length of the array passed to
+	 *         {@link #match(CharSequence, int, int, long[])}
+	 */
+	public int words() {
+		return words;
+	}
+
+	/**
+	 * Returns the number of currently cached states, including the dead state.
+	 *
+	 * @return the number of cached states
+	 */
+	public int cachedStates() {
+		return cache.cachedStates();
+	}
+
+	/**
+	 * Returns how often the state cache has been cleared so far.
+	 *
+	 * @return the number of cache clears
+	 */
+	public long cacheClears() {
+		return cache.clears();
+	}
+
+	/**
+	 * Checks whether this set has given up on determinization and simulates the
+	 * NFA instead.
+	 *
+	 * @return {@code true} if the simulation is in use
+	 */
+	public boolean isFallingBack() {
+		return cache.isThrashing();
+	}
+
+	/**
+	 * Computes the rules accepted by a set of NFA states.
+	 *
+	 * @return the bitset of the rules, {@code null} if there are none
+	 */
+	private long[] acceptedRules(int[] states) {
+		long[] rules = null;
+		for (int i = 0; i < states.length; i++) {
+			int rule = nfa.rule(states[i]);
+			if (rule != Nfa.NONE) {
+				if (rules == null) {
+					rules = new long[words];
+				}
+				rules[rule >>> 6] |= 1L << rule;
+			}
+		}
+		return rules;
+	}
+
+	/**
+	 * Finds the rules matching a region by simulating the NFA, without caching
+	 * any states.
+	 */
+	private boolean simulate(CharSequence input, int from, int to, long[] matched) {
+		Arrays.fill(matched, 0, words, 0);
+		if (simulation == null) {
+			simulation = new SparseSet[] { new SparseSet(nfa.stateCount()), new SparseSet(nfa.stateCount()) };
+		}
+		AlphabetPartition partition = nfa.partition;
+		int[] states = cache.startStates();
+		int count = states.length;
+		boolean any = unanchored && collect(acceptedRules(states), matched);
+		int position = from;
+		for (int step = 0; position < to; step++) {
+			int codePoint = CodePoints.codePointAt(input, position, to);
+			SparseSet next = simulation[step & 1];
+			cache.successors(states, count, partition.classOf(codePoint), next);
+			if (next.isEmpty()) {
+				return any;
+			}
+			states = next.dense;
+			count = next.size;
+			position += Character.charCount(codePoint);
+			if (unanchored) {
+				any |= collect(states, count, matched);
+				if (all(matched)) {
+					return true;
+				}
+			}
+		}
+		if (!unanchored) {
+			any = collect(states, count, matched);
+		}
+		return any;
+	}
+
+	/**
+	 * Adds the rules of a state to a bitset.
+	 *
+	 * @param rules the rules accepted by the state, {@code null} if none
+	 * @return {@code true} if the state accepts any rule
+	 */
+	private boolean collect(long[] rules, long[] matched) {
+		if (rules == null) {
+			return false;
+		}
+		for (int word = 0; word < words; word++) {
+			matched[word] |= rules[word];
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the rules accepted by some NFA states to a bitset.
+	 *
+	 * @return {@code true} if any of the states accepts a rule
+	 */
+	private boolean collect(int[] states, int count, long[] matched) {
+		boolean any = false;
+		for (int i = 0; i < count; i++) {
+			int rule = nfa.rule(states[i]);
+			if (rule != Nfa.NONE) {
+				matched[rule >>> 6] |= 1L << rule;
+				any = true;
+			}
+		}
+		return any;
+	}
+
+	/**
+	 * Checks whether a bitset holds every rule.
+	 */
+	private boolean all(long[] matched) {
+		int ruleCount = nfa.ruleCount();
+		for (int word = 0; word < words - 1; word++) {
+			if (matched[word] != -1L) {
+				return false;
+			}
+		}
+		return matched[words - 1] == (-1L >>> (-ruleCount & 63));
+	}
+
+}
@@ -1,15 +1,32 @@
 package de.dhbw.mh.redeggs;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 /**
  * Represents a regular expression in an abstract syntax tree (AST) format.
  * Subclasses of this class define different types of regular expression
  * constructs such as concatenation, alternation, and literals.
+ * <p>
+ * Nodes are compared structurally, with an explicit stack so that very deep
+ * expressions do not overflow the call stack. Every node computes its hash
+ * code once on construction from the precomputed hash codes of its operands,
+ * so hashing is O(1) and most unequal nodes are told apart without descending.
+ * Nodes created through a {@link NodeFactory} are additionally shared, which
+ * reduces most equality checks to a reference comparison; a
+ * {@link RecursiveDescentRedeggsParser} only creates shared nodes if it is
+ * given a factory.
+ * </p>
  */
 public abstract class RegularEggspression {
 
 	/**
 	 * A visitor interface for traversing and processing different types of regular
 	 * expression nodes.
+	 * <p>
+	 * The default {@code visit} methods recurse into the operands, so very deep
+	 * expressions should be traversed with {@link Traversal} instead.
+	 * </p>
 	 *
 	 * @param <T> the return type of the visit methods
 	 */
@@ -124,11 +141,53 @@ public abstract class RegularEggspression {
 	 */
 	public abstract <T> T accept(RegularEggspression.Visitor<T> visitor);
 
+	/**
+	 * Compares two nodes of the same class and hash code structurally, without
+	 * recursion.
+	 */
+	static boolean structurallyEqual(RegularEggspression first, RegularEggspression second) {
+		Deque<RegularEggspression> pending = new ArrayDeque<>();
+		pending.push(first);
+		pending.push(second);
+		while (!pending.isEmpty()) {
+			RegularEggspression right = pending.pop();
+			RegularEggspression left = pending.pop();
+			if (left == right) {
+				continue;
+			}
+			if (left.getClass() != right.getClass() || left.hashCode() != right.hashCode()) {
+				return false;
+			}
+			if (left instanceof Concatenation) {
+				Concatenation concat = (Concatenation) left;
+				Concatenation other = (Concatenation) right;
+				pending.push(concat.left);
+				pending.push(other.left);
+				pending.push(concat.right);
+				pending.push(other.right);
+			} else if (left instanceof Alternation) {
+				Alternation union = (Alternation) left;
+				Alternation other = (Alternation) right;
+				pending.push(union.left);
+				pending.push(other.left);
+				pending.push(union.right);
+				pending.push(other.right);
+			} else if (left instanceof Star) {
+				pending.push(((Star) left).base);
+				pending.push(((Star) right).base);
+			} else if (!left.equals(right)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Represents a concatenation of two regular expressions.
 	 */
 	public static class Concatenation extends RegularEggspression {
 		private final RegularEggspression left, right;
+		private final int hash;
 
 		/**
 		 * Constructs a new concatenation of two regular expressions.
@@ -140,6 +199,25 @@ public abstract class RegularEggspression {
 			super();
 			this.left = left;
 			this.right = right;
+			this.hash = (3 * 31 + left.hashCode()) * 31 + right.hashCode();
+		}
+
+		/**
+		 * Returns the left operand of the concatenation.
+		 *
+		 * @return the left operand
+		 */
+		public RegularEggspression left() {
+			return left;
+		}
+
+		/**
+		 * Returns the right operand of the concatenation.
+		 *
+		 * @return the right operand
+		 */
+		public RegularEggspression right() {
+			return right;
 		}
 
 		@Override
@@ -151,6 +229,20 @@ public abstract class RegularEggspression {
 		public String toString() {
 			return String.format("(%s%s)", left, right);
 		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || getClass() != o.getClass())
+				return false;
+			return hash == ((Concatenation) o).hash && structurallyEqual(this, (Concatenation) o);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
 	}
 
 	/**
@@ -158,6 +250,7 @@ public abstract class RegularEggspression {
 	 */
 	public static class Alternation extends RegularEggspression {
 		private final RegularEggspression left, right;
+		private final int hash;
 
 		/**
 		 * Constructs a new alternation (OR) between two regular expressions.
@@ -169,6 +262,25 @@ public abstract class RegularEggspression {
 			super();
 			this.left = left;
 			this.right = right;
+			this.hash = (5 * 31 + left.hashCode()) * 31 + right.hashCode();
+		}
+
+		/**
+		 * Returns the left operand of the alternation.
+		 *
+		 * @return the left operand
+		 */
+		public RegularEggspression left() {
+			return left;
+		}
+
+		/**
+		 * Returns the right operand of the alternation.
+		 *
+		 * @return the right operand
+		 */
+		public RegularEggspression right() {
+			return right;
 		}
 
 		@Override
@@ -180,6 +292,20 @@ public abstract class RegularEggspression {
 		public String toString() {
 			return String.format("(%s|%s)", left, right);
 		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || getClass() != o.getClass())
+				return false;
+			return hash == ((Alternation) o).hash && structurallyEqual(this, (Alternation) o);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
 	}
 
 	/**
@@ -187,6 +313,7 @@ public abstract class RegularEggspression {
 	 */
 	public static class Star extends RegularEggspression {
 		private final RegularEggspression base;
+		private final int hash;
 
 		/**
 		 * Constructs a new star (Kleene star) operation on the base regular expression.
@@ -196,6 +323,16 @@ public abstract class RegularEggspression {
 		public Star(RegularEggspression base) {
 			super();
 			this.base = base;
+			this.hash = 7 * 31 + base.hashCode();
+		}
+
+		/**
+		 * Returns the regular expression that is repeated.
+		 *
+		 * @return the base of the star
+		 */
+		public RegularEggspression base() {
+			return base;
 		}
 
 		@Override
@@ -207,6 +344,20 @@ public abstract class RegularEggspression {
 		public String toString() {
 			return String.format("(%s)*", base);
 		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || getClass() != o.getClass())
+				return false;
+			return hash == ((Star) o).hash && structurallyEqual(this, (Star) o);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
 	}
 
 	/**
@@ -225,6 +376,15 @@ public abstract class RegularEggspression {
 			this.symbol = virtualSymbol;
 		}
 
+		/**
+		 * Returns the symbol representing the literal.
+		 *
+		 * @return the symbol of the literal
+		 */
+		public VirtualSymbol symbol() {
+			return symbol;
+		}
+
 		@Override
 		public <T> T accept(Visitor<T> visitor) {
 			return visitor.visit(this);
@@ -234,6 +394,20 @@ public abstract class RegularEggspression {
 		public String toString() {
 			return String.format("%s", symbol);
 		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || getClass() != o.getClass())
+				return false;
+			return symbol.equals(((Literal) o).symbol);
+		}
+
+		@Override
+		public int hashCode() {
+			return 11 * 31 + symbol.hashCode();
+		}
 	}
 
 	/**
@@ -248,6 +422,21 @@ public abstract class RegularEggspression {
 		public <T> T accept(Visitor<T> visitor) {
 			return visitor.visit(this);
 		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o != null && getClass() == o.getClass();
+		}
+
+		@Override
+		public int hashCode() {
+			return 13;
+		}
+
+		@Override
+		public String toString() {
+			return "ε";
+		}
 	}
 
 	/**
@@ -262,6 +451,21 @@ public abstract class RegularEggspression {
 		public <T> T accept(Visitor<T> visitor) {
 			return visitor.visit(this);
 		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o != null && getClass() == o.getClass();
+		}
+
+		@Override
+		public int hashCode() {
+			return 17;
+		}
+
+		@Override
+		public String toString() {
+			return "∅";
+		}
 	}
 
 }
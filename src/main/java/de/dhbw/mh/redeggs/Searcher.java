@@ -0,0 +1,159 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Finds the leftmost-longest match of an expression anywhere in an input.
+ * <p>
+ * Instead of starting the anchored matcher at every position, the searcher
+ * skips ahead to the candidates admitted by the {@link LiteralFactors} of the
+ * expression. If the expression has a required factor, a region without it is
+ * rejected by a single {@link String#indexOf(String, int)}, which the JIT
+ * compiles to vectorized code. If its words start with one of a few known
+ * prefixes, the matcher only runs where one of them occurs. Otherwise it runs
+ * at every position that precedes the next occurrence of the required factor.
+ * Every literal search stops at the end of the region, and each prefix is
+ * searched for at most once per occurrence, so a find is linear in the length
+ * of the region apart from the work of the matcher.
+ * The searcher is thread-safe if its matcher is.
+ * </p>
+ */
+public final class Searcher {
+
+	/** The maximum number of prefixes that are searched for individually. */
+	static final int MAX_PREFIXES = 8;
+
+	/** The anchored matcher run at the candidate positions. */
+	private final RedeggsMatcher matcher;
+
+	/** The prefixes to search for, or {@code null} to not use them. */
+	private final String[] prefixes;
+
+	/** The factor every match contains, possibly empty. */
+	private final String required;
+
+	/**
+	 * Constructs a new searcher using a minimal DFA of the expression.
+	 *
+	 * @param expression the expression to search for
+	 */
+	public Searcher(RegularEggspression expression) {
+		this(Dfa.compile(expression), LiteralFactors.of(expression));
+	}
+
+	/**
+	 * Constructs a new searcher.
+	 *
+	 * @param matcher the anchored matcher of the expression
+	 * @param factors the literal factors of the same expression
+	 */
+	public Searcher(RedeggsMatcher matcher, LiteralFactors factors) {
+		super();
+		this.matcher = matcher;
+		Set<String> known = factors.prefixes();
+		this.prefixes = (known == null || known.size() > MAX_PREFIXES) ? null : known.toArray(new String[0]);
+		this.required = factors.required();
+	}
+
+	/**
+	 * Finds the leftmost-longest match within a region.
+	 *
+	 * @param input the characters to search
+	 * @param from  the index to start searching at
+	 * @param to    the exclusive end of the region
+	 * @param match receives the start and the end of the match at indices 0 and
+	 *              1
+	 * @return {@code true} if a match was found
+	 */
+	public boolean find(CharSequence input, int from, int to, int[] match) {
+		int occurrence = from - 1;
+		int[] occurrences = null;
+		if (prefixes != null) {
+			occurrences = new int[prefixes.length];
+			Arrays.fill(occurrences, from - 1);
+		}
+		int start = from;
+		while (start <= to) {
+			if (!required.isEmpty() && occurrence < start) {
+				occurrence = indexOf(input, required, start, to);
+				if (occurrence < 0) {
+					return false;
+				}
+			}
+			int limit = to;
+			if (prefixes != null) {
+				start = nextPrefix(input, start, to, occurrences);
+				if (start < 0) {
+					return false;
+				}
+				limit = start;
+			} else if (!required.isEmpty()) {
+				limit = occurrence;
+			}
+			for (; start <= limit; start++) {
+				if (start > from && start < to && Character.isLowSurrogate(input.charAt(start))
+						&& Character.isHighSurrogate(input.charAt(start - 1))) {
+					continue;
+				}
+				int end = matcher.longestMatch(input, start, to);
+				if (end >= 0) {
+					match[0] = start;
+					match[1] = end;
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the first position at or after {@code from} where one of the
+	 * prefixes occurs, or {@code -1}.
+	 * <p>
+	 * The last occurrence found of each prefix is kept in {@code occurrences}
+	 * and only searched for again once {@code from} has passed it, so a find
+	 * scans the region at most once per prefix. A prefix that does not occur
+	 * at all is marked with {@link Integer#MAX_VALUE}.
+	 * </p>
+	 */
+	private int nextPrefix(CharSequence input, int from, int to, int[] occurrences) {
+		int next = Integer.MAX_VALUE;
+		for (int i = 0; i < prefixes.length; i++) {
+			if (occurrences[i] < from) {
+				int position = indexOf(input, prefixes[i], from, to);
+				occurrences[i] = (position < 0) ? Integer.MAX_VALUE : position;
+			}
+			next = Math.min(next, occurrences[i]);
+		}
+		return (next == Integer.MAX_VALUE) ? -1 : next;
+	}
+
+	/**
+	 * Returns the first position at or after {@code from} where the literal
+	 * occurs completely before {@code to}, or {@code -1}.
+	 */
+	static int indexOf(CharSequence input, String literal, int from, int to) {
+		int last = to - literal.length();
+		// String.indexOf cannot be bounded, so it is only used while the part
+		// after the region is no longer than the region itself
+		if (input instanceof String && input.length() - to <= to - from) {
+			int position = ((String) input).indexOf(literal, from);
+			return (position >= 0 && position <= last) ? position : -1;
+		}
+		char first = literal.charAt(0);
+		for (int position = from; position <= last; position++) {
+			if (input.charAt(position) == first) {
+				int i = 1;
+				while (i < literal.length() && input.charAt(position + i) == literal.charAt(i)) {
+					i++;
+				}
+				if (i == literal.length()) {
+					return position;
+				}
+			}
+		}
+		return -1;
+	}
+
+}
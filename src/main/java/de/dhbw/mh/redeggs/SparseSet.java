@@ -0,0 +1,65 @@
+package de.dhbw.mh.redeggs;
+
+/**
+ * A set of small non-negative integers with O(1) insertion, membership test and
+ * clearing, as described by Briggs and Torczon. Iteration order is insertion
+ * order.
+ */
+final class SparseSet {
+
+	/** The members in insertion order. */
+	final int[] dense;
+
+	/** Maps each member to its index in {@link #dense}. */
+	private final int[] sparse;
+
+	/** The number of members. */
+	int size;
+
+	/**
+	 * Constructs an empty set for values in {@code [0, capacity)}.
+	 *
+	 * @param capacity the exclusive upper bound of the values
+	 */
+	SparseSet(int capacity) {
+		this.dense = new int[capacity];
+		this.sparse = new int[capacity];
+	}
+
+	/**
+	 * Checks whether the given value is a member.
+	 */
+	boolean contains(int value) {
+		int index = sparse[value];
+		return index < size && dense[index] == value;
+	}
+
+	/**
+	 * Adds the given value unless it is already a member.
+	 *
+	 * @return {@code true} if the value was added
+	 */
+	boolean add(int value) {
+		if (contains(value)) {
+			return false;
+		}
+		sparse[value] = size;
+		dense[size++] = value;
+		return true;
+	}
+
+	/**
+	 * Checks whether the set is empty.
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all members.
+	 */
+	void clear() {
+		size = 0;
+	}
+
+}
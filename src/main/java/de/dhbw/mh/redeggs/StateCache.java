@@ -0,0 +1,292 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The bounded cache of DFA states behind the matchers that determinize an
+ * {@link Nfa} on demand.
+ * <p>
+ * A DFA state is the sorted set of relevant NFA states reached so far. It is
+ * built the first time it is reached, together with a payload computed once
+ * from its NFA states, and its transitions are cached per symbol class in a
+ * flat table. In unanchored mode the NFA is restarted at every position, so
+ * every state also contains the initial NFA states.
+ * </p>
+ *
+ * <p>
+ * The cache is bounded by a memory budget: when adding a state would exceed
+ * it, the whole cache is cleared, keeping its arrays, and rebuilt from the
+ * current state. If a search sees the cache cleared repeatedly while making
+ * little progress, the cache reports {@link #THRASHING}; the owner is then
+ * expected to give up on determinization and simulate the NFA instead.
+ * </p>
+ *
+ * @param <P> the type of the payload of a state
+ */
+final class StateCache<P> {
+
+	/** Marks a transition that has not been computed yet. */
+	static final int UNKNOWN = -1;
+
+	/** Returned instead of a state once the cache thrashes. */
+	static final int THRASHING = -2;
+
+	/** The id of the state without any NFA states. */
+	static final int DEAD = 0;
+
+	/** The estimated bookkeeping overhead of a state, in bytes. */
+	private static final int STATE_OVERHEAD = 96;
+
+	/** The number of cache clears within one search before thrashing is checked. */
+	private static final int MIN_CLEARS = 3;
+
+	/** The minimum number of code points per built state to not count as thrashing. */
+	private static final int MIN_CODE_POINTS_PER_STATE = 10;
+
+	/** The automaton to determinize. */
+	final Nfa nfa;
+
+	/** The number of symbol classes, i.e. the width of a row of transitions. */
+	final int classCount;
+
+	/** Whether the NFA is restarted at every position. */
+	private final boolean unanchored;
+
+	/** The memory budget of the cache, in bytes. */
+	private final long memoryBudget;
+
+	/** Computes the payload of a new state from its NFA states. */
+	private final Function<int[], ? extends P> payloads;
+
+	/** The estimated memory needed by a payload, in bytes. */
+	private final long payloadCost;
+
+	/** The cached transitions, {@link #classCount} entries per state. */
+	int[] transitions;
+
+	/** The sorted NFA states of each DFA state. */
+	private int[][] sets;
+
+	/** The payload of each DFA state. */
+	private Object[] payload;
+
+	/** Maps the NFA states of each cached DFA state to its id. */
+	private final Map<StateKey, Integer> ids = new HashMap<>();
+
+	/** The number of cached states. */
+	private int stateCount;
+
+	/** The estimated memory used by the cache, in bytes. */
+	private long memoryUsed;
+
+	/** The NFA states of the initial DFA state. */
+	private final int[] startSet;
+
+	/** The id of the initial state, or {@link #UNKNOWN} after a clear. */
+	private int start = UNKNOWN;
+
+	/** The number of times the cache was cleared. */
+	private long clears;
+
+	/** The number of clears before the current search. */
+	private long clearsBeforeSearch;
+
+	/** The position of the most recent clear within the current search. */
+	private int lastClear;
+
+	/** Whether the cache has thrashed, which is final. */
+	private boolean thrashing;
+
+	/** Scratch set for computing successor states. */
+	private final SparseSet scratch;
+
+	/** Scratch stack for epsilon closures. */
+	private final int[] stack;
+
+	/**
+	 * Constructs a new cache holding only the dead state.
+	 *
+	 * @param nfa          the automaton to determinize
+	 * @param unanchored   whether to restart the NFA at every position
+	 * @param memoryBudget the maximum size of the cache, in bytes
+	 * @param payloads     computes the payload of a state from its NFA states
+	 * @param payloadCost  the estimated size of a payload, in bytes
+	 * @throws IllegalArgumentException if the budget is not positive
+	 */
+	StateCache(Nfa nfa, boolean unanchored, long memoryBudget, Function<int[], ? extends P> payloads,
+			long payloadCost) {
+		super();
+		if (memoryBudget <= 0) {
+			throw new IllegalArgumentException(String.format("Memory budget must be positive, got %d.", memoryBudget));
+		}
+		this.nfa = nfa;
+		this.classCount = nfa.partition.classCount();
+		this.unanchored = unanchored;
+		this.memoryBudget = memoryBudget;
+		this.payloads = payloads;
+		this.payloadCost = payloadCost;
+		this.scratch = new SparseSet(nfa.stateCount());
+		this.stack = new int[nfa.stateCount()];
+
+		nfa.closure(scratch, nfa.start, stack);
+		this.startSet = nfa.relevantStates(scratch);
+		reset();
+	}
+
+	/**
+	 * Starts a search and returns the initial state, adding it to the cache if
+	 * necessary.
+	 *
+	 * @param from the position the search starts at
+	 * @return the id of the initial state
+	 */
+	int startSearch(int from) {
+		clearsBeforeSearch = clears;
+		lastClear = from;
+		if (start == UNKNOWN) {
+			start = addState(startSet);
+		}
+		return start;
+	}
+
+	/**
+	 * Returns the payload of a state.
+	 */
+	@SuppressWarnings("unchecked")
+	P payload(int state) {
+		return (P) payload[state];
+	}
+
+	/**
+	 * Returns the NFA states of the initial DFA state.
+	 */
+	int[] startStates() {
+		return startSet;
+	}
+
+	/**
+	 * Computes, caches and returns the successor of the given state on the given
+	 * class. May clear the cache, invalidating all other state ids and the
+	 * {@link #transitions} array, or return {@link #THRASHING} if this search
+	 * keeps clearing it.
+	 *
+	 * @param position the position of the code point within the search
+	 */
+	int computeTransition(int state, int classId, int position) {
+		successors(sets[state], sets[state].length, classId, scratch);
+		int[] set = nfa.relevantStates(scratch);
+		Integer existing = ids.get(new StateKey(set));
+		int next;
+		if (existing != null) {
+			next = existing;
+		} else {
+			if (memoryUsed + cost(set) > memoryBudget && stateCount > 1) {
+				clears++;
+				if (clears - clearsBeforeSearch >= MIN_CLEARS
+						&& position - lastClear < MIN_CODE_POINTS_PER_STATE * stateCount) {
+					thrashing = true;
+					return THRASHING;
+				}
+				lastClear = position;
+				reset();
+				return addState(set);
+			}
+			next = addState(set);
+		}
+		transitions[state * classCount + classId] = next;
+		return next;
+	}
+
+	/**
+	 * Collects the NFA states reached from the given ones on a class, including
+	 * the initial NFA states in unanchored mode.
+	 *
+	 * @param states the NFA states to step from
+	 * @param count  the number of states to use from the array
+	 * @param target receives the reached states; it is cleared first
+	 */
+	void successors(int[] states, int count, int classId, SparseSet target) {
+		target.clear();
+		for (int i = 0; i < count; i++) {
+			int next = nfa.step(states[i], classId);
+			if (next != Nfa.NONE) {
+				nfa.closure(target, next, stack);
+			}
+		}
+		if (unanchored) {
+			nfa.closure(target, nfa.start, stack);
+		}
+	}
+
+	/**
+	 * Returns the number of currently cached states, including the dead state.
+	 */
+	int cachedStates() {
+		return stateCount;
+	}
+
+	/**
+	 * Returns how often the cache has been cleared so far.
+	 */
+	long clears() {
+		return clears;
+	}
+
+	/**
+	 * Checks whether the cache has thrashed.
+	 */
+	boolean isThrashing() {
+		return thrashing;
+	}
+
+	/**
+	 * Drops all cached states except the dead state. The arrays keep their
+	 * capacity, which the memory budget bounds, since the cache is typically
+	 * refilled right away.
+	 */
+	private void reset() {
+		if (transitions == null) {
+			int capacity = 16;
+			transitions = new int[capacity * classCount];
+			sets = new int[capacity][];
+			payload = new Object[capacity];
+		}
+		ids.clear();
+		stateCount = 0;
+		memoryUsed = 0;
+		start = UNKNOWN;
+		addState(new int[0]);
+	}
+
+	/**
+	 * Adds a state for the given NFA states to the cache.
+	 *
+	 * @return the id of the new state
+	 */
+	private int addState(int[] set) {
+		if (stateCount == sets.length) {
+			int capacity = stateCount << 1;
+			transitions = Arrays.copyOf(transitions, capacity * classCount);
+			sets = Arrays.copyOf(sets, capacity);
+			payload = Arrays.copyOf(payload, capacity);
+		}
+		int id = stateCount++;
+		Arrays.fill(transitions, id * classCount, (id + 1) * classCount, (id == DEAD) ? DEAD : UNKNOWN);
+		sets[id] = set;
+		payload[id] = payloads.apply(set);
+		ids.put(new StateKey(set), id);
+		memoryUsed += cost(set);
+		return id;
+	}
+
+	/**
+	 * Estimates the memory needed to cache a state.
+	 */
+	private long cost(int[] set) {
+		return 4L * classCount + 8L * set.length + payloadCost + STATE_OVERHEAD;
+	}
+
+}
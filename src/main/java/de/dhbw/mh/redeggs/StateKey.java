@@ -0,0 +1,41 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Arrays;
+
+/**
+ * Wraps a sorted set of NFA states as a hash key during determinization.
+ */
+final class StateKey {
+
+	/** The sorted NFA states. */
+	final int[] states;
+
+	/** The precomputed hash code of {@link #states}. */
+	private final int hash;
+
+	/**
+	 * Constructs a new key; the array is taken over without copying.
+	 *
+	 * @param states the sorted NFA states
+	 */
+	StateKey(int[] states) {
+		this.states = states;
+		this.hash = Arrays.hashCode(states);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof StateKey))
+			return false;
+		StateKey other = (StateKey) o;
+		return hash == other.hash && Arrays.equals(states, other.states);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+}
@@ -0,0 +1,78 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * A visitor that collects the distinct symbols of all {@link Literal} nodes of
+ * one or more regular expressions, in the order of their first occurrence.
+ */
+public class SymbolCollector implements RegularEggspression.Visitor<Void> {
+
+	/**
+	 * The symbols collected so far.
+	 */
+	private final Set<VirtualSymbol> symbols = new LinkedHashSet<>();
+
+	/**
+	 * Collects the symbols of the given expressions.
+	 *
+	 * @param expressions the expressions to inspect
+	 * @return the distinct symbols in order of their first occurrence
+	 */
+	public static List<VirtualSymbol> collect(Iterable<? extends RegularEggspression> expressions) {
+		SymbolCollector collector = new SymbolCollector();
+		for (RegularEggspression expression : expressions) {
+			Traversal.postOrderShared(expression, collector);
+		}
+		return collector.symbols();
+	}
+
+	/**
+	 * Returns the symbols collected so far.
+	 *
+	 * @return the distinct symbols in order of their first occurrence
+	 */
+	public List<VirtualSymbol> symbols() {
+		return new ArrayList<>(symbols);
+	}
+
+	@Override
+	public Void visit(RegularEggspression.EmptyWord emptyWord) {
+		return null;
+	}
+
+	@Override
+	public Void visit(RegularEggspression.EmptySet emptySet) {
+		return null;
+	}
+
+	@Override
+	public Void visitPost(Concatenation concat, Void prefix, Void suffix) {
+		return null;
+	}
+
+	@Override
+	public Void visitPost(Alternation union, Void first, Void second) {
+		return null;
+	}
+
+	@Override
+	public Void visitPost(Star star, Void base) {
+		return null;
+	}
+
+	@Override
+	public Void visitPost(Literal literal, VirtualSymbol symbol) {
+		symbols.add(symbol);
+		return null;
+	}
+
+}
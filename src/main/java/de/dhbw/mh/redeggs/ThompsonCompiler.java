@@ -0,0 +1,125 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.List;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * A visitor that compiles a regular expression AST into a Thompson
+ * {@link Nfa}.
+ * <p>
+ * Every node is translated into a fragment with a single entry and a single
+ * exit state, the exit state having no outgoing edges until the fragment is
+ * wired into its parent.
+ * </p>
+ */
+public class ThompsonCompiler implements RegularEggspression.Visitor<ThompsonCompiler.Fragment> {
+
+	/**
+	 * A partial automaton with one entry and one exit state.
+	 *
+	 * @param start the entry state of the fragment
+	 * @param end   the exit state of the fragment
+	 */
+	public static record Fragment(int start, int end) {
+	}
+
+	/**
+	 * The builder collecting the states of the NFA.
+	 */
+	final NfaBuilder builder = new NfaBuilder();
+
+	/**
+	 * Compiles the given expression into a Thompson NFA.
+	 *
+	 * @param expression the expression to compile
+	 * @return the NFA accepting the language of the expression
+	 */
+	public static Nfa compile(RegularEggspression expression) {
+		ThompsonCompiler compiler = new ThompsonCompiler();
+		Fragment fragment = Traversal.postOrder(expression, compiler);
+		return compiler.builder.build(AlphabetPartition.of(expression), fragment.start(), fragment.end());
+	}
+
+	/**
+	 * Compiles the given rules into one Thompson NFA with an accepting state per
+	 * rule.
+	 *
+	 * @param rules the expressions of the rules, in order
+	 * @return the NFA accepting the union of the rules
+	 * @throws IllegalArgumentException if there are no rules
+	 */
+	public static Nfa compile(List<? extends RegularEggspression> rules) {
+		if (rules.isEmpty()) {
+			throw new IllegalArgumentException("At least one rule is required.");
+		}
+		ThompsonCompiler compiler = new ThompsonCompiler();
+		int[] accepts = new int[rules.size()];
+		int start = compiler.builder.addState();
+		int fork = start;
+		for (int rule = 0; rule < accepts.length; rule++) {
+			Fragment fragment = Traversal.postOrder(rules.get(rule), compiler);
+			accepts[rule] = fragment.end();
+			if (rule < accepts.length - 1) {
+				int next = compiler.builder.addState();
+				compiler.builder.epsilon(fork, fragment.start());
+				compiler.builder.epsilon(fork, next);
+				fork = next;
+			} else {
+				compiler.builder.epsilon(fork, fragment.start());
+			}
+		}
+		return compiler.builder.build(AlphabetPartition.of(rules), start, accepts);
+	}
+
+	@Override
+	public Fragment visit(RegularEggspression.EmptyWord emptyWord) {
+		int state = builder.addState();
+		return new Fragment(state, state);
+	}
+
+	@Override
+	public Fragment visit(RegularEggspression.EmptySet emptySet) {
+		return new Fragment(builder.addState(), builder.addState());
+	}
+
+	@Override
+	public Fragment visitPost(Concatenation concat, Fragment prefix, Fragment suffix) {
+		builder.epsilon(prefix.end(), suffix.start());
+		return new Fragment(prefix.start(), suffix.end());
+	}
+
+	@Override
+	public Fragment visitPost(Alternation union, Fragment first, Fragment second) {
+		int start = builder.addState();
+		int end = builder.addState();
+		builder.epsilon(start, first.start());
+		builder.epsilon(start, second.start());
+		builder.epsilon(first.end(), end);
+		builder.epsilon(second.end(), end);
+		return new Fragment(start, end);
+	}
+
+	@Override
+	public Fragment visitPost(Star star, Fragment base) {
+		int start = builder.addState();
+		int end = builder.addState();
+		builder.epsilon(start, base.start());
+		builder.epsilon(start, end);
+		builder.epsilon(base.end(), base.start());
+		builder.epsilon(base.end(), end);
+		return new Fragment(start, end);
+	}
+
+	@Override
+	public Fragment visitPost(Literal literal, VirtualSymbol symbol) {
+		int start = builder.addState();
+		int end = builder.addState();
+		builder.symbol(start, symbol, end);
+		return new Fragment(start, end);
+	}
+
+}
@@ -0,0 +1,159 @@
+package de.dhbw.mh.redeggs;
+
+/**
+ * A matcher that starts out interpreting the transition table of a
+ * {@link Dfa} and switches to generated bytecode for hot patterns.
+ * <p>
+ * Once {@link #compile()} is called or the number of searches reaches the
+ * threshold, the DFA is translated into a hidden class with one block of code
+ * per state (see {@link DfaClassGenerator}). If the translation fails, e.g.
+ * because the automaton is too large for a single method, the matcher keeps
+ * interpreting the table and never tries again. Both tiers give identical
+ * results. The matcher is thread-safe; under concurrent use the number of
+ * searches is only counted approximately. Searches are only counted until the
+ * threshold is reached, so a hot matcher stops writing to shared state, and
+ * not at all with the threshold {@link #NEVER}.
+ * </p>
+ */
+public class TieredMatcher implements RedeggsMatcher {
+
+	/** The default number of searches after which bytecode is generated. */
+	public static final int DEFAULT_THRESHOLD = 10_000;
+
+	/** The threshold that disables automatic bytecode generation. */
+	public static final int NEVER = Integer.MAX_VALUE;
+
+	/** The automaton to match with. */
+	private final Dfa dfa;
+
+	/** The number of searches after which bytecode is generated. */
+	private final int threshold;
+
+	/**
+	 * The number of searches so far, which stops changing once bytecode
+	 * generation has been attempted and is never counted for {@link #NEVER}.
+	 */
+	private int invocations;
+
+	/** The current tier, the DFA itself until bytecode has been generated. */
+	private volatile RedeggsMatcher tier;
+
+	/** Whether bytecode generation has been attempted. */
+	private volatile boolean attempted;
+
+	/** The reason bytecode generation failed, or {@code null}. */
+	private volatile Throwable failure;
+
+	/**
+	 * Constructs a new matcher that generates bytecode after
+	 * {@link #DEFAULT_THRESHOLD} searches.
+	 *
+	 * @param dfa the automaton to match with
+	 */
+	public TieredMatcher(Dfa dfa) {
+		this(dfa, DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Constructs a new matcher with the given threshold.
+	 *
+	 * @param dfa       the automaton to match with
+	 * @param threshold the number of searches after which bytecode is generated,
+	 *                  {@code 0} to generate it right away or {@link #NEVER}
+	 *                  for explicit {@link #compile()} calls only
+	 * @throws IllegalArgumentException if the threshold is negative
+	 */
+	public TieredMatcher(Dfa dfa, int threshold) {
+		super();
+		if (threshold < 0) {
+			throw new IllegalArgumentException(String.format("Invalid threshold %d.", threshold));
+		}
+		this.dfa = dfa;
+		this.threshold = threshold;
+		this.tier = dfa;
+		if (threshold == 0) {
+			compile();
+		}
+	}
+
+	/**
+	 * Creates a matcher for the minimal DFA of the given expression.
+	 *
+	 * @param expression the expression to match
+	 * @return the new matcher
+	 */
+	public static TieredMatcher of(RegularEggspression expression) {
+		return new TieredMatcher(Dfa.compile(expression));
+	}
+
+	@Override
+	public int longestMatch(CharSequence input, int from, int to) {
+		return tier().longestMatch(input, from, to);
+	}
+
+	@Override
+	public boolean matches(CharSequence input) {
+		return tier().matches(input);
+	}
+
+	/**
+	 * Counts a search and returns the tier to run it on.
+	 */
+	private RedeggsMatcher tier() {
+		if (threshold != NEVER && !attempted) {
+			int count = invocations + 1;
+			if (count >= threshold) {
+				compile();
+			} else {
+				invocations = count;
+			}
+		}
+		return tier;
+	}
+
+	/**
+	 * Generates the bytecode tier now unless that has already been attempted.
+	 *
+	 * @return {@code true} if the matcher runs on generated bytecode
+	 */
+	public synchronized boolean compile() {
+		if (!attempted) {
+			try {
+				tier = DfaClassGenerator.generate(dfa);
+			} catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+				failure = e;
+			}
+			attempted = true;
+		}
+		return isCompiled();
+	}
+
+	/**
+	 * Checks whether the matcher runs on generated bytecode.
+	 *
+	 * @return {@code true} if bytecode has been generated successfully
+	 */
+	public boolean isCompiled() {
+		return tier != dfa;
+	}
+
+	/**
+	 * Returns the reason bytecode generation failed.
+	 *
+	 * @return the failure, or {@code null} if generation succeeded or has not
+	 *         been attempted
+	 */
+	public Throwable failure() {
+		return failure;
+	}
+
+	/**
+	 * Returns the automaton this matcher interprets.
+	 *
+	 * @return the DFA
+	 */
+	public Dfa dfa() {
+		return dfa;
+	}
+
+}
@@ -0,0 +1,152 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptySet;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptyWord;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * Drives a {@link RegularEggspression.Visitor} over an expression with an
+ * explicit stack instead of Java recursion.
+ * <p>
+ * The callbacks are invoked in exactly the order of the default
+ * {@code visit} methods of the visitor: operands left to right, then the
+ * {@code visitPost} callback of their parent. Leaves are handed to
+ * {@code visit(EmptyWord)}, {@code visit(EmptySet)} and
+ * {@code visitPost(Literal, VirtualSymbol)}. Overridden {@code visit} methods
+ * of inner nodes are bypassed, so only visitors that do their work in the
+ * {@code visitPost} callbacks should be driven this way. The depth of the
+ * expression is limited by the heap only.
+ * </p>
+ *
+ * <p>
+ * With {@link #postOrderShared(RegularEggspression, RegularEggspression.Visitor)},
+ * results are memoized per node identity, so every subtree shared in a DAG
+ * (e.g. one built through a {@link NodeFactory}) is evaluated only once.
+ * </p>
+ */
+public final class Traversal {
+
+	private Traversal() {
+		super();
+	}
+
+	/**
+	 * Visits every node of the given expression in post-order.
+	 *
+	 * @param <T>        the result type of the visitor
+	 * @param expression the expression to traverse
+	 * @param visitor    the visitor to invoke
+	 * @return the result of the visitor for the root node
+	 */
+	public static <T> T postOrder(RegularEggspression expression, RegularEggspression.Visitor<T> visitor) {
+		return run(expression, visitor, null);
+	}
+
+	/**
+	 * Visits every distinct node of the given expression in post-order,
+	 * evaluating shared subtrees only once.
+	 *
+	 * @param <T>        the result type of the visitor
+	 * @param expression the expression to traverse
+	 * @param visitor    the visitor to invoke
+	 * @return the result of the visitor for the root node
+	 */
+	public static <T> T postOrderShared(RegularEggspression expression, RegularEggspression.Visitor<T> visitor) {
+		return run(expression, visitor, new IdentityHashMap<>());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T run(RegularEggspression root, RegularEggspression.Visitor<T> visitor,
+			Map<RegularEggspression, T> memo) {
+		RegularEggspression[] nodes = new RegularEggspression[16];
+		int[] phases = new int[16];
+		Object[] results = new Object[16];
+		int depth = 0;
+		int resultCount = 0;
+
+		nodes[depth++] = root;
+		while (depth > 0) {
+			RegularEggspression node = nodes[depth - 1];
+			int phase = phases[depth - 1];
+			RegularEggspression child = null;
+			boolean done = false;
+			T result = null;
+
+			if (phase == 0 && memo != null && memo.containsKey(node)) {
+				result = memo.get(node);
+				done = true;
+			} else if (node instanceof Concatenation) {
+				Concatenation concat = (Concatenation) node;
+				if (phase < 2) {
+					child = (phase == 0) ? concat.left() : concat.right();
+				} else {
+					T suffix = (T) results[--resultCount];
+					T prefix = (T) results[--resultCount];
+					result = visitor.visitPost(concat, prefix, suffix);
+					done = true;
+				}
+			} else if (node instanceof Alternation) {
+				Alternation union = (Alternation) node;
+				if (phase < 2) {
+					child = (phase == 0) ? union.left() : union.right();
+				} else {
+					T second = (T) results[--resultCount];
+					T first = (T) results[--resultCount];
+					result = visitor.visitPost(union, first, second);
+					done = true;
+				}
+			} else if (node instanceof Star) {
+				Star star = (Star) node;
+				if (phase == 0) {
+					child = star.base();
+				} else {
+					result = visitor.visitPost(star, (T) results[--resultCount]);
+					done = true;
+				}
+			} else if (node instanceof Literal) {
+				Literal literal = (Literal) node;
+				result = visitor.visitPost(literal, literal.symbol());
+				done = true;
+			} else if (node instanceof EmptyWord) {
+				result = visitor.visit((EmptyWord) node);
+				done = true;
+			} else if (node instanceof EmptySet) {
+				result = visitor.visit((EmptySet) node);
+				done = true;
+			} else {
+				// unknown node types can only be visited the recursive way
+				result = node.accept(visitor);
+				done = true;
+			}
+
+			if (done) {
+				depth--;
+				if (memo != null) {
+					memo.put(node, result);
+				}
+				if (resultCount == results.length) {
+					results = Arrays.copyOf(results, resultCount << 1);
+				}
+				results[resultCount++] = result;
+			} else {
+				phases[depth - 1] = phase + 1;
+				if (depth == nodes.length) {
+					nodes = Arrays.copyOf(nodes, depth << 1);
+					phases = Arrays.copyOf(phases, depth << 1);
+				}
+				nodes[depth] = child;
+				phases[depth] = 0;
+				depth++;
+			}
+		}
+		return (T) results[0];
+	}
+
+}
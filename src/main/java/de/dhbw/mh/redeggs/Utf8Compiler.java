@@ -0,0 +1,76 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.CodePointRange.range;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+
+/**
+ * A visitor that compiles a regular expression AST into a Thompson
+ * {@link Nfa} over UTF-8 bytes instead of code points.
+ * <p>
+ * Every literal is rewritten into the alternation of its UTF-8 byte sequences
+ * as computed by {@link Utf8Sequences}. Sequences of the same literal that end
+ * in the same byte ranges share the states of these suffixes, which keeps the
+ * automaton of large classes such as {@code [^a]} small. The symbols of the
+ * resulting NFA are byte ranges within 0 to 255.
+ * </p>
+ */
+final class Utf8Compiler extends ThompsonCompiler {
+
+	/** The factory interning the byte range symbols. */
+	private final IntervalSymbolFactory bytes = new IntervalSymbolFactory();
+
+	/**
+	 * Compiles the given expression into an NFA over UTF-8 bytes.
+	 *
+	 * @param expression the expression to compile
+	 * @return the NFA accepting the UTF-8 encodings of the words of the
+	 *         expression
+	 */
+	public static Nfa compile(RegularEggspression expression) {
+		Utf8Compiler compiler = new Utf8Compiler();
+		Fragment fragment = Traversal.postOrder(expression, compiler);
+		return compiler.builder.build(AlphabetPartition.ofSymbols(compiler.builder.symbols()), fragment.start(),
+				fragment.end());
+	}
+
+	@Override
+	public Fragment visitPost(Literal literal, VirtualSymbol symbol) {
+		int start = builder.addState();
+		int end = builder.addState();
+		List<int[]> sequences = Utf8Sequences.of(AlphabetPartition.bounds(symbol));
+
+		// the state consuming a byte range towards a target, keyed by both
+		Map<Long, Integer> suffixes = new HashMap<>();
+		int fork = start;
+		for (int s = 0; s < sequences.size(); s++) {
+			int[] sequence = sequences.get(s);
+			int target = end;
+			for (int i = sequence.length - 2; i >= 0; i -= 2) {
+				long key = ((long) ((sequence[i] << 8) | sequence[i + 1]) << 32) | target;
+				Integer state = suffixes.get(key);
+				if (state == null) {
+					state = builder.addState();
+					builder.symbol(state, bytes.newSymbol().include(range(sequence[i], sequence[i + 1]))
+							.andNothingElse(), target);
+					suffixes.put(key, state);
+				}
+				target = state;
+			}
+			if (s < sequences.size() - 1) {
+				int next = builder.addState();
+				builder.epsilon(fork, target);
+				builder.epsilon(fork, next);
+				fork = next;
+			} else {
+				builder.epsilon(fork, target);
+			}
+		}
+		return new Fragment(start, end);
+	}
+
+}
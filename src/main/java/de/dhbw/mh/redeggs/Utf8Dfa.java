@@ -0,0 +1,116 @@
+package de.dhbw.mh.redeggs;
+
+/**
+ * A minimal DFA running directly on UTF-8 encoded bytes.
+ * <p>
+ * The expression is compiled by rewriting the code point ranges of every
+ * symbol into ranges of UTF-8 byte sequences, so the automaton consumes one
+ * byte per step and looks up its class in a 256-entry table. No decoding takes
+ * place at all; ASCII input and multi-byte sequences run through the same
+ * loop. Malformed UTF-8 never matches. Offsets are byte offsets. Instances are
+ * immutable and thread-safe.
+ * </p>
+ */
+public final class Utf8Dfa {
+
+	/** The automaton over byte classes. */
+	final Dfa dfa;
+
+	/** The class of each byte value. */
+	final int[] classes = new int[256];
+
+	/**
+	 * Constructs a new matcher from a DFA whose symbols are byte ranges.
+	 */
+	Utf8Dfa(Dfa dfa) {
+		super();
+		this.dfa = dfa;
+		for (int b = 0; b < classes.length; b++) {
+			classes[b] = dfa.partition.classOf(b);
+		}
+	}
+
+	/**
+	 * Compiles the given expression into a minimal DFA over UTF-8 bytes.
+	 *
+	 * @param expression the expression to compile
+	 * @return the byte-level DFA
+	 * @throws IllegalStateException if the DFA exceeds
+	 *                               {@link Dfa#DEFAULT_STATE_LIMIT} states
+	 */
+	public static Utf8Dfa compile(RegularEggspression expression) {
+		return new Utf8Dfa(Dfa.determinize(Utf8Compiler.compile(expression), Dfa.DEFAULT_STATE_LIMIT).minimize());
+	}
+
+	/**
+	 * Finds the longest match starting at {@code from} that ends at or before
+	 * {@code to}.
+	 *
+	 * @param input the UTF-8 encoded input
+	 * @param from  the offset of the first byte of the match
+	 * @param to    the exclusive end of the region to search
+	 * @return the end offset of the longest match, or {@code -1} if there is none
+	 */
+	public int longestMatch(byte[] input, int from, int to) {
+		int[] table = dfa.transitions;
+		int[] classOf = classes;
+		int width = dfa.classCount;
+		int dead = dfa.dead;
+		int state = dfa.start;
+		int last = dfa.isAccepting(state) ? from : -1;
+		for (int position = from; position < to; position++) {
+			state = table[state * width + classOf[input[position] & 0xFF]];
+			if (state == dead) {
+				break;
+			}
+			if (dfa.isAccepting(state)) {
+				last = position + 1;
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Checks whether a region of the input as a whole matches.
+	 *
+	 * @param input the UTF-8 encoded input
+	 * @param from  the offset of the first byte of the region
+	 * @param to    the exclusive end of the region
+	 * @return {@code true} if the region matches
+	 */
+	public boolean matches(byte[] input, int from, int to) {
+		int[] table = dfa.transitions;
+		int[] classOf = classes;
+		int width = dfa.classCount;
+		int dead = dfa.dead;
+		int state = dfa.start;
+		for (int position = from; position < to; position++) {
+			state = table[state * width + classOf[input[position] & 0xFF]];
+			if (state == dead) {
+				return false;
+			}
+		}
+		return dfa.isAccepting(state);
+	}
+
+	/**
+	 * Checks whether the whole input matches.
+	 *
+	 * @param input the UTF-8 encoded input
+	 * @return {@code true} if the input matches
+	 */
+	public boolean matches(byte[] input) {
+		return matches(input, 0, input.length);
+	}
+
+	/**
+	 * Returns the underlying automaton, whose symbol classes partition the byte
+	 * values.
+	 *
+	 * @return the DFA over byte classes
+	 */
+	public Dfa dfa() {
+		return dfa;
+	}
+
+}
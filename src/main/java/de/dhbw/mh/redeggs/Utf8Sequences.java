@@ -0,0 +1,129 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits code point ranges into ranges of UTF-8 byte sequences.
+ * <p>
+ * Every code point range is cut into pieces whose encodings have the same
+ * length and differ only in a contiguous range per byte, so that each piece is
+ * described by one range per byte. For example, U+0080 to U+07FF becomes the
+ * single sequence {@code [C2-DF][80-BF]}. Surrogates have no encoding and are
+ * dropped.
+ * </p>
+ */
+final class Utf8Sequences {
+
+	/** The largest code points encoded by one, two and three bytes. */
+	private static final int[] MAX_CODE_POINTS = { 0x7F, 0x7FF, 0xFFFF };
+
+	private Utf8Sequences() {
+		super();
+	}
+
+	/**
+	 * Splits the given code point ranges into UTF-8 byte sequences.
+	 *
+	 * @param bounds the sorted, disjoint ranges as (first, last) pairs
+	 * @return for each sequence, the (first, last) byte ranges from the first to
+	 *         the last byte, in increasing order of code points
+	 */
+	static List<int[]> of(int[] bounds) {
+		List<int[]> sequences = new ArrayList<>();
+		for (int i = 0; i < bounds.length; i += 2) {
+			split(bounds[i], bounds[i + 1], sequences);
+		}
+		return sequences;
+	}
+
+	private static void split(int first, int last, List<int[]> sequences) {
+		// the upper pieces still to split; the lower piece is always split first,
+		// so the sequences come out in ascending order
+		int[] stack = new int[64];
+		int top = 0;
+		stack[top++] = first;
+		stack[top++] = last;
+		outer: while (top > 0) {
+			int end = stack[--top];
+			int start = stack[--top];
+			while (true) {
+				if (start > end) {
+					continue outer;
+				}
+				if (start <= Character.MAX_SURROGATE && end >= Character.MIN_SURROGATE) {
+					if (end > Character.MAX_SURROGATE) {
+						stack[top++] = Character.MAX_SURROGATE + 1;
+						stack[top++] = end;
+					}
+					end = Character.MIN_SURROGATE - 1;
+					continue;
+				}
+				boolean cut = false;
+				for (int max : MAX_CODE_POINTS) {
+					if (start <= max && max < end) {
+						stack[top++] = max + 1;
+						stack[top++] = end;
+						end = max;
+						cut = true;
+						break;
+					}
+				}
+				if (cut) {
+					continue;
+				}
+				if (end <= 0x7F) {
+					sequences.add(new int[] { start, end });
+					continue outer;
+				}
+				for (int i = 1; i < 4 && !cut; i++) {
+					int mask = (1 << (6 * i)) - 1;
+					if ((start & ~mask) != (end & ~mask)) {
+						if ((start & mask) != 0) {
+							stack[top++] = (start | mask) + 1;
+							stack[top++] = end;
+							end = start | mask;
+							cut = true;
+						} else if ((end & mask) != mask) {
+							stack[top++] = end & ~mask;
+							stack[top++] = end;
+							end = (end & ~mask) - 1;
+							cut = true;
+						}
+					}
+				}
+				if (cut) {
+					continue;
+				}
+				byte[] low = encode(start);
+				byte[] high = encode(end);
+				int[] sequence = new int[low.length * 2];
+				for (int i = 0; i < low.length; i++) {
+					sequence[2 * i] = low[i] & 0xFF;
+					sequence[2 * i + 1] = high[i] & 0xFF;
+				}
+				sequences.add(sequence);
+				continue outer;
+			}
+		}
+	}
+
+	/**
+	 * Encodes a code point, which is not a surrogate, in UTF-8.
+	 */
+	private static byte[] encode(int codePoint) {
+		if (codePoint <= 0x7F) {
+			return new byte[] { (byte) codePoint };
+		}
+		if (codePoint <= 0x7FF) {
+			return new byte[] { (byte) (0xC0 | (codePoint >>> 6)), (byte) (0x80 | (codePoint & 0x3F)) };
+		}
+		if (codePoint <= 0xFFFF) {
+			return new byte[] { (byte) (0xE0 | (codePoint >>> 12)), (byte) (0x80 | ((codePoint >>> 6) & 0x3F)),
+					(byte) (0x80 | (codePoint & 0x3F)) };
+		}
+		return new byte[] { (byte) (0xF0 | (codePoint >>> 18)), (byte) (0x80 | ((codePoint >>> 12) & 0x3F)),
+				(byte) (0x80 | ((codePoint >>> 6) & 0x3F)), (byte) (0x80 | (codePoint & 0x3F)) };
+	}
+
+}
@@ -25,7 +25,35 @@ import java.util.List;
  * </p>
  */
 public interface VirtualSymbol {
-	
+
+	/**
+	 * Returns the code point ranges of this symbol, sorted by their first code
+	 * point.
+	 *
+	 * @return the sorted code point ranges of this symbol
+	 */
 	public List<CodePointRange> sortedCodePointRanges();
 
+	/**
+	 * Checks whether the given code point belongs to this symbol.
+	 * <p>
+	 * The default implementation walks {@link #sortedCodePointRanges()};
+	 * implementations with a more compact representation should override it.
+	 * </p>
+	 *
+	 * @param codePoint the code point to test
+	 * @return {@code true} if the code point is part of this symbol
+	 */
+	public default boolean contains(int codePoint) {
+		for (CodePointRange range : sortedCodePointRanges()) {
+			if (codePoint < range.firstCodePoint) {
+				return false;
+			}
+			if (codePoint <= range.lastCodePoint) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 }
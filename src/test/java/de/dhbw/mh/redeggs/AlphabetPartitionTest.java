@@ -0,0 +1,90 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.CodePointRange.range;
+import static de.dhbw.mh.redeggs.CodePointRange.single;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * Unit tests for the {@link AlphabetPartition}.
+ */
+public class AlphabetPartitionTest {
+
+	/** The factory used to create symbols. */
+	private final IntervalSymbolFactory factory = new IntervalSymbolFactory();
+
+	@Test
+	public void identifierPatternNeedsFewClasses() {
+		VirtualSymbol letter = factory.newSymbol().include(single('_'), range('a', 'z'), range('A', 'Z'))
+				.andNothingElse();
+		VirtualSymbol letterOrDigit = factory.newSymbol()
+				.include(single('_'), range('a', 'z'), range('A', 'Z'), range('0', '9')).andNothingElse();
+		RegularEggspression identifier = new Concatenation(new Literal(letter), new Star(new Literal(letterOrDigit)));
+
+		AlphabetPartition partition = AlphabetPartition.of(identifier);
+
+		// letters, digits and everything else
+		assertThat(partition.classCount()).isEqualTo(3);
+		assertThat(partition.classOf('a')).isEqualTo(partition.classOf('Z')).isEqualTo(partition.classOf('_'));
+		assertThat(partition.classOf('0')).isEqualTo(partition.classOf('9')).isNotEqualTo(partition.classOf('a'));
+		assertThat(partition.classOf(0)).isEqualTo(partition.classOf(0x1F600)).isEqualTo(partition.classOf('-'));
+		assertThat(partition.classesOf(letterOrDigit)).hasSize(2).contains(partition.classOf('7'));
+	}
+
+	@Test
+	public void classesSeparateExactlyTheSymbols() {
+		List<VirtualSymbol> symbols = List.of(
+				factory.newSymbol().include(range('a', 'm'), range(0x1F600, 0x1F64F)).andNothingElse(),
+				factory.newSymbol().include(range('h', 'z'), range(0x10000, 0x1F610)).andNothingElse(),
+				factory.newSymbol().include(range(0x100, 0x2FF), single('k')).andNothingElse(),
+				factory.newSymbol().include(range(0, Character.MAX_CODE_POINT)).exclude(range('a', 'z'))
+						.andNothingElse());
+
+		AlphabetPartition partition = AlphabetPartition.ofSymbols(symbols);
+
+		Map<String, Integer> classBySignature = new HashMap<>();
+		int[] samples = { 0, 'a', 'g', 'h', 'k', 'm', 'n', 'z', '{', 0xFF, 0x100, 0x2FF, 0x300, 0xFFFF, 0x10000,
+				0x1F5FF, 0x1F600, 0x1F610, 0x1F611, 0x1F64F, 0x1F650, Character.MAX_CODE_POINT };
+		for (int codePoint : samples) {
+			StringBuilder signature = new StringBuilder();
+			for (VirtualSymbol symbol : symbols) {
+				signature.append(symbol.contains(codePoint) ? '1' : '0');
+			}
+			Integer expected = classBySignature.putIfAbsent(signature.toString(), partition.classOf(codePoint));
+			if (expected != null) {
+				assertThat(partition.classOf(codePoint)).as("U+%04X", codePoint).isEqualTo(expected);
+			}
+		}
+		assertThat(partition.classCount()).isEqualTo(classBySignature.size());
+	}
+
+	@Test
+	public void intervalsCoverTheWholeCodeSpace() {
+		RegularEggspression expr = new Alternation(
+				new Literal(factory.newSymbol().include(range('0', '9')).andNothingElse()),
+				new Literal(factory.newSymbol().include(range(0x10400, 0x1044F)).andNothingElse()));
+
+		AlphabetPartition partition = AlphabetPartition.of(expr);
+
+		assertThat(partition.intervalFirst(0)).isZero();
+		for (int i = 1; i < partition.intervalCount(); i++) {
+			assertThat(partition.intervalFirst(i)).isEqualTo(partition.intervalLast(i - 1) + 1);
+			assertThat(partition.intervalClass(i)).isNotEqualTo(partition.intervalClass(i - 1));
+		}
+		assertThat(partition.intervalLast(partition.intervalCount() - 1)).isEqualTo(Character.MAX_CODE_POINT);
+		assertThat(partition.classOf(0x10400)).isEqualTo(partition.classOf(0x1044F));
+		assertThat(partition.classOf(0x10450)).isEqualTo(partition.classOf('x'));
+		assertThat(partition.representative(partition.classOf('5'))).isEqualTo('0');
+	}
+
+}
@@ -0,0 +1,136 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the {@link ChannelTokenizer}.
+ */
+public class ChannelTokenizerTest {
+
+	private Lexer lexer() throws RedeggsParseException {
+		return Lexer.compile(List.of(new Lexer.Rule(parse("if"), 0),
+				new Lexer.Rule(parse("[a-zä][a-z0-9ä]*"), 1),
+				new Lexer.Rule(parse("[0-9][0-9]*(.[0-9][0-9]*)*"), 2),
+				new Lexer.Rule(parse("[ \\n][ \\n]*"), 3),
+				new Lexer.Rule(parse("€"), 4)));
+	}
+
+	/**
+	 * Collects tokens as {@code "id start end"} strings.
+	 */
+	private static ChannelTokenizer.TokenSink collect(List<String> tokens) {
+		return (tokenId, start, end) -> tokens.add(tokenId + " " + start + " " + end);
+	}
+
+	/**
+	 * Tokenizes the input with the lexer and converts char to byte offsets.
+	 */
+	private static List<String> expected(Lexer lexer, String input) {
+		int[] byteOffsets = new int[input.length() + 1];
+		for (int i = 0; i < input.length(); i++) {
+			char c = input.charAt(i);
+			// each half of a surrogate pair accounts for two of its four bytes
+			byteOffsets[i + 1] = byteOffsets[i] + ((c < 0x80) ? 1 : (c < 0x800 || Character.isSurrogate(c)) ? 2 : 3);
+		}
+		int[] tokens = new int[input.length()];
+		int[] ends = new int[input.length()];
+		int count = lexer.tokenize(input, 0, input.length(), tokens, ends);
+		List<String> result = new ArrayList<>();
+		int start = 0;
+		for (int i = 0; i < count; i++) {
+			result.add(tokens[i] + " " + byteOffsets[start] + " " + byteOffsets[ends[i]]);
+			start = ends[i];
+		}
+		return result;
+	}
+
+	@Test
+	public void tokensMayStraddleChunkBoundaries() throws Exception {
+		Lexer lexer = lexer();
+		Random random = new Random(17);
+		for (int i = 0; i < 300; i++) {
+			String input = randomWord(random, "if1. ä€🥚x", random.nextInt(40));
+			byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+
+			List<String> tokens = new ArrayList<>();
+			ChannelTokenizer tokenizer = new ChannelTokenizer(lexer, collect(tokens));
+			for (int offset = 0; offset < bytes.length;) {
+				int length = Math.min(bytes.length - offset, 1 + random.nextInt(5));
+				tokenizer.feed(ByteBuffer.wrap(bytes, offset, length));
+				offset += length;
+			}
+			tokenizer.finish();
+
+			assertThat(tokens).as(input).isEqualTo(expected(lexer, input));
+		}
+	}
+
+	@Test
+	public void readsChannelsAndMappedFiles(@TempDir Path directory) throws Exception {
+		Lexer lexer = lexer();
+		String input = "if x1 3.14\n€ ä🥚 iffy".repeat(10_000);
+		byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+		List<String> expected = expected(lexer, input);
+
+		List<String> streamed = new ArrayList<>();
+		ChannelTokenizer.tokenize(lexer, Channels.newChannel(new ByteArrayInputStream(bytes)), collect(streamed));
+		assertThat(streamed).isEqualTo(expected);
+
+		Path file = Files.write(directory.resolve("input.txt"), bytes);
+		List<String> mapped = new ArrayList<>();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ChannelTokenizer.tokenize(lexer, channel, 0, channel.size(), collect(mapped));
+		}
+		assertThat(mapped).isEqualTo(expected);
+	}
+
+	@Test
+	public void longBacktracksAreReplayed() throws Exception {
+		Lexer lexer = Lexer.compile(List.of(new Lexer.Rule(parse("ab*c"), 0),
+				new Lexer.Rule(parse("a"), 1), new Lexer.Rule(parse("b"), 2)));
+		String input = ("a" + "b".repeat(300) + "c" + "a" + "b".repeat(500) + " ").repeat(3);
+		byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+		Random random = new Random(12);
+
+		List<String> tokens = new ArrayList<>();
+		ChannelTokenizer tokenizer = new ChannelTokenizer(lexer, collect(tokens));
+		for (int offset = 0; offset < bytes.length;) {
+			int length = Math.min(bytes.length - offset, 1 + random.nextInt(200));
+			tokenizer.feed(ByteBuffer.wrap(bytes, offset, length));
+			offset += length;
+		}
+		tokenizer.finish();
+
+		assertThat(tokens).isEqualTo(expected(lexer, input));
+	}
+
+	@Test
+	public void malformedSequencesBecomeErrorTokens() throws Exception {
+		List<String> tokens = new ArrayList<>();
+		ChannelTokenizer tokenizer = new ChannelTokenizer(lexer(), 100, collect(tokens));
+
+		// a truncated € followed by "x", a stray continuation byte and a truncated ä
+		tokenizer.feed(ByteBuffer.wrap(new byte[] { (byte) 0xE2, (byte) 0x82, 'x', (byte) 0x80, 'y', (byte) 0xC3 }));
+		tokenizer.finish();
+
+		assertThat(tokens).containsExactly("-1 100 102", "1 102 103", "-1 103 104", "1 104 105", "-1 105 106");
+	}
+
+}
@@ -0,0 +1,87 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.CodePointRange.range;
+import static de.dhbw.mh.redeggs.CodePointRange.single;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptySet;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptyWord;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * Unit tests for the {@link DerivativeMatcher}.
+ */
+public class DerivativeMatcherTest {
+
+	/** The factory used to create symbols. */
+	private final IntervalSymbolFactory factory = new IntervalSymbolFactory();
+
+	private RegularEggspression chars(int first, int last) {
+		return new Literal(factory.newSymbol().include(range(first, last)).andNothingElse());
+	}
+
+	private RegularEggspression character(int codePoint) {
+		return new Literal(factory.newSymbol().include(single(codePoint)).andNothingElse());
+	}
+
+	@Test
+	public void canonicalizesTheInput() {
+		// ((∅|a)ε)** | a*  is just a*
+		RegularEggspression expr = new Alternation(
+				new Star(new Star(new Concatenation(new Alternation(new EmptySet(), character('a')), new EmptyWord()))),
+				new Star(character('a')));
+		DerivativeMatcher matcher = new DerivativeMatcher(expr);
+
+		assertThat(matcher.expression()).isInstanceOf(Star.class);
+		assertThat(matcher.expression().accept(new NodeInspector())).isEqualTo("([\\u0061])*");
+	}
+
+	@Test
+	public void derivativesOfStarsStayFinite() {
+		// (a|b)*abb, the textbook example with a four-state DFA
+		RegularEggspression expr = new Concatenation(new Concatenation(new Concatenation(
+				new Star(new Alternation(character('a'), character('b'))), character('a')), character('b')),
+				character('b'));
+		DerivativeMatcher matcher = new DerivativeMatcher(expr);
+
+		String input = "ab".repeat(10_000) + "abb";
+		assertThat(matcher.matches(input)).isTrue();
+		assertThat(matcher.matches(input + "a")).isFalse();
+		// four live states plus the empty set
+		assertThat(matcher.stateCount()).isEqualTo(5);
+	}
+
+	@Test
+	public void agreesWithPikeVm() {
+		RegularEggspression expr = new Alternation(
+				new Concatenation(new Star(chars('a', 'b')), new Concatenation(character('a'), chars('a', 'c'))),
+				new Star(new Concatenation(character('c'), new Alternation(new EmptyWord(), character('a')))));
+		DerivativeMatcher matcher = new DerivativeMatcher(expr);
+		PikeVm expected = PikeVm.of(expr);
+
+		Random random = new Random(5);
+		for (int i = 0; i < 1_000; i++) {
+			String input = randomWord(random, "abcd", random.nextInt(10));
+			assertThat(matcher.longestMatch(input, 0, input.length())).as(input)
+					.isEqualTo(expected.longestMatch(input, 0, input.length()));
+		}
+	}
+
+	@Test
+	public void handlesTrivialLanguages() {
+		assertThat(new DerivativeMatcher(new EmptySet()).longestMatch("", 0, 0)).isEqualTo(-1);
+		assertThat(new DerivativeMatcher(new EmptyWord()).matches("")).isTrue();
+		assertThat(new DerivativeMatcher(new Star(new EmptySet())).matches("")).isTrue();
+		assertThat(new DerivativeMatcher(new Star(chars(0, Character.MAX_CODE_POINT))).matches("🐣 hatched"))
+				.isTrue();
+	}
+
+}
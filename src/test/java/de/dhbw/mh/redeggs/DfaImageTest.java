@@ -0,0 +1,82 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the {@link DfaImage}.
+ */
+public class DfaImageTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void mappedImageMatchesLikeTheDfa() throws Exception {
+		Dfa dfa = Dfa.compile(parse("(a|αβ|🥚)*[^b]"));
+		Path file = directory.resolve("pattern.dfa");
+		DfaImage.write(dfa, file);
+		DfaImage image = DfaImage.map(file);
+
+		assertThat(image.stateCount()).isEqualTo(dfa.stateCount());
+		String alphabet = "aαβ🥚bc";
+		Random random = new Random(16);
+		for (int i = 0; i < 500; i++) {
+			String input = randomWord(random, alphabet, random.nextInt(8));
+
+			assertThat(image.longestMatch(input, 0, input.length())).as(input)
+					.isEqualTo(dfa.longestMatch(input, 0, input.length()));
+			assertThat(image.matches(input)).as(input).isEqualTo(dfa.matches(input));
+		}
+	}
+
+	@Test
+	public void lexerImagesKeepTokenIds() throws Exception {
+		Lexer lexer = Lexer.compile(List.of(new Lexer.Rule(parse("if"), 7),
+				new Lexer.Rule(parse("[a-z][a-z]*"), 3), new Lexer.Rule(parse(" "), 5)));
+		DfaImage image = DfaImage.of(DfaImage.encode(lexer));
+		String input = "if iff ?";
+		int[] ids = new int[8];
+		int[] ends = new int[8];
+		int[] expectedIds = new int[8];
+		int[] expectedEnds = new int[8];
+
+		int count = image.tokenize(input, 0, input.length(), ids, ends);
+
+		assertThat(count).isEqualTo(lexer.tokenize(input, 0, input.length(), expectedIds, expectedEnds));
+		assertThat(Arrays.copyOf(ids, count)).containsExactly(7, 5, 3, 5, Lexer.ERROR);
+		assertThat(ends).isEqualTo(expectedEnds);
+	}
+
+	@Test
+	public void corruptImagesAreRejected() throws Exception {
+		ByteBuffer image = DfaImage.encode(Dfa.compile(parse("ab*")));
+
+		ByteBuffer flipped = ByteBuffer.allocate(image.remaining()).put(image.duplicate()).flip();
+		flipped.put(flipped.limit() - 1, (byte) (flipped.get(flipped.limit() - 1) ^ 1));
+		assertThatIllegalArgumentException().isThrownBy(() -> DfaImage.of(flipped))
+				.withMessage("Invalid automaton image: the checksum does not match.");
+
+		ByteBuffer future = ByteBuffer.allocate(image.remaining()).put(image.duplicate()).flip();
+		future.putInt(4, DfaImage.VERSION + 1);
+		assertThatIllegalArgumentException().isThrownBy(() -> DfaImage.of(future))
+				.withMessage("Invalid automaton image: version 2 is not supported.");
+
+		assertThatIllegalArgumentException().isThrownBy(() -> DfaImage.of(image.duplicate().limit(40)))
+				.withMessageStartingWith("Invalid automaton image: expected");
+		assertThatIllegalArgumentException().isThrownBy(() -> DfaImage.of(ByteBuffer.allocate(64)))
+				.withMessage("Invalid automaton image: the magic number is missing.");
+	}
+
+}
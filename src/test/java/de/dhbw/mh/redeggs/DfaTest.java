@@ -0,0 +1,111 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.CodePointRange.range;
+import static de.dhbw.mh.redeggs.CodePointRange.single;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptySet;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptyWord;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * Unit tests for the subset construction and minimization of {@link Dfa}s.
+ */
+public class DfaTest {
+
+	/** The factory used to create symbols. */
+	private final IntervalSymbolFactory factory = new IntervalSymbolFactory();
+
+	private RegularEggspression chars(int first, int last) {
+		return new Literal(factory.newSymbol().include(range(first, last)).andNothingElse());
+	}
+
+	private RegularEggspression character(int codePoint) {
+		return new Literal(factory.newSymbol().include(single(codePoint)).andNothingElse());
+	}
+
+	/**
+	 * Builds {@code [ab]*a[ab]{n}}, whose minimal DFA has 2^(n+1) live states.
+	 */
+	private RegularEggspression exponential(int n) {
+		RegularEggspression expr = new Concatenation(new Star(chars('a', 'b')), character('a'));
+		for (int i = 0; i < n; i++) {
+			expr = new Concatenation(expr, chars('a', 'b'));
+		}
+		return expr;
+	}
+
+	@Test
+	public void minimizationYieldsTheMinimalStateCount() {
+		Dfa dfa = Dfa.compile(exponential(3));
+
+		// 16 live states plus the dead state for everything but a and b
+		assertThat(dfa.stateCount()).isEqualTo(17);
+		assertThat(dfa.dead()).isNotNegative();
+		assertThat(dfa.start()).isZero();
+	}
+
+	@Test
+	public void redundantAlternativesCollapse() {
+		// (a|a)*(aa)*a* is just a*
+		RegularEggspression expr = new Concatenation(
+				new Concatenation(new Star(new Alternation(character('a'), character('a'))),
+						new Star(new Concatenation(character('a'), character('a')))),
+				new Star(character('a')));
+		Dfa dfa = Dfa.compile(expr);
+
+		assertThat(dfa.stateCount()).isEqualTo(2);
+		assertThat(dfa.matches("aaaa")).isTrue();
+		assertThat(dfa.matches("aaba")).isFalse();
+	}
+
+	@Test
+	public void agreesWithPikeVmBeforeAndAfterMinimization() {
+		RegularEggspression expr = new Alternation(exponential(2),
+				new Concatenation(new Star(new Concatenation(character('b'), character('a'))), chars('a', 'c')));
+		Nfa nfa = Nfa.compile(expr);
+		PikeVm expected = new PikeVm(nfa);
+		Dfa subsets = Dfa.determinize(nfa, Dfa.DEFAULT_STATE_LIMIT);
+		Dfa minimal = subsets.minimize();
+
+		assertThat(minimal.stateCount()).isLessThanOrEqualTo(subsets.stateCount());
+		Random random = new Random(11);
+		for (int i = 0; i < 1_000; i++) {
+			String input = randomWord(random, "abcd", random.nextInt(12));
+			int expectedEnd = expected.longestMatch(input, 0, input.length());
+			assertThat(subsets.longestMatch(input, 0, input.length())).as(input).isEqualTo(expectedEnd);
+			assertThat(minimal.longestMatch(input, 0, input.length())).as(input).isEqualTo(expectedEnd);
+			assertThat(minimal.matches(input)).as(input).isEqualTo(expectedEnd == input.length());
+		}
+	}
+
+	@Test
+	public void handlesTrivialLanguages() {
+		assertThat(Dfa.compile(new EmptySet()).stateCount()).isEqualTo(1);
+		assertThat(Dfa.compile(new EmptySet()).matches("")).isFalse();
+		assertThat(Dfa.compile(new EmptyWord()).matches("")).isTrue();
+		assertThat(Dfa.compile(new EmptyWord()).matches("x")).isFalse();
+
+		Dfa anything = Dfa.compile(new Star(chars(0, Character.MAX_CODE_POINT)));
+		assertThat(anything.stateCount()).isEqualTo(1);
+		assertThat(anything.dead()).isEqualTo(-1);
+		assertThat(anything.matches("any 🥚 thing")).isTrue();
+	}
+
+	@Test
+	public void subsetConstructionRespectsTheStateLimit() {
+		Nfa nfa = Nfa.compile(exponential(12));
+
+		assertThatIllegalStateException().isThrownBy(() -> Dfa.determinize(nfa, 1_000));
+	}
+
+}
@@ -0,0 +1,48 @@
+package de.dhbw.mh.redeggs;
+
+import java.util.Random;
+
+/**
+ * Fixtures shared by the tests: a parser for writing expressions and random
+ * words for comparing a matcher against a reference implementation.
+ */
+final class Fixtures {
+
+	/** The parser used to write the expressions, producing interval symbols. */
+	static final RecursiveDescentRedeggsParser PARSER = new RecursiveDescentRedeggsParser(
+			new IntervalSymbolFactory());
+
+	private Fixtures() {
+		super();
+	}
+
+	/**
+	 * Parses an expression with the {@link #PARSER}.
+	 *
+	 * @param pattern the expression to parse
+	 * @return the parsed expression
+	 * @throws RedeggsParseException if the pattern is malformed
+	 */
+	static RegularEggspression parse(String pattern) throws RedeggsParseException {
+		return PARSER.parse(pattern);
+	}
+
+	/**
+	 * Builds a word of code points drawn uniformly from an alphabet.
+	 *
+	 * @param random   the source of randomness, seeded by the test
+	 * @param alphabet the code points to draw from; surrogates that do not form
+	 *                 a pair count as code points of their own
+	 * @param length   the number of code points of the word
+	 * @return the new word
+	 */
+	static String randomWord(Random random, String alphabet, int length) {
+		int[] codePoints = alphabet.codePoints().toArray();
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			builder.appendCodePoint(codePoints[random.nextInt(codePoints.length)]);
+		}
+		return builder.toString();
+	}
+
+}
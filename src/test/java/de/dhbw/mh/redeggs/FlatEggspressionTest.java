@@ -0,0 +1,111 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+
+/**
+ * Unit tests for the {@link FlatEggspression}.
+ */
+public class FlatEggspressionTest {
+
+	/**
+	 * Computes whether a flat expression matches the empty word.
+	 */
+	private static final class Nullable implements FlatEggspression.Visitor<Boolean> {
+
+		@Override
+		public Boolean visitEmptyWord(int node) {
+			return true;
+		}
+
+		@Override
+		public Boolean visitEmptySet(int node) {
+			return false;
+		}
+
+		@Override
+		public Boolean visitPostConcatenation(int node, Boolean prefix, Boolean suffix) {
+			return prefix && suffix;
+		}
+
+		@Override
+		public Boolean visitPostAlternation(int node, Boolean first, Boolean second) {
+			return first || second;
+		}
+
+		@Override
+		public Boolean visitPostStar(int node, Boolean base) {
+			return true;
+		}
+
+		@Override
+		public Boolean visitPostLiteral(int node, int symbolId) {
+			return false;
+		}
+
+	}
+
+	@Test
+	public void storesTheNodesInPostOrder() throws Exception {
+		FlatEggspression flat = FlatEggspression.of(parse("(a|b)*c"));
+
+		assertThat(flat.nodeCount()).isEqualTo(6);
+		assertThat(flat.kinds()).containsExactly(FlatEggspression.KIND_LITERAL, FlatEggspression.KIND_LITERAL,
+				FlatEggspression.KIND_ALTERNATION, FlatEggspression.KIND_STAR, FlatEggspression.KIND_LITERAL,
+				FlatEggspression.KIND_CONCATENATION);
+		assertThat(flat.lefts()).containsExactly(0, 1, 0, 2, 2, 3);
+		assertThat(flat.rights()).containsExactly(-1, -1, 1, -1, -1, 4);
+		assertThat(flat.root()).isEqualTo(5);
+		assertThat(flat.symbols()).hasSize(3);
+	}
+
+	@Test
+	public void convertsBackAndForth() throws Exception {
+		String[] patterns = { "(foo|bar)[0-9]*baz", "ε", "∅", "((a|ε)*b)*|[^x]", "🥚🥚*" };
+		for (String pattern : patterns) {
+			RegularEggspression expression = parse(pattern);
+			FlatEggspression flat = FlatEggspression.of(expression);
+
+			assertThat(flat.toExpression()).as(pattern).isEqualTo(expression);
+			assertThat(flat.postOrder(new Nullable())).as(pattern).isEqualTo(Dfa.compile(expression).matches(""));
+		}
+	}
+
+	@Test
+	public void keepsSharedSubtreesShared() throws Exception {
+		NodeFactory nodes = new NodeFactory();
+		RegularEggspression digits = nodes.share(parse("[0-9][0-9]*"));
+		RegularEggspression expression = nodes.concatenation(digits, nodes.concatenation(digits, digits));
+
+		FlatEggspression flat = FlatEggspression.of(expression);
+		Concatenation restored = (Concatenation) flat.toExpression();
+
+		// one shared literal, a star, a concatenation for the digits, two for the whole
+		assertThat(flat.nodeCount()).isEqualTo(5);
+		assertThat(flat.symbols()).hasSize(1);
+		assertThat(restored).isEqualTo(expression);
+		assertThat(((Concatenation) restored.right()).left()).isSameAs(restored.left());
+	}
+
+	@Test
+	public void restoresStoredTables() throws Exception {
+		FlatEggspression flat = FlatEggspression.of(parse("a(b|c)*"));
+
+		FlatEggspression copy = FlatEggspression.of(flat.kinds(), flat.lefts(), flat.rights(), flat.symbols());
+
+		assertThat(copy.toExpression()).isEqualTo(flat.toExpression());
+		assertThatIllegalArgumentException().isThrownBy(() -> FlatEggspression.of(new int[] { 5 }, new int[] { 0 },
+				new int[] { -1 }, List.of())).withMessage("Invalid node 0.");
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> FlatEggspression.of(new int[0], new int[0], new int[0], List.of()))
+				.withMessage("The tables must have the same, non-zero length.");
+	}
+
+}
@@ -0,0 +1,97 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.dhbw.mh.redeggs.RegularEggspression.EmptySet;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptyWord;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * Unit tests for the {@link GlushkovCompiler} and the
+ * {@link BitParallelMatcher}.
+ */
+public class GlushkovAutomatonTest {
+
+	@Test
+	public void computesThePositionSets() throws Exception {
+		// positions: a1 b2 a3 b4 b5
+		GlushkovAutomaton automaton = GlushkovAutomaton.of(parse("(a|b)*abb"));
+
+		assertThat(automaton.positionCount()).isEqualTo(5);
+		assertThat(automaton.words()).isEqualTo(1);
+		assertThat(automaton.isNullable()).isFalse();
+		assertThat(automaton.first).containsExactly(0b00111L);
+		assertThat(automaton.last).containsExactly(0b10000L);
+		assertThat(GlushkovAutomaton.of(parse("a*(b|ε)")).isNullable()).isTrue();
+	}
+
+	@Test
+	public void agreesWithTheDfa() throws Exception {
+		String[] patterns = { "(a|b)*abb", "(ab|a)*", "a*b*c*", "(a(b|c)*d|🥚)*", "((a|b)(c|d))*(a|ε)",
+				"(abc|abd|acd|bcd)*(a|b|c|d)(a|b|c|d)(a|b|c|d)(a|b|c|d)(a|b|c|d)(a|b|c|d)(a|b|c|d)(a|b|c|d)"
+						+ "(a|b|c|d)(a|b|c|d)(a|b|c|d)(a|b|c|d)(a|b|c|d)(a|b|c|d)(a|b|c|d)(a|b|c|d)(a|b|c|d)" };
+		String alphabet = "abcd🥚";
+		Random random = new Random(22);
+		for (String pattern : patterns) {
+			RegularEggspression expr = parse(pattern);
+			Dfa dfa = Dfa.compile(expr);
+			BitParallelMatcher matcher = new BitParallelMatcher(expr);
+			for (int i = 0; i < 500; i++) {
+				String input = randomWord(random, alphabet, random.nextInt(30));
+				int from = random.nextInt(Math.min(3, input.length() + 1));
+				if (from > 0 && from < input.length() && Character.isLowSurrogate(input.charAt(from))) {
+					from--;
+				}
+				assertThat(matcher.longestMatch(input, from, input.length())).as(pattern + " " + input)
+						.isEqualTo(dfa.longestMatch(input, from, input.length()));
+			}
+		}
+	}
+
+	@Test
+	public void usesSeveralWordsBeyondSixtyFourPositions() throws Exception {
+		String pattern = "(x|y)*" + "x".repeat(70) + "(y|z)*";
+		GlushkovAutomaton automaton = GlushkovAutomaton.of(parse(pattern));
+		BitParallelMatcher matcher = new BitParallelMatcher(automaton);
+
+		assertThat(automaton.positionCount()).isEqualTo(74);
+		assertThat(automaton.words()).isEqualTo(2);
+		assertThat(matcher.matches("yx" + "x".repeat(70) + "zy")).isTrue();
+		assertThat(matcher.matches("y" + "x".repeat(69) + "zy")).isFalse();
+		assertThat(matcher.longestMatch("x".repeat(80) + "zzq", 0, 83)).isEqualTo(82);
+	}
+
+	@Test
+	public void largeAlternationsKeepOneFollowSetPerPosition() throws Exception {
+		StringBuilder pattern = new StringBuilder("keyword0");
+		for (int i = 1; i < 600; i++) {
+			pattern.append("|keyword").append(i);
+		}
+		GlushkovAutomaton automaton = GlushkovAutomaton.of(parse(pattern.toString()));
+		BitParallelMatcher matcher = new BitParallelMatcher(automaton);
+
+		assertThat(automaton.positionCount()).isEqualTo(600 * 7 + 1690);
+		assertThat(automaton.follows).hasSize(automaton.positionCount() * automaton.words());
+		assertThat(matcher.matches("keyword599")).isTrue();
+		assertThat(matcher.matches("keyword600")).isFalse();
+		assertThat(matcher.longestMatch("keyword42x", 0, 10)).isEqualTo(9);
+		assertThatIllegalStateException()
+				.isThrownBy(() -> GlushkovAutomaton.of(parse("a".repeat(GlushkovAutomaton.MAX_POSITIONS + 1))));
+	}
+
+	@Test
+	public void handlesTrivialLanguages() {
+		assertThat(new BitParallelMatcher(new EmptySet()).longestMatch("", 0, 0)).isEqualTo(-1);
+		assertThat(new BitParallelMatcher(new EmptyWord()).matches("")).isTrue();
+		assertThat(new BitParallelMatcher(new EmptyWord()).matches("a")).isFalse();
+		assertThat(new BitParallelMatcher(new Star(new EmptySet())).longestMatch("abc", 1, 3)).isEqualTo(1);
+	}
+
+}
@@ -0,0 +1,87 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.CodePointRange.range;
+import static de.dhbw.mh.redeggs.CodePointRange.single;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link IntervalSymbolFactory} and the
+ * {@link IntervalSymbol} instances it produces.
+ */
+public class IntervalSymbolFactoryTest {
+
+	/** The factory under test. */
+	private final IntervalSymbolFactory factory = new IntervalSymbolFactory();
+
+	@Test
+	public void rangesAreSortedAndMerged() {
+		IntervalSymbol symbol = factory.newSymbol()
+				.include(range('x', 'z'), range('a', 'f'), range('c', 'k'), single('l'))
+				.andNothingElse();
+
+		assertThat(symbol.sortedCodePointRanges()).containsExactly(range('a', 'l'), range('x', 'z'));
+		assertThat(symbol).hasToString("[\\u0061-\\u006C\\u0078-\\u007A]");
+	}
+
+	@Test
+	public void exclusionsTakePrecedence() {
+		IntervalSymbol symbol = factory.newSymbol()
+				.exclude(range(0x00, 0x1F), single('"'), single('\\'))
+				.include(range(0, Character.MAX_CODE_POINT))
+				.andNothingElse();
+
+		assertThat(symbol.sortedCodePointRanges()).containsExactly(range(0x20, 0x21), range(0x23, 0x5B),
+				range(0x5D, Character.MAX_CODE_POINT));
+		assertThat(symbol.contains(0x1F)).isFalse();
+		assertThat(symbol.contains('"')).isFalse();
+		assertThat(symbol.contains('\\')).isFalse();
+		assertThat(symbol.contains(' ')).isTrue();
+		assertThat(symbol.contains(0x1F600)).isTrue();
+	}
+
+	@Test
+	public void excludingEverythingLeavesAnEmptySymbol() {
+		IntervalSymbol symbol = factory.newSymbol()
+				.include(range('a', 'z'))
+				.exclude(range('a', 'm'), range('n', 'z'))
+				.andNothingElse();
+
+		assertThat(symbol.isEmpty()).isTrue();
+		assertThat(symbol.contains('a')).isFalse();
+		assertThat(symbol).hasToString("[]");
+	}
+
+	@Test
+	public void containsMatchesDefaultImplementation() {
+		IntervalSymbol symbol = factory.newSymbol()
+				.include(single('_'), range('a', 'z'), range('A', 'Z'), range('0', '9'))
+				.andNothingElse();
+		VirtualSymbol listBased = symbol::sortedCodePointRanges;
+
+		for (int codePoint = 0; codePoint < 0x200; codePoint++) {
+			assertThat(symbol.contains(codePoint)).as("U+%04X", codePoint).isEqualTo(listBased.contains(codePoint));
+		}
+	}
+
+	@Test
+	public void identicalSetsAreInterned() {
+		IntervalSymbol first = factory.newSymbol().include(range('a', 'c'), range('d', 'f')).andNothingElse();
+		IntervalSymbol second = factory.newSymbol().include(single('f'), range('a', 'e')).andNothingElse();
+		IntervalSymbol third = factory.newSymbol().include(range('a', 'z')).exclude(range('g', 'z')).andNothingElse();
+
+		assertThat(second).isSameAs(first);
+		assertThat(third).isSameAs(first);
+		assertThat(factory.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void invalidRangesAreRejected() {
+		assertThatIllegalArgumentException().isThrownBy(() -> factory.newSymbol().include(range('z', 'a')));
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> factory.newSymbol().include(range(0, Character.MAX_CODE_POINT + 1)));
+	}
+
+}
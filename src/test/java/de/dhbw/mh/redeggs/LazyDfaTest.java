@@ -0,0 +1,90 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.CodePointRange.range;
+import static de.dhbw.mh.redeggs.CodePointRange.single;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * Unit tests for the {@link LazyDfa}.
+ */
+public class LazyDfaTest {
+
+	/** The factory used to create symbols. */
+	private final IntervalSymbolFactory factory = new IntervalSymbolFactory();
+
+	private RegularEggspression chars(int first, int last) {
+		return new Literal(factory.newSymbol().include(range(first, last)).andNothingElse());
+	}
+
+	private RegularEggspression character(int codePoint) {
+		return new Literal(factory.newSymbol().include(single(codePoint)).andNothingElse());
+	}
+
+	/**
+	 * Builds {@code [ab]*a[ab]{n}}, whose minimal DFA has 2^(n+1) states.
+	 */
+	private RegularEggspression exponential(int n) {
+		RegularEggspression expr = new Concatenation(new Star(chars('a', 'b')), character('a'));
+		for (int i = 0; i < n; i++) {
+			expr = new Concatenation(expr, chars('a', 'b'));
+		}
+		return expr;
+	}
+
+	@Test
+	public void agreesWithPikeVm() {
+		RegularEggspression expr = new Alternation(exponential(4), new Star(new Concatenation(character('b'),
+				character('a'))));
+		Nfa nfa = Nfa.compile(expr);
+		PikeVm expected = new PikeVm(nfa);
+		LazyDfa dfa = new LazyDfa(nfa);
+
+		Random random = new Random(42);
+		for (int i = 0; i < 500; i++) {
+			String input = randomWord(random, "ab", random.nextInt(30));
+			assertThat(dfa.longestMatch(input, 0, input.length())).as(input)
+					.isEqualTo(expected.longestMatch(input, 0, input.length()));
+		}
+		assertThat(dfa.cacheClears()).isZero();
+		assertThat(dfa.isFallingBack()).isFalse();
+	}
+
+	@Test
+	public void clearsTheCacheWhenTheBudgetIsExceeded() {
+		Nfa nfa = Nfa.compile(exponential(12));
+		PikeVm expected = new PikeVm(nfa);
+		LazyDfa dfa = new LazyDfa(nfa, 4_096);
+
+		Random random = new Random(7);
+		for (int i = 0; i < 50; i++) {
+			String input = randomWord(random, "ab", 2_000);
+			assertThat(dfa.longestMatch(input, 0, input.length()))
+					.isEqualTo(expected.longestMatch(input, 0, input.length()));
+		}
+		assertThat(dfa.cacheClears()).isPositive();
+		assertThat(dfa.isFallingBack()).isTrue();
+	}
+
+	@Test
+	public void staysWithinItsBudgetWithoutThrashing() {
+		Nfa nfa = Nfa.compile(exponential(3));
+		LazyDfa dfa = new LazyDfa(nfa, 64 * 1_024);
+
+		String input = randomWord(new Random(3), "ab", 100_000);
+		assertThat(dfa.longestMatch(input, 0, input.length())).isEqualTo(new PikeVm(nfa).longestMatch(input, 0,
+				input.length()));
+		assertThat(dfa.cachedStates()).isLessThanOrEqualTo(1 + (1 << 4) + 1);
+		assertThat(dfa.isFallingBack()).isFalse();
+	}
+
+}
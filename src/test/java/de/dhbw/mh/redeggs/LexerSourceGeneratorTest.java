@@ -0,0 +1,139 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the {@link LexerSourceGenerator}.
+ */
+public class LexerSourceGeneratorTest {
+
+	private static final String RULES = String.join("\n", //
+			"# keywords come first", //
+			"IF = if", //
+			"IDENTIFIER = [a-zA-Z_][a-zA-Z_0-9]*", //
+			"", //
+			"NUMBER = [0-9][0-9]*", //
+			"SPACE  =  [ \\t\\n][ \\t\\n]*  ", //
+			"GREEK = [α-ω][α-ω]*|🥚", //
+			"IDENTIFIER = \\$[a-z]*", //
+			"STRING = \"[^\"\\n]*\"\r", //
+			"");
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void readsNamesInOrderOfFirstOccurrence() throws Exception {
+		LexerSourceGenerator.RuleFile file = new LexerSourceGenerator().read(RULES);
+
+		assertThat(file.tokenNames()).containsExactly("IF", "IDENTIFIER", "NUMBER", "SPACE", "GREEK", "STRING");
+		assertThat(file.rules()).extracting(Lexer.Rule::tokenId).containsExactly(0, 1, 2, 3, 4, 1, 5);
+	}
+
+	@Test
+	public void malformedLinesAreReportedWithTheirPosition() {
+		LexerSourceGenerator generator = new LexerSourceGenerator();
+
+		assertThatThrownBy(() -> generator.read("A = a\nB = (b")).isInstanceOf(RedeggsParseException.class)
+				.hasMessageStartingWith("Line 2: Input ended unexpectedly")
+				.extracting(e -> ((RedeggsParseException) e).getErrorOffset()).isEqualTo(12);
+		assertThatThrownBy(() -> generator.read("\nERROR = x")).hasMessage("Line 2: invalid token name 'ERROR'.");
+		assertThatThrownBy(() -> generator.read("A b")).hasMessage("Line 1: expected 'NAME = regex'.");
+		for (String name : LexerSourceGenerator.RESERVED_NAMES) {
+			assertThatThrownBy(() -> generator.read(name + " = begin"))
+					.hasMessage("Line 1: invalid token name '" + name + "'.");
+		}
+	}
+
+	@Test
+	public void tokenNamesDoNotClashWithTheScanner() throws Exception {
+		String rules = String.join("\n", "Clash = c", "java = j", "Arrays = a", "unpack = u", "state = s",
+				"classOf = o", "tokenize = t", "START_ = x");
+		String source = new LexerSourceGenerator().generate(new StringReader(rules), "", "Clash");
+		Class<?> scanner = compile(source, "Clash");
+		int[] ids = new int[3];
+		int[] ends = new int[3];
+
+		assertThat(scanner.getField("START_").getInt(null)).isEqualTo(7);
+		assertThat(scanner.getMethod("tokenize", CharSequence.class, int.class, int.class, int[].class, int[].class)
+				.invoke(null, "jx?", 0, 3, ids, ends)).isEqualTo(3);
+		assertThat(ids).containsExactly(1, 7, -1);
+	}
+
+	@Test
+	public void generatedScannerAgreesWithTheLexer() throws Exception {
+		LexerSourceGenerator generator = new LexerSourceGenerator();
+		String source = generator.generate(new StringReader(RULES), "generated.scanner", "DemoScanner");
+		Method tokenize = compile(source, "generated.scanner.DemoScanner").getMethod("tokenize", CharSequence.class,
+				int.class, int.class, int[].class, int[].class);
+		Lexer lexer = Lexer.compile(generator.read(RULES).rules());
+
+		// the lone surrogates stand for the halves of split pairs
+		String alphabet = "if x_1 0\tαω🥚$\"\n\uDD5A\uD83E?";
+		Random random = new Random(15);
+		for (int i = 0; i < 500; i++) {
+			String input = randomWord(random, alphabet, random.nextInt(16));
+			int[] expectedIds = new int[input.length()];
+			int[] expectedEnds = new int[input.length()];
+			int expectedCount = lexer.tokenize(input, 0, input.length(), expectedIds, expectedEnds);
+			int[] ids = new int[input.length()];
+			int[] ends = new int[input.length()];
+			int count = (int) tokenize.invoke(null, input, 0, input.length(), ids, ends);
+
+			assertThat(count).as(input).isEqualTo(expectedCount);
+			assertThat(Arrays.copyOf(ids, count)).as(input).containsExactly(Arrays.copyOf(expectedIds, count));
+			assertThat(Arrays.copyOf(ends, count)).as(input).containsExactly(Arrays.copyOf(expectedEnds, count));
+		}
+	}
+
+	@Test
+	public void manyRulesYieldAWorkingScanner() throws Exception {
+		StringBuilder rules = new StringBuilder();
+		for (int i = 0; i < 300; i++) {
+			rules.append("WORD").append(i).append(" = w").append(i).append("x[\\u0100-\\uFFFF]\n");
+		}
+		String source = new LexerSourceGenerator().generate(new StringReader(rules.toString()), "", "Words");
+		Class<?> scanner = compile(source, "Words");
+		int[] ids = new int[2];
+		int[] ends = new int[2];
+
+		assertThat(scanner.getField("WORD299").getInt(null)).isEqualTo(299);
+		assertThat(scanner.getMethod("tokenize", CharSequence.class, int.class, int.class, int[].class, int[].class)
+				.invoke(null, "w123xĀw", 0, 7, ids, ends)).isEqualTo(2);
+		assertThat(ids).containsExactly(123, -1);
+		assertThat(ends).containsExactly(6, 7);
+	}
+
+	private Class<?> compile(String source, String className) throws Exception {
+		Path file = directory.resolve(className.replace('.', '/') + ".java");
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, source, StandardCharsets.UTF_8);
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		int status = compiler.run(null, null, null, "-encoding", "UTF-8", "-d", directory.toString(),
+				file.toString());
+
+		assertThat(status).isZero();
+		URLClassLoader loader = new URLClassLoader(new URL[] { directory.toUri().toURL() },
+				getClass().getClassLoader());
+		return loader.loadClass(className);
+	}
+
+}
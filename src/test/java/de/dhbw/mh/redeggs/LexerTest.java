@@ -0,0 +1,126 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link Lexer}.
+ */
+public class LexerTest {
+
+	private static final int IF = 0;
+	private static final int IDENTIFIER = 1;
+	private static final int NUMBER = 2;
+	private static final int SPACE = 3;
+	private static final int ASSIGN = 4;
+	private static final int EQUALS = 5;
+
+	private List<Lexer.Rule> rules() throws RedeggsParseException {
+		return List.of(new Lexer.Rule(parse("if"), IF),
+				new Lexer.Rule(parse("[a-z][a-z0-9]*"), IDENTIFIER),
+				new Lexer.Rule(parse("[0-9][0-9]*"), NUMBER),
+				new Lexer.Rule(parse("[ \\n][ \\n]*"), SPACE),
+				new Lexer.Rule(parse("="), ASSIGN),
+				new Lexer.Rule(parse("=="), EQUALS));
+	}
+
+	@Test
+	public void longestMatchWinsBeforeRuleOrder() throws Exception {
+		Lexer lexer = Lexer.compile(rules());
+		String input = "if iffy==42 i=f";
+		int[] tokens = new int[32];
+		int[] ends = new int[32];
+
+		int count = lexer.tokenize(input, 0, input.length(), tokens, ends);
+
+		assertThat(Arrays.copyOf(tokens, count)).containsExactly(IF, SPACE, IDENTIFIER, EQUALS, NUMBER, SPACE,
+				IDENTIFIER, ASSIGN, IDENTIFIER);
+		assertThat(Arrays.copyOf(ends, count)).containsExactly(2, 3, 7, 9, 11, 12, 13, 14, 15);
+	}
+
+	@Test
+	public void unmatchedCodePointsBecomeErrorTokens() throws Exception {
+		Lexer lexer = Lexer.compile(rules());
+		String input = "a+🥚b";
+		int[] tokens = new int[8];
+		int[] ends = new int[8];
+
+		int count = lexer.tokenize(input, 0, input.length(), tokens, ends);
+
+		assertThat(Arrays.copyOf(tokens, count)).containsExactly(IDENTIFIER, Lexer.ERROR, Lexer.ERROR, IDENTIFIER);
+		assertThat(Arrays.copyOf(ends, count)).containsExactly(1, 2, 4, 5);
+	}
+
+	@Test
+	public void tokenizingResumesWhenTheArraysAreFull() throws Exception {
+		Lexer lexer = Lexer.compile(rules());
+		String input = "x = 1 == y";
+		int[] tokens = new int[3];
+		int[] ends = new int[3];
+		List<Integer> all = new ArrayList<>();
+
+		int position = 0;
+		while (position < input.length()) {
+			int count = lexer.tokenize(input, position, input.length(), tokens, ends);
+			for (int i = 0; i < count; i++) {
+				all.add(tokens[i]);
+			}
+			position = ends[count - 1];
+		}
+
+		assertThat(all).containsExactly(IDENTIFIER, SPACE, ASSIGN, SPACE, NUMBER, SPACE, EQUALS, SPACE, IDENTIFIER);
+	}
+
+	@Test
+	public void agreesWithTryingEachRuleInTurn() throws Exception {
+		List<Lexer.Rule> rules = rules();
+		Lexer lexer = Lexer.compile(rules);
+		List<PikeVm> matchers = new ArrayList<>();
+		for (Lexer.Rule rule : rules) {
+			matchers.add(PikeVm.of(rule.expression()));
+		}
+
+		Random random = new Random(3);
+		int[] tokens = new int[64];
+		int[] ends = new int[64];
+		for (int i = 0; i < 500; i++) {
+			String input = randomWord(random, "if= 0x\n", random.nextInt(30));
+			int count = lexer.tokenize(input, 0, input.length(), tokens, ends);
+
+			int position = 0;
+			for (int t = 0; t < count; t++) {
+				int bestEnd = -1;
+				int bestToken = Lexer.ERROR;
+				for (int r = 0; r < rules.size(); r++) {
+					int end = matchers.get(r).longestMatch(input, position, input.length());
+					if (end > position && end > bestEnd) {
+						bestEnd = end;
+						bestToken = rules.get(r).tokenId();
+					}
+				}
+				assertThat(tokens[t]).as(input).isEqualTo(bestToken);
+				assertThat(ends[t]).as(input).isEqualTo(bestEnd < 0 ? position + 1 : bestEnd);
+				position = ends[t];
+			}
+			assertThat(position).isEqualTo(input.length());
+		}
+	}
+
+	@Test
+	public void rejectsNegativeTokenIds() throws Exception {
+		List<Lexer.Rule> rules = List.of(new Lexer.Rule(parse("a"), -2));
+
+		assertThatIllegalArgumentException().isThrownBy(() -> Lexer.compile(rules));
+		assertThatIllegalArgumentException().isThrownBy(() -> Lexer.compile(List.of()));
+	}
+
+}
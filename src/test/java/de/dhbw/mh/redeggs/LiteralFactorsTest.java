@@ -0,0 +1,59 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link LiteralFactors}.
+ */
+public class LiteralFactorsTest {
+
+	private LiteralFactors factors(String pattern) throws RedeggsParseException {
+		return LiteralFactors.of(parse(pattern));
+	}
+
+	@Test
+	public void prefixesSuffixesAndRequiredFactors() throws Exception {
+		LiteralFactors factors = factors("(foo|bar)[0-9]*baz");
+
+		assertThat(factors.prefixes()).containsExactly("bar", "foo");
+		assertThat(factors.suffixes()).containsExactly("baz");
+		assertThat(factors.required()).isEqualTo("baz");
+	}
+
+	@Test
+	public void smallClassesAndOptionalPartsAreExpanded() throws Exception {
+		assertThat(factors("[ab]x(y|ε)").prefixes()).containsExactly("ax", "axy", "bx", "bxy");
+		assertThat(factors("[ab]x(y|ε)").required()).isEqualTo("x");
+		assertThat(factors("(ε|-)[0-9]*").prefixes()).isNull();
+		assertThat(factors("∅").prefixes()).isEmpty();
+	}
+
+	@Test
+	public void adjoiningFactorsAreJoined() throws Exception {
+		LiteralFactors factors = factors("[a-z]*error: [a-z]*(code|c)");
+
+		assertThat(factors.prefixes()).isNull();
+		assertThat(factors.suffixes()).containsExactly("c", "code");
+		assertThat(factors.required()).isEqualTo("error: ");
+		assertThat(factors("[a-z]*(xab|yab)(cd|ce)[a-z]*").required()).isEqualTo("abc");
+	}
+
+	@Test
+	public void largeSetsAreGivenUp() throws Exception {
+		assertThat(factors("[ab][ab][ab][ab][ab]").prefixes()).hasSize(16);
+		assertThat(factors("[ab][ab][ab][ab][ab][ab]x").prefixes()).hasSize(16);
+		assertThat(factors("[a-z]x").prefixes()).isNull();
+		assertThat(factors("[a-z]x").required()).isEqualTo("x");
+	}
+
+	@Test
+	public void branchesWithEqualRequiredFactors() throws Exception {
+		assertThat(factors("a*|b*").required()).isEmpty();
+		assertThat(factors("[a-z]*x|[0-9]*x").required()).isEqualTo("x");
+		assertThat(new Searcher(parse("[a-z]*x|[0-9]*x")).find("--42x", 0, 5, new int[2])).isTrue();
+	}
+
+}
@@ -0,0 +1,128 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link MatchFinder}.
+ */
+public class MatchFinderTest {
+
+	/**
+	 * Finds all matches by trying every position.
+	 */
+	private static List<List<Integer>> findAllNaively(Dfa dfa, String input, int from, int to) {
+		List<List<Integer>> matches = new ArrayList<>();
+		int position = from;
+		while (position <= to) {
+			int start = position;
+			int end = -1;
+			for (; start <= to; start += (start < to) ? Character.charCount(input.codePointAt(start)) : 1) {
+				end = dfa.longestMatch(input, start, to);
+				if (end >= 0) {
+					break;
+				}
+			}
+			if (end < 0) {
+				break;
+			}
+			matches.add(List.of(start, end));
+			if (end > start) {
+				position = end;
+			} else if (end < to) {
+				position = end + Character.charCount(input.codePointAt(end));
+			} else {
+				break;
+			}
+		}
+		return matches;
+	}
+
+	private static List<List<Integer>> asList(MatchOffsets offsets) {
+		List<List<Integer>> matches = new ArrayList<>();
+		for (int i = 0; i < offsets.count(); i++) {
+			matches.add(List.of(offsets.start(i), offsets.end(i)));
+		}
+		return matches;
+	}
+
+	@Test
+	public void agreesWithTryingEveryPosition() throws Exception {
+		String[] patterns = { "(foo|bar)[0-9]*baz", "[a-z]*ba", "o*", "b(a|o)", "∅", "[0-9][0-9]*", "a|a*b",
+				"(🥚|o)o" };
+		String alphabet = "fobarz01 🥚";
+		Random random = new Random(23);
+		MatchOffsets offsets = new MatchOffsets(1);
+		for (String pattern : patterns) {
+			RegularEggspression expression = parse(pattern);
+			Dfa dfa = Dfa.compile(expression);
+			MatchFinder finder = new MatchFinder(expression);
+			for (int i = 0; i < 300; i++) {
+				String input = randomWord(random, alphabet, random.nextInt(150));
+				int from = random.nextInt(input.length() + 1);
+				if (from > 0 && from < input.length() && Character.isLowSurrogate(input.charAt(from))) {
+					from--;
+				}
+
+				assertThat(finder.findAll(input, from, input.length(), offsets)).as(pattern + " " + input)
+						.isEqualTo(offsets.count());
+				assertThat(asList(offsets)).as(pattern + " " + input)
+						.isEqualTo(findAllNaively(dfa, input, from, input.length()));
+			}
+		}
+	}
+
+	@Test
+	public void findsAllLeftmostLongestMatches() throws Exception {
+		MatchFinder finder = new MatchFinder(parse("ab|abcd|cd*"));
+		MatchOffsets offsets = new MatchOffsets();
+
+		assertThat(finder.findAll("xabcdcdd ab", offsets)).isEqualTo(3);
+		assertThat(asList(offsets)).containsExactly(List.of(1, 5), List.of(5, 8), List.of(9, 11));
+	}
+
+	@Test
+	public void reportsEmptyMatchesLikeJava() throws Exception {
+		MatchFinder finder = new MatchFinder(parse("a*"));
+		MatchOffsets offsets = new MatchOffsets();
+
+		assertThat(finder.findAll("baaa c", offsets)).isEqualTo(5);
+		assertThat(asList(offsets)).containsExactly(List.of(0, 0), List.of(1, 4), List.of(4, 4), List.of(5, 5),
+				List.of(6, 6));
+		assertThat(finder.findAll("", offsets)).isEqualTo(1);
+	}
+
+	@Test
+	public void reusesTheBuffer() throws Exception {
+		MatchFinder finder = new MatchFinder(parse("[0-9][0-9]*"));
+		MatchOffsets offsets = new MatchOffsets(1);
+
+		assertThat(finder.findAll("1 22 333 4444", offsets)).isEqualTo(4);
+		assertThat(finder.findAll("no digits", offsets)).isZero();
+		assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() -> offsets.start(0));
+		assertThat(finder.findAll("x".repeat(1000) + "7", offsets)).isEqualTo(1);
+		assertThat(offsets.start(0)).isEqualTo(1000);
+		assertThat(offsets.end(0)).isEqualTo(1001);
+	}
+
+	@Test
+	public void longRunsAreNotReadAgain() throws Exception {
+		MatchFinder finder = new MatchFinder(parse("a|a*b"));
+		MatchOffsets offsets = new MatchOffsets();
+		String input = "a".repeat(200_000);
+
+		assertThat(finder.findAll(input, offsets)).isEqualTo(200_000);
+		assertThat(offsets.start(199_999)).isEqualTo(199_999);
+		assertThat(finder.findAll(input + "b", offsets)).isEqualTo(1);
+		assertThat(offsets.end(0)).isEqualTo(200_001);
+	}
+
+}
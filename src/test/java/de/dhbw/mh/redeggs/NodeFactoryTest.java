@@ -0,0 +1,92 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.CodePointRange.range;
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptyWord;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * Unit tests for the structural equality of {@link RegularEggspression} nodes
+ * and the sharing performed by the {@link NodeFactory}.
+ */
+public class NodeFactoryTest {
+
+	/** The factory used to create symbols. */
+	private final IntervalSymbolFactory symbols = new IntervalSymbolFactory();
+
+	/** The factory under test. */
+	private final NodeFactory nodes = new NodeFactory();
+
+	private VirtualSymbol chars(int first, int last) {
+		return symbols.newSymbol().include(range(first, last)).andNothingElse();
+	}
+
+	@Test
+	public void nodesAreComparedStructurally() {
+		RegularEggspression first = new Concatenation(new Literal(chars('a', 'z')), new Star(new EmptyWord()));
+		RegularEggspression second = new Concatenation(new Literal(chars('a', 'z')), new Star(new EmptyWord()));
+		RegularEggspression other = new Alternation(new Literal(chars('a', 'z')), new Star(new EmptyWord()));
+
+		assertThat(first).isEqualTo(second).hasSameHashCodeAs(second).isNotEqualTo(other);
+		assertThat(new Star(first)).isNotEqualTo(first);
+	}
+
+	@Test
+	public void deepExpressionsAreComparedWithoutRecursion() throws Exception {
+		String keywords = "if|else|while|".repeat(20_000) + "return";
+		RegularEggspression first = parse(keywords);
+		RegularEggspression second = parse(keywords);
+
+		assertThat(first.equals(second)).isTrue();
+		assertThat(first.equals(parse(keywords.replace("return", "retune")))).isFalse();
+		String stars = "(" + "a*".repeat(200_000) + ")*";
+		assertThat(parse(stars).equals(parse(stars))).isTrue();
+	}
+
+	@Test
+	public void identicalSubtreesAreShared() {
+		RegularEggspression digits = nodes.star(nodes.literal(chars('0', '9')));
+		RegularEggspression first = nodes.concatenation(nodes.literal(chars('a', 'z')), digits);
+		RegularEggspression second = nodes.concatenation(nodes.literal(chars('a', 'z')),
+				nodes.star(nodes.literal(chars('0', '9'))));
+
+		assertThat(second).isSameAs(first);
+		assertThat(nodes.alternation(first, second).left()).isSameAs(nodes.alternation(second, first).right());
+		// ε, ∅, two literals, a star, a concatenation and an alternation
+		assertThat(nodes.size()).isEqualTo(7);
+	}
+
+	@Test
+	public void foreignTreesCanBeShared() {
+		RegularEggspression foreign = new Alternation(new Concatenation(new Literal(chars('a', 'a')), new EmptyWord()),
+				new Concatenation(new Literal(chars('a', 'a')), new EmptyWord()));
+
+		Alternation shared = (Alternation) nodes.share(foreign);
+
+		assertThat(shared).isEqualTo(foreign);
+		assertThat(shared.left()).isSameAs(shared.right());
+		assertThat(((Concatenation) shared.left()).right()).isSameAs(nodes.emptyWord());
+	}
+
+	@Test
+	public void reversalSwapsConcatenations() {
+		// (ab)*c reversed is (ba)*c backwards, i.e. c(ba)*
+		RegularEggspression a = new Literal(chars('a', 'a'));
+		RegularEggspression b = new Literal(chars('b', 'b'));
+		RegularEggspression c = new Literal(chars('c', 'c'));
+		RegularEggspression expression = new Concatenation(new Star(new Concatenation(a, b)), c);
+
+		RegularEggspression reversed = nodes.reverse(expression);
+
+		assertThat(reversed).isEqualTo(new Concatenation(c, new Star(new Concatenation(b, a))));
+		assertThat(nodes.reverse(reversed)).isEqualTo(expression);
+	}
+
+}
@@ -0,0 +1,116 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the {@link OffHeapDfa}.
+ */
+public class OffHeapDfaTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void matchesLikeTheDfa() throws Exception {
+		Dfa dfa = Dfa.compile(parse("[a-c]*(ab|€)[a-c]"));
+		Random random = new Random(17);
+		try (OffHeapDfa offHeap = OffHeapDfa.of(dfa)) {
+			assertThat(offHeap.stateCount()).isEqualTo(dfa.stateCount());
+			for (int i = 0; i < 500; i++) {
+				String input = randomWord(random, "abc€", random.nextInt(10));
+
+				assertThat(offHeap.longestMatch(input, 0, input.length())).as(input)
+						.isEqualTo(dfa.longestMatch(input, 0, input.length()));
+			}
+		}
+	}
+
+	@Test
+	public void imagesCanBeMovedOffHeap() throws Exception {
+		Lexer lexer = Lexer.compile(List.of(new Lexer.Rule(parse("[0-9][0-9]*"), 1),
+				new Lexer.Rule(parse("+"), 2)));
+		Path file = directory.resolve("sum.dfa");
+		DfaImage.write(lexer, file);
+		int[] ids = new int[4];
+		int[] ends = new int[4];
+
+		try (OffHeapDfa offHeap = OffHeapDfa.copyOf(DfaImage.map(file))) {
+			assertThat(offHeap.tokenize("12+3", 0, 4, ids, ends)).isEqualTo(3);
+		}
+		assertThat(ids).containsExactly(1, 2, 1, 0);
+		assertThat(ends).containsExactly(2, 3, 4, 0);
+	}
+
+	@Test
+	public void closedMatchersRejectSearches() throws Exception {
+		OffHeapDfa offHeap = OffHeapDfa.of(Dfa.compile(parse("a")));
+		assertThat(offHeap.size()).isPositive();
+
+		offHeap.close();
+		offHeap.close();
+
+		assertThat(offHeap.isClosed()).isTrue();
+		assertThat(offHeap.size()).isZero();
+		assertThat(offHeap.isReleased()).isTrue();
+		assertThatIllegalStateException().isThrownBy(() -> offHeap.matches("a"))
+				.withMessage("The matcher has been closed.");
+	}
+
+	@Test
+	public void memoryIsReleasedWhenTheLastSearchReturns() throws Exception {
+		OffHeapDfa offHeap = OffHeapDfa.of(Dfa.compile(parse("a*")));
+		String text = "aaaa";
+		CharSequence input = new CharSequence() {
+
+			@Override
+			public char charAt(int index) {
+				if (index == 2) {
+					offHeap.close();
+					assertThat(offHeap.isReleased()).isFalse();
+				}
+				return text.charAt(index);
+			}
+
+			@Override
+			public int length() {
+				return text.length();
+			}
+
+			@Override
+			public CharSequence subSequence(int start, int end) {
+				return text.subSequence(start, end);
+			}
+
+		};
+
+		assertThat(offHeap.longestMatch(input, 0, 4)).isEqualTo(4);
+		assertThat(offHeap.isClosed()).isTrue();
+		assertThat(offHeap.isReleased()).isTrue();
+	}
+
+	@Test
+	public void onlyLargeAutomataAreMovedOffHeap() throws Exception {
+		Dfa dfa = Dfa.compile(parse("ab"));
+
+		try (CloseableMatcher onHeap = OffHeapDfa.choose(dfa)) {
+			assertThat(onHeap).isNotInstanceOf(OffHeapDfa.class);
+			assertThat(onHeap.matches("ab")).isTrue();
+			assertThat(onHeap.longestMatch("abab", 0, 4)).isEqualTo(2);
+		}
+		try (CloseableMatcher offHeap = OffHeapDfa.choose(dfa, dfa.stateCount())) {
+			assertThat(offHeap).isInstanceOf(OffHeapDfa.class);
+			assertThat(offHeap.matches("ab")).isTrue();
+		}
+	}
+
+}
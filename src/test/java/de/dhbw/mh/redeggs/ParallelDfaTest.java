@@ -0,0 +1,80 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link ParallelDfa}.
+ */
+public class ParallelDfaTest {
+
+	/**
+	 * Counts the matching non-empty prefixes one by one.
+	 */
+	private static long countSequentially(Dfa dfa, String input) {
+		long count = 0;
+		for (int end = 1; end <= input.length(); end++) {
+			boolean splitsPair = end < input.length() && Character.isHighSurrogate(input.charAt(end - 1))
+					&& Character.isLowSurrogate(input.charAt(end));
+			if (!splitsPair) {
+				count += dfa.matches(input.substring(0, end)) ? 1 : 0;
+			}
+		}
+		return count;
+	}
+
+	@Test
+	public void agreesWithTheDfaForAllChunkSizes() throws Exception {
+		String[] patterns = { "(a|b)*a(a|b)", "([^\\n]*\\n)*", "(ab|🥚)*", "a*b*" };
+		String alphabet = "ab\n🥚";
+		Random random = new Random(20);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (String pattern : patterns) {
+				Dfa dfa = Dfa.compile(parse(pattern));
+				for (int i = 0; i < 200; i++) {
+					String input = randomWord(random, alphabet, random.nextInt(40));
+					ParallelDfa parallel = new ParallelDfa(dfa, pool, 2 + random.nextInt(6));
+
+					assertThat(parallel.matches(input)).as(pattern + " " + input).isEqualTo(dfa.matches(input));
+					assertThat(parallel.longestMatch(input, 1, input.length())).as(pattern + " " + input)
+							.isEqualTo(dfa.longestMatch(input, 1, input.length()));
+					assertThat(parallel.countMatchingPrefixes(input, 0, input.length())).as(pattern + " " + input)
+							.isEqualTo(countSequentially(dfa, input));
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void countsLinesOfALargeInput() throws Exception {
+		StringBuilder builder = new StringBuilder();
+		for (int line = 0; line < 100_000; line++) {
+			builder.append("line ").append(line).append('\n');
+		}
+		ParallelDfa lines = new ParallelDfa(Dfa.compile(parse("([^\\n]*\\n)*")), ForkJoinPool.commonPool(),
+				4096);
+
+		assertThat(lines.countMatchingPrefixes(builder, 0, builder.length())).isEqualTo(100_000);
+		assertThat(lines.matches(builder)).isTrue();
+		assertThat(lines.matches(builder.append("no newline"))).isFalse();
+	}
+
+	@Test
+	public void rejectsTinyChunks() throws Exception {
+		Dfa dfa = Dfa.compile(parse("a"));
+
+		assertThatIllegalArgumentException().isThrownBy(() -> new ParallelDfa(dfa, ForkJoinPool.commonPool(), 1))
+				.withMessage("Invalid chunk size 1.");
+	}
+
+}
@@ -0,0 +1,124 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.PARSER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link PatternCache}.
+ */
+public class PatternCacheTest {
+
+	@Test
+	public void repeatedPatternsAreBuiltOnce() throws Exception {
+		AtomicInteger builds = new AtomicInteger();
+		PatternCache<Dfa> cache = new PatternCache<>(PARSER, expr -> {
+			builds.incrementAndGet();
+			return Dfa.compile(expr);
+		}, 10);
+
+		Dfa first = cache.automaton("(a|b)*abb");
+		Dfa second = cache.automaton("(a|b)*abb");
+
+		assertThat(second).isSameAs(first);
+		assertThat(first.matches("babb")).isTrue();
+		assertThat(builds).hasValue(1);
+		assertThat(cache.misses()).isEqualTo(1);
+		assertThat(cache.hits()).isEqualTo(1);
+	}
+
+	@Test
+	public void leastRecentlyUsedPatternsAreEvicted() throws Exception {
+		PatternCache<Dfa> cache = new PatternCache<>(PARSER, Dfa::compile, 6, entry -> entry.pattern().length());
+
+		cache.get("abc");
+		cache.get("de");
+		cache.get("abc");
+		cache.get("fg");
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.weight()).isEqualTo(5);
+		assertThat(cache.evictions()).isEqualTo(1);
+		cache.get("abc");
+		assertThat(cache.misses()).isEqualTo(3);
+	}
+
+	@Test
+	public void invalidPatternsAreNotCached() {
+		PatternCache<Dfa> cache = new PatternCache<>(PARSER, Dfa::compile, 10);
+
+		for (int i = 0; i < 2; i++) {
+			assertThatExceptionOfType(RedeggsParseException.class).isThrownBy(() -> cache.get("(a"));
+		}
+		assertThat(cache.size()).isZero();
+		assertThat(cache.misses()).isEqualTo(2);
+	}
+
+	@Test
+	public void concurrentRequestsShareOneBuild() throws Exception {
+		int threads = 8;
+		CountDownLatch waiting = new CountDownLatch(threads);
+		AtomicInteger builds = new AtomicInteger();
+		PatternCache<Dfa> cache = new PatternCache<>(PARSER, expr -> {
+			builds.incrementAndGet();
+			try {
+				// hold the build until every thread has asked for the pattern
+				waiting.await(200, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return Dfa.compile(expr);
+		}, 10);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Dfa>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> {
+					waiting.countDown();
+					return cache.automaton("[a-z]*@[a-z]*");
+				}));
+			}
+			Dfa expected = results.get(0).get();
+			for (Future<Dfa> result : results) {
+				assertThat(result.get()).isSameAs(expected);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(builds).hasValue(1);
+		assertThat(cache.misses()).isEqualTo(1);
+		assertThat(cache.hits() + cache.misses()).isLessThanOrEqualTo(threads);
+	}
+
+	@Test
+	public void recursiveRequestsFailInsteadOfDeadlocking() throws Exception {
+		List<PatternCache<Dfa>> self = new ArrayList<>();
+		PatternCache<Dfa> cache = new PatternCache<>(PARSER, expr -> {
+			try {
+				return self.get(0).automaton("(a|b)*");
+			} catch (RedeggsParseException e) {
+				throw new AssertionError(e);
+			}
+		}, 10);
+		self.add(cache);
+
+		assertThatIllegalStateException().isThrownBy(() -> cache.automaton("(a|b)*"))
+				.withMessage("Recursive request for pattern '(a|b)*'.");
+		assertThat(cache.size()).isZero();
+		assertThat(cache.misses()).isEqualTo(1);
+	}
+
+}
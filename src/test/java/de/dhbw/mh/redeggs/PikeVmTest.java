@@ -0,0 +1,92 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.CodePointRange.range;
+import static de.dhbw.mh.redeggs.CodePointRange.single;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptySet;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptyWord;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * Unit tests for the {@link ThompsonCompiler} and the {@link PikeVm}.
+ */
+public class PikeVmTest {
+
+	/** The factory used to create symbols. */
+	private final IntervalSymbolFactory factory = new IntervalSymbolFactory();
+
+	private RegularEggspression chars(int first, int last) {
+		return new Literal(factory.newSymbol().include(range(first, last)).andNothingElse());
+	}
+
+	private RegularEggspression word(String word) {
+		RegularEggspression result = new EmptyWord();
+		for (int codePoint : word.codePoints().toArray()) {
+			result = new Concatenation(result, new Literal(factory.newSymbol().include(single(codePoint)).andNothingElse()));
+		}
+		return result;
+	}
+
+	@Test
+	public void matchesConcatenationAndAlternation() {
+		// (foo|bar)[0-9]*baz
+		RegularEggspression expr = new Concatenation(
+				new Concatenation(new Alternation(word("foo"), word("bar")), new Star(chars('0', '9'))), word("baz"));
+		PikeVm vm = PikeVm.of(expr);
+
+		assertThat(vm.matches("foobaz")).isTrue();
+		assertThat(vm.matches("bar1234baz")).isTrue();
+		assertThat(vm.matches("bar1234ba")).isFalse();
+		assertThat(vm.matches("baz")).isFalse();
+		assertThat(vm.matches("")).isFalse();
+	}
+
+	@Test
+	public void findsTheLongestMatch() {
+		PikeVm vm = PikeVm.of(new Star(new Alternation(word("ab"), word("a"))));
+
+		assertThat(vm.longestMatch("abaabx", 0, 6)).isEqualTo(5);
+		assertThat(vm.longestMatch("abaabx", 5, 6)).isEqualTo(5);
+		assertThat(vm.longestMatch("abaabx", 1, 4)).isEqualTo(1);
+	}
+
+	@Test
+	public void handlesEmptyWordAndEmptySet() {
+		assertThat(PikeVm.of(new EmptyWord()).matches("")).isTrue();
+		assertThat(PikeVm.of(new EmptyWord()).matches("a")).isFalse();
+		assertThat(PikeVm.of(new EmptySet()).longestMatch("", 0, 0)).isEqualTo(-1);
+		assertThat(PikeVm.of(new Star(new EmptySet())).matches("")).isTrue();
+		assertThat(PikeVm.of(new Star(new Star(new EmptyWord()))).matches("")).isTrue();
+		assertThat(PikeVm.of(new Alternation(new EmptySet(), word("x"))).matches("x")).isTrue();
+	}
+
+	@Test
+	public void matchesSupplementaryCodePoints() {
+		PikeVm vm = PikeVm.of(new Concatenation(new Star(chars(0x1F600, 0x1F64F)), word("!")));
+
+		assertThat(vm.matches("😀🙏!")).isTrue();
+		assertThat(vm.matches("🙐!")).isFalse();
+		assertThat(vm.longestMatch("😀!", 0, 1)).isEqualTo(-1);
+	}
+
+	@Test
+	public void doesNotBlowUpOnPathologicalPatterns() {
+		// (a|a)*(a|a)*...b against a long run of a's is exponential for backtrackers
+		RegularEggspression expr = word("");
+		for (int i = 0; i < 20; i++) {
+			expr = new Concatenation(expr, new Star(new Alternation(word("a"), word("a"))));
+		}
+		expr = new Concatenation(expr, word("b"));
+		PikeVm vm = PikeVm.of(expr);
+
+		assertThat(vm.matches("a".repeat(10_000))).isFalse();
+		assertThat(vm.matches("a".repeat(10_000) + "b")).isTrue();
+	}
+
+}
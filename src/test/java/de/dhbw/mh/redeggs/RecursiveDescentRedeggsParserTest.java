@@ -171,6 +171,34 @@ public class RecursiveDescentRedeggsParserTest {
 		assertThat(expr.accept(INSPECTOR)).isEqualTo("([\\u0061]([\\u0062]|[\\u0063]))");
 	}
 	
+	@Test
+	public void deeplyNestedGroupsDoNotNeedADeepStack() throws Exception {
+		int depth = 100_000;
+		RecursiveDescentRedeggsParser parser = new RecursiveDescentRedeggsParser(new IntervalSymbolFactory());
+		RegularEggspression[] parsed = new RegularEggspression[1];
+		Exception[] failure = new Exception[1];
+		Thread thread = new Thread(null, () -> {
+			try {
+				parsed[0] = parser.parse("(a".repeat(depth) + ")*".repeat(depth));
+				parser.parse("(".repeat(depth));
+			} catch (Exception e) {
+				failure[0] = e;
+			}
+		}, "small stack", 256 * 1024);
+		thread.start();
+		thread.join();
+
+		int stars = 0;
+		for (RegularEggspression node = parsed[0]; node instanceof Star;) {
+			stars++;
+			RegularEggspression base = ((Star) node).base();
+			node = (base instanceof Concatenation) ? ((Concatenation) base).right() : null;
+		}
+		assertThat(stars).isEqualTo(depth);
+		assertThat(failure[0]).isInstanceOf(RedeggsParseException.class)
+				.hasMessage("Input ended unexpectedly, expected an expression at position %d.", depth + 1);
+	}
+
 	@Test
 	public void missingRightParenThrowsException() throws RedeggsParseException {
 		String input = "((e)";
@@ -190,4 +218,52 @@ public class RecursiveDescentRedeggsParserTest {
 				.isThrownBy(() -> parser.parse(input)).withMessage("Unexpected symbol ')' at position 6.");
 	}
 
+	@Test
+	public void testSliceOfCharArray() throws Exception {
+		char[] input = "xx(a|b)*yy".toCharArray();
+
+		RegularEggspression expr = parser.parse(input, 2, 6);
+
+		assertThat(expr).isInstanceOf(Star.class);
+		assertThat(expr.accept(INSPECTOR)).isEqualTo("(([\\u0061]|[\\u0062]))*");
+	}
+
+	@Test
+	public void testEscapesAndSupplementaryCodePoints() throws Exception {
+		RegularEggspression expr = parser.parse("\\*\\u0041🥚");
+
+		assertThat(expr.accept(INSPECTOR)).isEqualTo("(([\\u002A][\\u0041])[\\u1F95A])");
+	}
+
+	@Test
+	public void asciiLiteralsShareTheirSymbol() throws Exception {
+		Concatenation expr = (Concatenation) parser.parse("aa");
+
+		assertThat(((Literal) expr.left()).symbol()).isSameAs(((Literal) expr.right()).symbol());
+	}
+
+	@Test
+	public void negatedClassesExcludeTheirRanges() throws Exception {
+		RecursiveDescentRedeggsParser intervals = new RecursiveDescentRedeggsParser(new IntervalSymbolFactory());
+
+		Literal expr = (Literal) intervals.parse("[^a-c\\]]");
+
+		assertThat(expr.symbol().contains('b')).isFalse();
+		assertThat(expr.symbol().contains(']')).isFalse();
+		assertThat(expr.symbol().contains('d')).isTrue();
+	}
+
+	@Test
+	public void errorOffsetsPointAtTheOffendingSymbol() {
+		assertThatExceptionOfType(RedeggsParseException.class).isThrownBy(() -> parser.parse("a|*b"))
+				.withMessage("Unexpected symbol '*' at position 3.")
+				.satisfies(e -> assertThat(e.getErrorOffset()).isEqualTo(2));
+		assertThatExceptionOfType(RedeggsParseException.class).isThrownBy(() -> parser.parse("[z-a]"))
+				.withMessage("Invalid range 'z-a' at position 2.")
+				.satisfies(e -> assertThat(e.getErrorOffset()).isEqualTo(1));
+		assertThatExceptionOfType(RedeggsParseException.class).isThrownBy(() -> parser.parse("ab[c"))
+				.withMessage("Input ended unexpectedly, expected symbol ']' at position 5.")
+				.satisfies(e -> assertThat(e.getErrorOffset()).isEqualTo(4));
+	}
+
 }
@@ -0,0 +1,137 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.PARSER;
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Unit tests for the {@link RedeggsMetrics} and the Flight Recorder events of
+ * {@link RedeggsEvents}.
+ */
+public class RedeggsMetricsTest {
+
+	@TempDir
+	Path directory;
+
+	private static Map<String, Long> snapshot() {
+		Map<String, Long> values = new HashMap<>();
+		RedeggsMetrics.collect((name, description, value) -> values.put(name, value));
+		return values;
+	}
+
+	@Test
+	public void countersGrowWithTheWork() throws Exception {
+		Map<String, Long> before = snapshot();
+
+		Dfa.compile(parse("a(b|c)*"));
+		assertThatThrownBy(() -> parse("(a")).isInstanceOf(RedeggsParseException.class);
+
+		Map<String, Long> after = snapshot();
+		assertThat(after.get("redeggs.parse.count") - before.get("redeggs.parse.count")).isGreaterThanOrEqualTo(1);
+		assertThat(after.get("redeggs.parse.failures") - before.get("redeggs.parse.failures"))
+				.isGreaterThanOrEqualTo(1);
+		assertThat(after.get("redeggs.compile.count") - before.get("redeggs.compile.count"))
+				.isGreaterThanOrEqualTo(1);
+		assertThat(after.get("redeggs.determinize.states")).isGreaterThan(before.get("redeggs.determinize.states"));
+		assertThat(after).containsKeys("redeggs.parse.nanos", "redeggs.compile.nanos", "redeggs.cache.evictions");
+	}
+
+	@Test
+	public void flightRecorderEventsCarrySizes() throws Exception {
+		Path dump = directory.resolve("redeggs.jfr");
+		RegularEggspression expression;
+		try (Recording recording = new Recording()) {
+			recording.enable("de.dhbw.mh.redeggs.Parse");
+			recording.enable("de.dhbw.mh.redeggs.Compile");
+			recording.enable("de.dhbw.mh.redeggs.Determinize");
+			recording.enable("de.dhbw.mh.redeggs.CacheEviction");
+			recording.start();
+
+			expression = parse("ab*|ab");
+			Dfa.compile(expression);
+			PatternCache<Dfa> cache = new PatternCache<>(PARSER, Dfa::compile, 1);
+			cache.get("x");
+			cache.get("y");
+
+			recording.stop();
+			recording.dump(dump);
+		}
+		Map<String, RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+				.filter(event -> event.getEventType().getName().startsWith("de.dhbw.mh.redeggs."))
+				.collect(Collectors.toMap(event -> event.getEventType().getName(), Function.identity(),
+						(first, second) -> first));
+
+		RecordedEvent parse = events.get("de.dhbw.mh.redeggs.Parse");
+		assertThat(parse.getInt("patternHash")).isEqualTo(expression.hashCode());
+		assertThat(parse.getInt("patternLength")).isEqualTo(6);
+		assertThat(parse.getInt("nodeCount")).isEqualTo(RedeggsEvents.nodeCount(expression));
+		assertThat(parse.getInt("symbolCount")).isEqualTo(2);
+		assertThat(parse.getBoolean("failed")).isFalse();
+
+		RecordedEvent compile = events.get("de.dhbw.mh.redeggs.Compile");
+		assertThat(compile.getInt("patternHash")).isEqualTo(expression.hashCode());
+		assertThat(compile.getInt("stateCount")).isEqualTo(Dfa.compile(expression).stateCount());
+		assertThat(compile.getDuration().isNegative()).isFalse();
+
+		assertThat(events.get("de.dhbw.mh.redeggs.Determinize").getInt("stateCount")).isPositive();
+		assertThat(events.get("de.dhbw.mh.redeggs.CacheEviction").getInt("patternHash"))
+				.isEqualTo(parse("x").hashCode());
+	}
+
+	@Test
+	public void failuresAreRecordedAsFlaggedEvents() throws Exception {
+		Path dump = directory.resolve("failures.jfr");
+		RegularEggspression expression = parse("(a|b)*a(a|b)(a|b)(a|b)");
+		try (Recording recording = new Recording()) {
+			recording.enable("de.dhbw.mh.redeggs.Parse");
+			recording.enable("de.dhbw.mh.redeggs.Determinize");
+			recording.start();
+
+			assertThatThrownBy(() -> parse("(a")).isInstanceOf(RedeggsParseException.class);
+			assertThatThrownBy(() -> Dfa.determinize(Nfa.compile(expression), 4))
+					.isInstanceOf(IllegalStateException.class);
+
+			recording.stop();
+			recording.dump(dump);
+		}
+		Map<String, RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+				.filter(event -> event.getEventType().getName().startsWith("de.dhbw.mh.redeggs."))
+				.collect(Collectors.toMap(event -> event.getEventType().getName(), Function.identity(),
+						(first, second) -> first));
+
+		RecordedEvent parse = events.get("de.dhbw.mh.redeggs.Parse");
+		assertThat(parse.getBoolean("failed")).isTrue();
+		assertThat(parse.getInt("patternLength")).isEqualTo(2);
+		assertThat(parse.getStackTrace()).isNull();
+
+		RecordedEvent determinize = events.get("de.dhbw.mh.redeggs.Determinize");
+		assertThat(determinize.getBoolean("failed")).isTrue();
+		assertThat(determinize.getInt("nfaStateCount")).isPositive();
+	}
+
+	@Test
+	public void nodesAreCountedOncePerSharedSubtree() throws Exception {
+		NodeFactory nodes = new NodeFactory();
+		RegularEggspression shared = new RecursiveDescentRedeggsParser(new IntervalSymbolFactory(), nodes)
+				.parse("(ab)(ab)");
+
+		assertThat(RedeggsEvents.nodeCount(shared)).isEqualTo(4);
+		assertThat(RedeggsEvents.symbolCount(shared)).isEqualTo(2);
+		assertThat(RedeggsEvents.nodeCount(parse("(ab)(ab)"))).isEqualTo(7);
+	}
+
+}
@@ -0,0 +1,145 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link RegexSet}.
+ */
+public class RegexSetTest {
+
+	private List<RegularEggspression> parseAll(String... patterns) throws Exception {
+		List<RegularEggspression> rules = new ArrayList<>();
+		for (String pattern : patterns) {
+			rules.add(parse(pattern));
+		}
+		return rules;
+	}
+
+	/**
+	 * Checks whether the DFA matches any part of the input.
+	 */
+	private static boolean occursIn(Dfa dfa, String input) {
+		for (int start = 0; start <= input.length(); start++) {
+			if (dfa.longestMatch(input, start, input.length()) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Test
+	public void reportsEveryMatchingRule() throws Exception {
+		RegexSet set = new RegexSet(parseAll("[a-z]*", "[0-9][0-9]*", "foo[a-z]*", "∅", "ε"));
+
+		assertThat(set.ruleCount()).isEqualTo(5);
+		assertThat(set.matchingRules("foobar")).isEqualTo(BitSet.valueOf(new long[] { 0b00101 }));
+		assertThat(set.matchingRules("42")).isEqualTo(BitSet.valueOf(new long[] { 0b00010 }));
+		assertThat(set.matchingRules("")).isEqualTo(BitSet.valueOf(new long[] { 0b10001 }));
+		assertThat(set.matchingRules("foo42")).isEqualTo(new BitSet());
+		assertThat(set.matchesAny("foo42")).isFalse();
+	}
+
+	@Test
+	public void unanchoredRulesMatchAnywhere() throws Exception {
+		RegexSet set = RegexSet.unanchored(parseAll("error", "warn(ing|ε)", "[0-9][0-9][0-9]", "∅"));
+
+		assertThat(set.matchingRules("GET /index 404 error")).isEqualTo(BitSet.valueOf(new long[] { 0b0101 }));
+		assertThat(set.matchingRules("warning: disk at 99%")).isEqualTo(BitSet.valueOf(new long[] { 0b0010 }));
+		assertThat(set.matchesAny("all good")).isFalse();
+	}
+
+	@Test
+	public void agreesWithMatchingTheRulesOneByOne() throws Exception {
+		String alphabet = "abc01";
+		Random random = new Random(24);
+		List<String> patterns = new ArrayList<>();
+		for (int rule = 0; rule < 150; rule++) {
+			StringBuilder pattern = new StringBuilder();
+			for (int j = 1 + random.nextInt(4); j > 0; j--) {
+				char c = alphabet.charAt(random.nextInt(alphabet.length()));
+				switch (random.nextInt(4)) {
+				case 0:
+					pattern.append(c).append('*');
+					break;
+				case 1:
+					pattern.append('(').append(c).append('|').append(alphabet.charAt(random.nextInt(5))).append(')');
+					break;
+				default:
+					pattern.append(c);
+				}
+			}
+			patterns.add(pattern.toString());
+		}
+		List<RegularEggspression> rules = parseAll(patterns.toArray(new String[0]));
+		List<Dfa> dfas = new ArrayList<>();
+		for (RegularEggspression rule : rules) {
+			dfas.add(Dfa.compile(rule));
+		}
+		// a tiny budget forces the caches to be cleared now and then
+		RegexSet anchored = new RegexSet(rules, false, 64 * 1024);
+		RegexSet unanchored = new RegexSet(rules, true, 64 * 1024);
+		long[] matched = new long[anchored.words()];
+		assertThat(matched).hasSize(3);
+
+		for (int i = 0; i < 300; i++) {
+			String input = randomWord(random, alphabet, random.nextInt(12));
+			BitSet expectedAnchored = new BitSet();
+			BitSet expectedUnanchored = new BitSet();
+			for (int rule = 0; rule < dfas.size(); rule++) {
+				expectedAnchored.set(rule, dfas.get(rule).matches(input));
+				expectedUnanchored.set(rule, occursIn(dfas.get(rule), input));
+			}
+
+			assertThat(anchored.match(input, 0, input.length(), matched)).as(input)
+					.isEqualTo(!expectedAnchored.isEmpty());
+			assertThat(BitSet.valueOf(matched)).as(input).isEqualTo(expectedAnchored);
+			assertThat(unanchored.matchingRules(input)).as(input).isEqualTo(expectedUnanchored);
+		}
+		assertThat(anchored.cacheClears() + unanchored.cacheClears()).isPositive();
+	}
+
+	@Test
+	public void fallsBackToTheNfaWhenTheCacheThrashes() throws Exception {
+		List<RegularEggspression> rules = parseAll("(a|b)*a" + "(a|b)".repeat(12), "b*", "(a|b)*bbb(a|b)*");
+		List<Dfa> dfas = new ArrayList<>();
+		for (RegularEggspression rule : rules) {
+			dfas.add(Dfa.compile(rule));
+		}
+		RegexSet anchored = new RegexSet(rules, false, 4_096);
+		RegexSet unanchored = new RegexSet(rules, true, 4_096);
+
+		Random random = new Random(24);
+		for (int i = 0; i < 30; i++) {
+			String input = randomWord(random, "ab", (i < 20) ? 2_000 : random.nextInt(20));
+			BitSet expectedAnchored = new BitSet();
+			BitSet expectedUnanchored = new BitSet();
+			for (int rule = 0; rule < dfas.size(); rule++) {
+				expectedAnchored.set(rule, dfas.get(rule).matches(input));
+				expectedUnanchored.set(rule, occursIn(dfas.get(rule), input));
+			}
+
+			assertThat(anchored.matchingRules(input)).as(input).isEqualTo(expectedAnchored);
+			assertThat(unanchored.matchingRules(input)).as(input).isEqualTo(expectedUnanchored);
+		}
+		assertThat(anchored.isFallingBack()).isTrue();
+	}
+
+	@Test
+	public void rejectsInvalidArguments() throws Exception {
+		assertThatIllegalArgumentException().isThrownBy(() -> new RegexSet(List.of()))
+				.withMessage("At least one rule is required.");
+		assertThatIllegalArgumentException().isThrownBy(() -> new RegexSet(parseAll("a"), true, 0))
+				.withMessage("Memory budget must be positive, got 0.");
+	}
+
+}
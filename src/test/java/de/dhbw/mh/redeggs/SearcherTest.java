@@ -0,0 +1,82 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link Searcher}.
+ */
+public class SearcherTest {
+
+	/**
+	 * Finds the leftmost-longest match by trying every position.
+	 */
+	private static int[] findNaively(Dfa dfa, CharSequence input, int from) {
+		for (int start = from; start <= input.length(); start++) {
+			int end = dfa.longestMatch(input, start, input.length());
+			if (end >= 0) {
+				return new int[] { start, end };
+			}
+		}
+		return null;
+	}
+
+	@Test
+	public void agreesWithTryingEveryPosition() throws Exception {
+		String[] patterns = { "(foo|bar)[0-9]*baz", "[a-z]*ba", "o*", "b(a|o)", "∅", "[0-9][0-9]*" };
+		String alphabet = "fobarz01 ";
+		Random random = new Random(21);
+		for (String pattern : patterns) {
+			RegularEggspression expression = parse(pattern);
+			Dfa dfa = Dfa.compile(expression);
+			Searcher searcher = new Searcher(expression);
+			for (int i = 0; i < 300; i++) {
+				String input = randomWord(random, alphabet, random.nextInt(30));
+				int from = random.nextInt(input.length() + 1);
+				int[] expected = findNaively(dfa, input, from);
+				int[] match = new int[2];
+
+				assertThat(searcher.find(input, from, input.length(), match)).as(pattern + " " + input)
+						.isEqualTo(expected != null);
+				if (expected != null) {
+					assertThat(match).as(pattern + " " + input).containsExactly(expected);
+				}
+				assertThat(searcher.find(new StringBuilder(input), from, input.length(), match))
+						.as(pattern + " " + input).isEqualTo(expected != null);
+			}
+		}
+	}
+
+	@Test
+	public void linesWithoutTheRequiredFactorAreSkipped() throws Exception {
+		Searcher searcher = new Searcher(parse("(foo|bar)[0-9]*baz"));
+		String line = "bar12 foo7 bar".repeat(1000) + "foo42baz";
+		int[] match = new int[2];
+
+		assertThat(searcher.find(line, 0, line.length() - 1, match)).isFalse();
+		assertThat(searcher.find(line, 0, line.length(), match)).isTrue();
+		assertThat(match).containsExactly(line.length() - 8, line.length());
+		assertThat(Searcher.indexOf(new StringBuilder("abcab"), "ab", 1, 5)).isEqualTo(3);
+		assertThat(Searcher.indexOf("abcab", "ab", 1, 4)).isEqualTo(-1);
+	}
+
+	@Test
+	public void literalSearchesStayWithinTheRegion() throws Exception {
+		Searcher searcher = new Searcher(parse("(a|zzz)[0-9]"));
+		String input = "a".repeat(200_000) + "zzz1";
+		int[] match = new int[2];
+
+		assertThat(searcher.find(input, 0, 200_000, match)).isFalse();
+		assertThat(searcher.find(input, 0, input.length(), match)).isTrue();
+		assertThat(match).containsExactly(200_000, 200_004);
+		assertThat(searcher.find(input, 10, 12, match)).isFalse();
+		assertThat(Searcher.indexOf(input, "zzz", 10, 100)).isEqualTo(-1);
+		assertThat(Searcher.indexOf(input, "zzz", 199_000, input.length())).isEqualTo(200_000);
+	}
+
+}
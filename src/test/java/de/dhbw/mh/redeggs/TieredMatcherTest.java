@@ -0,0 +1,74 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link TieredMatcher} and the bytecode generated by the
+ * {@link DfaClassGenerator}.
+ */
+public class TieredMatcherTest {
+
+	@Test
+	public void generatedCodeAgreesWithTheTable() throws Exception {
+		String[] patterns = { "(a|b)*abb", "[a-z][a-z0-9]*|[0-9][0-9]*", "ε", "∅", "(🥚|x)*y", "[^a]*" };
+		Random random = new Random(23);
+		for (String pattern : patterns) {
+			Dfa dfa = Dfa.compile(parse(pattern));
+			TieredMatcher matcher = new TieredMatcher(dfa, 0);
+
+			assertThat(matcher.isCompiled()).as(pattern).isTrue();
+			for (int i = 0; i < 500; i++) {
+				String input = randomWord(random, "abxy0🥚-", random.nextInt(10));
+				int from = random.nextInt(input.length() + 1);
+				assertThat(matcher.longestMatch(input, from, input.length())).as(pattern + " " + input)
+						.isEqualTo(dfa.longestMatch(input, from, input.length()));
+				assertThat(matcher.matches(input)).as(pattern + " " + input).isEqualTo(dfa.matches(input));
+			}
+		}
+	}
+
+	@Test
+	public void bytecodeIsGeneratedAfterTheThreshold() throws Exception {
+		TieredMatcher matcher = new TieredMatcher(Dfa.compile(parse("(a|b)*abb")), 3);
+
+		assertThat(matcher.matches("abb")).isTrue();
+		assertThat(matcher.matches("ab")).isFalse();
+		assertThat(matcher.isCompiled()).isFalse();
+		assertThat(matcher.matches("babb")).isTrue();
+		assertThat(matcher.isCompiled()).isTrue();
+		assertThat(matcher.failure()).isNull();
+	}
+
+	@Test
+	public void neverOnlyCompilesOnRequest() throws Exception {
+		TieredMatcher matcher = new TieredMatcher(Dfa.compile(parse("(a|b)*abb")), TieredMatcher.NEVER);
+		for (int i = 0; i < 100_000; i++) {
+			matcher.matches("abb");
+		}
+
+		assertThat(matcher.isCompiled()).isFalse();
+		assertThat(matcher.compile()).isTrue();
+	}
+
+	@Test
+	public void oversizedAutomataStayInterpreted() throws Exception {
+		// [ab]*a[ab]{11} has a minimal DFA of 4096 live states
+		StringBuilder pattern = new StringBuilder("[ab]*a");
+		for (int i = 0; i < 11; i++) {
+			pattern.append("[ab]");
+		}
+		TieredMatcher matcher = new TieredMatcher(Dfa.compile(parse(pattern.toString())), TieredMatcher.NEVER);
+
+		assertThat(matcher.compile()).isFalse();
+		assertThat(matcher.failure()).isInstanceOf(IllegalStateException.class);
+		assertThat(matcher.matches("ba" + "b".repeat(11))).isTrue();
+		assertThat(matcher.matches("b".repeat(12))).isFalse();
+	}
+
+}
@@ -0,0 +1,130 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.CodePointRange.range;
+import static de.dhbw.mh.redeggs.CodePointRange.single;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.dhbw.mh.redeggs.RegularEggspression.Alternation;
+import de.dhbw.mh.redeggs.RegularEggspression.Concatenation;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptySet;
+import de.dhbw.mh.redeggs.RegularEggspression.EmptyWord;
+import de.dhbw.mh.redeggs.RegularEggspression.Literal;
+import de.dhbw.mh.redeggs.RegularEggspression.Star;
+
+/**
+ * Unit tests for the iterative {@link Traversal} of expressions.
+ */
+public class TraversalTest {
+
+	/** The factory used to create symbols. */
+	private final IntervalSymbolFactory factory = new IntervalSymbolFactory();
+
+	private RegularEggspression chars(int first, int last) {
+		return new Literal(factory.newSymbol().include(range(first, last)).andNothingElse());
+	}
+
+	private RegularEggspression character(int codePoint) {
+		return new Literal(factory.newSymbol().include(single(codePoint)).andNothingElse());
+	}
+
+	/**
+	 * A visitor that records every callback and counts the visited nodes.
+	 */
+	private static class Recorder implements RegularEggspression.Visitor<Integer> {
+
+		private final List<String> calls = new ArrayList<>();
+
+		@Override
+		public Integer visit(EmptyWord emptyWord) {
+			calls.add("ε");
+			return 1;
+		}
+
+		@Override
+		public Integer visit(EmptySet emptySet) {
+			calls.add("∅");
+			return 1;
+		}
+
+		@Override
+		public Integer visitPost(Concatenation concat, Integer prefix, Integer suffix) {
+			calls.add("concat " + prefix + " " + suffix);
+			return prefix + suffix + 1;
+		}
+
+		@Override
+		public Integer visitPost(Alternation union, Integer first, Integer second) {
+			calls.add("union " + first + " " + second);
+			return first + second + 1;
+		}
+
+		@Override
+		public Integer visitPost(Star star, Integer base) {
+			calls.add("star " + base);
+			return base + 1;
+		}
+
+		@Override
+		public Integer visitPost(Literal literal, VirtualSymbol symbol) {
+			calls.add(symbol.toString());
+			return 1;
+		}
+	}
+
+	@Test
+	public void callbacksFollowTheRecursiveOrder() {
+		RegularEggspression expr = new Alternation(
+				new Concatenation(new Star(chars('a', 'b')), new Concatenation(character('a'), new EmptyWord())),
+				new Star(new Alternation(new EmptySet(), character('c'))));
+		Recorder recursive = new Recorder();
+		Recorder iterative = new Recorder();
+
+		assertThat(Traversal.postOrder(expr, iterative)).isEqualTo(expr.accept(recursive)).isEqualTo(11);
+		assertThat(iterative.calls).isEqualTo(recursive.calls);
+		assertThat(Traversal.postOrder(expr, new NodeInspector())).isEqualTo(expr.accept(new NodeInspector()));
+	}
+
+	@Test
+	public void deepExpressionsDoNotOverflowTheStack() {
+		// a keyword list of 50,000 letters, nested as deeply as the parser would
+		int length = 50_000;
+		StringBuilder input = new StringBuilder();
+		RegularEggspression expr = character('k');
+		input.append('k');
+		for (int i = 1; i < length; i++) {
+			char letter = "eyword".charAt(i % 6);
+			expr = new Concatenation(expr, character(letter));
+			input.append(letter);
+		}
+
+		assertThat(Traversal.postOrder(expr, new Recorder())).isEqualTo(2 * length - 1);
+		NodeFactory nodes = new NodeFactory();
+		nodes.share(expr);
+		// ε, ∅, the seven letters of "keyword" and one concatenation per prefix
+		assertThat(nodes.size()).isEqualTo(2 + 7 + length - 1);
+		assertThat(PikeVm.of(expr).matches(input)).isTrue();
+		DerivativeMatcher matcher = new DerivativeMatcher(expr);
+		assertThat(matcher.matches(input)).isTrue();
+		assertThat(matcher.matches(input.substring(1))).isFalse();
+	}
+
+	@Test
+	public void sharedSubtreesAreEvaluatedOnce() {
+		NodeFactory nodes = new NodeFactory();
+		RegularEggspression expr = nodes.literal(factory.newSymbol().include(single('a')).andNothingElse());
+		for (int i = 0; i < 40; i++) {
+			expr = nodes.concatenation(expr, expr);
+		}
+		Recorder recorder = new Recorder();
+
+		Traversal.postOrderShared(expr, recorder);
+
+		assertThat(recorder.calls).hasSize(41);
+	}
+
+}
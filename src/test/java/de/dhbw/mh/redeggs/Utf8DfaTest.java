@@ -0,0 +1,80 @@
+package de.dhbw.mh.redeggs;
+
+import static de.dhbw.mh.redeggs.Fixtures.parse;
+import static de.dhbw.mh.redeggs.Fixtures.randomWord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the byte-level {@link Utf8Dfa} and the {@link Utf8Sequences}
+ * it is built from.
+ */
+public class Utf8DfaTest {
+
+	private static String format(List<int[]> sequences) {
+		return sequences.stream().map(sequence -> {
+			StringBuilder builder = new StringBuilder();
+			for (int i = 0; i < sequence.length; i += 2) {
+				builder.append(String.format(
+						sequence[i] == sequence[i + 1] ? "[%02X]" : "[%02X-%02X]", sequence[i], sequence[i + 1]));
+			}
+			return builder.toString();
+		}).collect(Collectors.joining(" "));
+	}
+
+	@Test
+	public void theWholeCodeSpaceSplitsIntoNineSequences() {
+		List<int[]> sequences = Utf8Sequences.of(new int[] { 0, Character.MAX_CODE_POINT });
+
+		assertThat(format(sequences)).isEqualTo("[00-7F] [C2-DF][80-BF] [E0][A0-BF][80-BF] [E1-EC][80-BF][80-BF] "
+				+ "[ED][80-9F][80-BF] [EE-EF][80-BF][80-BF] [F0][90-BF][80-BF][80-BF] [F1-F3][80-BF][80-BF][80-BF] "
+				+ "[F4][80-8F][80-BF][80-BF]");
+	}
+
+	@Test
+	public void rangesAreCutAtContinuationBoundaries() {
+		assertThat(format(Utf8Sequences.of(new int[] { 0x3B1, 0x3C9 }))).isEqualTo("[CE][B1-BF] [CF][80-89]");
+		assertThat(format(Utf8Sequences.of(new int[] { 'a', 'a', 0xD800, 0xDFFF }))).isEqualTo("[61]");
+	}
+
+	@Test
+	public void agreesWithTheCodePointDfa() throws Exception {
+		String[] patterns = { "[^a]*a", "[α-ω][α-ω]*|[a-z]", "(€|🥚|[\\u0080-\\uFFFF])*x", "[^\\u0000-\\u007F]" };
+		String alphabet = "aαω€🥚xé߿￿";
+		Random random = new Random(13);
+		for (String pattern : patterns) {
+			RegularEggspression expr = parse(pattern);
+			Dfa expected = Dfa.compile(expr);
+			Utf8Dfa utf8 = Utf8Dfa.compile(expr);
+
+			for (int i = 0; i < 500; i++) {
+				String input = randomWord(random, alphabet, random.nextInt(8));
+				byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+				int end = expected.longestMatch(input, 0, input.length());
+				int expectedEnd = (end < 0) ? -1 : input.substring(0, end).getBytes(StandardCharsets.UTF_8).length;
+
+				assertThat(utf8.longestMatch(bytes, 0, bytes.length)).as(pattern + " " + input).isEqualTo(expectedEnd);
+				assertThat(utf8.matches(bytes)).as(pattern + " " + input).isEqualTo(expected.matches(input));
+			}
+		}
+	}
+
+	@Test
+	public void malformedInputNeverMatches() throws Exception {
+		Utf8Dfa anything = Utf8Dfa.compile(parse("[\\u0000-\\uFFFF]*"));
+
+		assertThat(anything.matches("ok ä €".getBytes(StandardCharsets.UTF_8))).isTrue();
+		// an overlong encoding of '/', a lone continuation byte and an encoded surrogate
+		assertThat(anything.matches(new byte[] { (byte) 0xC0, (byte) 0xAF })).isFalse();
+		assertThat(anything.matches(new byte[] { (byte) 0x80 })).isFalse();
+		assertThat(anything.matches(new byte[] { (byte) 0xED, (byte) 0xA0, (byte) 0x80 })).isFalse();
+		assertThat(anything.dfa().classCount()).isLessThan(12);
+	}
+
+}